@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks;
+
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.abstraction.MessagePublishInfoImpl;
+import org.wso2.andes.framing.amqp_0_91.BasicPublishBodyImpl;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.MessagingEngine;
+import org.wso2.andes.kernel.registry.MessageRouterRegistry;
+import org.wso2.andes.server.ClusterResourceHolder;
+import org.wso2.andes.server.cluster.ClusterManager;
+import org.wso2.andes.server.message.MessageMetaData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Brings up the parts of the broker kernel the benchmarks run against, in standalone mode and without transports or
+ * a database. Configuration is read from a broker.xml that only sets the bind addresses, hence every other value is
+ * the default of {@link AndesConfiguration}. Set the carbon.config.dir.path system property to run against another
+ * broker.xml.
+ * <p>
+ * Benchmarks run in a forked JVM of their own, hence the environment is brought up once per JVM and never torn down.
+ */
+public final class BenchmarkEnvironment {
+
+    private static final String BROKER_XML = "<broker>\n"
+            + "    <transports>\n"
+            + "        <amqp>\n"
+            + "            <bindAddress>127.0.0.1</bindAddress>\n"
+            + "        </amqp>\n"
+            + "        <mqtt>\n"
+            + "            <bindAddress>127.0.0.1</bindAddress>\n"
+            + "        </mqtt>\n"
+            + "    </transports>\n"
+            + "</broker>\n";
+
+    /**
+     * Symbols content is generated from. Content drawn from a small alphabet compresses roughly as text payloads do.
+     */
+    private static final byte[] CONTENT_ALPHABET = "{}\":,0123456789abcdefghijklmnop".getBytes(StandardCharsets.UTF_8);
+
+    private static boolean configurationInitialised;
+
+    private static StubMessageStore messageStore;
+
+    private BenchmarkEnvironment() {
+    }
+
+    /**
+     * Load the broker configuration. Must be called before any class reading configuration is loaded.
+     *
+     * @throws AndesException if the configuration could not be written or loaded
+     */
+    public static synchronized void initialiseConfiguration() throws AndesException {
+        if (configurationInitialised) {
+            return;
+        }
+        if (null == System.getProperty(AndesConfigurationManager.CARBON_CONFIG_DIR_PATH)) {
+            try {
+                File configDirectory = Files.createTempDirectory("andes-benchmarks").toFile();
+                configDirectory.deleteOnExit();
+                File brokerXml = new File(configDirectory, "broker.xml");
+                brokerXml.deleteOnExit();
+                Files.write(brokerXml.toPath(), BROKER_XML.getBytes(StandardCharsets.UTF_8));
+                System.setProperty(AndesConfigurationManager.CARBON_CONFIG_DIR_PATH, configDirectory.getPath());
+            } catch (IOException e) {
+                throw new AndesException("Error occurred while writing the benchmark broker configuration", e);
+            }
+        }
+        AndesConfigurationManager.initialize(0);
+        configurationInitialised = true;
+    }
+
+    /**
+     * Initialise the messaging engine over a {@link StubMessageStore}, with an empty message router registry
+     *
+     * @return the stub store messages are persisted to
+     * @throws AndesException if the kernel could not be initialised
+     */
+    public static synchronized StubMessageStore initialiseKernel() throws AndesException {
+        if (null != messageStore) {
+            return messageStore;
+        }
+        initialiseConfiguration();
+
+        StubMessageStore store = new StubMessageStore();
+        AndesContext.getInstance().setMessageStore(store.asMessageStore());
+        AndesContext.getInstance().setMessageRouterRegistry(new MessageRouterRegistry());
+        ClusterResourceHolder.getInstance().setClusterManager(new ClusterManager());
+        MessagingEngine.getInstance().initialise(store.asMessageStore(), null, null);
+
+        messageStore = store;
+        return messageStore;
+    }
+
+    /**
+     * Create the content of a message, cut into parts of the maximum content chunk size as the inbound disruptor
+     * stores it. The same content is created for a given size.
+     *
+     * @param messageId   id of the message the content belongs to
+     * @param contentSize length of the content
+     * @return content parts, in order of their offsets
+     */
+    public static List<AndesMessagePart> createContent(long messageId, int contentSize) {
+        int maxChunkSize = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE);
+        byte[] content = createContentBytes(contentSize);
+
+        List<AndesMessagePart> parts = new ArrayList<>();
+        for (int offset = 0; offset < contentSize; offset = offset + maxChunkSize) {
+            byte[] data = new byte[Math.min(maxChunkSize, contentSize - offset)];
+            System.arraycopy(content, offset, data, 0, data.length);
+            AndesMessagePart part = new AndesMessagePart();
+            part.setMessageID(messageId);
+            part.setOffSet(offset);
+            part.setData(data);
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    /**
+     * Create content bytes of the given length. The same bytes are created for a given length.
+     *
+     * @param contentSize length of the content
+     * @return the content
+     */
+    public static byte[] createContentBytes(int contentSize) {
+        Random random = new Random(contentSize);
+        byte[] content = new byte[contentSize];
+        for (int i = 0; i < contentSize; i++) {
+            content[i] = CONTENT_ALPHABET[random.nextInt(CONTENT_ALPHABET.length)];
+        }
+        return content;
+    }
+
+    /**
+     * Encode the metadata of a persistent AMQP message as the AMQP transport hands it over to Andes. Create
+     * {@link org.wso2.andes.kernel.AndesMessageMetadata} of a message by parsing the encoded metadata.
+     *
+     * @param exchange    exchange the message is published to
+     * @param routingKey  routing key of the message
+     * @param contentSize length of the content of the message
+     * @param chunkCount  number of content chunks the message is received in
+     * @return the encoded metadata
+     */
+    public static byte[] encodeAMQPMetadata(String exchange, String routingKey, int contentSize, int chunkCount) {
+        BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+        properties.setDeliveryMode((byte) BasicContentHeaderProperties.PERSISTENT);
+        ContentHeaderBody contentHeaderBody = new ContentHeaderBody(BasicPublishBodyImpl.CLASS_ID, 0, properties,
+                contentSize);
+        MessagePublishInfoImpl publishInfo = new MessagePublishInfoImpl(new AMQShortString(exchange), false, false,
+                new AMQShortString(routingKey));
+        MessageMetaData metaData = new MessageMetaData(publishInfo, contentHeaderBody, chunkCount);
+
+        byte[] encoded = new byte[1 + metaData.getStorableSize()];
+        encoded[0] = (byte) metaData.getType().ordinal();
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        buffer.position(1);
+        metaData.writeToBuffer(0, buffer.slice());
+        return encoded;
+    }
+}
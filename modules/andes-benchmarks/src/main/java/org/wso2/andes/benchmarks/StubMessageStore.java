@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.MessageStore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MessageStore} that keeps nothing, so that benchmarks measure the kernel rather than a database. Messages
+ * stored are only counted. Content read for any message is content of the configured size, as stored uncompressed.
+ * Every other operation returns an empty result.
+ */
+public class StubMessageStore implements InvocationHandler {
+
+    private final MessageStore messageStore;
+
+    private final AtomicLong storedMessageCount = new AtomicLong();
+
+    /**
+     * Content returned for a message, copied with the id of the message read
+     */
+    private volatile List<AndesMessagePart> content = new ArrayList<>();
+
+    StubMessageStore() {
+        messageStore = (MessageStore) Proxy.newProxyInstance(MessageStore.class.getClassLoader(),
+                new Class<?>[] { MessageStore.class }, this);
+    }
+
+    /**
+     * @return the store, to hand over to the kernel
+     */
+    public MessageStore asMessageStore() {
+        return messageStore;
+    }
+
+    /**
+     * Set the length of the content returned for messages read
+     *
+     * @param contentSize length of the content
+     */
+    public void setContentSize(int contentSize) {
+        content = BenchmarkEnvironment.createContent(0, contentSize);
+    }
+
+    /**
+     * @return number of messages stored since the store was created
+     */
+    public long getStoredMessageCount() {
+        return storedMessageCount.get();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String methodName = method.getName();
+        if ("storeMessages".equals(methodName)) {
+            storedMessageCount.addAndGet(((List<?>) args[0]).size());
+            return null;
+        }
+        if ("storeMessage".equals(methodName) && (args[0] instanceof AndesMessage)) {
+            storedMessageCount.incrementAndGet();
+            return null;
+        }
+        if ("getContent".equals(methodName) && (args[0] instanceof LongArrayList)) {
+            return readContent((LongArrayList) args[0]);
+        }
+        if ("toString".equals(methodName)) {
+            return StubMessageStore.class.getSimpleName();
+        }
+        if ("hashCode".equals(methodName)) {
+            return System.identityHashCode(proxy);
+        }
+        if ("equals".equals(methodName)) {
+            return proxy == args[0];
+        }
+        return emptyResult(method.getReturnType());
+    }
+
+    private LongObjectHashMap<List<AndesMessagePart>> readContent(LongArrayList messageIds) {
+        List<AndesMessagePart> template = content;
+        LongObjectHashMap<List<AndesMessagePart>> contentMap = new LongObjectHashMap<>();
+        for (int i = 0; i < messageIds.size(); i++) {
+            long messageId = messageIds.get(i);
+            List<AndesMessagePart> parts = new ArrayList<>(template.size());
+            for (AndesMessagePart part : template) {
+                parts.add(part.shallowCopy(messageId));
+            }
+            contentMap.put(messageId, parts);
+        }
+        return contentMap;
+    }
+
+    /**
+     * Get the result of an operation that finds nothing in the store
+     */
+    private static Object emptyResult(Class<?> returnType) {
+        if (boolean.class == returnType) {
+            return false;
+        } else if (int.class == returnType) {
+            return 0;
+        } else if (long.class == returnType) {
+            return 0L;
+        } else if (returnType.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        } else if (returnType.isAssignableFrom(HashMap.class)) {
+            return new HashMap<>();
+        } else if (returnType.isAssignableFrom(HashSet.class)) {
+            return new HashSet<>();
+        } else if (LongObjectHashMap.class == returnType) {
+            return new LongObjectHashMap<>();
+        }
+        return null;
+    }
+}
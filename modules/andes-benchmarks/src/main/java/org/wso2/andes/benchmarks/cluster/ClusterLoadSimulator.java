@@ -0,0 +1,703 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs workload profiles against a cluster of Andes nodes started in this JVM. The nodes share an in-memory H2
+ * database and form a Hazelcast cluster over the loopback interface, and each node runs the kernel in a class loader
+ * of its own. Simulated AMQP and MQTT clients publish and subscribe through the Andes API the transports use, so
+ * that a scenario measures the kernel, the stores and the slot coordination rather than the network.
+ * <p>
+ * Run from the benchmarks jar with
+ * {@code java -cp andes-benchmarks.jar org.wso2.andes.benchmarks.cluster.ClusterLoadSimulator -help}
+ */
+public class ClusterLoadSimulator {
+
+    private static Log log = LogFactory.getLog(ClusterLoadSimulator.class);
+
+    public static final int DEFAULT_HAZELCAST_PORT = 5701;
+
+    public static final int DEFAULT_THRIFT_SERVER_PORT = 7611;
+
+    private static final String NODE_ID_PREFIX = "node-";
+
+    /**
+     * Prefix of the names of the database and the Hazelcast cluster of a run
+     */
+    private static final String RUN_NAME_PREFIX = "andes-simulation-";
+
+    private static final String LOOPBACK_ADDRESS = "127.0.0.1";
+
+    /**
+     * Time to wait for bindings to reach all nodes before the load starts
+     */
+    private static final long BINDING_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * Time to wait for a killed node to go down, and for another node to take over as the coordinator
+     */
+    private static final long FAULT_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Time without deliveries after which messages in flight are considered drained
+     */
+    private static final long DRAIN_QUIET_MILLIS = 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final int hazelcastPort;
+
+    private final int thriftServerPort;
+
+    public ClusterLoadSimulator() {
+        this(DEFAULT_HAZELCAST_PORT, DEFAULT_THRIFT_SERVER_PORT);
+    }
+
+    /**
+     * @param hazelcastPort    port of the first node's Hazelcast instance, later nodes take the ports after it
+     * @param thriftServerPort thrift port of the first node, later nodes take the ports after it
+     */
+    public ClusterLoadSimulator(int hazelcastPort, int thriftServerPort) {
+        this.hazelcastPort = hazelcastPort;
+        this.thriftServerPort = thriftServerPort;
+    }
+
+    /**
+     * Run a scenario on a cluster started for it. The cluster and its database are discarded once the scenario
+     * completes.
+     *
+     * @param scenario scenario to run
+     * @return outcome of the scenario
+     * @throws Exception if the cluster fails to start or the workload cannot be set up
+     */
+    public ScenarioReport run(Scenario scenario) throws Exception {
+        return new ScenarioRun(scenario).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = 3;
+        long durationMillis = 60000;
+        long drainMillis = 10000;
+        int hazelcastPort = DEFAULT_HAZELCAST_PORT;
+        int thriftServerPort = DEFAULT_THRIFT_SERVER_PORT;
+        List<WorkloadProfile> profiles = new ArrayList<>();
+        List<Fault> faults = new ArrayList<>();
+        Map<String, String> configuration = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("-help".equals(option)) {
+                printUsage();
+                return;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("No value given for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "-nodes":
+                    nodeCount = Integer.parseInt(value);
+                    break;
+                case "-duration":
+                    durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                    break;
+                case "-drain":
+                    drainMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                    break;
+                case "-profiles":
+                    for (String name : value.split(",")) {
+                        profiles.add(WorkloadProfiles.forName(name.trim()));
+                    }
+                    break;
+                case "-profile-class":
+                    profiles.add(Class.forName(value).asSubclass(WorkloadProfile.class).newInstance());
+                    break;
+                case "-kill-node":
+                    String[] kill = value.split("@");
+                    faults.add(Fault.killNode(Integer.parseInt(kill[0]),
+                            TimeUnit.SECONDS.toMillis(Long.parseLong(kill[1]))));
+                    break;
+                case "-kill-coordinator":
+                    faults.add(Fault.killCoordinator(TimeUnit.SECONDS.toMillis(Long.parseLong(value))));
+                    break;
+                case "-config":
+                    int separator = value.indexOf('=');
+                    configuration.put(value.substring(0, separator), value.substring(separator + 1));
+                    break;
+                case "-hazelcast-port":
+                    hazelcastPort = Integer.parseInt(value);
+                    break;
+                case "-thrift-port":
+                    thriftServerPort = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (profiles.isEmpty()) {
+            profiles.addAll(WorkloadProfiles.all());
+        }
+
+        ClusterLoadSimulator simulator = new ClusterLoadSimulator(hazelcastPort, thriftServerPort);
+        List<ScenarioReport> reports = new ArrayList<>();
+        for (WorkloadProfile profile : profiles) {
+            Scenario.Builder scenario = new Scenario.Builder(profile)
+                    .nodeCount(nodeCount)
+                    .duration(durationMillis)
+                    .drain(drainMillis);
+            for (Fault fault : faults) {
+                scenario.fault(fault);
+            }
+            for (Map.Entry<String, String> property : configuration.entrySet()) {
+                scenario.configuration(property.getKey(), property.getValue());
+            }
+            reports.add(simulator.run(scenario.build()));
+        }
+
+        for (ScenarioReport report : reports) {
+            System.out.println(report);
+        }
+        // Threads of the kernels of the nodes may outlive their nodes
+        System.exit(0);
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: ClusterLoadSimulator [options]");
+        System.out.println("  -nodes <count>              nodes of the cluster, 3 by default");
+        System.out.println("  -duration <seconds>         time the load runs for, 60 by default");
+        System.out.println("  -drain <seconds>            maximum time to drain messages in flight, 10 by default");
+        System.out.println("  -profiles <name,...>        profiles to run, all by default: "
+                + WorkloadProfiles.MANY_QUEUES + ", " + WorkloadProfiles.FEW_QUEUES + ", "
+                + WorkloadProfiles.TOPIC_FAN_OUT + ", " + WorkloadProfiles.MQTT_DEVICE_SWARM + ", "
+                + WorkloadProfiles.SLOW_CONSUMERS);
+        System.out.println("  -profile-class <class>      WorkloadProfile implementation to run");
+        System.out.println("  -kill-node <index>@<second> kill the node of the index, from 0, during the load");
+        System.out.println("  -kill-coordinator <second>  kill the coordinator during the load");
+        System.out.println("  -config <name>=<value>      override an AndesConfiguration value on all nodes");
+        System.out.println("  -hazelcast-port <port>      Hazelcast port of the first node, " + DEFAULT_HAZELCAST_PORT
+                + " by default");
+        System.out.println("  -thrift-port <port>         thrift port of the first node, " + DEFAULT_THRIFT_SERVER_PORT
+                + " by default");
+    }
+
+    /**
+     * A node of the cluster of a run, with its counters when the load started
+     */
+    private static class Node {
+
+        private final String nodeId;
+
+        private final NodeClassLoader classLoader;
+
+        private final HazelcastInstance hazelcastInstance;
+
+        private final SimulatedNode node;
+
+        private volatile boolean alive = true;
+
+        private long baseStatementCount;
+
+        private Map<String, Long> baseSlotCoordinatorRequestCounts = Collections.emptyMap();
+
+        private Node(String nodeId, NodeClassLoader classLoader, HazelcastInstance hazelcastInstance,
+                SimulatedNode node) {
+            this.nodeId = nodeId;
+            this.classLoader = classLoader;
+            this.hazelcastInstance = hazelcastInstance;
+            this.node = node;
+        }
+    }
+
+    /**
+     * A subscriber of a destination, connected to a node
+     */
+    private static class Subscriber {
+
+        private final DestinationLoad load;
+
+        private volatile Node node;
+
+        private Subscriber(DestinationLoad load, Node node) {
+            this.load = load;
+            this.node = node;
+        }
+    }
+
+    /**
+     * State of the run of a scenario
+     */
+    private class ScenarioRun {
+
+        private final Scenario scenario;
+
+        private final String runName = RUN_NAME_PREFIX + UUID.randomUUID();
+
+        private final LoadRecorder recorder = new LoadRecorder();
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        private final List<Subscriber> subscribers = new ArrayList<>();
+
+        private final List<Publisher> publishers = new ArrayList<>();
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        private final ScheduledExecutorService publishScheduler;
+
+        /**
+         * Runs faults apart from publishers, as injecting a fault waits for the cluster to react
+         */
+        private final ExecutorService faultInjector = Executors.newSingleThreadExecutor();
+
+        private final Random random = new Random();
+
+        private volatile boolean publishing;
+
+        private volatile long loadStartTime;
+
+        private int nextNode;
+
+        private ScenarioRun(Scenario scenario) {
+            this.scenario = scenario;
+            publishScheduler = Executors.newScheduledThreadPool(Math.max(2,
+                    Runtime.getRuntime().availableProcessors()));
+        }
+
+        private ScenarioReport run() throws Exception {
+            try {
+                log.info("Running scenario " + scenario.getProfile().getName() + " on "
+                        + scenario.getNodeCount() + " nodes");
+                startNodes();
+
+                Node firstNode = nodes.get(0);
+                for (DestinationLoad load : scenario.getProfile().getDestinationLoads()) {
+                    firstNode.node.declare(load);
+                }
+                awaitBindings();
+                for (DestinationLoad load : scenario.getProfile().getDestinationLoads()) {
+                    for (int i = 0; i < load.getSubscribers(); i++) {
+                        Subscriber subscriber = new Subscriber(load, nextNode(nodes));
+                        subscriber.node.node.subscribe(load);
+                        subscribers.add(subscriber);
+                    }
+                }
+                awaitBindings();
+
+                for (Node node : nodes) {
+                    node.baseStatementCount = node.node.getDatabaseStatementCount();
+                    node.baseSlotCoordinatorRequestCounts = node.node.getSlotCoordinatorRequestCounts();
+                }
+                loadStartTime = System.currentTimeMillis();
+                startPublishers();
+                for (final Fault fault : scenario.getFaults()) {
+                    publishScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            faultInjector.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    injectFault(fault);
+                                }
+                            });
+                        }
+                    }, fault.getDelayMillis(), TimeUnit.MILLISECONDS);
+                }
+
+                Thread.sleep(scenario.getDurationMillis());
+                publishing = false;
+                long durationMillis = System.currentTimeMillis() - loadStartTime;
+                drain();
+                return createReport(durationMillis);
+            } finally {
+                publishing = false;
+                publishScheduler.shutdownNow();
+                faultInjector.shutdownNow();
+                faultInjector.awaitTermination(FAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                stopNodes();
+            }
+        }
+
+        private void startNodes() throws Exception {
+            for (int i = 0; i < scenario.getNodeCount(); i++) {
+                String nodeId = NODE_ID_PREFIX + (i + 1);
+                NodeClassLoader classLoader = new NodeClassLoader(nodeId, ClusterLoadSimulator.class.getClassLoader());
+                HazelcastInstance hazelcastInstance = createHazelcastInstance(nodeId, classLoader);
+                Node node = new Node(nodeId, classLoader, hazelcastInstance, classLoader.createNode());
+                nodes.add(node);
+                node.node.start(nodeId, runName, hazelcastInstance, thriftServerPort + i,
+                        scenario.getConfiguration(), recorder);
+            }
+        }
+
+        /**
+         * Create the Hazelcast instance of a node. Kernel objects Hazelcast deserializes for the node are loaded by
+         * the class loader of the node.
+         */
+        private HazelcastInstance createHazelcastInstance(String nodeId, ClassLoader classLoader) {
+            Config config = new Config();
+            config.setInstanceName(runName + "-" + nodeId);
+            config.setClassLoader(classLoader);
+            config.getGroupConfig().setName(runName);
+            config.getNetworkConfig().setPort(hazelcastPort).setPortAutoIncrement(true);
+            JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+            joinConfig.getMulticastConfig().setEnabled(false);
+            joinConfig.getTcpIpConfig().setEnabled(true).addMember(LOOPBACK_ADDRESS);
+
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            try {
+                return Hazelcast.newHazelcastInstance(config);
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+        }
+
+        /**
+         * Wait until every live node knows the bindings the destinations need. Queues are bound once, topics once
+         * per node their subscribers are connected to.
+         */
+        private void awaitBindings() throws InterruptedException {
+            Map<DestinationLoad, Integer> expectedBindingCounts = new HashMap<>();
+            for (DestinationLoad load : scenario.getProfile().getDestinationLoads()) {
+                if (DestinationLoad.Type.QUEUE == load.getType()) {
+                    expectedBindingCounts.put(load, 1);
+                } else {
+                    Set<Node> subscribedNodes = new HashSet<>();
+                    for (Subscriber subscriber : subscribers) {
+                        if (load == subscriber.load) {
+                            subscribedNodes.add(subscriber.node);
+                        }
+                    }
+                    expectedBindingCounts.put(load, subscribedNodes.size());
+                }
+            }
+
+            long deadline = System.currentTimeMillis() + BINDING_TIMEOUT_MILLIS;
+            for (Map.Entry<DestinationLoad, Integer> expectedBindingCount : expectedBindingCounts.entrySet()) {
+                for (Node node : nodes) {
+                    while (node.alive
+                            && node.node.getBindingCount(expectedBindingCount.getKey())
+                            < expectedBindingCount.getValue()) {
+                        if (System.currentTimeMillis() > deadline) {
+                            log.warn("Bindings of " + expectedBindingCount.getKey().getName()
+                                    + " did not reach " + node.nodeId + " in " + BINDING_TIMEOUT_MILLIS
+                                    + " ms, starting the load regardless");
+                            return;
+                        }
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                    }
+                }
+            }
+        }
+
+        private void startPublishers() {
+            publishing = true;
+            for (DestinationLoad load : scenario.getProfile().getDestinationLoads()) {
+                long periodNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / load.getPublishRate()));
+                for (int i = 0; i < load.getPublishers(); i++) {
+                    Publisher publisher = new Publisher(load, load.getName() + "-publisher-" + i, nextNode(nodes));
+                    publishers.add(publisher);
+                    // Spread publishers over the period, so that they do not publish in bursts
+                    publishScheduler.scheduleAtFixedRate(publisher, (long) (random.nextDouble() * periodNanos),
+                            periodNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private void injectFault(Fault fault) {
+            Node victim = null;
+            boolean wasCoordinator;
+            if (Fault.Type.KILL_COORDINATOR == fault.getType()) {
+                victim = findCoordinator(null);
+                wasCoordinator = true;
+            } else {
+                Node node = nodes.get(fault.getNodeIndex());
+                if (node.alive) {
+                    victim = node;
+                }
+                wasCoordinator = null != victim && victim.node.isCoordinator();
+            }
+            if (null == victim) {
+                events.add(getEventTime() + " " + fault + " skipped, no live node to kill");
+                return;
+            }
+
+            long killTime = System.currentTimeMillis();
+            String event = getEventTime() + " killed " + victim.nodeId + (wasCoordinator ? " (coordinator)" : "");
+            victim.alive = false;
+            kill(victim);
+            if (wasCoordinator) {
+                Node coordinator = null;
+                while (null == coordinator && System.currentTimeMillis() - killTime < FAULT_TIMEOUT_MILLIS) {
+                    coordinator = findCoordinator(victim);
+                    if (null == coordinator) {
+                        try {
+                            Thread.sleep(POLL_INTERVAL_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+                if (null == coordinator) {
+                    event = event + "; no node became coordinator in " + FAULT_TIMEOUT_MILLIS + " ms";
+                } else {
+                    event = event + "; " + coordinator.nodeId + " became coordinator after "
+                            + (System.currentTimeMillis() - killTime) + " ms";
+                }
+            }
+            events.add(event);
+            log.info(event);
+
+            final Node failedNode = victim;
+            publishScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    reconnectClients(failedNode);
+                }
+            }, Math.max(0, scenario.getReconnectDelayMillis() - (System.currentTimeMillis() - killTime)),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Kill a node. A node that takes too long to go down is left to do so in the background, it is out of the
+         * cluster regardless.
+         */
+        private void kill(final Node node) {
+            Thread killer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    node.node.kill();
+                }
+            }, "ClusterLoadSimulatorKill-" + node.nodeId);
+            killer.setDaemon(true);
+            killer.start();
+            try {
+                killer.join(FAULT_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (killer.isAlive()) {
+                log.warn("Killed node " + node.nodeId + " is still shutting down after " + FAULT_TIMEOUT_MILLIS
+                        + " ms");
+            }
+        }
+
+        /**
+         * Move the clients of a failed node to the live nodes, as clients reconnect through a load balancer
+         */
+        private void reconnectClients(Node failedNode) {
+            List<Node> liveNodes = new ArrayList<>();
+            for (Node node : nodes) {
+                if (node.alive) {
+                    liveNodes.add(node);
+                }
+            }
+            if (liveNodes.isEmpty()) {
+                events.add(getEventTime() + " clients of " + failedNode.nodeId + " found no live node");
+                return;
+            }
+
+            int reconnectedCount = 0;
+            for (Subscriber subscriber : subscribers) {
+                if (failedNode == subscriber.node) {
+                    subscriber.node = nextNode(liveNodes);
+                    try {
+                        subscriber.node.node.subscribe(subscriber.load);
+                        reconnectedCount++;
+                    } catch (Exception e) {
+                        log.warn("Error occurred while reconnecting a subscriber of " + subscriber.load.getName()
+                                + " to " + subscriber.node.nodeId, e);
+                    }
+                }
+            }
+            for (Publisher publisher : publishers) {
+                if (failedNode == publisher.node) {
+                    publisher.node = nextNode(liveNodes);
+                    reconnectedCount++;
+                }
+            }
+            events.add(getEventTime() + " " + reconnectedCount + " clients of " + failedNode.nodeId
+                    + " reconnected to other nodes");
+        }
+
+        private Node findCoordinator(Node excludedNode) {
+            for (Node node : nodes) {
+                if (node.alive && node != excludedNode) {
+                    try {
+                        if (node.node.isCoordinator()) {
+                            return node;
+                        }
+                    } catch (RuntimeException e) {
+                        log.debug("Error occurred while checking whether " + node.nodeId + " is the coordinator", e);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Wait for messages in flight to be delivered, until no message is delivered for a while
+         */
+        private void drain() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + scenario.getDrainMillis();
+            long lastDeliveredCount = recorder.getDeliveredCount();
+            long lastDeliveryTime = System.currentTimeMillis();
+            while (System.currentTimeMillis() < deadline
+                    && System.currentTimeMillis() - lastDeliveryTime < DRAIN_QUIET_MILLIS) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                long deliveredCount = recorder.getDeliveredCount();
+                if (deliveredCount != lastDeliveredCount) {
+                    lastDeliveredCount = deliveredCount;
+                    lastDeliveryTime = System.currentTimeMillis();
+                }
+            }
+        }
+
+        private ScenarioReport createReport(long durationMillis) {
+            Map<String, Long> slotCoordinatorRequestCounts = new TreeMap<>();
+            Map<String, Long> databaseStatementCounts = new LinkedHashMap<>();
+            for (Node node : nodes) {
+                for (Map.Entry<String, Long> requestCount : node.node.getSlotCoordinatorRequestCounts().entrySet()) {
+                    Long baseCount = node.baseSlotCoordinatorRequestCounts.get(requestCount.getKey());
+                    Long count = slotCoordinatorRequestCounts.get(requestCount.getKey());
+                    slotCoordinatorRequestCounts.put(requestCount.getKey(), (null == count ? 0 : count)
+                            + requestCount.getValue() - (null == baseCount ? 0 : baseCount));
+                }
+                databaseStatementCounts.put(node.nodeId,
+                        node.node.getDatabaseStatementCount() - node.baseStatementCount);
+            }
+            return new ScenarioReport(scenario, durationMillis, recorder, slotCoordinatorRequestCounts,
+                    databaseStatementCounts, events);
+        }
+
+        private void stopNodes() {
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                Node node = nodes.get(i);
+                if (node.alive) {
+                    node.alive = false;
+                    try {
+                        node.node.stop();
+                    } catch (Exception e) {
+                        log.warn("Error occurred while stopping node " + node.nodeId, e);
+                    }
+                }
+                if (node.hazelcastInstance.getLifecycleService().isRunning()) {
+                    node.hazelcastInstance.getLifecycleService().shutdown();
+                }
+                try {
+                    node.classLoader.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing the class loader of node " + node.nodeId, e);
+                }
+            }
+
+            // The database is shared, hence nodes leave it behind
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + runName, "sa", "");
+                    Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            } catch (SQLException e) {
+                log.warn("Error occurred while dropping database " + runName, e);
+            }
+        }
+
+        /**
+         * Pick nodes in turns, so that clients spread evenly over the nodes
+         */
+        private synchronized Node nextNode(List<Node> candidates) {
+            Node node = candidates.get(nextNode % candidates.size());
+            nextNode++;
+            return node;
+        }
+
+        private String getEventTime() {
+            return String.format(Locale.ENGLISH, "at %.1f s", (System.currentTimeMillis() - loadStartTime) / 1000d);
+        }
+
+        /**
+         * A publisher of a destination, connected to a node. Publishes a message on every run, unless the node is
+         * down or the publisher is blocked by flow control.
+         */
+        private class Publisher implements Runnable {
+
+            private final DestinationLoad load;
+
+            private final String publisherId;
+
+            private volatile Node node;
+
+            private Publisher(DestinationLoad load, String publisherId, Node node) {
+                this.load = load;
+                this.publisherId = publisherId;
+                this.node = node;
+            }
+
+            @Override
+            public void run() {
+                if (!publishing) {
+                    return;
+                }
+                Node target = node;
+                if (!target.alive) {
+                    recorder.publishSkipped();
+                    return;
+                }
+                try {
+                    if (!target.node.publish(load, publisherId)) {
+                        recorder.publishSkipped();
+                    }
+                } catch (Exception e) {
+                    // Keep publishing, as a client would after a failed publish
+                    recorder.publishFailed(load.getName());
+                    log.debug("Error occurred while publishing to " + load.getName() + " on " + target.nodeId, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+/**
+ * Load a workload puts on a single destination: the publishers sending to it, the subscribers consuming from it and
+ * the messages they exchange. Publishers and subscribers are spread over the nodes of the simulated cluster.
+ */
+public class DestinationLoad {
+
+    /**
+     * Kinds of destinations, by the exchange messages are routed through
+     */
+    public enum Type {
+
+        /**
+         * AMQP queue bound to the direct exchange. Subscribers compete for the messages.
+         */
+        QUEUE,
+
+        /**
+         * AMQP topic. Every subscriber receives every message.
+         */
+        TOPIC,
+
+        /**
+         * MQTT topic, published and subscribed at QoS 1 with clean sessions
+         */
+        MQTT_TOPIC
+    }
+
+    /**
+     * Smallest message size. Content starts with the time the message was published at.
+     */
+    public static final int MIN_MESSAGE_SIZE = 8;
+
+    private final Type type;
+
+    private final String name;
+
+    private String subscriptionKey;
+
+    private int publishers = 1;
+
+    private int subscribers = 1;
+
+    private double publishRate = 10;
+
+    private int messageSize = 1024;
+
+    private long ackDelayMillis;
+
+    /**
+     * Create the load of a destination with a publisher and a subscriber, exchanging 10 messages of 1 KB a second
+     *
+     * @param type type of the destination
+     * @param name name of the queue, or the topic publishers send to
+     */
+    public DestinationLoad(Type type, String name) {
+        this.type = type;
+        this.name = name;
+        this.subscriptionKey = name;
+    }
+
+    /**
+     * Subscribe to topics with the given key, which may contain wildcards, rather than the name of the topic
+     */
+    public DestinationLoad subscriptionKey(String subscriptionKey) {
+        if (Type.QUEUE == type) {
+            throw new IllegalArgumentException("Subscribers of queue " + name + " subscribe to the queue");
+        }
+        this.subscriptionKey = subscriptionKey;
+        return this;
+    }
+
+    public DestinationLoad publishers(int publishers) {
+        this.publishers = publishers;
+        return this;
+    }
+
+    public DestinationLoad subscribers(int subscribers) {
+        this.subscribers = subscribers;
+        return this;
+    }
+
+    /**
+     * Set the number of messages each publisher sends a second
+     */
+    public DestinationLoad publishRate(double publishRate) {
+        if (publishRate <= 0) {
+            throw new IllegalArgumentException("Publish rate should be positive : " + publishRate);
+        }
+        this.publishRate = publishRate;
+        return this;
+    }
+
+    /**
+     * Set the size of the content of messages in bytes
+     */
+    public DestinationLoad messageSize(int messageSize) {
+        if (messageSize < MIN_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Messages should be at least " + MIN_MESSAGE_SIZE + " bytes : "
+                    + messageSize);
+        }
+        this.messageSize = messageSize;
+        return this;
+    }
+
+    /**
+     * Set the time subscribers take to acknowledge a message they received, as slow consumers do
+     */
+    public DestinationLoad ackDelay(long ackDelayMillis) {
+        this.ackDelayMillis = ackDelayMillis;
+        return this;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSubscriptionKey() {
+        return subscriptionKey;
+    }
+
+    public int getPublishers() {
+        return publishers;
+    }
+
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    public double getPublishRate() {
+        return publishRate;
+    }
+
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    public long getAckDelayMillis() {
+        return ackDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + name + " [publishers=" + publishers + ", subscribers=" + subscribers + "]";
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+/**
+ * Failure injected into a simulated cluster while the load runs. A killed node dies as if its process died, see
+ * {@link SimulatedNode#kill()}, and its clients reconnect to the other nodes.
+ */
+public class Fault {
+
+    /**
+     * Kinds of failures
+     */
+    public enum Type {
+
+        /**
+         * Kill the node at a given index
+         */
+        KILL_NODE,
+
+        /**
+         * Kill the node that is the coordinator at the time, which makes another node take over slot coordination
+         */
+        KILL_COORDINATOR
+    }
+
+    private final Type type;
+
+    private final int nodeIndex;
+
+    private final long delayMillis;
+
+    private Fault(Type type, int nodeIndex, long delayMillis) {
+        this.type = type;
+        this.nodeIndex = nodeIndex;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Kill a node
+     *
+     * @param nodeIndex   index of the node, starting from 0
+     * @param delayMillis time after the load starts to kill the node at
+     * @return the fault
+     */
+    public static Fault killNode(int nodeIndex, long delayMillis) {
+        return new Fault(Type.KILL_NODE, nodeIndex, delayMillis);
+    }
+
+    /**
+     * Kill the coordinator
+     *
+     * @param delayMillis time after the load starts to kill the coordinator at
+     * @return the fault
+     */
+    public static Fault killCoordinator(long delayMillis) {
+        return new Fault(Type.KILL_COORDINATOR, -1, delayMillis);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return index of the node to kill. -1 for {@link Type#KILL_COORDINATOR}
+     */
+    public int getNodeIndex() {
+        return nodeIndex;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return Type.KILL_NODE == type ? "kill node " + nodeIndex + " at " + delayMillis + " ms"
+                : "kill coordinator at " + delayMillis + " ms";
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+/**
+ * Receives the outcome of the messages the simulated clients exchange with a node. Called from the threads of the
+ * kernel of the node, hence implementations must be thread safe and quick.
+ */
+public interface LoadListener {
+
+    /**
+     * Called when the node acknowledged a published message
+     *
+     * @param destination destination the message was published to
+     */
+    void messagePublished(String destination);
+
+    /**
+     * Called when the node rejected a published message
+     *
+     * @param destination destination the message was published to
+     */
+    void publishFailed(String destination);
+
+    /**
+     * Called when a message is delivered to a subscriber
+     *
+     * @param destination  destination the subscriber subscribed to
+     * @param latencyNanos time from the publish of the message until it was delivered
+     * @param redelivered  whether the message was delivered before
+     */
+    void messageDelivered(String destination, long latencyNanos, boolean redelivered);
+}
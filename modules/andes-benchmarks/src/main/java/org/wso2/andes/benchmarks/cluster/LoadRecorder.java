@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import org.wso2.andes.tools.tracing.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the messages exchanged with all nodes of a scenario
+ */
+class LoadRecorder implements LoadListener {
+
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    private final AtomicLong publishFailureCount = new AtomicLong();
+
+    /**
+     * Publishes not attempted since the publisher was blocked by flow control or its node was down
+     */
+    private final AtomicLong skippedPublishCount = new AtomicLong();
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    private final AtomicLong redeliveredCount = new AtomicLong();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    @Override
+    public void messagePublished(String destination) {
+        publishedCount.incrementAndGet();
+    }
+
+    @Override
+    public void publishFailed(String destination) {
+        publishFailureCount.incrementAndGet();
+    }
+
+    @Override
+    public void messageDelivered(String destination, long latencyNanos, boolean redelivered) {
+        deliveredCount.incrementAndGet();
+        if (redelivered) {
+            redeliveredCount.incrementAndGet();
+        }
+        // Negative latencies, caused by clock adjustments, are recorded as 0
+        latencies.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    void publishSkipped() {
+        skippedPublishCount.incrementAndGet();
+    }
+
+    long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    long getPublishFailureCount() {
+        return publishFailureCount.get();
+    }
+
+    long getSkippedPublishCount() {
+        return skippedPublishCount.get();
+    }
+
+    long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    long getRedeliveredCount() {
+        return redeliveredCount.get();
+    }
+
+    LatencyHistogram getLatencies() {
+        return latencies;
+    }
+}
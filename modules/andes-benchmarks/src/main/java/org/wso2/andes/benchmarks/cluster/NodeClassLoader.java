@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class loader of a node of a simulated cluster. The kernel keeps its state in static fields, hence each node loads
+ * the kernel classes from the class path on its own. The JDK, H2, Hazelcast, logging and the simulator API are
+ * loaded by the parent, so that nodes share the database and the Hazelcast cluster and the simulator can talk to
+ * them.
+ */
+final class NodeClassLoader extends URLClassLoader {
+
+    /**
+     * Packages loaded by the parent class loader
+     */
+    private static final String[] SHARED_PACKAGES = { "java.", "javax.", "sun.", "com.sun.", "org.w3c.", "org.xml.",
+            "org.h2.", "com.hazelcast.", "org.apache.commons.logging.", "org.apache.log4j.", "org.slf4j.",
+            "org.wso2.andes.benchmarks.cluster." };
+
+    /**
+     * Package of the simulator loaded by each node, as it uses the kernel
+     */
+    private static final String NODE_PACKAGE = "org.wso2.andes.benchmarks.cluster.node.";
+
+    private static final String NODE_CLASS_NAME = NODE_PACKAGE + "KernelNode";
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final String nodeId;
+
+    NodeClassLoader(String nodeId, ClassLoader parent) throws MalformedURLException {
+        super(getClassPath(), parent);
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Create the node loaded by this class loader. Calls to the node run with this class loader as the context
+     * class loader, as the kernel looks up its data source through JNDI, which loads the naming provider through the
+     * context class loader.
+     *
+     * @return the node
+     * @throws ReflectiveOperationException if the node cannot be created
+     */
+    SimulatedNode createNode() throws ReflectiveOperationException {
+        final SimulatedNode node = (SimulatedNode) loadClass(NODE_CLASS_NAME).newInstance();
+        return (SimulatedNode) Proxy.newProxyInstance(SimulatedNode.class.getClassLoader(),
+                new Class<?>[] { SimulatedNode.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        Thread thread = Thread.currentThread();
+                        ClassLoader contextClassLoader = thread.getContextClassLoader();
+                        thread.setContextClassLoader(NodeClassLoader.this);
+                        try {
+                            return method.invoke(node, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            thread.setContextClassLoader(contextClassLoader);
+                        }
+                    }
+                });
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isShared(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (null == loadedClass) {
+                try {
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    loadedClass = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NodeClassLoader [" + nodeId + "]";
+    }
+
+    private static boolean isShared(String className) {
+        if (className.startsWith(NODE_PACKAGE)) {
+            return false;
+        }
+        for (String sharedPackage : SHARED_PACKAGES) {
+            if (className.startsWith(sharedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static URL[] getClassPath() throws MalformedURLException {
+        List<URL> urls = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                urls.add(new File(entry).toURI().toURL());
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A run of a workload on a cluster started for the run, with the faults injected while the load runs. Scenarios are
+ * created through {@link Builder}.
+ */
+public class Scenario {
+
+    private final WorkloadProfile profile;
+
+    private final int nodeCount;
+
+    private final long durationMillis;
+
+    private final long drainMillis;
+
+    private final long reconnectDelayMillis;
+
+    private final List<Fault> faults;
+
+    private final Map<String, String> configuration;
+
+    private Scenario(Builder builder) {
+        profile = builder.profile;
+        nodeCount = builder.nodeCount;
+        durationMillis = builder.durationMillis;
+        drainMillis = builder.drainMillis;
+        reconnectDelayMillis = builder.reconnectDelayMillis;
+        faults = Collections.unmodifiableList(new ArrayList<>(builder.faults));
+        configuration = Collections.unmodifiableMap(new LinkedHashMap<>(builder.configuration));
+    }
+
+    public WorkloadProfile getProfile() {
+        return profile;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return time publishers publish for
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return maximum time to wait for messages in flight to be delivered once publishers stop
+     */
+    public long getDrainMillis() {
+        return drainMillis;
+    }
+
+    /**
+     * @return time clients of a killed node take to reconnect to another node
+     */
+    public long getReconnectDelayMillis() {
+        return reconnectDelayMillis;
+    }
+
+    public List<Fault> getFaults() {
+        return faults;
+    }
+
+    /**
+     * @return broker configuration values of the nodes by {@code AndesConfiguration} constant name
+     */
+    public Map<String, String> getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Builder of scenarios. Every setting other than the profile is optional.
+     */
+    public static class Builder {
+
+        private final WorkloadProfile profile;
+
+        private int nodeCount = 3;
+
+        private long durationMillis = 60000;
+
+        private long drainMillis = 10000;
+
+        private long reconnectDelayMillis = 2000;
+
+        private final List<Fault> faults = new ArrayList<>();
+
+        private final Map<String, String> configuration = new LinkedHashMap<>();
+
+        public Builder(WorkloadProfile profile) {
+            this.profile = profile;
+        }
+
+        /**
+         * Set the number of nodes of the cluster. Defaults to 3.
+         */
+        public Builder nodeCount(int nodeCount) {
+            if (nodeCount < 1) {
+                throw new IllegalArgumentException("A cluster needs at least a node : " + nodeCount);
+            }
+            this.nodeCount = nodeCount;
+            return this;
+        }
+
+        /**
+         * Set the time publishers publish for. Defaults to a minute.
+         */
+        public Builder duration(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        /**
+         * Set the maximum time to wait for messages in flight once publishers stop. Defaults to 10 seconds.
+         */
+        public Builder drain(long drainMillis) {
+            this.drainMillis = drainMillis;
+            return this;
+        }
+
+        /**
+         * Set the time clients of a killed node take to reconnect to another node. Defaults to 2 seconds.
+         */
+        public Builder reconnectDelay(long reconnectDelayMillis) {
+            this.reconnectDelayMillis = reconnectDelayMillis;
+            return this;
+        }
+
+        public Builder fault(Fault fault) {
+            faults.add(fault);
+            return this;
+        }
+
+        /**
+         * Override a value of the broker configuration of all nodes
+         *
+         * @param property name of the {@code AndesConfiguration} constant
+         * @param value    value in the form used in broker.xml
+         */
+        public Builder configuration(String property, String value) {
+            configuration.put(property, value);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a fault kills a node the cluster does not have
+         */
+        public Scenario build() {
+            for (Fault fault : faults) {
+                if (Fault.Type.KILL_NODE == fault.getType() && fault.getNodeIndex() >= nodeCount) {
+                    throw new IllegalArgumentException("No node " + fault.getNodeIndex() + " in a cluster of "
+                            + nodeCount);
+                }
+            }
+            return new Scenario(this);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a scenario. Counts cover the time the load ran plus the time messages in flight took to drain, and
+ * rates are per second of the time the load ran.
+ */
+public class ScenarioReport {
+
+    private static final double[] REPORTED_PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final String profileName;
+
+    private final int nodeCount;
+
+    private final long durationMillis;
+
+    private final long publishedCount;
+
+    private final long publishFailureCount;
+
+    private final long skippedPublishCount;
+
+    private final long deliveredCount;
+
+    private final long redeliveredCount;
+
+    /**
+     * Latency in microseconds by percentile
+     */
+    private final Map<Double, Long> latencyPercentiles;
+
+    private final long maxLatency;
+
+    private final Map<String, Long> slotCoordinatorRequestCounts;
+
+    private final Map<String, Long> databaseStatementCounts;
+
+    private final List<String> events;
+
+    ScenarioReport(Scenario scenario, long durationMillis, LoadRecorder recorder,
+            Map<String, Long> slotCoordinatorRequestCounts, Map<String, Long> databaseStatementCounts,
+            List<String> events) {
+        this.profileName = scenario.getProfile().getName();
+        this.nodeCount = scenario.getNodeCount();
+        this.durationMillis = durationMillis;
+        this.publishedCount = recorder.getPublishedCount();
+        this.publishFailureCount = recorder.getPublishFailureCount();
+        this.skippedPublishCount = recorder.getSkippedPublishCount();
+        this.deliveredCount = recorder.getDeliveredCount();
+        this.redeliveredCount = recorder.getRedeliveredCount();
+
+        Map<Double, Long> percentiles = new LinkedHashMap<>();
+        for (double percentile : REPORTED_PERCENTILES) {
+            percentiles.put(percentile, recorder.getLatencies().getValueAtPercentile(percentile));
+        }
+        this.latencyPercentiles = Collections.unmodifiableMap(percentiles);
+        this.maxLatency = recorder.getLatencies().getMaxValue();
+        this.slotCoordinatorRequestCounts = Collections.unmodifiableMap(slotCoordinatorRequestCounts);
+        this.databaseStatementCounts = Collections.unmodifiableMap(databaseStatementCounts);
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return time the load ran for
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return number of messages the nodes acknowledged to publishers
+     */
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public long getPublishFailureCount() {
+        return publishFailureCount;
+    }
+
+    /**
+     * @return number of publishes not attempted since the publisher was blocked or its node was down
+     */
+    public long getSkippedPublishCount() {
+        return skippedPublishCount;
+    }
+
+    /**
+     * @return number of deliveries to subscribers, including redeliveries
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public long getRedeliveredCount() {
+        return redeliveredCount;
+    }
+
+    /**
+     * @return publish to delivery latency in microseconds by percentile, for percentiles 50, 90, 99 and 99.9
+     */
+    public Map<Double, Long> getLatencyPercentiles() {
+        return latencyPercentiles;
+    }
+
+    /**
+     * @return maximum publish to delivery latency in microseconds
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @return requests the nodes sent to the slot coordinator, by meter name
+     */
+    public Map<String, Long> getSlotCoordinatorRequestCounts() {
+        return slotCoordinatorRequestCounts;
+    }
+
+    /**
+     * @return statements the stores executed on the database, by node ID
+     */
+    public Map<String, Long> getDatabaseStatementCounts() {
+        return databaseStatementCounts;
+    }
+
+    /**
+     * @return faults injected and what followed them, in order
+     */
+    public List<String> getEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = durationMillis / 1000d;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ENGLISH, "Scenario %s on %d nodes for %.1f s%n", profileName, nodeCount,
+                seconds));
+        report.append(String.format(Locale.ENGLISH, "  published   %12d (%.1f msg/s), failed %d, skipped %d%n",
+                publishedCount, publishedCount / seconds, publishFailureCount, skippedPublishCount));
+        report.append(String.format(Locale.ENGLISH, "  delivered   %12d (%.1f msg/s), redelivered %d%n",
+                deliveredCount, deliveredCount / seconds, redeliveredCount));
+
+        report.append("  latency   ");
+        for (Map.Entry<Double, Long> percentile : latencyPercentiles.entrySet()) {
+            report.append(String.format(Locale.ENGLISH, "  p%s %.2f ms", formatPercentile(percentile.getKey()),
+                    percentile.getValue() / 1000d));
+        }
+        report.append(String.format(Locale.ENGLISH, "  max %.2f ms%n", maxLatency / 1000d));
+
+        long totalSlotRequests = sum(slotCoordinatorRequestCounts);
+        report.append(String.format(Locale.ENGLISH, "  slot RPCs   %12d (%.1f /s)%n", totalSlotRequests,
+                totalSlotRequests / seconds));
+        for (Map.Entry<String, Long> operation : slotCoordinatorRequestCounts.entrySet()) {
+            report.append(String.format(Locale.ENGLISH, "    %-36s %10d (%.1f /s)%n", operation.getKey(),
+                    operation.getValue(), operation.getValue() / seconds));
+        }
+
+        long totalStatements = sum(databaseStatementCounts);
+        report.append(String.format(Locale.ENGLISH, "  DB queries  %12d (%.1f /s)%n", totalStatements,
+                totalStatements / seconds));
+        for (Map.Entry<String, Long> node : databaseStatementCounts.entrySet()) {
+            report.append(String.format(Locale.ENGLISH, "    %-36s %10d (%.1f /s)%n", node.getKey(),
+                    node.getValue(), node.getValue() / seconds));
+        }
+
+        for (String event : events) {
+            report.append("  ").append(event).append(String.format("%n"));
+        }
+        return report.toString();
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static long sum(Map<String, Long> counts) {
+        long sum = 0;
+        for (long count : counts.values()) {
+            sum = sum + count;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import com.hazelcast.core.HazelcastInstance;
+
+import java.util.Map;
+
+/**
+ * Node of a simulated cluster, running the Andes kernel in a class loader of its own. The simulator talks to nodes
+ * only through this interface, whose methods use types shared by all class loaders, since the kernel classes of a
+ * node are not the kernel classes of the simulator.
+ */
+public interface SimulatedNode {
+
+    /**
+     * Start the kernel as a node of the cluster
+     *
+     * @param nodeId            ID of the node
+     * @param databaseName      name of the in-memory H2 database shared by the nodes
+     * @param hazelcastInstance Hazelcast instance of the node
+     * @param thriftServerPort  port the thrift server of the node listens on when it is the coordinator
+     * @param configuration     broker configuration values by {@code AndesConfiguration} constant name
+     * @param listener          listener of the messages exchanged with the node
+     * @throws Exception if the kernel fails to start
+     */
+    void start(String nodeId, String databaseName, HazelcastInstance hazelcastInstance, int thriftServerPort,
+            Map<String, String> configuration, LoadListener listener) throws Exception;
+
+    /**
+     * Create the queue of a destination and bind it. Topic subscribers create queues of their own when subscribing.
+     *
+     * @param load load of the destination
+     * @throws Exception if the queue cannot be created
+     */
+    void declare(DestinationLoad load) throws Exception;
+
+    /**
+     * Get the number of queues bound with the subscription key of the destination, as known by this node
+     *
+     * @param load load of the destination
+     * @return number of bound queues
+     */
+    int getBindingCount(DestinationLoad load);
+
+    /**
+     * Subscribe to a destination
+     *
+     * @param load load of the destination
+     * @throws Exception if the subscription cannot be opened
+     */
+    void subscribe(DestinationLoad load) throws Exception;
+
+    /**
+     * Publish a message to the destination, unless the publisher is blocked by flow control
+     *
+     * @param load        load of the destination
+     * @param publisherId ID of the publisher, which publishes through a channel of its own
+     * @return false if the publisher is blocked
+     * @throws Exception if the message cannot be published
+     */
+    boolean publish(DestinationLoad load, String publisherId) throws Exception;
+
+    /**
+     * @return whether the node is the coordinator of the cluster
+     */
+    boolean isCoordinator();
+
+    /**
+     * @return number of statements the stores of the node executed on the database
+     */
+    long getDatabaseStatementCount();
+
+    /**
+     * @return number of requests the node sent to the slot coordinator, by meter name
+     */
+    Map<String, Long> getSlotCoordinatorRequestCounts();
+
+    /**
+     * Stop the node gracefully
+     *
+     * @throws Exception if the kernel fails to shut down
+     */
+    void stop() throws Exception;
+
+    /**
+     * Kill the node, as if its process died. The node leaves the Hazelcast cluster and loses the database at once.
+     */
+    void kill();
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import java.util.List;
+
+/**
+ * Workload a simulated cluster is put under. Built-in profiles are created through {@link WorkloadProfiles}. Other
+ * profiles are given to {@link ClusterLoadSimulator} by class name, and need a public no-argument constructor.
+ */
+public interface WorkloadProfile {
+
+    /**
+     * @return name the profile is reported under
+     */
+    String getName();
+
+    /**
+     * Get the destinations of the workload and the load on each of them
+     *
+     * @return destination loads
+     */
+    List<DestinationLoad> getDestinationLoads();
+}
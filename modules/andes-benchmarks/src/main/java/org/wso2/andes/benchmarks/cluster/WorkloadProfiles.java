@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Built-in workload profiles, each stressing slot coordination in a different way
+ */
+public final class WorkloadProfiles {
+
+    public static final String MANY_QUEUES = "many-queues";
+
+    public static final String FEW_QUEUES = "few-queues";
+
+    public static final String TOPIC_FAN_OUT = "topic-fan-out";
+
+    public static final String MQTT_DEVICE_SWARM = "mqtt-device-swarm";
+
+    public static final String SLOW_CONSUMERS = "slow-consumers";
+
+    private WorkloadProfiles() {
+    }
+
+    /**
+     * 200 lightly loaded queues with a publisher and a subscriber each. Most slot requests find few messages, and the
+     * coordinator keeps slot state for many queues.
+     */
+    public static WorkloadProfile manyQueues() {
+        List<DestinationLoad> loads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            loads.add(new DestinationLoad(DestinationLoad.Type.QUEUE, "many-queues-" + i).publishRate(5));
+        }
+        return new FixedWorkloadProfile(MANY_QUEUES, loads);
+    }
+
+    /**
+     * 4 heavily loaded queues with 8 publishers and 8 subscribers each, spread over the nodes. Nodes compete for the
+     * slots of the same queues.
+     */
+    public static WorkloadProfile fewQueues() {
+        List<DestinationLoad> loads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            loads.add(new DestinationLoad(DestinationLoad.Type.QUEUE, "few-queues-" + i)
+                    .publishers(8).subscribers(8).publishRate(100));
+        }
+        return new FixedWorkloadProfile(FEW_QUEUES, loads);
+    }
+
+    /**
+     * A topic with 2 publishers and 30 subscribers. Every message is stored once for each node with subscribers.
+     */
+    public static WorkloadProfile topicFanOut() {
+        return new FixedWorkloadProfile(TOPIC_FAN_OUT, Collections.singletonList(
+                new DestinationLoad(DestinationLoad.Type.TOPIC, "fan-out.prices")
+                        .publishers(2).subscribers(30).publishRate(50).messageSize(512)));
+    }
+
+    /**
+     * 500 MQTT devices sending a small reading a second, each to a topic of its own, consumed by 4 subscribers of a
+     * wildcard topic
+     */
+    public static WorkloadProfile mqttDeviceSwarm() {
+        List<DestinationLoad> loads = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            loads.add(new DestinationLoad(DestinationLoad.Type.MQTT_TOPIC, "devices/" + i + "/telemetry")
+                    .subscribers(0).publishRate(1).messageSize(128));
+        }
+        loads.add(new DestinationLoad(DestinationLoad.Type.MQTT_TOPIC, "devices/+/telemetry")
+                .publishers(0).subscribers(4));
+        return new FixedWorkloadProfile(MQTT_DEVICE_SWARM, loads);
+    }
+
+    /**
+     * 10 queues with subscribers taking 200 milliseconds to acknowledge a message. Messages pile up in the slots
+     * held by the nodes, which keeps the slot delete safe zone behind.
+     */
+    public static WorkloadProfile slowConsumers() {
+        List<DestinationLoad> loads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            loads.add(new DestinationLoad(DestinationLoad.Type.QUEUE, "slow-consumers-" + i)
+                    .publishers(2).subscribers(2).publishRate(50).ackDelay(200));
+        }
+        return new FixedWorkloadProfile(SLOW_CONSUMERS, loads);
+    }
+
+    /**
+     * @return every built-in profile
+     */
+    public static List<WorkloadProfile> all() {
+        return Arrays.asList(manyQueues(), fewQueues(), topicFanOut(), mqttDeviceSwarm(), slowConsumers());
+    }
+
+    /**
+     * Get the built-in profile of the given name
+     *
+     * @param name name of the profile
+     * @return the profile
+     * @throws IllegalArgumentException if there is no built-in profile of the name
+     */
+    public static WorkloadProfile forName(String name) {
+        for (WorkloadProfile profile : all()) {
+            if (profile.getName().equals(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload profile " + name);
+    }
+
+    /**
+     * Profile with a fixed list of destination loads
+     */
+    private static class FixedWorkloadProfile implements WorkloadProfile {
+
+        private final String name;
+
+        private final List<DestinationLoad> destinationLoads;
+
+        FixedWorkloadProfile(String name, List<DestinationLoad> destinationLoads) {
+            this.name = name;
+            this.destinationLoads = Collections.unmodifiableList(destinationLoads);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<DestinationLoad> getDestinationLoads() {
+            return destinationLoads;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster.node;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.benchmarks.cluster.DestinationLoad;
+import org.wso2.andes.benchmarks.cluster.LoadListener;
+import org.wso2.andes.benchmarks.cluster.SimulatedNode;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.Andes;
+import org.wso2.andes.kernel.AndesChannel;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.AndesUtils;
+import org.wso2.andes.kernel.FlowControlListener;
+import org.wso2.andes.kernel.ProtocolType;
+import org.wso2.andes.kernel.disruptor.inbound.InboundBindingEvent;
+import org.wso2.andes.kernel.disruptor.inbound.InboundSubscriptionEvent;
+import org.wso2.andes.kernel.disruptor.inbound.PubAckHandler;
+import org.wso2.andes.kernel.disruptor.inbound.QueueInfo;
+import org.wso2.andes.kernel.router.AndesMessageRouter;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+import org.wso2.andes.kernel.subscription.SubscriberConnection;
+import org.wso2.andes.mqtt.MQTTMessage;
+import org.wso2.andes.mqtt.utils.MQTTUtils;
+import org.wso2.andes.server.embedded.EmbeddedBroker;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Node of a simulated cluster backed by an {@link EmbeddedBroker}. Simulated clients talk to the kernel as the
+ * AMQP and MQTT transports do, without going through the network. Created by the node class loader, hence the
+ * kernel classes this class uses are those of the node.
+ */
+public class KernelNode implements SimulatedNode {
+
+    /**
+     * Address simulated subscribers connect from
+     */
+    private static final String SUBSCRIBER_ADDRESS = "127.0.0.1";
+
+    /**
+     * Owner of the queues created by simulated clients
+     */
+    private static final String QUEUE_OWNER = "admin";
+
+    /**
+     * QoS level MQTT clients publish and subscribe at
+     */
+    private static final int MQTT_QOS_LEVEL = 1;
+
+    private EmbeddedBroker broker;
+
+    private String nodeId;
+
+    private LoadListener listener;
+
+    private ScheduledExecutorService ackScheduler;
+
+    private final ConcurrentMap<String, Publisher> publishers = new ConcurrentHashMap<>();
+
+    private final List<SimulatedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Reports publisher acknowledgements of the node to the load listener
+     */
+    private final PubAckHandler pubAckHandler = new PubAckHandler() {
+        @Override
+        public void ack(AndesMessageMetadata metadata) {
+            listener.messagePublished(metadata.getDestination());
+        }
+
+        @Override
+        public void nack(AndesMessageMetadata metadata) {
+            listener.publishFailed(metadata.getDestination());
+        }
+    };
+
+    @Override
+    public void start(String nodeId, String databaseName, HazelcastInstance hazelcastInstance,
+            int thriftServerPort, Map<String, String> configuration, LoadListener listener) throws Exception {
+        this.nodeId = nodeId;
+        this.listener = listener;
+
+        EmbeddedBroker.Builder builder = new EmbeddedBroker.Builder()
+                .nodeId(nodeId)
+                .sharedDatabase(databaseName)
+                .clustered(hazelcastInstance, thriftServerPort);
+        for (Map.Entry<String, String> property : configuration.entrySet()) {
+            builder.configuration(AndesConfiguration.valueOf(property.getKey()), property.getValue());
+        }
+        broker = builder.build();
+
+        ackScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("SimulatedAcknowledgements-" + nodeId + "-%d").build());
+        try {
+            broker.start();
+        } catch (AndesException e) {
+            ackScheduler.shutdownNow();
+            throw e;
+        }
+    }
+
+    @Override
+    public void declare(DestinationLoad load) throws Exception {
+        if (DestinationLoad.Type.QUEUE == load.getType()) {
+            Andes.getInstance().addBinding(new InboundBindingEvent(
+                    new QueueInfo(load.getName(), true, true, QUEUE_OWNER, false), AMQPUtils.DIRECT_EXCHANGE_NAME,
+                    load.getName()));
+        }
+    }
+
+    @Override
+    public int getBindingCount(DestinationLoad load) {
+        AndesMessageRouter messageRouter = AndesContext.getInstance().getMessageRouterRegistry()
+                .getMessageRouter(getMessageRouterName(load));
+        if (null == messageRouter) {
+            return 0;
+        }
+        int bindingCount = 0;
+        for (StorageQueue storageQueue : messageRouter.getAllBoundQueues()) {
+            if (load.getSubscriptionKey().equals(storageQueue.getMessageRouterBindingKey())) {
+                bindingCount++;
+            }
+        }
+        return bindingCount;
+    }
+
+    @Override
+    public void subscribe(DestinationLoad load) throws Exception {
+        String messageRouterName = getMessageRouterName(load);
+        String bindingKey = load.getSubscriptionKey();
+        ProtocolType protocol = ProtocolType.AMQP;
+        String storageQueueName;
+        String subscriptionIdentifier;
+
+        if (DestinationLoad.Type.QUEUE == load.getType()) {
+            storageQueueName = load.getName();
+            subscriptionIdentifier = storageQueueName;
+        } else {
+            // Subscribers of topics are non-durable, sharing a storage queue per node
+            storageQueueName = AndesUtils.getStorageQueueForDestination(bindingKey, messageRouterName, bindingKey,
+                    false);
+            Andes.getInstance().addBinding(new InboundBindingEvent(
+                    new QueueInfo(storageQueueName, false, false, QUEUE_OWNER, false), messageRouterName,
+                    bindingKey));
+            if (DestinationLoad.Type.MQTT_TOPIC == load.getType()) {
+                protocol = ProtocolType.MQTT;
+                subscriptionIdentifier = "";
+            } else {
+                subscriptionIdentifier = storageQueueName;
+            }
+        }
+
+        SimulatedSubscription subscription = new SimulatedSubscription(load, storageQueueName, listener,
+                ackScheduler);
+        SubscriberConnection connection = new SubscriberConnection(SUBSCRIBER_ADDRESS, nodeId,
+                subscription.getChannelID(), subscription);
+        Andes.getInstance().openLocalSubscription(new InboundSubscriptionEvent(protocol, subscriptionIdentifier,
+                storageQueueName, bindingKey, connection));
+        subscriptions.add(subscription);
+    }
+
+    @Override
+    public boolean publish(DestinationLoad load, String publisherId) throws Exception {
+        Publisher publisher = publishers.get(publisherId);
+        if (null == publisher) {
+            publisher = new Publisher();
+            publisher.channel = Andes.getInstance().createChannel(publisher);
+            Publisher existingPublisher = publishers.putIfAbsent(publisherId, publisher);
+            if (null != existingPublisher) {
+                Andes.getInstance().deleteChannel(publisher.channel);
+                publisher = existingPublisher;
+            }
+        }
+        if (publisher.blocked) {
+            return false;
+        }
+        Andes.getInstance().messageReceived(createMessage(load), publisher.channel, pubAckHandler);
+        return true;
+    }
+
+    @Override
+    public boolean isCoordinator() {
+        return AndesContext.getInstance().getClusterAgent().isCoordinator();
+    }
+
+    @Override
+    public long getDatabaseStatementCount() {
+        return broker.getDatabaseStatementCount();
+    }
+
+    @Override
+    public Map<String, Long> getSlotCoordinatorRequestCounts() {
+        return broker.getSlotCoordinatorRequestCounts();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        disconnectClients();
+        for (Publisher publisher : publishers.values()) {
+            Andes.getInstance().deleteChannel(publisher.channel);
+        }
+        broker.stop();
+    }
+
+    @Override
+    public void kill() {
+        disconnectClients();
+        broker.kill();
+    }
+
+    private void disconnectClients() {
+        ackScheduler.shutdownNow();
+        for (SimulatedSubscription subscription : subscriptions) {
+            subscription.disconnect();
+        }
+    }
+
+    /**
+     * Create a message as handed over by the transport of the destination. The content starts with the time the
+     * message is published at, from {@link System#nanoTime()}, which subscribers on any node of the JVM can compare.
+     */
+    private AndesMessage createMessage(DestinationLoad load) {
+        byte[] content = new byte[load.getMessageSize()];
+        ByteBuffer.wrap(content).putLong(System.nanoTime());
+
+        if (DestinationLoad.Type.MQTT_TOPIC == load.getType()) {
+            // MQTT content is never chunked
+            AndesMessage message = new MQTTMessage(MQTTUtils.convertToAndesHeader(0, load.getName(),
+                    MQTT_QOS_LEVEL, content.length, false, null, false));
+            message.addMessagePart(MQTTUtils.convertToAndesMessage(content, 0));
+            return message;
+        }
+
+        int chunkSize = AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE;
+        int chunkCount = (content.length + chunkSize - 1) / chunkSize;
+        AndesMessageMetadata metadata = new AndesMessageMetadata(0, BenchmarkEnvironment.encodeAMQPMetadata(
+                getMessageRouterName(load), load.getName(), content.length, chunkCount), true);
+        metadata.setArrivalTime(System.currentTimeMillis());
+        metadata.setMessageContentLength(content.length);
+
+        AndesMessage message = new AndesMessage(metadata);
+        for (int offset = 0; offset < content.length; offset = offset + chunkSize) {
+            byte[] data = new byte[Math.min(chunkSize, content.length - offset)];
+            System.arraycopy(content, offset, data, 0, data.length);
+            AndesMessagePart part = new AndesMessagePart();
+            part.setMessageID(0);
+            part.setOffSet(offset);
+            part.setData(data);
+            message.addMessagePart(part);
+        }
+        return message;
+    }
+
+    private static String getMessageRouterName(DestinationLoad load) {
+        switch (load.getType()) {
+            case QUEUE:
+                return AMQPUtils.DIRECT_EXCHANGE_NAME;
+            case TOPIC:
+                return AMQPUtils.TOPIC_EXCHANGE_NAME;
+            default:
+                return MQTTUtils.MQTT_EXCHANGE_NAME;
+        }
+    }
+
+    /**
+     * Publisher of a simulated client, publishing through a channel of its own
+     */
+    private static class Publisher implements FlowControlListener {
+
+        private AndesChannel channel;
+
+        private volatile boolean blocked;
+
+        @Override
+        public void block() {
+            blocked = true;
+        }
+
+        @Override
+        public void unblock() {
+            blocked = false;
+        }
+
+        @Override
+        public void disconnect() {
+            // Simulated publishers are disconnected with their node
+        }
+    }
+}
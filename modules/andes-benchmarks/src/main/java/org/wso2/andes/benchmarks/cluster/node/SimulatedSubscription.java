@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.cluster.node;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.benchmarks.cluster.DestinationLoad;
+import org.wso2.andes.benchmarks.cluster.LoadListener;
+import org.wso2.andes.kernel.Andes;
+import org.wso2.andes.kernel.AndesAckData;
+import org.wso2.andes.kernel.AndesContent;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.ProtocolMessage;
+import org.wso2.andes.kernel.subscription.OutboundSubscription;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber of a simulated client. Each delivery is reported to the load listener with the time the message took
+ * from the publisher, and acknowledged once the acknowledgement delay of the destination elapses.
+ */
+class SimulatedSubscription implements OutboundSubscription {
+
+    private static Log log = LogFactory.getLog(SimulatedSubscription.class);
+
+    private final DestinationLoad load;
+
+    private final String queueName;
+
+    private final LoadListener listener;
+
+    private final ScheduledExecutorService ackScheduler;
+
+    private final UUID channelId = UUID.randomUUID();
+
+    private final long subscribeTime = System.currentTimeMillis();
+
+    private volatile boolean live = true;
+
+    /**
+     * @param load         load of the destination subscribed to
+     * @param queueName    name of the queue the subscriber receives from
+     * @param listener     listener deliveries are reported to
+     * @param ackScheduler scheduler of the acknowledgements of the node
+     */
+    SimulatedSubscription(DestinationLoad load, String queueName, LoadListener listener,
+            ScheduledExecutorService ackScheduler) {
+        this.load = load;
+        this.queueName = queueName;
+        this.listener = listener;
+        this.ackScheduler = ackScheduler;
+    }
+
+    @Override
+    public void forcefullyDisconnect() throws AndesException {
+        live = false;
+    }
+
+    @Override
+    public boolean isMessageAcceptedBySelector(AndesMessageMetadata messageMetadata) throws AndesException {
+        return true;
+    }
+
+    @Override
+    public boolean sendMessageToSubscriber(ProtocolMessage messageMetadata, AndesContent content)
+            throws AndesException {
+        ByteBuffer publishTime = ByteBuffer.allocate(DestinationLoad.MIN_MESSAGE_SIZE);
+        content.putContent(0, publishTime);
+        listener.messageDelivered(load.getName(), System.nanoTime() - publishTime.getLong(0),
+                messageMetadata.isRedelivered());
+
+        final long messageId = messageMetadata.getMessageID();
+        try {
+            ackScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    acknowledge(messageId);
+                }
+            }, load.getAckDelayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The node is going down, the message will be redelivered to another subscriber
+            log.debug("Acknowledgement of message " + messageId + " dropped as the node is stopping", e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isOutboundConnectionLive() {
+        return live;
+    }
+
+    @Override
+    public UUID getChannelID() {
+        return channelId;
+    }
+
+    @Override
+    public long getSubscribeTime() {
+        return subscribeTime;
+    }
+
+    @Override
+    public String getProtocolQueueName() {
+        return queueName;
+    }
+
+    /**
+     * Close the connection of the subscriber without telling the kernel, as when the node dies
+     */
+    void disconnect() {
+        live = false;
+    }
+
+    private void acknowledge(long messageId) {
+        if (!live) {
+            return;
+        }
+        try {
+            Andes.getInstance().ackReceived(new AndesAckData(channelId, messageId));
+        } catch (AndesException e) {
+            log.warn("Error occurred while acknowledging message " + messageId + " of " + load.getName(), e);
+        }
+    }
+}
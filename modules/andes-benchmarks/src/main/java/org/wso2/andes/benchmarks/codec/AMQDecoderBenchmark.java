@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.codec;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.codec.AMQDataBlockListener;
+import org.wso2.andes.codec.AMQDecoder;
+import org.wso2.andes.framing.AMQDataBlock;
+import org.wso2.andes.framing.AMQDataBlockDecoder;
+import org.wso2.andes.framing.AMQFrame;
+import org.wso2.andes.framing.AMQFrameDecodingException;
+import org.wso2.andes.framing.AMQMethodBodyFactory;
+import org.wso2.andes.framing.AMQProtocolVersionException;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentBody;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.MethodRegistry;
+import org.wso2.andes.framing.ProtocolVersion;
+import org.wso2.andes.framing.amqp_0_91.BasicPublishBodyImpl;
+import org.wso2.andes.protocol.AMQVersionAwareProtocolSession;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+import org.wso2.org.apache.mina.common.SimpleByteBufferAllocator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a 64 KB publish, a basic.publish method frame, a content header frame and a content body frame,
+ * received in network reads of a given size, and of handing the content to the chunker that creates the message
+ * parts stored. Compares the decoder accumulating reads spanned by a frame into a remaining buffer with
+ * {@link AMQDecoder#decodeBuffer(java.nio.ByteBuffer, AMQDataBlockListener)}.
+ * <p>
+ * The bytes copied are reported through auxiliary counters. Divide them by the publishes counted to get the bytes
+ * copied per publish. Run through {@link #main(String[])} to also report the bytes allocated per publish with the
+ * GC profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AMQDecoderBenchmark {
+
+    private static final int MESSAGE_SIZE = 64 * 1024;
+
+    /**
+     * Size of the network reads the publish is received in
+     */
+    @Param({ "4096", "16384", "65536" })
+    private int readSize;
+
+    /**
+     * Frames of the publish as sent by a client
+     */
+    private java.nio.ByteBuffer publish;
+
+    private AMQDecoder decoder;
+
+    private LegacyDecoder legacyDecoder;
+
+    /**
+     * Bytes copied per iteration, as auxiliary counters
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CopyCounters {
+
+        public long bytesCopied;
+
+        public long publishes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesCopied = 0;
+            publishes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        AMQVersionAwareProtocolSession session = createSession();
+        MethodRegistry methodRegistry = session.getMethodRegistry();
+
+        AMQFrame methodFrame = methodRegistry.createBasicPublishBody(0, new AMQShortString("amq.direct"),
+                new AMQShortString("benchmark-queue"), false, false).generateFrame(1);
+        AMQFrame headerFrame = ContentHeaderBody.createAMQFrame(1, BasicPublishBodyImpl.CLASS_ID, 0,
+                new BasicContentHeaderProperties(), MESSAGE_SIZE);
+        AMQFrame bodyFrame = ContentBody.createAMQFrame(1, new ContentBody(ByteBuffer.wrap(new byte[MESSAGE_SIZE])));
+
+        publish = java.nio.ByteBuffer.allocate((int) (methodFrame.getSize() + headerFrame.getSize()
+                + bodyFrame.getSize()));
+        publish.put(methodFrame.toNioByteBuffer());
+        publish.put(headerFrame.toNioByteBuffer());
+        publish.put(bodyFrame.toNioByteBuffer());
+        publish.flip();
+
+        decoder = new AMQDecoder(false, session);
+        legacyDecoder = new LegacyDecoder(session);
+    }
+
+    @Benchmark
+    public int legacyDecode(CopyCounters counters) throws Exception {
+        long copiedBefore = legacyDecoder.bytesCopied;
+        int handedOff = 0;
+        java.nio.ByteBuffer remaining = publish.duplicate();
+        while (remaining.hasRemaining()) {
+            for (AMQDataBlock dataBlock : legacyDecoder.decodeBuffer(nextRead(remaining))) {
+                handedOff = handedOff + handOffLegacy(dataBlock);
+            }
+        }
+        counters.bytesCopied += legacyDecoder.bytesCopied - copiedBefore + handedOff;
+        counters.publishes++;
+        return handedOff;
+    }
+
+    @Benchmark
+    public int decode(CopyCounters counters) throws Exception {
+        long copiedBefore = decoder.getBytesCopied();
+        ChunkHandOff handOff = new ChunkHandOff();
+        java.nio.ByteBuffer remaining = publish.duplicate();
+        while (remaining.hasRemaining()) {
+            decoder.decodeBuffer(nextRead(remaining), handOff);
+        }
+        counters.bytesCopied += decoder.getBytesCopied() - copiedBefore + handOff.handedOff;
+        counters.publishes++;
+        return handOff.handedOff;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(AMQDecoderBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+
+    /**
+     * Get the next network read of the publish. Each read is a buffer of its own, as given by the transport.
+     */
+    private java.nio.ByteBuffer nextRead(java.nio.ByteBuffer remaining) {
+        java.nio.ByteBuffer read = remaining.slice();
+        read.limit(Math.min(readSize, remaining.remaining()));
+        remaining.position(remaining.position() + read.limit());
+        return read;
+    }
+
+    /**
+     * Copy the content of a body into the array of a message part, as the chunker did before content bodies could
+     * span reads
+     *
+     * @return number of bytes copied
+     */
+    private static int handOffLegacy(AMQDataBlock dataBlock) {
+        if (((AMQFrame) dataBlock).getBodyFrame() instanceof ContentBody) {
+            java.nio.ByteBuffer src = ((ContentBody) ((AMQFrame) dataBlock).getBodyFrame()).getPayload().buf().slice();
+            byte[] chunkData = new byte[src.limit()];
+            src.duplicate().get(chunkData);
+            return chunkData.length;
+        }
+        return 0;
+    }
+
+    /**
+     * Copies the content of each body into the array of a message part, as the chunker does
+     */
+    private static class ChunkHandOff implements AMQDataBlockListener {
+
+        private int handedOff;
+
+        @Override
+        public void dataBlockDecoded(AMQDataBlock dataBlock) {
+            if (((AMQFrame) dataBlock).getBodyFrame() instanceof ContentBody) {
+                ContentBody body = (ContentBody) ((AMQFrame) dataBlock).getBodyFrame();
+                byte[] chunkData = new byte[body.getSize()];
+                body.copyPayload(chunkData, 0);
+                handedOff = handedOff + chunkData.length;
+            }
+        }
+    }
+
+    /**
+     * Create a protocol session that only provides the method registry, which is all method frames are decoded with
+     */
+    private static AMQVersionAwareProtocolSession createSession() {
+        final MethodRegistry methodRegistry = MethodRegistry.getMethodRegistry(ProtocolVersion.v0_91);
+        return (AMQVersionAwareProtocolSession) Proxy.newProxyInstance(
+                AMQVersionAwareProtocolSession.class.getClassLoader(),
+                new Class<?>[] { AMQVersionAwareProtocolSession.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getMethodRegistry".equals(method.getName())) {
+                            return methodRegistry;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * The decoding of {@link AMQDecoder} replaced by the composite buffer view. Bytes copied into the remaining
+     * buffer are counted, apart from the copies made when the remaining buffer expands.
+     */
+    private static class LegacyDecoder {
+
+        private static final SimpleByteBufferAllocator ALLOCATOR = new SimpleByteBufferAllocator();
+
+        private final AMQDataBlockDecoder dataBlockDecoder = new AMQDataBlockDecoder();
+
+        private final AMQMethodBodyFactory bodyFactory;
+
+        private ByteBuffer remainingBuf;
+
+        private long bytesCopied;
+
+        LegacyDecoder(AMQVersionAwareProtocolSession session) {
+            bodyFactory = new AMQMethodBodyFactory(session);
+        }
+
+        List<AMQDataBlock> decodeBuffer(java.nio.ByteBuffer buf)
+                throws AMQFrameDecodingException, AMQProtocolVersionException {
+            List<AMQDataBlock> dataBlocks = new ArrayList<>();
+            ByteBuffer msg;
+            if (remainingBuf != null) {
+                bytesCopied = bytesCopied + buf.remaining();
+                remainingBuf.put(buf);
+                remainingBuf.flip();
+                msg = remainingBuf;
+            } else {
+                msg = ByteBuffer.wrap(buf);
+            }
+
+            boolean enoughData = true;
+            while (enoughData) {
+                int pos = msg.position();
+                enoughData = dataBlockDecoder.decodable(msg);
+                msg.position(pos);
+                if (enoughData) {
+                    dataBlocks.add(dataBlockDecoder.createAndPopulateFrame(bodyFactory, msg));
+                } else {
+                    bytesCopied = bytesCopied + msg.remaining();
+                    remainingBuf = ALLOCATOR.allocate(msg.remaining(), false);
+                    remainingBuf.setAutoExpand(true);
+                    remainingBuf.put(msg);
+                }
+            }
+            return dataBlocks;
+        }
+    }
+}
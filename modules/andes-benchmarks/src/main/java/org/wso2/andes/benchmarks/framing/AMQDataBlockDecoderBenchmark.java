@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.framing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.framing.AMQDataBlockDecoder;
+import org.wso2.andes.framing.AMQFrame;
+import org.wso2.andes.framing.AMQFrameDecodingException;
+import org.wso2.andes.framing.AMQMethodBodyFactory;
+import org.wso2.andes.framing.AMQProtocolVersionException;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentBody;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.FieldTable;
+import org.wso2.andes.framing.MethodRegistry;
+import org.wso2.andes.framing.ProtocolVersion;
+import org.wso2.andes.framing.amqp_0_91.BasicPublishBodyImpl;
+import org.wso2.andes.protocol.AMQVersionAwareProtocolSession;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding each frame of a publish from a buffer holding the whole frame, through
+ * {@link AMQDataBlockDecoder#decodable(java.nio.ByteBuffer)} and
+ * {@link AMQDataBlockDecoder#createAndPopulateFrame(AMQMethodBodyFactory, ByteBuffer)}: the basic.publish method
+ * frame, a content header frame with the properties a JMS client sets, and a content body frame of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AMQDataBlockDecoderBenchmark {
+
+    /**
+     * Size of the content body frame
+     */
+    @Param({ "1024", "65536" })
+    private int bodySize;
+
+    private final AMQDataBlockDecoder decoder = new AMQDataBlockDecoder();
+
+    private AMQMethodBodyFactory bodyFactory;
+
+    /**
+     * Encoded frames
+     */
+    private java.nio.ByteBuffer methodFrame;
+
+    private java.nio.ByteBuffer headerFrame;
+
+    private java.nio.ByteBuffer bodyFrame;
+
+    @Setup
+    public void setup() {
+        AMQVersionAwareProtocolSession session = createSession();
+        bodyFactory = new AMQMethodBodyFactory(session);
+        MethodRegistry methodRegistry = session.getMethodRegistry();
+
+        methodFrame = methodRegistry.createBasicPublishBody(0, new AMQShortString("amq.direct"),
+                new AMQShortString("benchmark-queue"), false, false).generateFrame(1).toNioByteBuffer();
+
+        BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+        properties.setContentType("application/octet-stream");
+        properties.setDeliveryMode((byte) BasicContentHeaderProperties.PERSISTENT);
+        properties.setMessageId("ID:benchmark-message-1");
+        properties.setTimestamp(System.currentTimeMillis());
+        FieldTable headers = new FieldTable();
+        headers.setString("JMSXUserID", "admin");
+        headers.setInteger("JMSXDeliveryCount", 1);
+        properties.setHeaders(headers);
+        headerFrame = ContentHeaderBody.createAMQFrame(1, BasicPublishBodyImpl.CLASS_ID, 0, properties, bodySize)
+                .toNioByteBuffer();
+
+        bodyFrame = ContentBody.createAMQFrame(1, new ContentBody(ByteBuffer.wrap(new byte[bodySize])))
+                .toNioByteBuffer();
+    }
+
+    @Benchmark
+    public AMQFrame decodeMethodFrame() throws AMQFrameDecodingException, AMQProtocolVersionException {
+        return decode(methodFrame);
+    }
+
+    @Benchmark
+    public AMQFrame decodeHeaderFrame() throws AMQFrameDecodingException, AMQProtocolVersionException {
+        return decode(headerFrame);
+    }
+
+    @Benchmark
+    public AMQFrame decodeBodyFrame() throws AMQFrameDecodingException, AMQProtocolVersionException {
+        return decode(bodyFrame);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(AMQDataBlockDecoderBenchmark.class.getSimpleName())
+                           .build()).run();
+    }
+
+    /**
+     * Decode a frame as the decoder does once a frame is received fully
+     */
+    private AMQFrame decode(java.nio.ByteBuffer frame) throws AMQFrameDecodingException,
+            AMQProtocolVersionException {
+        java.nio.ByteBuffer in = frame.duplicate();
+        if (!decoder.decodable(in)) {
+            throw new IllegalStateException("Frame is not decodable");
+        }
+        in.rewind();
+        return decoder.createAndPopulateFrame(bodyFactory, ByteBuffer.wrap(in));
+    }
+
+    /**
+     * Create a protocol session that only provides the method registry, which is all method frames are decoded with
+     */
+    private static AMQVersionAwareProtocolSession createSession() {
+        final MethodRegistry methodRegistry = MethodRegistry.getMethodRegistry(ProtocolVersion.v0_91);
+        return (AMQVersionAwareProtocolSession) Proxy.newProxyInstance(
+                AMQVersionAwareProtocolSession.class.getClassLoader(),
+                new Class<?>[] { AMQVersionAwareProtocolSession.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getMethodRegistry".equals(method.getName())) {
+                            return methodRegistry;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.framing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of interning the short strings decoded from method frames, such as exchange names, routing keys and
+ * consumer tags. Compares the previous interning, a per thread weak map in front of a global weak map guarded by a
+ * lock, with {@link AMQShortString#intern()} and with interning straight from the decode buffer through
+ * {@link AMQShortString#readInternedFromBuffer(ByteBuffer)}.
+ * <p>
+ * Run through {@link #main(String[])} to measure with 1, 8 and 32 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AMQShortStringInternBenchmark {
+
+    /**
+     * Number of distinct names interned
+     */
+    @Param({ "1000" })
+    private int nameCount;
+
+    /**
+     * Names interned, created apart from the interned instances
+     */
+    private AMQShortString[] names;
+
+    /**
+     * Names encoded one after the other as in a frame, with the offset of each name
+     */
+    private byte[] encodedNames;
+
+    private int[] offsets;
+
+    /**
+     * Interning as done before the concurrent intern table
+     */
+    private final LegacyInternTable legacyInternTable = new LegacyInternTable();
+
+    @Setup
+    public void setup() {
+        names = new AMQShortString[nameCount];
+        offsets = new int[nameCount];
+        ByteBuffer buffer = ByteBuffer.allocate(nameCount * 32, false);
+        for (int i = 0; i < nameCount; i++) {
+            names[i] = new AMQShortString("amq.topic.routing.key." + i);
+            offsets[i] = buffer.position();
+            names[i].writeToBuffer(buffer);
+            names[i].intern();
+            legacyInternTable.intern(names[i]);
+        }
+        buffer.flip();
+        encodedNames = new byte[buffer.remaining()];
+        buffer.get(encodedNames);
+    }
+
+    /**
+     * Per thread position in the names and the decode buffer the thread reads from
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private int index;
+
+        private ByteBuffer buffer;
+
+        @Setup(Level.Iteration)
+        public void setup(AMQShortStringInternBenchmark benchmark) {
+            buffer = ByteBuffer.wrap(benchmark.encodedNames.clone());
+        }
+
+        int next(int count) {
+            index = (index + 1) % count;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public AMQShortString legacyIntern(ThreadState threadState) {
+        return legacyInternTable.intern(names[threadState.next(nameCount)]);
+    }
+
+    @Benchmark
+    public AMQShortString intern(ThreadState threadState) {
+        return names[threadState.next(nameCount)].intern();
+    }
+
+    @Benchmark
+    public AMQShortString readFromBufferAndIntern(ThreadState threadState) {
+        ByteBuffer buffer = threadState.buffer;
+        buffer.position(offsets[threadState.next(nameCount)]);
+        return AMQShortString.readFromBuffer(buffer).intern();
+    }
+
+    @Benchmark
+    public AMQShortString readInternedFromBuffer(ThreadState threadState) {
+        ByteBuffer buffer = threadState.buffer;
+        buffer.position(offsets[threadState.next(nameCount)]);
+        return AMQShortString.readInternedFromBuffer(buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32 }) {
+            new Runner(new OptionsBuilder()
+                               .include(AMQShortStringInternBenchmark.class.getSimpleName())
+                               .threads(threads)
+                               .build()).run();
+        }
+    }
+
+    /**
+     * The interning of {@link AMQShortString} replaced by the concurrent intern table
+     */
+    private static class LegacyInternTable {
+
+        private final ThreadLocal<Map<AMQShortString, WeakReference<AMQShortString>>> localInternMap =
+                new ThreadLocal<Map<AMQShortString, WeakReference<AMQShortString>>>() {
+                    @Override
+                    protected Map<AMQShortString, WeakReference<AMQShortString>> initialValue() {
+                        return new WeakHashMap<>();
+                    }
+                };
+
+        private final Map<AMQShortString, WeakReference<AMQShortString>> globalInternMap = new WeakHashMap<>();
+
+        AMQShortString intern(AMQShortString string) {
+            Map<AMQShortString, WeakReference<AMQShortString>> localMap = localInternMap.get();
+            WeakReference<AMQShortString> reference = localMap.get(string);
+            AMQShortString internString;
+            if (null != reference) {
+                internString = reference.get();
+                if (null != internString) {
+                    return internString;
+                }
+            }
+
+            synchronized (globalInternMap) {
+                reference = globalInternMap.get(string);
+                if ((null == reference) || (null == (internString = reference.get()))) {
+                    internString = string.shrink();
+                    reference = new WeakReference<>(internString);
+                    globalInternMap.put(internString, reference);
+                }
+            }
+            localMap.put(internString, reference);
+            return internString;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.framing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.framing.FieldTable;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding the application headers of a message into a frame and decoding them back, through
+ * {@link FieldTable}. Headers hold a mix of the string, integer, long and boolean properties JMS clients set. A
+ * decoded table is only parsed when a property is read, hence decoding reads a property.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldTableBenchmark {
+
+    /**
+     * Number of application properties in the headers
+     */
+    @Param({ "4", "32" })
+    private int propertyCount;
+
+    /**
+     * Names and string values of the properties
+     */
+    private String[] names;
+
+    private String[] values;
+
+    /**
+     * Headers as encoded into a frame, without the length of the table
+     */
+    private ByteBuffer encoded;
+
+    private ByteBuffer encodeBuffer;
+
+    @Setup
+    public void setup() {
+        names = new String[propertyCount];
+        values = new String[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            names[i] = "property" + i;
+            values[i] = "value-of-property-" + i;
+        }
+
+        FieldTable headers = createHeaders();
+        encodeBuffer = ByteBuffer.allocate((int) headers.getEncodedSize() + 4, false);
+
+        headers.writeToBuffer(encodeBuffer);
+        encodeBuffer.flip();
+        encodeBuffer.getUnsignedInt();
+        encoded = ByteBuffer.allocate(encodeBuffer.remaining(), false);
+        encoded.put(encodeBuffer);
+        encoded.flip();
+    }
+
+    /**
+     * Build the headers and encode them, as a client publishing a message does
+     */
+    @Benchmark
+    public ByteBuffer encode() {
+        FieldTable table = createHeaders();
+        encodeBuffer.clear();
+        table.writeToBuffer(encodeBuffer);
+        return encodeBuffer;
+    }
+
+    /**
+     * Encode headers already encoded once, as the broker does for headers decoded from a received message
+     */
+    @Benchmark
+    public ByteBuffer reEncode() {
+        FieldTable table = new FieldTable(encoded.duplicate(), encoded.remaining());
+        encodeBuffer.clear();
+        table.writeToBuffer(encodeBuffer);
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    public Object decode() {
+        FieldTable table = new FieldTable(encoded.duplicate(), encoded.remaining());
+        return table.getString(names[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(FieldTableBenchmark.class.getSimpleName())
+                           .build()).run();
+    }
+
+    private FieldTable createHeaders() {
+        FieldTable table = new FieldTable();
+        for (int i = 0; i < propertyCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    table.setString(names[i], values[i]);
+                    break;
+                case 1:
+                    table.setInteger(names[i], i);
+                    break;
+                case 2:
+                    table.setLong(names[i], (long) i);
+                    break;
+                default:
+                    table.setBoolean(names[i], true);
+                    break;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.kernel.disruptor.compression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
+import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compressing the content of a message as it is stored and decompressing it as it is delivered, through
+ * {@link LZ4CompressionHelper}. Compares compressing the whole content into a single part with compressing each
+ * content chunk on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LZ4CompressionHelperBenchmark {
+
+    @Param({ "1024", "65536", "1048576" })
+    private int contentSize;
+
+    private LZ4CompressionHelper compressionHelper;
+
+    private LZ4ChunkCompressionHelper chunkCompressionHelper;
+
+    /**
+     * Content as received, and compressed as a whole and per chunk
+     */
+    private List<AndesMessagePart> content;
+
+    private List<AndesMessagePart> compressedContent;
+
+    private List<AndesMessagePart> compressedChunks;
+
+    @Setup
+    public void setup() throws AndesException {
+        BenchmarkEnvironment.initialiseConfiguration();
+
+        compressionHelper = new LZ4CompressionHelper();
+        chunkCompressionHelper = compressionHelper.getChunkCompressionHelper();
+        content = BenchmarkEnvironment.createContent(1, contentSize);
+        compressedContent = Collections.singletonList(compressionHelper.getCompressedMessage(content, contentSize));
+        compressedChunks = chunkCompressionHelper.compressChunks(content, contentSize);
+    }
+
+    @Benchmark
+    public AndesMessagePart compress() {
+        return compressionHelper.getCompressedMessage(content, contentSize);
+    }
+
+    @Benchmark
+    public Map<Integer, AndesMessagePart> decompress() {
+        return compressionHelper.getDecompressedMessage(compressedContent, contentSize, 1, false);
+    }
+
+    @Benchmark
+    public List<AndesMessagePart> compressChunks() {
+        return chunkCompressionHelper.compressChunks(content, contentSize);
+    }
+
+    @Benchmark
+    public Map<Integer, AndesMessagePart> decompressChunks() {
+        return compressionHelper.getDecompressedMessage(compressedChunks, contentSize, 1, true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(LZ4CompressionHelperBenchmark.class.getSimpleName())
+                           .build()).run();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.kernel.disruptor.delivery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.benchmarks.StubMessageStore;
+import org.wso2.andes.kernel.AndesContent;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.DeliverableAndesMetadata;
+import org.wso2.andes.kernel.ProtocolMessage;
+import org.wso2.andes.kernel.ProtocolType;
+import org.wso2.andes.kernel.disruptor.delivery.DisruptorBasedFlusher;
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.kernel.subscription.AndesSubscription;
+import org.wso2.andes.kernel.subscription.OutboundSubscription;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+import org.wso2.andes.kernel.subscription.SubscriberConnection;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of delivering messages through {@link DisruptorBasedFlusher}, from the submission of a message read
+ * for a subscription until it is handed over to the transport, with content read from a stub store. Subscriptions
+ * accept every message and do nothing with it, hence the benchmark measures the content read, the decompression and
+ * the dispatch of the outbound disruptor.
+ * <p>
+ * Each invocation submits a batch of messages to the subscription of the thread and waits for all of them to be
+ * handed over. Run through {@link #main(String[])} to measure with 1 and 8 subscriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisruptorBasedFlusherBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String QUEUE_NAME = "benchmark-queue";
+
+    @Param({ "0", "1024", "65536" })
+    private int contentSize;
+
+    private DisruptorBasedFlusher flusher;
+
+    private StorageQueue storageQueue;
+
+    private byte[] encodedMetadata;
+
+    /**
+     * Messages are given ids never used before, so that content is read from the store rather than from the cache of
+     * the content readers
+     */
+    private final AtomicLong messageIdGenerator = new AtomicLong();
+
+    @Setup
+    public void setup() throws AndesException {
+        StubMessageStore messageStore = BenchmarkEnvironment.initialiseKernel();
+        messageStore.setContentSize(contentSize);
+
+        storageQueue = new StorageQueue(QUEUE_NAME, true, false, null, false);
+        int chunkCount = BenchmarkEnvironment.createContent(0, contentSize).size();
+        encodedMetadata = BenchmarkEnvironment.encodeAMQPMetadata(AMQPUtils.DIRECT_EXCHANGE_NAME, QUEUE_NAME,
+                contentSize, chunkCount);
+        flusher = new DisruptorBasedFlusher();
+    }
+
+    @TearDown
+    public void tearDown() {
+        flusher.stop();
+    }
+
+    /**
+     * Subscription of a thread and the messages handed over to it
+     */
+    @State(Scope.Thread)
+    public static class Subscriber {
+
+        private NoOpOutboundSubscription outboundSubscription;
+
+        private AndesSubscription subscription;
+
+        private long submitted;
+
+        @Setup
+        public void setup(DisruptorBasedFlusherBenchmark benchmark) {
+            UUID channelId = UUID.randomUUID();
+            outboundSubscription = new NoOpOutboundSubscription(channelId);
+            SubscriberConnection connection = new SubscriberConnection("127.0.0.1", "benchmark-node", channelId,
+                    outboundSubscription);
+            subscription = new AndesSubscription(channelId.toString(), benchmark.storageQueue, ProtocolType.AMQP,
+                    connection);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long deliver(Subscriber subscriber) {
+        UUID channelId = subscriber.outboundSubscription.getChannelID();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            DeliverableAndesMetadata message = new DeliverableAndesMetadata(new Slot(),
+                    messageIdGenerator.incrementAndGet(), encodedMetadata, true);
+            flusher.submit(subscriber.subscription, message.generateProtocolDeliverableMessage(channelId));
+        }
+        subscriber.submitted = subscriber.submitted + BATCH_SIZE;
+        while (subscriber.outboundSubscription.delivered.get() < subscriber.submitted) {
+            Thread.yield();
+        }
+        return subscriber.submitted;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8 }) {
+            new Runner(new OptionsBuilder()
+                               .include(DisruptorBasedFlusherBenchmark.class.getSimpleName())
+                               .threads(threads)
+                               .build()).run();
+        }
+    }
+
+    /**
+     * Transport side of a subscription that accepts every message and only counts the messages handed over
+     */
+    private static class NoOpOutboundSubscription implements OutboundSubscription {
+
+        private final AtomicLong delivered = new AtomicLong();
+
+        private final UUID channelId;
+
+        private final long subscribeTime = System.currentTimeMillis();
+
+        NoOpOutboundSubscription(UUID channelId) {
+            this.channelId = channelId;
+        }
+
+        @Override
+        public void forcefullyDisconnect() {
+        }
+
+        @Override
+        public boolean isMessageAcceptedBySelector(AndesMessageMetadata messageMetadata) {
+            return true;
+        }
+
+        @Override
+        public boolean sendMessageToSubscriber(ProtocolMessage messageMetadata, AndesContent content) {
+            delivered.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public boolean isOutboundConnectionLive() {
+            return true;
+        }
+
+        @Override
+        public UUID getChannelID() {
+            return channelId;
+        }
+
+        @Override
+        public long getSubscribeTime() {
+            return subscribeTime;
+        }
+
+        @Override
+        public String getProtocolQueueName() {
+            return QUEUE_NAME;
+        }
+    }
+}
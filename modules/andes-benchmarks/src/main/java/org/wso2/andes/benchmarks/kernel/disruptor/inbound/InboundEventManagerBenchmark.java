@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.kernel.disruptor.inbound;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.kernel.AndesChannel;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.FlowControlListener;
+import org.wso2.andes.kernel.FlowControlManager;
+import org.wso2.andes.kernel.MessagingEngine;
+import org.wso2.andes.kernel.disruptor.inbound.InboundEventManager;
+import org.wso2.andes.kernel.disruptor.inbound.PubAckHandler;
+import org.wso2.andes.kernel.router.TopicMessageRouter;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of publishing messages through {@link InboundEventManager}, from the hand over by a transport until the
+ * publisher is acknowledged, with messages persisted to a stub store. Each message is routed to the given number of
+ * storage queues through the topic exchange, hence copies are created for a fan out above one. Content above the
+ * compression threshold is compressed with the default compression method.
+ * <p>
+ * Each invocation publishes a batch of messages and waits for all of them to be acknowledged. The run fails if any
+ * message is rejected, so that a failing pipeline is not reported as throughput. Run through
+ * {@link #main(String[])} to measure with 1 and 8 publishers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundEventManagerBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String ROUTING_KEY = "benchmark.inbound";
+
+    @Param({ "0", "1024", "65536" })
+    private int contentSize;
+
+    /**
+     * Number of storage queues each message is routed to
+     */
+    @Param({ "1", "4" })
+    private int fanOut;
+
+    private InboundEventManager inboundEventManager;
+
+    private FlowControlManager flowControlManager;
+
+    private List<AndesMessagePart> content;
+
+    private byte[] encodedMetadata;
+
+    @Setup
+    public void setup() throws AndesException {
+        BenchmarkEnvironment.initialiseKernel();
+
+        TopicMessageRouter router = new TopicMessageRouter(AMQPUtils.TOPIC_EXCHANGE_NAME, "topic", false);
+        AndesContext.getInstance().getMessageRouterRegistry().registerMessageRouter(router.getName(), router);
+        for (int i = 0; i < fanOut; i++) {
+            StorageQueue storageQueue = new StorageQueue("carbon:benchmark-subscriber-" + i, true, false, null, false);
+            storageQueue.bindQueueToMessageRouter(ROUTING_KEY, router);
+        }
+
+        content = BenchmarkEnvironment.createContent(0, contentSize);
+        encodedMetadata = BenchmarkEnvironment.encodeAMQPMetadata(AMQPUtils.TOPIC_EXCHANGE_NAME, ROUTING_KEY,
+                contentSize, content.size());
+        flowControlManager = new FlowControlManager();
+        inboundEventManager = new InboundEventManager(MessagingEngine.getInstance());
+    }
+
+    @TearDown
+    public void tearDown() {
+        inboundEventManager.stop();
+    }
+
+    /**
+     * Channel and acknowledgements of a publisher
+     */
+    @State(Scope.Thread)
+    public static class Publisher implements PubAckHandler, FlowControlListener {
+
+        private final AtomicLong acknowledged = new AtomicLong();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        private AndesChannel channel;
+
+        private long published;
+
+        @Setup
+        public void setup(InboundEventManagerBenchmark benchmark) {
+            channel = benchmark.flowControlManager.createChannel(this);
+        }
+
+        @Override
+        public void ack(AndesMessageMetadata metadata) {
+            acknowledged.incrementAndGet();
+        }
+
+        @Override
+        public void nack(AndesMessageMetadata metadata) {
+            rejected.incrementAndGet();
+        }
+
+        @Override
+        public void block() {
+            // Publishing is not throttled, the benchmark waits for each batch to be acknowledged instead
+        }
+
+        @Override
+        public void unblock() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long publish(Publisher publisher) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            inboundEventManager.messageReceived(createMessage(), publisher.channel, publisher);
+        }
+        publisher.published = publisher.published + BATCH_SIZE;
+        while (publisher.acknowledged.get() + publisher.rejected.get() < publisher.published) {
+            Thread.yield();
+        }
+        if (publisher.rejected.get() > 0) {
+            throw new IllegalStateException(publisher.rejected.get() + " of " + publisher.published
+                    + " published messages were rejected");
+        }
+        return publisher.published;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8 }) {
+            new Runner(new OptionsBuilder()
+                               .include(InboundEventManagerBenchmark.class.getSimpleName())
+                               .threads(threads)
+                               .build()).run();
+        }
+    }
+
+    /**
+     * Create a message as handed over by the AMQP transport. The message id is set by the inbound disruptor.
+     */
+    private AndesMessage createMessage() {
+        AndesMessageMetadata metadata = new AndesMessageMetadata(0, encodedMetadata, true);
+        metadata.setArrivalTime(System.currentTimeMillis());
+
+        AndesMessage message = new AndesMessage(metadata);
+        for (AndesMessagePart part : content) {
+            message.addMessagePart(part.shallowCopy(0));
+        }
+        return message;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.kernel.router;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.ProtocolType;
+import org.wso2.andes.kernel.router.TopicMessageRouter;
+import org.wso2.andes.kernel.router.TopicRoutingMatcher;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of matching the routing key of a message published to the topic exchange against the binding keys of the
+ * storage queues bound, through {@link TopicRoutingMatcher#getMatchingStorageQueues(String)}. Binding keys are a mix
+ * of exact keys, keys with a single level wildcard and keys with a multi level wildcard, over routing keys of three
+ * levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicRoutingMatcherBenchmark {
+
+    /**
+     * Number of distinct values of each level of a routing key
+     */
+    private static final int LEVEL_WIDTH = 10;
+
+    /**
+     * Number of storage queues bound
+     */
+    @Param({ "100", "1000", "10000" })
+    private int queueCount;
+
+    private TopicRoutingMatcher matcher;
+
+    private String[] routingKeys;
+
+    @Setup
+    public void setup() throws AndesException {
+        BenchmarkEnvironment.initialiseConfiguration();
+
+        // Queues are bound to a router so that they carry their binding key, and are added to a matcher of their own
+        TopicMessageRouter router = new TopicMessageRouter(AMQPUtils.TOPIC_EXCHANGE_NAME, "topic", false);
+        matcher = new TopicRoutingMatcher(ProtocolType.AMQP);
+        for (int i = 0; i < queueCount; i++) {
+            StorageQueue storageQueue = new StorageQueue("carbon:benchmark-subscriber-" + i, true, false, null, false);
+            storageQueue.bindQueueToMessageRouter(bindingKey(i), router);
+            matcher.addStorageQueue(storageQueue);
+        }
+
+        routingKeys = new String[LEVEL_WIDTH * LEVEL_WIDTH * LEVEL_WIDTH];
+        for (int i = 0; i < routingKeys.length; i++) {
+            routingKeys[i] = "region" + (i / (LEVEL_WIDTH * LEVEL_WIDTH))
+                    + ".service" + ((i / LEVEL_WIDTH) % LEVEL_WIDTH)
+                    + ".event" + (i % LEVEL_WIDTH);
+        }
+    }
+
+    /**
+     * Position in the routing keys of a thread
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private int index;
+
+        int next(int count) {
+            index = (index + 1) % count;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public Set<StorageQueue> getMatchingStorageQueues(ThreadState threadState) {
+        return matcher.getMatchingStorageQueues(routingKeys[threadState.next(routingKeys.length)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(TopicRoutingMatcherBenchmark.class.getSimpleName())
+                           .build()).run();
+    }
+
+    /**
+     * Get the binding key of a queue. Half of the queues bind exact keys, the rest bind keys with wildcards.
+     */
+    private static String bindingKey(int queueIndex) {
+        int region = queueIndex % LEVEL_WIDTH;
+        int service = (queueIndex / LEVEL_WIDTH) % LEVEL_WIDTH;
+        int event = (queueIndex / (LEVEL_WIDTH * LEVEL_WIDTH)) % LEVEL_WIDTH;
+        switch (queueIndex % 4) {
+            case 0:
+            case 1:
+                return "region" + region + ".service" + service + ".event" + event;
+            case 2:
+                return "region" + region + ".service" + service + ".*";
+            default:
+                return "region" + region + ".#";
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.benchmarks.store.cache;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.benchmarks.BenchmarkEnvironment;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.store.cache.GuavaBasedMessageCacheImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the operations of {@link GuavaBasedMessageCacheImpl} on the paths messages take through the broker. A
+ * message is cached when it is stored, its content is filled in from the cache for delivery in batches of the content
+ * read batch, and it is removed from the cache once acknowledged. The cache holds the given number of messages
+ * throughout, with the default cache size and expiry.
+ * <p>
+ * Run through {@link #main(String[])} to measure with 1 and 8 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuavaBasedMessageCacheBenchmark {
+
+    /**
+     * Number of messages content is filled in for at once
+     */
+    private static final int FILL_BATCH_SIZE = 100;
+
+    /**
+     * Number of messages held in the cache
+     */
+    @Param({ "1000" })
+    private int messageCount;
+
+    @Param({ "1024", "65536" })
+    private int contentSize;
+
+    private GuavaBasedMessageCacheImpl cache;
+
+    private AndesMessage[] messages;
+
+    @Setup
+    public void setup() throws AndesException {
+        BenchmarkEnvironment.initialiseConfiguration();
+
+        cache = new GuavaBasedMessageCacheImpl();
+        byte[] encodedMetadata = BenchmarkEnvironment.encodeAMQPMetadata(AMQPUtils.DIRECT_EXCHANGE_NAME,
+                "benchmark-queue", contentSize, 1);
+        List<AndesMessagePart> content = BenchmarkEnvironment.createContent(0, contentSize);
+
+        messages = new AndesMessage[messageCount];
+        for (int i = 0; i < messageCount; i++) {
+            AndesMessage message = new AndesMessage(new AndesMessageMetadata(i, encodedMetadata, true));
+            for (AndesMessagePart part : content) {
+                message.addMessagePart(part.shallowCopy(i));
+            }
+            messages[i] = message;
+            cache.addToCache(message);
+        }
+    }
+
+    /**
+     * Position in the messages of a thread
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private int index;
+
+        int next(int count) {
+            index = (index + 1) % count;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public AndesMessage getMessageFromCache(ThreadState threadState) {
+        return cache.getMessageFromCache(threadState.next(messageCount));
+    }
+
+    @Benchmark
+    public AndesMessagePart getContentFromCache(ThreadState threadState) {
+        return cache.getContentFromCache(threadState.next(messageCount), 0);
+    }
+
+    /**
+     * Fill in the content of a batch of messages, as the content of messages delivered is read
+     */
+    @Benchmark
+    public LongObjectHashMap<List<AndesMessagePart>> fillContentFromCache(ThreadState threadState) {
+        LongArrayList messageIds = new LongArrayList(FILL_BATCH_SIZE);
+        for (int i = 0; i < FILL_BATCH_SIZE; i++) {
+            messageIds.add(threadState.next(messageCount));
+        }
+        LongObjectHashMap<List<AndesMessagePart>> content = new LongObjectHashMap<>(FILL_BATCH_SIZE);
+        cache.fillContentFromCache(messageIds, content);
+        return content;
+    }
+
+    /**
+     * Remove a message from the cache and add it back, as a message is acknowledged and another one is stored
+     */
+    @Benchmark
+    public void removeAndAddToCache(ThreadState threadState) {
+        AndesMessage message = messages[threadState.next(messageCount)];
+        cache.removeFromCache(message.getMetadata().getMessageID());
+        cache.addToCache(message);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8 }) {
+            new Runner(new OptionsBuilder()
+                               .include(GuavaBasedMessageCacheBenchmark.class.getSimpleName())
+                               .threads(threads)
+                               .build()).run();
+        }
+    }
+}
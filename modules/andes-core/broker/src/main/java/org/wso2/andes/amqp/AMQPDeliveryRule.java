@@ -19,12 +19,20 @@ package org.wso2.andes.amqp;
 
 
 import org.wso2.andes.kernel.AndesException;
-import org.wso2.andes.server.queue.QueueEntry;
+import org.wso2.andes.kernel.ProtocolMessage;
 
 /**
- * This interface have methods to implement to evaluate AMQP specific
- * Deliver Rule
+ * Rule evaluated before a message is delivered to an AMQP subscriber
  */
 public interface AMQPDeliveryRule {
-    boolean evaluate(QueueEntry message) throws AndesException;
+
+    /**
+     * Evaluate the rule for a delivery
+     *
+     * @param headerView headers of the message, shared by all the deliveries of the message
+     * @param message    message being delivered
+     * @return true if the message can be delivered
+     * @throws AndesException on an error evaluating the rule
+     */
+    boolean evaluate(AMQPMessageHeaderView headerView, ProtocolMessage message) throws AndesException;
 }
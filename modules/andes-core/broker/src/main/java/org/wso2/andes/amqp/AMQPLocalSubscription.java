@@ -21,6 +21,7 @@ package org.wso2.andes.amqp;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.AMQException;
+import org.wso2.andes.kernel.AMQPMetaDataHandler;
 import org.wso2.andes.kernel.Andes;
 import org.wso2.andes.kernel.AndesAckData;
 import org.wso2.andes.kernel.AndesContent;
@@ -33,10 +34,10 @@ import org.wso2.andes.kernel.SubscriptionAlreadyClosedException;
 import org.wso2.andes.server.AMQChannel;
 import org.wso2.andes.server.binding.Binding;
 import org.wso2.andes.server.message.AMQMessage;
-import org.wso2.andes.server.message.MessageMetaData;
 import org.wso2.andes.server.queue.AMQQueue;
 import org.wso2.andes.server.queue.QueueEntry;
-import org.wso2.andes.server.store.StoredMessage;
+import org.wso2.andes.server.queue.QueueEntryImpl;
+import org.wso2.andes.server.queue.SimpleQueueEntryList;
 import org.wso2.andes.server.subscription.Subscription;
 import org.wso2.andes.server.subscription.SubscriptionImpl;
 import org.wso2.andes.kernel.subscription.OutboundSubscription;
@@ -45,9 +46,7 @@ import org.wso2.andes.AMQSubscriptionClosedException;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -75,10 +74,13 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     private long subscribeTime;
 
     /*
-     * This map works as a cache for queue entries, preventing need to convert
-     * DeliverableAndesMetadata to queue entries two times
+     * Queue entry list the delivered queue entries refer to. Entries are never linked to the list. It only
+     * gives them access to the queue, so that a list need not be created for each delivery.
      */
-    private Map<Long, StoredMessage<MessageMetaData>> storedMessageCache;
+    private final SimpleQueueEntryList deliveryEntryList;
+
+    //if JMSXDeliveryCount header should be set on delivered messages
+    private boolean isDeliveryCountTracked;
 
     //List of Delivery Rules to evaluate
     private List<AMQPDeliveryRule> amqpDeliveryRuleList = new ArrayList<>();
@@ -89,15 +91,12 @@ public class AMQPLocalSubscription implements OutboundSubscription {
         this.amqQueue = amqpSubscription.getQueue();
         this.isDurable = amqpSubscription.getQueue().isDurable();
         this.amqpSubscription = amqpSubscription;
+        this.deliveryEntryList = new SimpleQueueEntryList(amqQueue);
 
         if (amqpSubscription != null && amqpSubscription instanceof SubscriptionImpl) {
             channel = ((SubscriptionImpl) amqpSubscription).getChannel();
             initializeDeliveryRules();
         }
-
-        //We leave the default values for initialCapacity and progression factor
-        //We re define concurrencyLevel as 2, since there will be only 2 threads which accesses it concurrently
-        this.storedMessageCache = new ConcurrentHashMap<>(16,0.75f,2);
     }
 
     /**
@@ -118,6 +117,7 @@ public class AMQPLocalSubscription implements OutboundSubscription {
             // durable
             // subscriptions
             amqpDeliveryRuleList.add(new MaximumNumOfDeliveryRule());
+            isDeliveryCountTracked = true;
         }
 
         //checking no local delivery rule
@@ -163,14 +163,12 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     public boolean isMessageAcceptedBySelector(AndesMessageMetadata messageMetadata)
             throws AndesException {
 
-        AMQMessage amqMessage = AMQPUtils.getAMQMessageFromAndesMetaData(messageMetadata);
-        QueueEntry message = AMQPUtils.convertAMQMessageToQueueEntry(amqMessage, amqQueue);
-
-        if(amqpSubscription.hasInterest(message)) {
-            storedMessageCache.put(message.getMessage().getMessageNumber(), amqMessage.getStoredMessage());
-            return true;
+        if (amqpSubscription instanceof SubscriptionImpl) {
+            AMQPMessageHeaderView headerView = AMQPMessageHeaderView.getHeaderView(messageMetadata);
+            return ((SubscriptionImpl) amqpSubscription).isAcceptedByFilters(headerView);
         } else {
-            return false;
+            AMQMessage amqMessage = AMQPUtils.getAMQMessageFromAndesMetaData(messageMetadata);
+            return amqpSubscription.hasInterest(AMQPUtils.convertAMQMessageToQueueEntry(amqMessage, amqQueue));
         }
     }
 
@@ -181,30 +179,31 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     public boolean sendMessageToSubscriber(ProtocolMessage messageMetadata, AndesContent content)
             throws AndesException {
 
-        StoredMessage<MessageMetaData> cachedStoredMessage = storedMessageCache.get(messageMetadata.getMessageID());
+        AMQPMessageHeaderView headerView = AMQPMessageHeaderView.getHeaderView(messageMetadata.getMessage());
 
-        AMQMessage message;
+        if (!evaluateDeliveryRules(headerView, messageMetadata)) {
+            throw new ProtocolDeliveryRulesFailureException("AMQP delivery rule evaluation failed");
+        }
 
-        if(null != cachedStoredMessage) {
-            message = AMQPUtils.getQueueEntryFromStoredMessage(cachedStoredMessage, content);
-            storedMessageCache.remove(messageMetadata.getMessageID());
-            message.setAndesMetadataReference(messageMetadata);
-        } else {
+        AMQMessage message;
+        if (isDeliveryCountTracked) {
+            // JMSXDeliveryCount differs between deliveries. Hence the header is set on a private copy of the metadata
             message = AMQPUtils.getAMQMessageForDelivery(messageMetadata, content);
+            AMQPMetaDataHandler.setIntProperty(message, messageMetadata.getNumberOfDeliveriesForProtocolChannel());
+        } else {
+            message = AMQPUtils.getAMQMessageForDelivery(messageMetadata, content, headerView.getMetaData());
         }
 
-        QueueEntry messageToSend = AMQPUtils.convertAMQMessageToQueueEntry(message, amqQueue);
+        // Non-durable topic messages are delivered to every subscriber of the topic with the same content
+        message.setSharedDelivery(!isDurable && messageMetadata.getMessage().isTopic());
 
-        if (evaluateDeliveryRules(messageToSend)) {
-            //check if redelivered. If so, set the JMS header
-            if(messageMetadata.isRedelivered()) {
-                messageToSend.setRedelivered();
-            }
-            sendMessage(messageToSend);
+        QueueEntry messageToSend = new QueueEntryImpl(deliveryEntryList, message);
 
-        } else {
-            throw new ProtocolDeliveryRulesFailureException("AMQP delivery rule evaluation failed");
+        //check if redelivered. If so, set the JMS header
+        if(messageMetadata.isRedelivered()) {
+            messageToSend.setRedelivered();
         }
+        sendMessage(messageToSend);
 
         return true;
     }
@@ -212,15 +211,17 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     /**
      * Evaluating Delivery rules before sending the messages
      *
-     * @param message AMQ Message
+     * @param headerView headers of the message
+     * @param message    message to be delivered
      * @return IsOKToDelivery
      * @throws AndesException
      */
-    private boolean evaluateDeliveryRules(QueueEntry message) throws AndesException {
+    private boolean evaluateDeliveryRules(AMQPMessageHeaderView headerView, ProtocolMessage message)
+            throws AndesException {
         boolean isOKToDelivery = true;
 
         for (AMQPDeliveryRule element : amqpDeliveryRuleList) {
-            if (!element.evaluate(message)) {
+            if (!element.evaluate(headerView, message)) {
                 isOKToDelivery = false;
                 break;
             }
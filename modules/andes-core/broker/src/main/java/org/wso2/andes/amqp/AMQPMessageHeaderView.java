@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.server.message.AMQMessageHeader;
+import org.wso2.andes.server.message.MessageMetaData;
+import org.wso2.andes.server.queue.Filterable;
+
+/**
+ * Read only view of the AMQP headers of a message. The metadata bytes are parsed once per message and the view is
+ * kept in the {@link AndesMessageMetadata} so that selectors and delivery rules of every subscriber evaluate against
+ * the same parsed headers, without creating an {@link org.wso2.andes.server.message.AMQMessage} and a
+ * {@link org.wso2.andes.server.queue.QueueEntry} for each of them.
+ * <p>
+ * The view must not be modified. Headers which are different for each delivery, such as JMSXDeliveryCount, are set
+ * on a private copy of the metadata.
+ */
+public class AMQPMessageHeaderView implements Filterable {
+
+    /**
+     * Metadata bytes the view is parsed from
+     */
+    private final byte[] metadataBytes;
+
+    /**
+     * Parsed AMQP metadata
+     */
+    private final MessageMetaData metaData;
+
+    /**
+     * Header adapter over the parsed metadata
+     */
+    private final AMQMessageHeader messageHeader;
+
+    private AMQPMessageHeaderView(byte[] metadataBytes, MessageMetaData metaData) {
+        this.metadataBytes = metadataBytes;
+        this.metaData = metaData;
+        this.messageHeader = metaData.getMessageHeader();
+    }
+
+    /**
+     * Get the header view of a message, parsing the metadata if it is not parsed already or if the metadata was
+     * updated since it was parsed
+     *
+     * @param metadata Andes metadata of the message
+     * @return header view of the message
+     */
+    public static AMQPMessageHeaderView getHeaderView(AndesMessageMetadata metadata) {
+        byte[] metadataBytes = metadata.getMetadata();
+        Object cachedView = metadata.getProtocolMetadataView();
+
+        if (cachedView instanceof AMQPMessageHeaderView
+                && ((AMQPMessageHeaderView) cachedView).metadataBytes == metadataBytes) {
+            return (AMQPMessageHeaderView) cachedView;
+        }
+
+        // Two threads may parse the same message at the same time. Either of the views can be kept since they are
+        // parsed from the same bytes.
+        AMQPMessageHeaderView headerView = new AMQPMessageHeaderView(metadataBytes,
+                (MessageMetaData) AMQPUtils.convertAndesMetadataToAMQMetadata(metadata));
+        metadata.setProtocolMetadataView(headerView);
+        return headerView;
+    }
+
+    /**
+     * @return parsed AMQP metadata. Must not be modified
+     */
+    public MessageMetaData getMetaData() {
+        return metaData;
+    }
+
+    /**
+     * @return session id of the publisher of the message
+     */
+    public long getPublisherSessionID() {
+        return metaData.getPublisherSessionID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AMQMessageHeader getMessageHeader() {
+        return messageHeader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPersistent() {
+        return metaData.isPersistent();
+    }
+
+    /**
+     * The redelivered flag is set per delivery and is not part of the headers shared by all the deliveries
+     *
+     * @return false
+     */
+    @Override
+    public boolean isRedelivered() {
+        return false;
+    }
+}
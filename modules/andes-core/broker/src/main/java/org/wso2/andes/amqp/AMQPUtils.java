@@ -27,6 +27,7 @@ import org.wso2.andes.kernel.AndesMessagePart;
 import org.wso2.andes.kernel.AndesUtils;
 import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.kernel.ProtocolMessage;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
 import org.wso2.andes.kernel.disruptor.inbound.InboundBindingEvent;
 import org.wso2.andes.kernel.disruptor.inbound.InboundExchangeEvent;
 import org.wso2.andes.kernel.disruptor.inbound.InboundQueueEvent;
@@ -74,6 +75,11 @@ public class AMQPUtils {
      */
     public static int DEFAULT_CONTENT_CHUNK_SIZE;
 
+    /**
+     * Used to decompress a single stored chunk of a message compressed chunk by chunk
+     */
+    public static LZ4ChunkCompressionHelper CHUNK_COMPRESSION_HELPER;
+
     private static Log log = LogFactory.getLog(AMQPUtils.class);
 
     /**
@@ -121,9 +127,25 @@ public class AMQPUtils {
      * @return AMQMessage
      */
     public static AMQMessage getAMQMessageForDelivery(ProtocolMessage metadata, AndesContent content) {
+        return getAMQMessageForDelivery(metadata, content, convertAndesMetadataToAMQMetadata(metadata.getMessage()));
+    }
+
+    /**
+     * Create a Qpid AMQMessage for delivery from already parsed metadata. The parsed metadata can be shared by the
+     * deliveries of a message as long as none of them modifies it.
+     *
+     * @param metadata
+     *         Meta object which holds information about the message
+     * @param content
+     *         Content object which has access to the message content
+     * @param metaData
+     *         AMQP metadata parsed from the metadata bytes of the message
+     * @return AMQMessage
+     */
+    public static AMQMessage getAMQMessageForDelivery(ProtocolMessage metadata, AndesContent content,
+                                                      StorableMessageMetaData metaData) {
         long messageId = metadata.getMessageID();
         //create message with meta data. This has access to message content
-        StorableMessageMetaData metaData = convertAndesMetadataToAMQMetadata(metadata.getMessage());
         QpidStoredMessage<MessageMetaData> message = new QpidStoredMessage<>(
                 new StoredAMQPMessage(messageId, metaData), content);
         AMQMessage amqMessage = new AMQMessage(message);
@@ -193,6 +215,22 @@ public class AMQPUtils {
      * @throws AndesException
      */
     public static int fillBufferFromContent(long messageId, int offsetValue, ByteBuffer dst) throws AndesException {
+        return fillBufferFromContent(messageId, offsetValue, dst, false);
+    }
+
+    /**
+     * Read message content from message store and fill the input buffer. If the message content was compressed
+     * chunk by chunk only the chunks covering the requested range are read and decompressed.
+     *
+     * @param messageId         The message Id
+     * @param offsetValue       Chunk offset to read
+     * @param dst               Buffer to fill bytes of content
+     * @param isChunkCompressed True if the message content was compressed chunk by chunk by the server
+     * @return Written byte count
+     * @throws AndesException
+     */
+    public static int fillBufferFromContent(long messageId, int offsetValue, ByteBuffer dst,
+                                            boolean isChunkCompressed) throws AndesException {
         int written = 0;
         int initialBufferSize = dst.remaining();
         int currentOffsetValue = offsetValue;
@@ -202,7 +240,8 @@ public class AMQPUtils {
             int indexToQuery = chunkIndex * DEFAULT_CONTENT_CHUNK_SIZE;
             int positionToReadFromChunk = currentOffsetValue - (chunkIndex * DEFAULT_CONTENT_CHUNK_SIZE);
 
-            AndesMessagePart messagePart = resolveCacheAndRetrieveMessagePart(messageId, indexToQuery);
+            AndesMessagePart messagePart =
+                    resolveCacheAndRetrieveMessagePart(messageId, indexToQuery, isChunkCompressed);
 
             int messagePartSize = messagePart.getDataLength();
             int remainingSizeOfBuffer = initialBufferSize - dst.position();
@@ -240,10 +279,13 @@ public class AMQPUtils {
      *
      * @param messageId The message Id
      * @param index The offset index value of the message part
+     * @param isChunkCompressed True if the message content was compressed chunk by chunk by the server
      * @return Message Part
      * @throws AndesException
      */
-    private static AndesMessagePart resolveCacheAndRetrieveMessagePart(long messageId, int index) throws AndesException {
+    private static AndesMessagePart resolveCacheAndRetrieveMessagePart(long messageId, int index,
+                                                                       boolean isChunkCompressed)
+            throws AndesException {
         AndesMessagePart messagePart = null;
         boolean needToCache = true;
 
@@ -258,6 +300,11 @@ public class AMQPUtils {
             if(messagePart == null) {
                 throw new AndesException("Empty message part received while retrieving message content.");
             }
+
+            // Chunk compressed content is stored against original offsets, decompress only the requested chunk
+            if (isChunkCompressed) {
+                messagePart = CHUNK_COMPRESSION_HELPER.decompressChunk(messagePart);
+            }
         }
 
         // The last part of the message content. The cache of this message part will not be useful.
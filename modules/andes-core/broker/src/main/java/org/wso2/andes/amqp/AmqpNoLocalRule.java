@@ -19,9 +19,8 @@ package org.wso2.andes.amqp;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.kernel.ProtocolMessage;
 import org.wso2.andes.server.AMQChannel;
-import org.wso2.andes.server.message.AMQMessage;
-import org.wso2.andes.server.queue.QueueEntry;
 import org.wso2.andes.server.subscription.Subscription;
 
 /**
@@ -47,20 +46,19 @@ public class AmqpNoLocalRule implements AMQPDeliveryRule {
      * @return isOkToDelivery
      */
     @Override
-    public boolean evaluate(QueueEntry message) {
-        AMQMessage amqMessage = (AMQMessage) message.getMessage();
+    public boolean evaluate(AMQPMessageHeaderView headerView, ProtocolMessage message) {
         boolean isOKToDelivery;
         if (amqpSubscription.isNoLocal()) {
         /*
         When subscription's no local option is enabled we should block sending messages to the same session
         that mean we don't send messages for local subscribers
         */
-            if (amqMessage.getMessageMetaData().getPublisherSessionID() !=
+            if (headerView.getPublisherSessionID() !=
                 amqChannel.getProtocolSession().getSessionID()) {
                 isOKToDelivery = true;
             } else {
                 isOKToDelivery = false;
-                log.warn("No Local violation id: " + amqMessage.getMessageId());
+                log.warn("No Local violation id: " + message.getMessageID());
             }
         } else {
             isOKToDelivery = true;
@@ -21,11 +21,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
-import org.wso2.andes.kernel.AMQPMetaDataHandler;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.ProtocolMessage;
-import org.wso2.andes.server.message.AMQMessage;
-import org.wso2.andes.server.queue.QueueEntry;
 import org.wso2.andes.tools.utils.MessageTracer;
 
 /**
@@ -47,17 +44,14 @@ public class MaximumNumOfDeliveryRule implements AMQPDeliveryRule {
      * @throws AndesException
      */
     @Override
-    public boolean evaluate(QueueEntry message) throws AndesException {
-        long messageID = message.getMessage().getMessageNumber();
+    public boolean evaluate(AMQPMessageHeaderView headerView, ProtocolMessage protocolMessage)
+            throws AndesException {
+        long messageID = protocolMessage.getMessageID();
         //Check if number of redelivery tries has breached.
         //we should allow a number of delivery attempts that is equal to the maximumRedeliveryTries + 1
         //since we set the limit on maxRedeliveryTries rather than maxDeliveryTries
-        ProtocolMessage protocolMessage = ((AMQMessage)message.getMessage()).getAndesMetadataReference();
         int numOfDeliveriesOfCurrentMsg = protocolMessage.getNumberOfDeliveriesForProtocolChannel();
 
-        //set delivery count as JMSXDeliveryCount property
-        AMQPMetaDataHandler.setIntProperty((AMQMessage)message.getMessage(), numOfDeliveriesOfCurrentMsg);
-
         MessageTracer.trace(messageID, numOfDeliveriesOfCurrentMsg, protocolMessage.getChannelID(), "Delivery count "
                 + "evaluated");
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.framing.AMQMethodBody;
+import org.wso2.andes.framing.amqp_0_91.MethodRegistry_0_91;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.disruptor.inbound.PubAckHandler;
+import org.wso2.andes.server.AMQChannel;
+import org.wso2.andes.server.protocol.AMQProtocolSession;
+
+/**
+ * Publisher acknowledgement handler of an AMQP channel in confirm mode. Each message published on the channel is
+ * given a publish sequence number, starting from 1, which is carried in the message metadata. Once the message is
+ * persisted by the message writers a basic.ack with that sequence number is written to the publisher, and a
+ * basic.nack if the message could not be persisted.
+ */
+public class PublisherConfirmHandler implements PubAckHandler {
+
+    private static Log log = LogFactory.getLog(PublisherConfirmHandler.class);
+
+    /**
+     * Message metadata property the publish sequence number is stored under
+     */
+    public static final String PUBLISH_SEQUENCE_NUMBER = "AMQP_PUBLISH_SEQUENCE_NUMBER";
+
+    /**
+     * Channel the messages are published to
+     */
+    private final AMQChannel channel;
+
+    /**
+     * Last publish sequence number given out. Only accessed from the thread reading frames of the channel
+     */
+    private long lastPublishSequenceNumber;
+
+    public PublisherConfirmHandler(AMQChannel channel) {
+        this.channel = channel;
+        lastPublishSequenceNumber = 0;
+    }
+
+    /**
+     * Get the publish sequence number for the next message published on the channel
+     *
+     * @return publish sequence number
+     */
+    public long nextPublishSequenceNumber() {
+        lastPublishSequenceNumber++;
+        return lastPublishSequenceNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ack(AndesMessageMetadata metadata) {
+        confirm(getPublishSequenceNumber(metadata), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nack(AndesMessageMetadata metadata) {
+        confirm(getPublishSequenceNumber(metadata), false);
+    }
+
+    /**
+     * Write a basic.ack or basic.nack for the given publish sequence number to the publisher. This is also used for
+     * messages which are never handed over to Andes, such as unroutable messages.
+     *
+     * @param publishSequenceNumber publish sequence number of the message
+     * @param persisted             true if the message was persisted or need not be persisted, false otherwise
+     */
+    public void confirm(long publishSequenceNumber, boolean persisted) {
+        if (publishSequenceNumber <= 0) {
+            return;
+        }
+
+        if (channel.isClosing()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Channel " + channel.getChannelId() + " is closing. Dropping confirm for publish sequence "
+                        + "number " + publishSequenceNumber);
+            }
+            return;
+        }
+
+        AMQProtocolSession session = channel.getProtocolSession();
+        MethodRegistry_0_91 methodRegistry = (MethodRegistry_0_91) session.getMethodRegistry();
+
+        AMQMethodBody responseBody;
+        if (persisted) {
+            responseBody = methodRegistry.createBasicAckBody(publishSequenceNumber, false);
+        } else {
+            responseBody = methodRegistry.createBasicNackBody(publishSequenceNumber, false, false);
+        }
+
+        session.writeFrame(responseBody.generateFrame(channel.getChannelId()));
+    }
+
+    /**
+     * Read the publish sequence number of a message
+     *
+     * @param metadata metadata of the message
+     * @return publish sequence number, or 0 if the message was not published in confirm mode
+     */
+    private long getPublishSequenceNumber(AndesMessageMetadata metadata) {
+        Object publishSequenceNumber = metadata.getProperty(PUBLISH_SEQUENCE_NUMBER);
+        if (null == publishSequenceNumber) {
+            return 0;
+        }
+        return (Long) publishSequenceNumber;
+    }
+}
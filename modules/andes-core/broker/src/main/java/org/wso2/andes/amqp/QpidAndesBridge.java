@@ -128,12 +128,35 @@ public class QpidAndesBridge {
      */
     public static void messageReceived(IncomingMessage incomingMessage, AndesChannel andesChannel,
             InboundTransactionEvent transactionEvent) throws AMQException {
+        messageReceived(incomingMessage, andesChannel, transactionEvent, null, 0);
+    }
+
+    /**
+     * message metadata received from AMQP transport.
+     * This should happen after all content chunks are received
+     *
+     * @param incomingMessage       message coming in
+     * @param andesChannel          AndesChannel
+     * @param transactionEvent      not null if this is a message in a transaction, null otherwise
+     * @param confirmHandler        not null if the channel is in confirm mode, null otherwise
+     * @param publishSequenceNumber publish sequence number of the message if the channel is in confirm mode
+     * @throws AMQException when routing key is null
+     */
+    public static void messageReceived(IncomingMessage incomingMessage, AndesChannel andesChannel,
+            InboundTransactionEvent transactionEvent, PublisherConfirmHandler confirmHandler,
+            long publishSequenceNumber) throws AMQException {
         try {
             AndesMessage andesMessage = convertToAndesMessage(incomingMessage);
 
             // Handover message to Andes
             if(null == transactionEvent) { // not a transaction
-                Andes.getInstance().messageReceived(andesMessage, andesChannel, pubAckHandler);
+                if (null != confirmHandler) {
+                    andesMessage.getMetadata().addProperty(PublisherConfirmHandler.PUBLISH_SEQUENCE_NUMBER,
+                            publishSequenceNumber);
+                    Andes.getInstance().messageReceived(andesMessage, andesChannel, confirmHandler);
+                } else {
+                    Andes.getInstance().messageReceived(andesMessage, andesChannel, pubAckHandler);
+                }
             } else { // transaction event
                 transactionEvent.preProcessEnqueue(andesMessage);
             }
@@ -205,11 +228,16 @@ public class QpidAndesBridge {
         int offset = 0;
         for (int i = 0; i < contentChunks; i++) {
             ContentChunk chunk = incomingMessage.getContentChunk(i);
-            AndesMessagePart messagePart = messageContentChunkReceived(
-                                                    metadata.getMessageID(), offset, chunk.getData().buf());
+            AndesMessagePart messagePart = messageContentChunkReceived(metadata.getMessageID(), offset, chunk);
             offset = offset + chunk.getSize();
             andesMessage.addMessagePart(messagePart);
         }
+
+        // Streamed content is already stored, hence the message only refers to it
+        StreamedContentWriter contentWriter = incomingMessage.getContentWriter();
+        if (null != contentWriter) {
+            andesMessage.setSharedContent(contentWriter.complete());
+        }
         return andesMessage;
     }
 
@@ -256,6 +284,31 @@ public class QpidAndesBridge {
         return part;
     }
 
+    /**
+     * message content chunk received to the server. The content is copied straight from the network buffers the
+     * chunk refers to.
+     *
+     * @param messageID       id of message to which content belongs
+     * @param offsetInMessage chunk offset
+     * @param chunk           content chunk received
+     */
+    public static AndesMessagePart messageContentChunkReceived(long messageID, int offsetInMessage,
+                                                               ContentChunk chunk) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Content Part Received id " + messageID + ", offset " + offsetInMessage);
+        }
+        AndesMessagePart part = new AndesMessagePart();
+        final byte[] chunkData = new byte[chunk.getSize()];
+        chunk.copyData(chunkData, 0);
+
+        part.setData(chunkData);
+        part.setMessageID(messageID);
+        part.setOffSet(offsetInMessage);
+
+        return part;
+    }
+
     /**
      * Read a message content chunk form store
      *
@@ -266,9 +319,24 @@ public class QpidAndesBridge {
      * @throws AMQException
      */
     public static int getMessageContentChunk(long messageId, int offsetInMessage, ByteBuffer dst) throws AMQException {
+        return getMessageContentChunk(messageId, offsetInMessage, dst, false);
+    }
+
+    /**
+     * Read a message content chunk form store
+     *
+     * @param messageId         id of the message
+     * @param offsetInMessage   offset to be read
+     * @param dst               buffer to be filled by content bytes
+     * @param isChunkCompressed true if the message content was compressed chunk by chunk by the server
+     * @return written content length
+     * @throws AMQException
+     */
+    public static int getMessageContentChunk(long messageId, int offsetInMessage, ByteBuffer dst,
+                                             boolean isChunkCompressed) throws AMQException {
         int contentLenWritten;
         try {
-            contentLenWritten = AMQPUtils.fillBufferFromContent(messageId, offsetInMessage, dst);
+            contentLenWritten = AMQPUtils.fillBufferFromContent(messageId, offsetInMessage, dst, isChunkCompressed);
         } catch (AndesException e) {
             log.error("Error in getting message content", e);
             throw new AMQException(AMQConstant.INTERNAL_ERROR, "Error in getting message content chunk messageId "
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.framing.abstraction.ContentChunk;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.MessagingEngine;
+import org.wso2.andes.kernel.SharedContent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the content of a large message to the store while the message is received, instead of holding the whole
+ * content in memory until the message is handed over to Andes. Content chunks received are cut into parts of the
+ * maximum content chunk size, the same way the inbound disruptor resizes content, and written in batches of the
+ * write buffer size. A batch is written while the next batch is received, so at most two batches of a message are
+ * held in memory.
+ * <p>
+ * The content is stored under an id of its own, as content shared by the copies of a message is. Once all the
+ * content is written, the message is handed over to Andes with a {@link SharedContent} referring to the stored
+ * content and without content parts, hence only the metadata of the message passes through the inbound disruptor.
+ * Content of a message that is never handed over is removed by the store once it is older than the incomplete
+ * content timeout.
+ * <p>
+ * A writer is used by the channel receiving the message only and is not thread safe.
+ */
+public class StreamedContentWriter {
+
+    private static Log log = LogFactory.getLog(StreamedContentWriter.class);
+
+    private static final boolean STREAMING_ENABLED = AndesConfigurationManager.readValue(
+            AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_ENABLED);
+
+    private static final int MIN_CONTENT_SIZE = AndesConfigurationManager.readValue(
+            AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_MIN_CONTENT_SIZE);
+
+    private static final int WRITE_BUFFER_SIZE = AndesConfigurationManager.readValue(
+            AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_WRITE_BUFFER_SIZE);
+
+    private static final int MAX_CHUNK_SIZE = AndesConfigurationManager.readValue(
+            AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE);
+
+    /**
+     * Threads writing content batches of all the messages streamed
+     */
+    private static final ExecutorService WRITER_POOL = STREAMING_ENABLED ? Executors.newFixedThreadPool(
+            (Integer) AndesConfigurationManager.readValue(
+                    AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_WRITER_THREAD_COUNT),
+            new ThreadFactoryBuilder().setNameFormat("StreamedContentWriter-%d").setDaemon(true).build()) : null;
+
+    /**
+     * Id the content is stored under
+     */
+    private final long contentId;
+
+    /**
+     * Part being filled with the content received, and the number of bytes filled. Null until content is received
+     * after the previous part is filled.
+     */
+    private byte[] currentPart;
+
+    private int currentPartLength;
+
+    /**
+     * Offset of the current part from the start of the content
+     */
+    private int currentPartOffset;
+
+    /**
+     * Parts filled but not yet handed to a writer thread, and their total size
+     */
+    private List<AndesMessagePart> bufferedParts = new ArrayList<>();
+
+    private int bufferedLength;
+
+    /**
+     * Write of the previous batch of parts. Null if no batch is written yet.
+     */
+    private Future<Void> pendingWrite;
+
+    private StreamedContentWriter() {
+        contentId = MessagingEngine.getInstance().generateStreamedContentId();
+    }
+
+    /**
+     * Create a writer for the content of a message if the content should be streamed to the store
+     *
+     * @param contentLength length of the content of the message, as given in the content header
+     * @return a writer for the content, or null if the content should be held in memory until the message is
+     * received fully
+     */
+    public static StreamedContentWriter createIfStreamed(long contentLength) {
+        if (STREAMING_ENABLED && contentLength >= MIN_CONTENT_SIZE) {
+            return new StreamedContentWriter();
+        }
+        return null;
+    }
+
+    /**
+     * Write a chunk of content received. The chunk is copied, hence it is not referred after this returns.
+     *
+     * @param chunk content chunk received
+     * @throws AndesException if writing a previous batch of the content failed
+     */
+    public void write(ContentChunk chunk) throws AndesException {
+        int chunkSize = chunk.getSize();
+        if (null == currentPart) {
+            currentPart = new byte[MAX_CHUNK_SIZE];
+        }
+
+        if (chunkSize < MAX_CHUNK_SIZE - currentPartLength) {
+            chunk.copyData(currentPart, currentPartLength);
+            currentPartLength = currentPartLength + chunkSize;
+        } else {
+            // The chunk fills the current part, hence it is cut at the part boundaries
+            ByteBuffer data = chunk.getData().buf().duplicate();
+            data.rewind();
+            while (data.hasRemaining()) {
+                if (null == currentPart) {
+                    currentPart = new byte[MAX_CHUNK_SIZE];
+                }
+                int length = Math.min(data.remaining(), MAX_CHUNK_SIZE - currentPartLength);
+                data.get(currentPart, currentPartLength, length);
+                currentPartLength = currentPartLength + length;
+                if (currentPartLength == MAX_CHUNK_SIZE) {
+                    completePart();
+                }
+            }
+        }
+
+        if (bufferedLength >= WRITE_BUFFER_SIZE) {
+            writeBufferedParts();
+        }
+    }
+
+    /**
+     * Write the remaining content and wait until all the content is stored
+     *
+     * @return shared content to hand the message over to Andes with
+     * @throws AndesException if writing the content failed
+     */
+    public SharedContent complete() throws AndesException {
+        if (currentPartLength > 0) {
+            completePart();
+        }
+        if (!bufferedParts.isEmpty()) {
+            writeBufferedParts();
+        }
+        awaitPendingWrite();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Content streamed to the store under content id " + contentId);
+        }
+        return new SharedContent(contentId, 1, true);
+    }
+
+    /**
+     * Move the filled bytes of the current part to the buffered parts
+     */
+    private void completePart() {
+        byte[] data = currentPart;
+        if (currentPartLength < data.length) {
+            data = new byte[currentPartLength];
+            System.arraycopy(currentPart, 0, data, 0, currentPartLength);
+        }
+
+        AndesMessagePart part = new AndesMessagePart();
+        part.setMessageID(contentId);
+        part.setOffSet(currentPartOffset);
+        part.setData(data);
+        bufferedParts.add(part);
+
+        bufferedLength = bufferedLength + currentPartLength;
+        currentPartOffset = currentPartOffset + currentPartLength;
+        currentPartLength = 0;
+        currentPart = null;
+    }
+
+    /**
+     * Hand the buffered parts to a writer thread once the previous batch is written
+     *
+     * @throws AndesException if writing the previous batch failed
+     */
+    private void writeBufferedParts() throws AndesException {
+        final boolean firstParts = (null == pendingWrite);
+        awaitPendingWrite();
+
+        final List<AndesMessagePart> parts = bufferedParts;
+        bufferedParts = new ArrayList<>();
+        bufferedLength = 0;
+        pendingWrite = WRITER_POOL.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws AndesException {
+                MessagingEngine.getInstance().storeStreamedContent(contentId, parts, firstParts);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Wait until the previous batch of parts is written
+     *
+     * @throws AndesException if writing the batch failed
+     */
+    private void awaitPendingWrite() throws AndesException {
+        if (null == pendingWrite) {
+            return;
+        }
+        try {
+            pendingWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AndesException("Interrupted while writing streamed content " + contentId, e);
+        } catch (ExecutionException e) {
+            throw new AndesException("Error occurred while writing streamed content " + contentId, e.getCause());
+        }
+    }
+}
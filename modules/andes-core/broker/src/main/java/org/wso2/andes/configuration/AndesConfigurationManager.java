@@ -160,7 +160,18 @@ public class AndesConfigurationManager {
             ROOT_CONFIG_FILE_PATH = Paths.get(System.getProperty(CARBON_HOME), "repository", "conf").toString();
         }
 
-        String brokerConfigFilePath = ROOT_CONFIG_FILE_PATH + File.separator + ROOT_CONFIG_FILE_NAME;
+        initialize(portOffset, ROOT_CONFIG_FILE_PATH + File.separator + ROOT_CONFIG_FILE_NAME);
+    }
+
+    /**
+     * Initialize the configuration manager from the given broker configuration file rather than the broker.xml of the
+     * carbon configuration directory. Used by brokers embedded in tests, which generate their own configuration.
+     *
+     * @param portOffset           offset added to the ports read from the configuration
+     * @param brokerConfigFilePath path of the broker.xml to read
+     * @throws AndesException if the configuration file cannot be read
+     */
+    public static void initialize(int portOffset, String brokerConfigFilePath) throws AndesException {
 
         log.info("Main andes configuration located at : " + brokerConfigFilePath);
 
@@ -20,6 +20,7 @@ package org.wso2.andes.configuration.enums;
 
 import org.wso2.andes.configuration.modules.JKSStore;
 import org.wso2.andes.configuration.util.ConfigurationProperty;
+import org.wso2.andes.configuration.util.ContentCompressionMethod;
 import org.wso2.andes.configuration.util.ImmutableMetaProperties;
 import org.wso2.andes.configuration.util.MetaProperties;
 import org.wso2.andes.configuration.util.TopicMessageDeliveryStrategy;
@@ -48,6 +49,54 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     CLUSTER_EVENT_SYNC_INTERVAL("coordination/rdbmsBasedClusterEventSynchronization/eventSyncInterval", "1000", Integer.class),
 
+    /**
+     * If set to true, cluster notifications are pushed directly to the other nodes over TCP and the DB is only used
+     * to store notifications that could not be pushed to a node. The DB is then polled at the
+     * pushNotification/fallbackEventSyncInterval instead of the eventSyncInterval.
+     */
+    CLUSTER_EVENT_PUSH_ENABLED("coordination/rdbmsBasedClusterEventSynchronization/pushNotification/@enabled",
+            "false", Boolean.class),
+
+    /**
+     * Offset added to the cluster agent port of a node to get the port its cluster notification push server listens
+     * on. The server binds to the cluster agent host of the node.
+     */
+    CLUSTER_EVENT_PUSH_PORT_OFFSET("coordination/rdbmsBasedClusterEventSynchronization/pushNotification/portOffset",
+            "1000", Integer.class),
+
+    /**
+     * Maximum number of cluster notifications pushed to a node in a single batch.
+     */
+    CLUSTER_EVENT_PUSH_BATCH_SIZE("coordination/rdbmsBasedClusterEventSynchronization/pushNotification/batchSize",
+            "100", Integer.class),
+
+    /**
+     * Time in milliseconds to wait for a connection to a node to be established or for a pushed batch to be
+     * acknowledged, before falling back to the DB.
+     */
+    CLUSTER_EVENT_PUSH_TIMEOUT("coordination/rdbmsBasedClusterEventSynchronization/pushNotification/timeout",
+            "5000", Integer.class),
+
+    /**
+     * Time in milliseconds to wait before reconnecting to a node after a failure. Notifications to the node are stored
+     * in the DB meanwhile.
+     */
+    CLUSTER_EVENT_PUSH_RECONNECT_INTERVAL("coordination/rdbmsBasedClusterEventSynchronization/pushNotification"
+            + "/reconnectInterval", "5000", Integer.class),
+
+    /**
+     * Time in milliseconds after which the member list used to push notifications is refreshed.
+     */
+    CLUSTER_EVENT_PUSH_MEMBER_REFRESH_INTERVAL("coordination/rdbmsBasedClusterEventSynchronization/pushNotification"
+            + "/memberRefreshInterval", "1000", Integer.class),
+
+    /**
+     * Interval in milliseconds at which the DB is polled for notifications that could not be pushed, when push
+     * notifications are enabled.
+     */
+    CLUSTER_EVENT_PUSH_FALLBACK_SYNC_INTERVAL("coordination/rdbmsBasedClusterEventSynchronization/pushNotification"
+            + "/fallbackEventSyncInterval", "10000", Integer.class),
+
     /**
      * The host IP to be used by the Thrift server. Thrift is used to coordinate message slots between MB nodes.
      */
@@ -404,6 +453,114 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_CONTENT_COMPRESSION_THRESHOLD
             ("performanceTuning/contentHandling/contentCompressionThreshold", "1000", Integer.class),
 
+    /**
+     * Method used to compress message content when compression is allowed. MESSAGE compresses the whole content
+     * as a single block while CHUNK compresses each stored content chunk on its own. Messages written with
+     * either method can be read regardless of this value.
+     */
+    PERFORMANCE_TUNING_COMPRESSION_METHOD("performanceTuning/contentHandling/compressionMethod",
+            ContentCompressionMethod.MESSAGE.toString(), ContentCompressionMethod.class),
+
+    /**
+     * Number of messages compressed with each LZ4 compressor when the adaptive compression method samples a
+     * destination and message size band.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_SAMPLE_SIZE
+            ("performanceTuning/contentHandling/adaptiveCompression/sampleSize", "20", Integer.class),
+
+    /**
+     * Number of messages of a destination and message size band after which the adaptive compression method
+     * samples again and reconsiders the chosen compressor.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_REEVALUATION_INTERVAL
+            ("performanceTuning/contentHandling/adaptiveCompression/reevaluationInterval", "1000", Integer.class),
+
+    /**
+     * Minimum percentage of content size that LZ4 fast compression should save. If sampled messages save less
+     * than this, messages of that destination and size band are stored without compression.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MIN_SAVING_PERCENTAGE
+            ("performanceTuning/contentHandling/adaptiveCompression/minSavingPercentage", "10", Integer.class),
+
+    /**
+     * Minimum additional percentage of content size that LZ4 high compression should save over LZ4 fast
+     * compression for it to be chosen.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MIN_HIGH_COMPRESSION_GAIN_PERCENTAGE
+            ("performanceTuning/contentHandling/adaptiveCompression/minHighCompressionGainPercentage", "10",
+                    Integer.class),
+
+    /**
+     * Maximum CPU time of LZ4 high compression as a multiple of the CPU time of LZ4 fast compression for it to
+     * be chosen.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MAX_HIGH_COMPRESSION_COST_FACTOR
+            ("performanceTuning/contentHandling/adaptiveCompression/maxHighCompressionCostFactor", "5",
+                    Integer.class),
+
+    /**
+     * Maximum number of destinations for which compression statistics are kept separately. Messages of any other
+     * destination share a single set of statistics.
+     */
+    PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MAX_TRACKED_DESTINATIONS
+            ("performanceTuning/contentHandling/adaptiveCompression/maxTrackedDestinations", "1000", Integer.class),
+
+    /**
+     * Enable storing the content of a message routed to multiple storage queues (e.g. a topic message with many
+     * subscribers) only once, with each copy of the message referring to the stored content.
+     */
+    PERFORMANCE_TUNING_CONTENT_SHARING_ENABLED
+            ("performanceTuning/contentHandling/contentSharing/@enabled", "false", Boolean.class),
+
+    /**
+     * Minimum content length in bytes for the content to be shared between the copies of a message. Smaller content
+     * is cheaper to store once per copy than to resolve through a reference.
+     */
+    PERFORMANCE_TUNING_CONTENT_SHARING_MIN_CONTENT_SIZE
+            ("performanceTuning/contentHandling/contentSharing/minContentSize", "1024", Integer.class),
+
+    /**
+     * Interval in seconds between two runs of the task removing shared content no longer referred by any message.
+     */
+    PERFORMANCE_TUNING_CONTENT_SHARING_CLEANUP_INTERVAL
+            ("performanceTuning/contentHandling/contentSharing/unreferencedContentCleanupInterval", "60",
+                    Integer.class),
+
+    /**
+     * Enable writing the content of large messages to the store while it is received, instead of holding the whole
+     * content in memory until the message is handed over to Andes. Applies to messages published outside
+     * transactions.
+     */
+    PERFORMANCE_TUNING_CONTENT_STREAMING_ENABLED
+            ("performanceTuning/contentHandling/contentStreaming/@enabled", "false", Boolean.class),
+
+    /**
+     * Minimum content length in bytes for the content of a message to be streamed to the store.
+     */
+    PERFORMANCE_TUNING_CONTENT_STREAMING_MIN_CONTENT_SIZE
+            ("performanceTuning/contentHandling/contentStreaming/minContentSize", "1048576", Integer.class),
+
+    /**
+     * Number of content bytes of a message buffered before they are written to the store. At most one write per
+     * message is in progress while the next buffer fills, hence this bounds the memory held per message received.
+     */
+    PERFORMANCE_TUNING_CONTENT_STREAMING_WRITE_BUFFER_SIZE
+            ("performanceTuning/contentHandling/contentStreaming/writeBufferSize", "1048576", Integer.class),
+
+    /**
+     * Number of threads writing streamed content to the store.
+     */
+    PERFORMANCE_TUNING_CONTENT_STREAMING_WRITER_THREAD_COUNT
+            ("performanceTuning/contentHandling/contentStreaming/writerThreadCount", "4", Integer.class),
+
+    /**
+     * Time in seconds after which streamed content not referred by any message is removed. Content of a message
+     * whose publisher disconnected before all the content was received is removed this way. Should exceed the time
+     * taken to receive the largest message.
+     */
+    PERFORMANCE_TUNING_CONTENT_STREAMING_INCOMPLETE_CONTENT_TIMEOUT
+            ("performanceTuning/contentHandling/contentStreaming/incompleteContentTimeout", "600", Integer.class),
+
     /**
      * Maximum time interval until which a slot can be retained in memory before updating to the cluster.
      * NOTE : specified in milliseconds.
@@ -490,6 +647,36 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_DELIVERY_MAX_READ_BUT_UNDELIVERED_MESSAGES("performanceTuning/delivery" +
             "/maxNumberOfReadButUndeliveredMessages", "1000", Integer.class),
 
+    /**
+     * Number of bands the read but undelivered messages of a queue are split into by JMS priority. Messages of a
+     * higher band are delivered before messages of lower bands. With a single band queue messages are delivered in
+     * message ID order regardless of their priority.
+     */
+    PERFORMANCE_TUNING_DELIVERY_PRIORITY_BAND_COUNT("performanceTuning/delivery/priority/bandCount", "1",
+            Integer.class),
+
+    /**
+     * Maximum size in bytes of the metadata of read but undelivered messages of all storage queues together. Once
+     * reached, queues stop reading further slots and the buffers of queues whose messages are not being delivered
+     * are evicted. A value of 0 leaves the buffers limited only by the message count of each queue.
+     */
+    PERFORMANCE_TUNING_DELIVERY_MAX_READ_BUT_UNDELIVERED_BYTES("performanceTuning/delivery/readButUndeliveredBuffers"
+            + "/maxBufferedBytes", "268435456", Long.class),
+
+    /**
+     * Time in milliseconds no message should be delivered from the buffer of a queue before the buffer can be
+     * evicted to make room for other queues.
+     */
+    PERFORMANCE_TUNING_DELIVERY_READ_BUT_UNDELIVERED_EVICTION_IDLE_TIME("performanceTuning/delivery"
+            + "/readButUndeliveredBuffers/evictionIdleTime", "30000", Long.class),
+
+    /**
+     * Number of messages delivered from higher priority bands while a lower band has messages waiting, after which a
+     * message of the lower band is delivered. Prevents low priority messages from being starved.
+     */
+    PERFORMANCE_TUNING_DELIVERY_PRIORITY_STARVATION_LIMIT("performanceTuning/delivery/priority/starvationLimit",
+            "100", Integer.class),
+
     /**
      * This is the ring buffer size of the delivery disruptor. This value should be a power of 2 (E.g. 1024, 2048,
      * 4096). Use a small ring size if you want to reduce the memory usage.
@@ -536,6 +723,42 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_DELIVERY_CONTENT_CACHE_EXPIRY_TIME("performanceTuning/delivery/contentCache/expiryTime", "120",
                                                           Integer.class),
 
+    /**
+     * Enable caching the encoded content header and content body frames of non-durable topic messages so that they
+     * are encoded once for all the subscribers
+     */
+    PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_ENABLED("performanceTuning/delivery/encodedFrameCache/@enabled",
+            "false", Boolean.class),
+
+    /**
+     * Maximum number of bytes held by the encoded frame cache
+     */
+    PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_MAXIMUM_SIZE_IN_BYTES(
+            "performanceTuning/delivery/encodedFrameCache/maximumSizeInBytes", "16777216", Integer.class),
+
+    /**
+     * Time in seconds that encoded frames of a message are kept in the encoded frame cache after they are encoded
+     */
+    PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_EXPIRY_TIME("performanceTuning/delivery/encodedFrameCache/expiryTime",
+            "120", Integer.class),
+
+    /**
+     * Enable recording the latency of each stage of the message life cycle for sampled messages
+     */
+    PERFORMANCE_TUNING_LATENCY_TRACING_ENABLED("performanceTuning/latencyTracing/@enabled", "false", Boolean.class),
+
+    /**
+     * One out of this many messages received is traced
+     */
+    PERFORMANCE_TUNING_LATENCY_TRACING_SAMPLE_INTERVAL("performanceTuning/latencyTracing/sampleInterval", "1000",
+            Integer.class),
+
+    /**
+     * Number of slowest traces kept to be dumped on demand
+     */
+    PERFORMANCE_TUNING_LATENCY_TRACING_SLOWEST_TRACE_COUNT("performanceTuning/latencyTracing/slowestTraceCount",
+            "20", Integer.class),
+
     /**
      * Number of parallel writers used to write content to message store. Increasing this value will speedup
      * the message receiving mechanism. But the load on the data store will increase.
@@ -551,6 +774,20 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS(
             "performanceTuning/inboundEvents/transactionMessageWriters", "1", Integer.class),
 
+    /**
+     * Number of parallel writers used to write distributed transaction records to message store. Transactions are
+     * partitioned among the writers by Xid. Increasing this value will speedup prepare and commit of concurrent
+     * distributed transactions. But the load on the data store will increase.
+     */
+    PERFORMANCE_TUNING_PARALLEL_DTX_WRITERS("performanceTuning/inboundEvents/dtxWriters", "4", Integer.class),
+
+    /**
+     * Maximum number of distributed transaction prepare or commit requests written to message store in a single
+     * database transaction by a dtx writer.
+     */
+    PERFORMANCE_TUNING_DTX_WRITER_BATCH_SIZE("performanceTuning/inboundEvents/dtxWriterBatchSize", "64",
+            Integer.class),
+
     /**
      * Size of the Disruptor ring buffer for inbound event handling. Buffer size should be a value of power of two
      * For publishing at higher rates increasing the buffer size may give some advantage to keep messages in memory and
@@ -572,6 +809,32 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     PERFORMANCE_TUNING_PURGED_COUNT_TIMEOUT
             ("performanceTuning/inboundEvents/purgedCountTimeout", "180", Integer.class),
+
+    /**
+     * Number of messages deleted or moved in a single database transaction by bulk operations such as purging a
+     * queue or rerouting all the messages in the dead letter channel.
+     */
+    PERFORMANCE_TUNING_BULK_OPERATION_CHUNK_SIZE("performanceTuning/bulkOperations/chunkSize", "10000",
+            Integer.class),
+
+    /**
+     * Time in milliseconds a bulk operation waits between two chunks so that message publishing and delivery are
+     * not starved of database connections while a large queue or dead letter channel is processed.
+     */
+    PERFORMANCE_TUNING_BULK_OPERATION_DELAY_BETWEEN_CHUNKS("performanceTuning/bulkOperations/delayBetweenChunks",
+            "10", Integer.class),
+
+    /**
+     * Maximum number of messages in a page read when browsing a queue or listing the dead letter channel.
+     */
+    PERFORMANCE_TUNING_BROWSING_MAX_MESSAGES_PER_PAGE("performanceTuning/browsing/maxMessagesPerPage", "1000",
+            Integer.class),
+
+    /**
+     * Maximum size in bytes of the metadata and content held by a page of browsed messages. A page holds at least
+     * one message whatever its size, so that browsing always moves on.
+     */
+    PERFORMANCE_TUNING_BROWSING_MAX_PAGE_SIZE("performanceTuning/browsing/maxPageSize", "10485760", Integer.class),
     
     /**
      * Average batch size of the batch acknowledgement handling for message acknowledgements. Andes will be updated
@@ -726,6 +989,54 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     RECOVERY_MESSAGES_CONCURRENT_STORAGE_QUEUE_READS("recovery/concurrentStorageQueueReads", "5", Integer.class),
 
+    /**
+     * Number of message ID ranges a large storage queue is split into at startup. The ranges are read concurrently,
+     * each through its own database connection. A value of 1 reads every queue through a single cursor.
+     * <p>
+     * default value: 4
+     * </p>
+     */
+    RECOVERY_PARTITIONED_READS_PARTITIONS_PER_QUEUE("recovery/partitionedQueueReads/partitionsPerQueue", "4",
+            Integer.class),
+
+    /**
+     * Message count above which the messages of a storage queue are read in concurrent message ID ranges at
+     * startup.
+     * <p>
+     * default value: 1000000
+     * </p>
+     */
+    RECOVERY_PARTITIONED_READS_MESSAGE_COUNT_THRESHOLD("recovery/partitionedQueueReads/messageCountThreshold",
+            "1000000", Integer.class),
+
+    /**
+     * Periodically persist the slot map of each storage queue, so that a restart only scans the messages stored
+     * after the last checkpoint. Requires the time stamp based message ID generator.
+     * <p>
+     * default value: false
+     * </p>
+     */
+    RECOVERY_SLOT_CHECKPOINT_ENABLED("recovery/slotCheckpoint/@enabled", "false", Boolean.class),
+
+    /**
+     * Interval in seconds between two slot map checkpoints.
+     * <p>
+     * default value: 60
+     * </p>
+     */
+    RECOVERY_SLOT_CHECKPOINT_INTERVAL("recovery/slotCheckpoint/interval", "60", Integer.class),
+
+    /**
+     * Age in seconds a message ID should have before it is covered by a checkpoint. Messages are written to the
+     * store some time after their ID is generated, possibly by another node, hence the most recent IDs are left to
+     * the next checkpoint. This should be larger than the time a message takes to reach the store plus the clock
+     * difference between the nodes.
+     * <p>
+     * default value: 300
+     * </p>
+     */
+    RECOVERY_SLOT_CHECKPOINT_SAFETY_WINDOW("recovery/slotCheckpoint/safetyWindow", "300", Integer.class),
+
     /**
      * Heartbeat interval used in the RDBMS base coordination algorithm in seconds
      * <p>
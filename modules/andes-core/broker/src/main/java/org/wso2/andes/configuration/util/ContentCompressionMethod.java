@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.configuration.util;
+
+/**
+ * Enum to specify how message content is compressed before it is written to the store. This is configured
+ * at broker.xml under <contentHandling>/<compressionMethod>
+ */
+public enum ContentCompressionMethod {
+
+    /**
+     * Whole message content is combined into a single array and compressed as one LZ4 block. The compressed
+     * content is then split again into chunks before it is stored.
+     */
+    MESSAGE,
+
+    /**
+     * Each content chunk is compressed independently as it is read from the published parts. No full size
+     * copy of the message is made and a single chunk can be decompressed without reading the rest.
+     */
+    CHUNK,
+
+    /**
+     * Content is compressed chunk by chunk, choosing between LZ4 fast, LZ4 high compression and no compression
+     * for each destination and message size band based on sampled compression ratio and CPU cost.
+     */
+    ADAPTIVE
+}
@@ -84,10 +84,11 @@ public class AMQPMetaDataHandler {
      * @param buf                       buffer of the original metadata
      * @param originalMetadata          source metadata that needs to be copied
      * @param newCompressedMessageValue Value to indicate if the message is compressed or not
+     * @param newChunkCompressedValue   Value to indicate if the message content is compressed chunk by chunk
      * @return copy of the metadata as a byte array
      */
     public static byte[] constructMetadata(ByteBuffer buf, StorableMessageMetaData originalMetadata,
-                                           boolean newCompressedMessageValue) {
+                                           boolean newCompressedMessageValue, boolean newChunkCompressedValue) {
         ContentHeaderBody contentHeaderBody = ((MessageMetaData) originalMetadata).getContentHeaderBody();
         int contentChunkCount = ((MessageMetaData) originalMetadata).getContentChunkCount();
         long arrivalTime = ((MessageMetaData) originalMetadata).getArrivalTime();
@@ -96,7 +97,7 @@ public class AMQPMetaDataHandler {
         //Modify message metadata, to update if the message is compressed or not
         MessagePublishInfo messagePublishInfo = new CustomMessagePublishInfo(originalMetadata);
         MessageMetaData modifiedMetaData = new MessageMetaData(messagePublishInfo, contentHeaderBody, sessionID,
-                contentChunkCount, arrivalTime, newCompressedMessageValue);
+                contentChunkCount, arrivalTime, newCompressedMessageValue, newChunkCompressedValue);
 
         BasicContentHeaderProperties cdf = (BasicContentHeaderProperties)contentHeaderBody.getProperties();
         FieldTable headers = cdf.getHeaders();
@@ -24,6 +24,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.browse.BrowseCursor;
+import org.wso2.andes.kernel.browse.BrowsePage;
 import org.wso2.andes.kernel.disruptor.DisruptorEventCallback;
 import org.wso2.andes.kernel.disruptor.inbound.InboundMessageRecoveryEvent;
 import org.wso2.andes.kernel.disruptor.inbound.InboundBindingEvent;
@@ -44,6 +46,7 @@ import org.wso2.andes.kernel.slot.SlotMessageCounter;
 import org.wso2.andes.kernel.subscription.AndesSubscriptionManager;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.tools.tracing.LatencyTracer;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Counter;
 import org.wso2.carbon.metrics.manager.Level;
@@ -227,6 +230,7 @@ public class Andes {
 
         //Tracing message
         MessageTracer.trace(message, MessageTracer.REACHED_ANDES_CORE);
+        LatencyTracer.startTrace(message.getMetadata());
 
         inboundEventManager.messageReceived(message, andesChannel, pubAckHandler);
 
@@ -465,6 +469,17 @@ public class Andes {
         return MessagingEngine.getInstance().getMessageMetaData(messageID);
     }
 
+    /**
+     * Get metadata of a list of messages in a single store call.
+     *
+     * @param messageIdList ids of the messages
+     * @return metadata of the messages found in the store
+     * @throws AndesException
+     */
+    public List<AndesMessageMetadata> getMessageMetaData(LongArrayList messageIdList) throws AndesException {
+        return MessagingEngine.getInstance().getMessageMetaData(messageIdList);
+    }
+
     /**
      * Handle message reject.
      *
@@ -618,6 +633,33 @@ public class Andes {
         return MessagingEngine.getInstance().getNextNMessageMetadataFromDLC(dlcQueueName, firstMsgId, count);
     }
 
+    /**
+     * Read the page of message metadata following a browse cursor. Paging through a queue, or the dead letter
+     * channel, continues from {@link BrowsePage#getNextCursor()}, which can also be handed over to tools as a token.
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to read
+     * @return the page
+     * @throws AndesException
+     */
+    public BrowsePage browse(BrowseCursor cursor, int maxMessageCount) throws AndesException {
+        return MessagingEngine.getInstance().browse(cursor, maxMessageCount, false);
+    }
+
+    /**
+     * Read the page of messages following a browse cursor
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to read
+     * @param includeContent  whether to read the content of the messages with the page
+     * @return the page
+     * @throws AndesException
+     */
+    public BrowsePage browse(BrowseCursor cursor, int maxMessageCount, boolean includeContent)
+            throws AndesException {
+        return MessagingEngine.getInstance().browse(cursor, maxMessageCount, includeContent);
+    }
+
     /**
      * Get expired but not yet deleted messages from message store.
      *
@@ -37,6 +37,7 @@ import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.server.cluster.coordination.ClusterNotificationAgent;
 import org.wso2.andes.server.cluster.coordination.CoordinationComponentFactory;
 import org.wso2.andes.server.queue.DLCQueueUtils;
+import org.wso2.andes.server.virtualhost.VirtualHostConfigSynchronizer;
 
 import java.util.Iterator;
 import java.util.List;
@@ -134,13 +135,17 @@ public class AndesContextInformationManager {
     public void syncExchangeCreate(InboundExchangeSyncEvent exchangeSyncEvent) throws AndesException {
 
         //create a message router and register
-        AndesMessageRouter messageRouter = messageRouterFactory.
+        final AndesMessageRouter messageRouter = messageRouterFactory.
                 createMessageRouter(exchangeSyncEvent.getEncodedExchangeInfo());
         AndesContext.getInstance().getMessageRouterRegistry().
                 registerMessageRouter(messageRouter.getName(), messageRouter);
 
-        ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer().
-                clusterExchangeAdded(messageRouter);
+        synchronizeVirtualHost(new VirtualHostSyncAction() {
+            @Override
+            public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                configSynchronizer.clusterExchangeAdded(messageRouter);
+            }
+        });
         log.info("Message Router Sync [create]: " + messageRouter.getName());
     }
 
@@ -168,14 +173,18 @@ public class AndesContextInformationManager {
     public void syncExchangeDelete(InboundExchangeSyncEvent exchangeSyncEvent) throws AndesException {
 
         AndesMessageRouter mockMessageRouter = new QueueMessageRouter(exchangeSyncEvent.getEncodedExchangeInfo());
-        String messageRouterName = mockMessageRouter.getName();
+        final String messageRouterName = mockMessageRouter.getName();
 
         AndesMessageRouter removedRouter = AndesContext.getInstance().getMessageRouterRegistry().
                 removeMessageRouter(messageRouterName);
 
         //remove exchange inside Qpid
-        ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer().
-                clusterExchangeRemoved(messageRouterName);
+        synchronizeVirtualHost(new VirtualHostSyncAction() {
+            @Override
+            public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                configSynchronizer.clusterExchangeRemoved(messageRouterName);
+            }
+        });
 
         log.info("Message Router Sync [delete]: " + removedRouter.getName());
     }
@@ -244,14 +253,18 @@ public class AndesContextInformationManager {
      */
     public void syncQueueCreate(InboundQueueSyncEvent queueCreateEvent) throws AndesException {
         StorageQueue queueEvent = queueCreateEvent.toStorageQueue();
-        StorageQueue storageQueueToAdd = AndesContext.getInstance().
+        final StorageQueue storageQueueToAdd = AndesContext.getInstance().
                 getStorageQueueRegistry().registerStorageQueue(queueEvent.getName(),
                 queueEvent.isDurable(), queueEvent.isShared(), queueEvent.getQueueOwner(),
                 queueEvent.isExclusive());
 
         //add queue inside Qpid
-        ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer().
-                clusterQueueAdded(storageQueueToAdd);
+        synchronizeVirtualHost(new VirtualHostSyncAction() {
+            @Override
+            public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                configSynchronizer.clusterQueueAdded(storageQueueToAdd);
+            }
+        });
 
         log.info("Queue Sync [create]: " + storageQueueToAdd.getName());
     }
@@ -352,10 +365,15 @@ public class AndesContextInformationManager {
             messageStore.removeLocalQueueData(storageQueueName);
 
             //identify storage queue and delete from queue registry
-            StorageQueue queueToDelete = AndesContext.getInstance().
+            final StorageQueue queueToDelete = AndesContext.getInstance().
                     getStorageQueueRegistry().removeStorageQueue(storageQueueName);
             //remove queue inside Qpid
-            ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer().clusterQueueRemoved(queueToDelete);
+            synchronizeVirtualHost(new VirtualHostSyncAction() {
+                @Override
+                public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                    configSynchronizer.clusterQueueRemoved(queueToDelete);
+                }
+            });
 
             log.info("Queue Sync [delete]: " + storageQueueName);
         }
@@ -413,7 +431,7 @@ public class AndesContextInformationManager {
      */
     public void syncCreateBinding(InboundBindingSyncEvent bindingSyncEvent) throws AndesException {
 
-        AndesBinding binding = new AndesBinding(bindingSyncEvent.getEncodedBindingInfo());
+        final AndesBinding binding = new AndesBinding(bindingSyncEvent.getEncodedBindingInfo());
 
         //bind queue to messageRouter
         StorageQueue queueToBind = binding.getBoundQueue();
@@ -425,7 +443,12 @@ public class AndesContextInformationManager {
         if (!queueAlreadyBound) {
             amqpConstructStore.addBinding(binding, false);
             //add binding inside qpid
-            ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer().clusterBindingAdded(binding);
+            synchronizeVirtualHost(new VirtualHostSyncAction() {
+                @Override
+                public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                    configSynchronizer.clusterBindingAdded(binding);
+                }
+            });
 
             log.info("Binding Sync [create]: " + binding.toString());
         }
@@ -490,7 +513,7 @@ public class AndesContextInformationManager {
 
         if (!subscriptionManager.isActiveLocalSubscriptionsExistForQueue(binding.getBoundQueue().getName())) {
             //find and remove binding
-            AndesBinding removedBinding = amqpConstructStore.removeBinding(binding.getMessageRouterName(), binding
+            final AndesBinding removedBinding = amqpConstructStore.removeBinding(binding.getMessageRouterName(), binding
                     .getBoundQueue().getName(), true);
 
             if (null != removedBinding) {
@@ -500,8 +523,12 @@ public class AndesContextInformationManager {
                 boundQueue.unbindQueueFromMessageRouter();
 
                 //remove binding inside Qpid
-                ClusterResourceHolder.getInstance().getVirtualHostConfigSynchronizer()
-                        .clusterBindingRemoved(removedBinding);
+                synchronizeVirtualHost(new VirtualHostSyncAction() {
+                    @Override
+                    public void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException {
+                        configSynchronizer.clusterBindingRemoved(removedBinding);
+                    }
+                });
 
                 log.info("Binding Sync [delete]: " + binding.toString());
             }
@@ -533,5 +560,28 @@ public class AndesContextInformationManager {
         amqpConstructStore.addBinding(binding, true);
         clusterNotificationAgent.notifyBindingsChange(binding, ClusterNotificationListener.BindingChange.Added);
     }
+
+    /**
+     * Apply a change to the Qpid virtual host. There is no Qpid virtual host to synchronize when the kernel runs
+     * embedded without the Qpid broker, in which case nothing is done.
+     *
+     * @param action change to apply
+     * @throws AndesException
+     */
+    private void synchronizeVirtualHost(VirtualHostSyncAction action) throws AndesException {
+        VirtualHostConfigSynchronizer configSynchronizer = ClusterResourceHolder.getInstance()
+                .getVirtualHostConfigSynchronizer();
+        if (null != configSynchronizer) {
+            action.apply(configSynchronizer);
+        }
+    }
+
+    /**
+     * Change applied to the Qpid virtual host
+     */
+    private interface VirtualHostSyncAction {
+
+        void apply(VirtualHostConfigSynchronizer configSynchronizer) throws AndesException;
+    }
     
 }
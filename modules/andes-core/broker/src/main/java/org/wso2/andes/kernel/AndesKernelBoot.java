@@ -31,6 +31,7 @@ import org.wso2.andes.kernel.dtx.DtxRegistry;
 import org.wso2.andes.kernel.registry.MessageRouterRegistry;
 import org.wso2.andes.kernel.registry.StorageQueueRegistry;
 import org.wso2.andes.kernel.registry.SubscriptionRegistry;
+import org.wso2.andes.kernel.slot.SlotCheckpointTask;
 import org.wso2.andes.kernel.slot.SlotCreator;
 import org.wso2.andes.kernel.slot.SlotDeletionExecutor;
 import org.wso2.andes.kernel.slot.SlotManagerClusterMode;
@@ -43,7 +44,9 @@ import org.wso2.andes.server.cluster.ClusterManagementInformationMBean;
 import org.wso2.andes.server.cluster.ClusterManager;
 import org.wso2.andes.server.cluster.coordination.ClusterNotificationListenerManager;
 import org.wso2.andes.server.cluster.coordination.CoordinationComponentFactory;
+import org.wso2.andes.server.cluster.coordination.TimeStampBasedMessageIdGenerator;
 import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastAgent;
+import org.wso2.andes.server.information.management.LatencyTracingInformationMBean;
 import org.wso2.andes.server.information.management.MessageStatusInformationMBean;
 import org.wso2.andes.server.information.management.SubscriptionManagementInformationMBean;
 import org.wso2.andes.server.queue.DLCQueueUtils;
@@ -53,6 +56,7 @@ import org.wso2.andes.store.FailureObservingAndesContextStore;
 import org.wso2.andes.store.FailureObservingMessageStore;
 import org.wso2.andes.store.FailureObservingStoreManager;
 import org.wso2.andes.thrift.MBThriftServer;
+import org.wso2.andes.tools.tracing.LatencyTracer;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.user.api.UserStoreException;
 
@@ -99,6 +103,11 @@ public class AndesKernelBoot {
      */
     private static ScheduledExecutorService expiryMessageDeletionTaskScheduler;
 
+    /**
+     * Scheduled thread pool executor to run periodic slot checkpoint task. Null if checkpoints are disabled
+     */
+    private static ScheduledExecutorService slotCheckpointTaskScheduler;
+
     /**
      * Used to get information from context store
      */
@@ -118,6 +127,16 @@ public class AndesKernelBoot {
      * This will boot up all the components in Andes kernel and bring the server to working state
      */
     public static void initializeComponents() throws AndesException {
+        initializeComponents(true);
+    }
+
+    /**
+     * This will boot up all the components in Andes kernel and bring the server to working state
+     *
+     * @param registerMBeans whether to register the Andes MBeans. MBeans are registered with the managed object
+     *                       registry of the Qpid broker, hence cannot be registered when the kernel runs without it.
+     */
+    public static void initializeComponents(boolean registerMBeans) throws AndesException {
         isKernelShuttingDown = false;
         //loadConfigurations - done from outside
         //startAndesStores - done from outside
@@ -127,7 +146,9 @@ public class AndesKernelBoot {
         startHouseKeepingThreads();
         createDefinedProtocolArtifacts();
         syncNodeWithClusterState();
-        registerMBeans();
+        if (registerMBeans) {
+            registerMBeans();
+        }
         startThriftServer();
         Andes.getInstance().startSafeZoneUpdateWorkers();
         int slotDeletingWorkerCount = AndesConfigurationManager.readValue
@@ -352,6 +373,9 @@ public class AndesKernelBoot {
      */
     private static void startAndesComponents() throws Exception {
 
+        // Latency tracing should be ready before messages are received
+        LatencyTracer.initialize();
+
         //create subscription registry and manager
         AndesSubscriptionManager subscriptionManager = new AndesSubscriptionManager(subscriptionRegistry,
                 contextStore);
@@ -497,9 +521,39 @@ public class AndesKernelBoot {
                     + safeDeleteRegionSlotCount);
         }
 
+        startSlotCheckpointTask();
+
         ClusterResourceHolder.getInstance().setAndesRecoveryTask(andesRecoveryTask);
     }
 
+    /**
+     * Schedule the task which periodically checkpoints the slot map of each storage queue, if enabled. Checkpoints
+     * rely on message ids being generated from time stamps, hence the task is not scheduled with a custom id
+     * generator.
+     */
+    private static void startSlotCheckpointTask() {
+        Boolean checkpointEnabled = AndesConfigurationManager.readValue
+                (AndesConfiguration.RECOVERY_SLOT_CHECKPOINT_ENABLED);
+        if (!checkpointEnabled) {
+            return;
+        }
+
+        String idGeneratorClass = AndesConfigurationManager.readValue
+                (AndesConfiguration.PERSISTENCE_ID_GENERATOR);
+        if (!TimeStampBasedMessageIdGenerator.class.getName().equals(idGeneratorClass)) {
+            log.warn("Slot checkpoints are not taken since message id generator " + idGeneratorClass
+                    + " is not time stamp based.");
+            return;
+        }
+
+        int checkpointInterval = AndesConfigurationManager.readValue
+                (AndesConfiguration.RECOVERY_SLOT_CHECKPOINT_INTERVAL);
+        slotCheckpointTaskScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("SlotCheckpointTask-%d").build());
+        slotCheckpointTaskScheduler.scheduleWithFixedDelay(new SlotCheckpointTask(messageStore, contextStore),
+                checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+    }
+
     /**
      * Stop andes house keeping threads
      */
@@ -509,6 +563,10 @@ public class AndesKernelBoot {
         try {
             andesRecoveryTaskScheduler.shutdown();
             expiryMessageDeletionTaskScheduler.shutdown();
+            if (null != slotCheckpointTaskScheduler) {
+                slotCheckpointTaskScheduler.shutdown();
+                slotCheckpointTaskScheduler = null;
+            }
             expiryMessageDeletionTaskScheduler.awaitTermination(threadTerminationTimePerod, TimeUnit.SECONDS);
             andesRecoveryTaskScheduler.awaitTermination(threadTerminationTimePerod, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
@@ -538,6 +596,9 @@ public class AndesKernelBoot {
             MessageStatusInformationMBean messageStatusInformationMBean = new
                     MessageStatusInformationMBean();
             messageStatusInformationMBean.register();
+
+            LatencyTracingInformationMBean latencyTracingInformationMBean = new LatencyTracingInformationMBean();
+            latencyTracingInformationMBean.register();
         } catch (JMException ex) {
             throw new AndesException("Unable to register Andes MBeans", ex);
         }
@@ -37,6 +37,12 @@ public class AndesMessage {
      */
     private List<AndesMessagePart> contentChunkList;
 
+    /**
+     * Content shared with the other copies of the message routed to different storage queues. Null if the content
+     * is not shared
+     */
+    private SharedContent sharedContent;
+
     public AndesMessage(AndesMessageMetadata metadata) {
         this.metadata = metadata;
         contentChunkList = new ArrayList<>();
@@ -75,4 +81,22 @@ public class AndesMessage {
     public void setChunkList(List<AndesMessagePart> chunkList) {
         this.contentChunkList = chunkList;
     }
+
+    /**
+     * Get the content shared with the other copies of the message
+     *
+     * @return {@link SharedContent} or null if the content is not shared
+     */
+    public SharedContent getSharedContent() {
+        return sharedContent;
+    }
+
+    /**
+     * Set the content shared with the other copies of the message
+     *
+     * @param sharedContent {@link SharedContent} referred by the message
+     */
+    public void setSharedContent(SharedContent sharedContent) {
+        this.sharedContent = sharedContent;
+    }
 }
@@ -28,6 +28,7 @@ import org.wso2.andes.mqtt.utils.MQTTUtils;
 import org.wso2.andes.server.message.MessageMetaData;
 import org.wso2.andes.server.store.MessageMetaDataType;
 import org.wso2.andes.server.store.StorableMessageMetaData;
+import org.wso2.andes.tools.tracing.LatencyTrace;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,6 +37,11 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
 
     private static Log log = LogFactory.getLog(AndesMessageMetadata.class);
 
+    /**
+     * Default JMS message priority
+     */
+    public static final int DEFAULT_PRIORITY = 4;
+
     /**
      * Unique identifier of the message
      */
@@ -92,12 +98,34 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
 
     private boolean isCompressed;
 
+    /**
+     * True if the content was compressed chunk by chunk instead of as a whole message. Set at the time the content
+     * is compressed and stored with the metadata, so that the content is decompressed with the same method
+     */
+    private boolean isChunkCompressed;
+
+    /**
+     * JMS priority of the message. Messages of protocols without priorities have the default JMS priority
+     */
+    private int priority = DEFAULT_PRIORITY;
+
     /**
      * Properties that are not directly relevant to Andes but to protocols can be stored
      * in this map. But non of the data is persisted
      */
     private Map<String, Object> propertyMap;
 
+    /**
+     * Protocol specific view of the metadata bytes. A protocol parses the metadata once and keeps the parsed form here
+     * so that all deliveries of the message can share it. This is not persisted.
+     */
+    private volatile Object protocolMetadataView;
+
+    /**
+     * Latency trace carried by the message if it is sampled for latency tracing. This is not persisted.
+     */
+    private volatile LatencyTrace latencyTrace;
+
     /**
      * MQTT Retain
      * Topic message should retained if true.
@@ -288,8 +316,11 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
         clone.arrivalTime = arrivalTime;
         clone.metaDataType = metaDataType;
         clone.propertyMap = propertyMap;
+        clone.protocolMetadataView = protocolMetadataView;
         clone.messageContentLength = messageContentLength;
         clone.isCompressed = isCompressed;
+        clone.isChunkCompressed = isChunkCompressed;
+        clone.priority = priority;
         return clone;
     }
 
@@ -311,16 +342,18 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
 
     /**
      * Update metadata of message, after a change of the compression state of the message. This will change AMQP bytes
-     * representing metadata. IsCompressed will be set to the given value.
+     * representing metadata. IsCompressed and isChunkCompressed will be set to the given values.
      *
-     * @param isCompressedMessage new value to indicate if the message is compressed or not
+     * @param isCompressedMessage      new value to indicate if the message is compressed or not
+     * @param isChunkCompressedMessage new value to indicate if the message content is compressed chunk by chunk
      */
-    public void updateMetadata(boolean isCompressedMessage) {
-        this.metadata = createNewMetadata(this.metadata, isCompressedMessage);
+    public void updateMetadata(boolean isCompressedMessage, boolean isChunkCompressedMessage) {
+        this.metadata = createNewMetadata(this.metadata, isCompressedMessage, isChunkCompressedMessage);
         this.isCompressed = isCompressedMessage;
+        this.isChunkCompressed = isChunkCompressedMessage;
         if (log.isDebugEnabled()) {
             log.debug("updated andes message metadata id = " + messageID + ", compression state of the message is " +
-                    isCompressedMessage);
+                    isCompressedMessage + ", chunk compressed " + isChunkCompressedMessage);
         }
     }
 
@@ -351,6 +384,8 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
                     .TOPIC_EXCHANGE_NAME);
             this.messageRouterName = ((MessageMetaData) mdt).getMessagePublishInfo().getExchange().toString();
             this.isCompressed = ((MessageMetaData) mdt).isCompressed();
+            this.isChunkCompressed = ((MessageMetaData) mdt).isChunkCompressed();
+            this.priority = ((MessageMetaData) mdt).getMessageHeader().getPriority();
         }
         //For MQTT Specific Types
         if (type.equals(MessageMetaDataType.META_DATA_MQTT)) {
@@ -362,6 +397,7 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
             this.messageContentLength = ((MQTTMessageMetaData) mdt).getContentSize();
             this.qosLevel = ((MQTTMessageMetaData) mdt).getQosLevel();
             this.isCompressed = ((MQTTMessageMetaData) mdt).isCompressed();
+            this.isChunkCompressed = ((MQTTMessageMetaData) mdt).isChunkCompressed();
         }
 
     }
@@ -399,9 +435,10 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
      *
      * @param originalMetadata          source metadata that needs to be copied
      * @param isCompressed Value to indicate if the message is compressed or not
+     * @param isChunkCompressed Value to indicate if the message content is compressed chunk by chunk
      * @return copy of the metadata as a byte array
      */
-    private byte[] createNewMetadata(byte[] originalMetadata, boolean isCompressed) {
+    private byte[] createNewMetadata(byte[] originalMetadata, boolean isCompressed, boolean isChunkCompressed) {
         ByteBuffer buf = ByteBuffer.wrap(originalMetadata);
         buf.position(1);
         buf = buf.slice();
@@ -412,9 +449,11 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
         byte[] underlying;
         //TODO need to implement factory pattern here
         if ((MessageMetaDataType.META_DATA_MQTT).equals(type)) {
-            underlying = MQTTMetaDataHandler.constructMetadata(buf, originalMessageMetadata, isCompressed);
+            underlying = MQTTMetaDataHandler.constructMetadata(buf, originalMessageMetadata, isCompressed,
+                    isChunkCompressed);
         } else {
-            underlying = AMQPMetaDataHandler.constructMetadata(buf, originalMessageMetadata, isCompressed);
+            underlying = AMQPMetaDataHandler.constructMetadata(buf, originalMessageMetadata, isCompressed,
+                    isChunkCompressed);
         }
 
         return underlying;
@@ -432,6 +471,24 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
         return isCompressed;
     }
 
+    /**
+     * @return true if the message content is compressed chunk by chunk instead of as a whole message
+     */
+    public boolean isChunkCompressed() {
+        return isChunkCompressed;
+    }
+
+    /**
+     * @return JMS priority of the message
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     public void setCompressed(boolean isCompressed) {
         this.isCompressed = isCompressed;
     }
@@ -472,6 +529,33 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
         return propertyMap.get(key);
     }
 
+    /**
+     * Get the protocol specific view of the metadata set through {@link #setProtocolMetadataView(Object)}
+     *
+     * @return parsed view of the metadata. Null if not set
+     */
+    public Object getProtocolMetadataView() {
+        return protocolMetadataView;
+    }
+
+    /**
+     * Keep a protocol specific view of the metadata to be shared by all deliveries of the message. The view is not
+     * persisted.
+     *
+     * @param protocolMetadataView parsed view of the metadata
+     */
+    public void setProtocolMetadataView(Object protocolMetadataView) {
+        this.protocolMetadataView = protocolMetadataView;
+    }
+
+    public LatencyTrace getLatencyTrace() {
+        return latencyTrace;
+    }
+
+    public void setLatencyTrace(LatencyTrace latencyTrace) {
+        this.latencyTrace = latencyTrace;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -510,6 +594,7 @@ public class AndesMessageMetadata implements Comparable<AndesMessageMetadata> {
                 + "\nqosLevel : " + qosLevel
                 + "\nmetaDataType : " + metaDataType
                 + "\nisCompressed : " + isCompressed
+                + "\nisChunkCompressed : " + isChunkCompressed
                 + "\npropertyMap : " + propertyMap.toString()
                 + "\nretain : " + retain;
     }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the progress of an operation processing a large number of messages in chunks, such as purging a queue or
+ * rerouting the messages in the dead letter channel. Progress is logged periodically, and the operation is throttled
+ * by waiting for the configured delay after each chunk so that it does not starve message publishing and delivery.
+ * Operations running on a disruptor thread are not throttled, since waiting there would stall every event behind
+ * them.
+ */
+public class BulkOperationProgress {
+
+    private static Log log = LogFactory.getLog(BulkOperationProgress.class);
+
+    /**
+     * Minimum interval between two progress log entries
+     */
+    private static final long PROGRESS_LOG_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Description of the operation used in the progress log
+     */
+    private final String operation;
+
+    /**
+     * Number of messages processed in a chunk
+     */
+    private final int chunkSize;
+
+    /**
+     * Time in milliseconds to wait after each chunk
+     */
+    private final int delayBetweenChunks;
+
+    private final long startTime;
+
+    private long lastProgressLogTime;
+
+    private long processedMessageCount;
+
+    /**
+     * Create a progress tracker with the chunk size and delay of the broker configuration
+     *
+     * @param operation description of the operation used in the progress log
+     */
+    public BulkOperationProgress(String operation) {
+        this(operation, true);
+    }
+
+    /**
+     * Create a progress tracker with the chunk size of the broker configuration
+     *
+     * @param operation description of the operation used in the progress log
+     * @param throttled true to wait for the configured delay after each chunk, false to process chunks without delay
+     */
+    public BulkOperationProgress(String operation, boolean throttled) {
+        this(operation, readChunkSize(), throttled ? readDelayBetweenChunks() : 0);
+    }
+
+    /**
+     * Create a progress tracker with the given chunk size and the delay of the broker configuration
+     *
+     * @param operation description of the operation used in the progress log
+     * @param chunkSize number of messages processed in a chunk
+     */
+    public BulkOperationProgress(String operation, int chunkSize) {
+        this(operation, chunkSize, readDelayBetweenChunks());
+    }
+
+    private BulkOperationProgress(String operation, int chunkSize, int delayBetweenChunks) {
+        this.operation = operation;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.delayBetweenChunks = Math.max(0, delayBetweenChunks);
+        this.startTime = System.currentTimeMillis();
+        this.lastProgressLogTime = startTime;
+    }
+
+    private static int readChunkSize() {
+        Integer chunkSize = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_BULK_OPERATION_CHUNK_SIZE);
+        return chunkSize;
+    }
+
+    private static int readDelayBetweenChunks() {
+        Integer delay = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_BULK_OPERATION_DELAY_BETWEEN_CHUNKS);
+        return delay;
+    }
+
+    /**
+     * @return number of messages processed in a chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return number of messages processed so far
+     */
+    public long getProcessedMessageCount() {
+        return processedMessageCount;
+    }
+
+    /**
+     * Record a processed chunk, logging the progress if the log interval has elapsed, and wait for the configured
+     * delay before the next chunk is processed if the operation is throttled.
+     *
+     * @param messageCount number of messages processed in the chunk
+     * @throws AndesException if the thread is interrupted while waiting
+     */
+    public void chunkProcessed(int messageCount) throws AndesException {
+        processedMessageCount = processedMessageCount + messageCount;
+
+        long now = System.currentTimeMillis();
+        if (now - lastProgressLogTime >= PROGRESS_LOG_INTERVAL) {
+            lastProgressLogTime = now;
+            log.info(operation + " in progress. " + processedMessageCount + " messages processed in "
+                    + (now - startTime) + " ms");
+        } else if (log.isDebugEnabled()) {
+            log.debug(operation + " processed a chunk of " + messageCount + " messages. Total : "
+                    + processedMessageCount);
+        }
+
+        if (delayBetweenChunks > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayBetweenChunks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AndesException(operation + " interrupted after processing " + processedMessageCount
+                        + " messages", e);
+            }
+        }
+    }
+
+    /**
+     * Log the completion of the operation if it took longer than the progress log interval
+     */
+    public void completed() {
+        long duration = System.currentTimeMillis() - startTime;
+        if (duration >= PROGRESS_LOG_INTERVAL) {
+            log.info(operation + " completed. " + processedMessageCount + " messages processed in " + duration
+                    + " ms");
+        }
+    }
+}
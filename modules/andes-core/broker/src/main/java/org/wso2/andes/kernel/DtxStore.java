@@ -42,6 +42,16 @@ public interface DtxStore extends HealthAwareStore {
     long storeDtxRecords(Xid xid, List<AndesMessage> enqueueRecords,
                          List<? extends AndesMessageMetadata> dequeueRecords) throws AndesException;
 
+    /**
+     * Persist enqueue and dequeue records of several distributed transaction branches in a single database
+     * transaction. This is used to group commit dtx.prepare requests of concurrent transactions
+     *
+     * @param branches {@link DtxBranch} list with dequeue records already retrieved
+     * @return internal xids of the branches in the order of the given list
+     * @throws AndesException Throws exception on database related errors. None of the branches are stored then
+     */
+    long[] storeDtxRecords(List<DtxBranch> branches) throws AndesException;
+
     /**
      * Update the store on a dtx.commit request with enqueued and dequeued records relevant to a specific {@link Xid}
      * This is update is done in a database transaction operation
@@ -52,6 +62,15 @@ public interface DtxStore extends HealthAwareStore {
      */
     void updateOnCommit(long internalXid, List<AndesMessage> enqueueRecords) throws AndesException;
 
+    /**
+     * Update the store on dtx.commit requests of several prepared branches in a single database transaction. This is
+     * used to group commit dtx.commit requests of concurrent transactions
+     *
+     * @param branches prepared {@link DtxBranch} list
+     * @throws AndesException Throws exception on database related errors. None of the branches are committed then
+     */
+    void updateOnCommit(List<DtxBranch> branches) throws AndesException;
+
     /**
      * Update the store on a dtx.commit(one-phase) request with a set of enqueued and dequeued records.
      * This is done in a database transaction operation.
@@ -25,7 +25,6 @@ import org.wso2.andes.kernel.subscription.AndesSubscription;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -46,9 +45,8 @@ public class FlowControlledQueueMessageDeliveryImpl implements MessageDeliverySt
     @Override
     public int deliverMessageToSubscriptions(StorageQueue storageQueue) throws AndesException {
 
-        Collection<DeliverableAndesMetadata> messages = storageQueue.getMessagesForDelivery();
         int sentMessageCount = 0;
-        Iterator<DeliverableAndesMetadata> iterator = messages.iterator();
+        Iterator<DeliverableAndesMetadata> iterator = getMessagesForDelivery(storageQueue);
 
         /*
          * get all relevant type of subscriptions.
@@ -155,4 +153,14 @@ public class FlowControlledQueueMessageDeliveryImpl implements MessageDeliverySt
         return sentMessageCount;
     }
 
+    /**
+     * Get the buffered messages of the queue in the order they should be delivered
+     *
+     * @param storageQueue storage queue to deliver messages of
+     * @return iterator over the messages. Messages are removed through the iterator once they are scheduled
+     */
+    protected Iterator<DeliverableAndesMetadata> getMessagesForDelivery(StorageQueue storageQueue) {
+        return storageQueue.getMessagesForDelivery().iterator();
+    }
+
 }
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Gauge;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.Meter;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the metadata of read but undelivered messages of all storage queues of the node within a global size limit.
+ * Once the limit is reached, only queues buffering less than their fair share of the limit (the limit divided by the
+ * number of governed queues) may read further slots, so that queues of slow consumers holding most of the memory do
+ * not stop delivery for every other queue. The total therefore stays within twice the limit. At the limit, buffers
+ * no message has been delivered from for a while are evicted, releasing their slots so that the messages are read
+ * again later. Buffers of queues with the least consumer demand go first. Queues with sent but unacknowledged
+ * messages are never evicted, since releasing the slots of a queue returns every message read from them, including
+ * those in flight.
+ */
+public class MessageBufferGovernor {
+
+    private static Log log = LogFactory.getLog(MessageBufferGovernor.class);
+
+    /**
+     * Percentage of the limit buffers are evicted down to, so that eviction does not run on every slot read
+     */
+    private static final int EVICTION_TARGET_PERCENTAGE = 90;
+
+    private static MessageBufferGovernor instance;
+
+    /**
+     * Metadata bytes of read but undelivered messages of all buffers created by the governor
+     */
+    private final AtomicLong totalBufferedBytes = new AtomicLong(0);
+
+    /**
+     * Queues whose buffers are governed, by name
+     */
+    private final ConcurrentMap<String, GovernedQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Names of the queues a buffer size gauge is registered for
+     */
+    private final Set<String> queuesWithMetrics = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Set while buffers are being evicted, so that a single thread evicts at a time
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    /**
+     * Maximum metadata bytes of all buffers. 0 or less disables the limit
+     */
+    private final long maxBufferedBytes;
+
+    /**
+     * Time in milliseconds a buffer should be idle before it can be evicted
+     */
+    private final long evictionIdleTime;
+
+    /**
+     * Buffers evicted. Null unless metrics are registered, which is done for the governor of the node only
+     */
+    private Meter evictionMeter;
+
+    /**
+     * Create a governor
+     *
+     * @param maxBufferedBytes maximum metadata bytes of all buffers. 0 or less disables the limit
+     * @param evictionIdleTime time in milliseconds a buffer should be idle before it can be evicted
+     */
+    MessageBufferGovernor(long maxBufferedBytes, long evictionIdleTime) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.evictionIdleTime = evictionIdleTime;
+    }
+
+    /**
+     * Get the governor of the node, created with the limits of the broker configuration
+     *
+     * @return message buffer governor
+     */
+    public static synchronized MessageBufferGovernor getInstance() {
+        if (null == instance) {
+            Long maxBufferedBytes = AndesConfigurationManager
+                    .readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_MAX_READ_BUT_UNDELIVERED_BYTES);
+            Long evictionIdleTime = AndesConfigurationManager
+                    .readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_READ_BUT_UNDELIVERED_EVICTION_IDLE_TIME);
+            instance = new MessageBufferGovernor(maxBufferedBytes, evictionIdleTime);
+            instance.registerMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Create a read but undelivered message buffer whose size counts towards the global limit
+     *
+     * @param bandCount number of priority bands of the buffer
+     * @return message buffer
+     */
+    public PriorityBandedMessageBuffer createMessageBuffer(int bandCount) {
+        return new PriorityBandedMessageBuffer(bandCount, totalBufferedBytes);
+    }
+
+    /**
+     * Start governing the buffer of a queue, making it a candidate for eviction
+     *
+     * @param queue queue to govern
+     */
+    public void register(GovernedQueue queue) {
+        queues.put(queue.getName(), queue);
+        if (null != evictionMeter && queuesWithMetrics.add(queue.getName())) {
+            MetricManager.gauge(MetricsConstants.READ_BUFFER_QUEUE_BYTES + MetricsConstants.METRICS_NAME_SEPARATOR
+                    + queue.getName(), Level.INFO, new QueueBufferedBytesGauge(this, queue.getName()));
+        }
+    }
+
+    /**
+     * Stop governing the buffer of a queue
+     *
+     * @param queue queue to stop governing
+     */
+    public void unregister(GovernedQueue queue) {
+        queues.remove(queue.getName(), queue);
+    }
+
+    /**
+     * Check whether a queue may read more messages into its buffer. If all buffers together are at the limit, idle
+     * buffers of other queues are evicted to make room, and the queue may still read if it buffers less than its
+     * fair share of the limit.
+     *
+     * @param queue queue about to read messages
+     * @return true if the buffers are within the limit or the queue is within its fair share
+     */
+    public boolean hasRoom(GovernedQueue queue) {
+        if (maxBufferedBytes <= 0 || totalBufferedBytes.get() < maxBufferedBytes) {
+            return true;
+        }
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                evictIdleBuffers(queue);
+            } finally {
+                evicting.set(false);
+            }
+        }
+        return totalBufferedBytes.get() < maxBufferedBytes || queue.getBufferedBytes() < getFairShare();
+    }
+
+    /**
+     * @return metadata bytes each governed queue may buffer even when all buffers together are at the limit
+     */
+    private long getFairShare() {
+        return maxBufferedBytes / Math.max(1, queues.size());
+    }
+
+    /**
+     * @return metadata bytes of read but undelivered messages of all buffers
+     */
+    public long getTotalBufferedBytes() {
+        return totalBufferedBytes.get();
+    }
+
+    /**
+     * Get the buffer size of a governed queue
+     *
+     * @param queueName name of the queue
+     * @return metadata bytes of read but undelivered messages of the queue, 0 if the queue is not governed
+     */
+    public long getBufferedBytes(String queueName) {
+        GovernedQueue queue = queues.get(queueName);
+        return null == queue ? 0 : queue.getBufferedBytes();
+    }
+
+    /**
+     * Evict idle buffers of queues without in-flight messages until all buffers are below the eviction target.
+     * Buffers of queues with the least consumer demand go first, then the longest idle, then the largest.
+     *
+     * @param requestingQueue queue about to read messages, which is not evicted
+     */
+    private void evictIdleBuffers(GovernedQueue requestingQueue) {
+        long now = System.currentTimeMillis();
+        List<EvictionCandidate> candidates = new ArrayList<>();
+        for (GovernedQueue queue : queues.values()) {
+            long bufferedBytes = queue.getBufferedBytes();
+            long lastActivityTime = queue.getLastBufferActivityTime();
+            if (queue != requestingQueue && bufferedBytes > 0 && now - lastActivityTime >= evictionIdleTime
+                    && 0 == queue.getInFlightMessageCount()) {
+                candidates.add(new EvictionCandidate(queue, queue.getConsumerDemand(), lastActivityTime,
+                        bufferedBytes));
+            }
+        }
+        Collections.sort(candidates, new EvictionOrder());
+
+        long targetBytes = maxBufferedBytes / 100 * EVICTION_TARGET_PERCENTAGE;
+        for (EvictionCandidate candidate : candidates) {
+            if (totalBufferedBytes.get() <= targetBytes) {
+                break;
+            }
+            if (candidate.queue.evictMessageBuffer()) {
+                if (null != evictionMeter) {
+                    evictionMeter.mark();
+                }
+                log.info("Evicted " + candidate.bufferedBytes + " bytes of read but undelivered messages of queue "
+                        + candidate.queue.getName() + " idle for " + (now - candidate.lastActivityTime)
+                        + " ms to keep message buffers within " + maxBufferedBytes + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Add the global buffer size gauge and the eviction meter to metrics manager
+     */
+    private void registerMetrics() {
+        MetricManager.gauge(MetricsConstants.READ_BUFFER_BYTES, Level.INFO, new TotalBufferedBytesGauge(this));
+        evictionMeter = MetricManager.meter(MetricsConstants.READ_BUFFER_EVICTIONS, Level.INFO);
+    }
+
+    /**
+     * Storage queue whose read but undelivered message buffer is governed
+     */
+    public interface GovernedQueue {
+
+        /**
+         * @return name of the queue
+         */
+        String getName();
+
+        /**
+         * @return metadata bytes of read but undelivered messages of the queue
+         */
+        long getBufferedBytes();
+
+        /**
+         * @return number of consumers of the queue able to take messages now
+         */
+        int getConsumerDemand();
+
+        /**
+         * @return number of messages of the queue sent to subscribers and not yet acknowledged
+         */
+        int getInFlightMessageCount();
+
+        /**
+         * @return last time a message was delivered from the buffer, or the buffer started filling
+         */
+        long getLastBufferActivityTime();
+
+        /**
+         * Drop the read but undelivered messages of the queue and release its slots, so that the messages are read
+         * again from the store later. Nothing is dropped if the queue got in-flight messages since it was picked for
+         * eviction.
+         *
+         * @return true if the buffer was evicted
+         */
+        boolean evictMessageBuffer();
+    }
+
+    /**
+     * Queue considered for eviction, with the values it is ordered by taken once
+     */
+    private static class EvictionCandidate {
+
+        private final GovernedQueue queue;
+
+        private final int consumerDemand;
+
+        private final long lastActivityTime;
+
+        private final long bufferedBytes;
+
+        EvictionCandidate(GovernedQueue queue, int consumerDemand, long lastActivityTime, long bufferedBytes) {
+            this.queue = queue;
+            this.consumerDemand = consumerDemand;
+            this.lastActivityTime = lastActivityTime;
+            this.bufferedBytes = bufferedBytes;
+        }
+    }
+
+    /**
+     * Orders eviction candidates by consumer demand, then by idle time, longest first, then by size, largest first
+     */
+    private static class EvictionOrder implements Comparator<EvictionCandidate> {
+
+        @Override
+        public int compare(EvictionCandidate first, EvictionCandidate second) {
+            if (first.consumerDemand != second.consumerDemand) {
+                return first.consumerDemand < second.consumerDemand ? -1 : 1;
+            }
+            if (first.lastActivityTime != second.lastActivityTime) {
+                return first.lastActivityTime < second.lastActivityTime ? -1 : 1;
+            }
+            if (first.bufferedBytes != second.bufferedBytes) {
+                return first.bufferedBytes > second.bufferedBytes ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Gauge for metadata bytes of read but undelivered messages of all storage queues
+     */
+    private static class TotalBufferedBytesGauge implements Gauge<Long> {
+
+        private final MessageBufferGovernor governor;
+
+        TotalBufferedBytesGauge(MessageBufferGovernor governor) {
+            this.governor = governor;
+        }
+
+        @Override
+        public Long getValue() {
+            return governor.getTotalBufferedBytes();
+        }
+    }
+
+    /**
+     * Gauge for metadata bytes of read but undelivered messages of a storage queue. Reads the queue by name, as the
+     * queue may be deleted and created again while the gauge stays registered.
+     */
+    private static class QueueBufferedBytesGauge implements Gauge<Long> {
+
+        private final MessageBufferGovernor governor;
+
+        private final String queueName;
+
+        QueueBufferedBytesGauge(MessageBufferGovernor governor, String queueName) {
+            this.governor = governor;
+            this.queueName = queueName;
+        }
+
+        @Override
+        public Long getValue() {
+            return governor.getBufferedBytes(queueName);
+        }
+    }
+}
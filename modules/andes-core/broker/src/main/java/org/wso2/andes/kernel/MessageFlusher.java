@@ -79,8 +79,16 @@ public class MessageFlusher {
 
         flusherExecutor = new DisruptorBasedFlusher();
 
-        //set queue message flusher
-        this.queueMessageFlusher = new FlowControlledQueueMessageDeliveryImpl();
+        //set queue message flusher. Priority is considered only if messages are split into priority bands
+        Integer priorityBandCount = AndesConfigurationManager.readValue(AndesConfiguration.
+                PERFORMANCE_TUNING_DELIVERY_PRIORITY_BAND_COUNT);
+        if (priorityBandCount > 1) {
+            Integer starvationLimit = AndesConfigurationManager.readValue(AndesConfiguration.
+                    PERFORMANCE_TUNING_DELIVERY_PRIORITY_STARVATION_LIMIT);
+            this.queueMessageFlusher = new PriorityQueueMessageDeliveryImpl(starvationLimit);
+        } else {
+            this.queueMessageFlusher = new FlowControlledQueueMessageDeliveryImpl();
+        }
 
         //set topic message flusher
         TopicMessageDeliveryStrategy topicMessageDeliveryStrategy =
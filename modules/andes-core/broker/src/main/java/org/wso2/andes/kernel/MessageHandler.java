@@ -26,6 +26,8 @@ import org.wso2.andes.kernel.slot.SlotDeliveryWorkerManager;
 import org.wso2.andes.kernel.slot.SlotReAssignTask;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 import org.wso2.andes.server.queue.DLCQueueUtils;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 
 import java.io.File;
@@ -37,8 +39,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -74,11 +74,10 @@ public class MessageHandler {
     private static final int MAX_META_DATA_RETRIEVAL_COUNT = 5;
 
     /**
-     * In-memory message list scheduled to be delivered. These messages will be flushed
-     * to subscriber.Used Map instead of Set because of https://wso2.org/jira/browse/MB-1624
+     * In-memory message list scheduled to be delivered, split into bands by priority. These messages will be flushed
+     * to subscriber. Uses Maps instead of Sets because of https://wso2.org/jira/browse/MB-1624
      */
-    private ConcurrentMap<Long, DeliverableAndesMetadata> readButUndeliveredMessages = new
-            ConcurrentSkipListMap<>();
+    private final PriorityBandedMessageBuffer readButUndeliveredMessages;
 
     /**
      * Map of slots read so far
@@ -113,6 +112,9 @@ public class MessageHandler {
         this.lastPurgedTimestamp = 0L;
         this.messageStore = AndesContext.getInstance().getMessageStore();
         this.slotsRead = new ConcurrentHashMap<>();
+        Integer priorityBandCount = AndesConfigurationManager.
+                readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_PRIORITY_BAND_COUNT);
+        this.readButUndeliveredMessages = MessageBufferGovernor.getInstance().createMessageBuffer(priorityBandCount);
     }
 
     /**
@@ -266,7 +268,7 @@ public class MessageHandler {
     }
 
     /**
-     * Get buffered messages
+     * Get buffered messages, highest priority band first
      *
      * @return Collection with DeliverableAndesMetadata
      */
@@ -274,15 +276,28 @@ public class MessageHandler {
         return readButUndeliveredMessages.values();
     }
 
+    /**
+     * Get buffered messages in the order they should be delivered considering their priority. Lower priority
+     * messages are returned after the given number of higher priority messages if they are waiting.
+     *
+     * @param starvationLimit number of higher priority messages after which a waiting lower priority message is
+     *                        returned
+     * @return iterator over the buffered messages. Messages can be removed through the iterator
+     */
+    public Iterator<DeliverableAndesMetadata> getReadButUndeliveredMessagesByPriority(int starvationLimit) {
+        return readButUndeliveredMessages.prioritizedIterator(starvationLimit);
+    }
+
     /**
      * Buffer messages to be delivered
      *
      * @param message message metadata to buffer
      */
     public void bufferMessage(DeliverableAndesMetadata message) {
-        readButUndeliveredMessages.putIfAbsent(message.getMessageID(), message);
+        readButUndeliveredMessages.putIfAbsent(message);
         message.markAsBuffered();
         MessageTracer.trace(message, MessageTracer.METADATA_BUFFERED_FOR_DELIVERY);
+        LatencyTracer.trace(message, TraceStage.READ_FROM_SLOT);
     }
 
     /**
@@ -310,6 +325,24 @@ public class MessageHandler {
         return hasRoom;
     }
 
+    /**
+     * Get size of the read-but-undelivered messages of the queue
+     *
+     * @return metadata bytes of the buffered messages
+     */
+    public long getBufferedBytes() {
+        return readButUndeliveredMessages.getBufferedBytes();
+    }
+
+    /**
+     * Get last time a message left the read-but-undelivered buffer, or the buffer started filling
+     *
+     * @return time in milliseconds
+     */
+    public long getLastBufferActivityTime() {
+        return readButUndeliveredMessages.getLastActivityTime();
+    }
+
     /***
      * Clear the read-but-undelivered collection of messages of the given queue from memory
      *
@@ -347,15 +380,30 @@ public class MessageHandler {
             //clear all in-memory messages
             purgeInMemoryMessagesOfQueue();
 
-            // Delete messages from store
-            int deletedMessageCount;
-            if (!(DLCQueueUtils.isDeadLetterQueue(queueName))) {
-                // delete all messages for the queue
-                deletedMessageCount = messageStore.deleteAllMessageMetadata(queueName);
-            } else {
-                //delete all the messages in dlc
-                deletedMessageCount = messageStore.clearDLCQueue(queueName);
-            }
+            // Delete messages from store in chunks so that a large queue does not lock the store for the
+            // whole purge. Purges run on the inbound disruptor thread, hence chunks are not throttled, which would
+            // stall publishing
+            boolean isDeadLetterQueue = DLCQueueUtils.isDeadLetterQueue(queueName);
+            BulkOperationProgress progress = new BulkOperationProgress("Purging queue " + queueName, false);
+            int deletedMessageCount = 0;
+            int deletedMessageCountInChunk;
+            do {
+                if (!isDeadLetterQueue) {
+                    // delete next chunk of messages for the queue
+                    deletedMessageCountInChunk = messageStore.deleteNextNMessageMetadata(queueName,
+                            progress.getChunkSize());
+                } else {
+                    //delete next chunk of messages in dlc
+                    deletedMessageCountInChunk = messageStore.deleteNextNMessagesInDLC(queueName,
+                            progress.getChunkSize());
+                }
+                deletedMessageCount = deletedMessageCount + deletedMessageCountInChunk;
+                progress.chunkProcessed(deletedMessageCountInChunk);
+                // A chunk smaller than the chunk size means the queue is drained. Stopping here also makes sure
+                // messages published during the purge do not keep the purge running
+            } while (deletedMessageCountInChunk >= progress.getChunkSize());
+            progress.completed();
+
             return deletedMessageCount;
 
         } catch (AndesException e) {
@@ -53,6 +53,19 @@ public interface MessageStore extends HealthAwareStore {
      */
     void storeMessagePart(List<AndesMessagePart> partList) throws AndesException;
 
+    /**
+     * Store content streamed ahead of the metadata of the message it belongs to. The content is held under the
+     * given content id, which messages stored later refer to through their {@link SharedContent}.
+     *
+     * @param contentId  id the content is stored under
+     * @param partList   content parts, with offsets from the start of the content
+     * @param firstParts true if these are the first parts of the content stored, in which case the holder of the
+     *                   content is created along with them
+     * @throws AndesException
+     */
+    void storeStreamedContent(long contentId, List<AndesMessagePart> partList, boolean firstParts)
+            throws AndesException;
+
     /**
      * read content chunk from store
      *
@@ -127,6 +140,15 @@ public interface MessageStore extends HealthAwareStore {
      */
     AndesMessageMetadata getMetadata(long messageId) throws AndesException;
 
+    /**
+     * Read metadata of a list of messages from store
+     *
+     * @param messageIDList ids of the messages
+     * @return metadata of the messages found in the store, in the order of the given ids
+     * @throws AndesException
+     */
+    List<AndesMessageMetadata> getMetadata(LongArrayList messageIDList) throws AndesException;
+
     /**
      * read a metadata list from store specifying a message id range
      *
@@ -176,6 +198,32 @@ public interface MessageStore extends HealthAwareStore {
     int recoverSlotsForQueue(final String storageQueueName, long firstMsgId, int messageLimitPerSlot,
                              RecoverySlotCreator.CallBack callBack) throws AndesException;
 
+    /**
+     * Recover slots for given queue from its last slot map checkpoint. Checkpointed slots are given to the callback
+     * in message id order. Messages stored after the checkpoint should then be recovered through
+     * {@link #recoverSlotsForQueue(String, long, int, RecoverySlotCreator.CallBack)}.
+     *
+     * @param storageQueueName storage queue name
+     * @param callBack callBack for slot creator
+     * @return last message id covered by the checkpoint, 0 if there is no checkpoint for the queue
+     * @throws AndesException
+     */
+    long recoverSlotsFromCheckpoint(String storageQueueName, RecoverySlotCreator.CallBack callBack)
+            throws AndesException;
+
+    /**
+     * Extend the slot map checkpoint of given queue with the messages stored after the last checkpoint, up to the
+     * given message id. Only full slots are added. Checkpointed slots of which all messages are removed are dropped.
+     *
+     * @param storageQueueName storage queue name
+     * @param lastMessageId highest message id that can be added to the checkpoint
+     * @param messageLimitPerSlot slot size
+     * @return number of slots added to the checkpoint
+     * @throws AndesException
+     */
+    int checkpointSlotsForQueue(String storageQueueName, long lastMessageId, int messageLimitPerSlot)
+            throws AndesException;
+
     /**
      * Retrieve a metadata list from dead letter channel for a specific queue specifying a starting message id and a
      * count
@@ -282,6 +330,29 @@ public interface MessageStore extends HealthAwareStore {
      */
     int clearDLCQueue(String dlcQueueName) throws AndesException;
 
+    /**
+     * Store level method to remove the metadata with the lowest message IDs addressed to a specific queue. The
+     * message ID range to remove is resolved and removed by the store in a single transaction, so that a large queue
+     * can be purged in chunks without holding locks on the whole queue.
+     *
+     * @param storageQueueName name of the queue being purged
+     * @param count            maximum number of messages to remove
+     * @return the number of messages that were deleted. 0 if the queue has no messages left
+     * @throws AndesException
+     */
+    int deleteNextNMessageMetadata(String storageQueueName, int count) throws AndesException;
+
+    /**
+     * Store level method to remove the metadata with the lowest message IDs in a dead letter channel. The message ID
+     * range to remove is resolved and removed by the store in a single transaction.
+     *
+     * @param dlcQueueName name of the dead letter channel being purged
+     * @param count        maximum number of messages to remove
+     * @return the number of messages that were deleted. 0 if the dead letter channel has no messages left
+     * @throws AndesException
+     */
+    int deleteNextNMessagesInDLC(String dlcQueueName, int count) throws AndesException;
+
     /***
      * Get Message ID list addressed to a specific queue.
      *
@@ -23,6 +23,9 @@ import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
 import org.apache.log4j.Logger;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.browse.BrowseCursor;
+import org.wso2.andes.kernel.browse.BrowsePage;
+import org.wso2.andes.kernel.browse.MessageBrowser;
 import org.wso2.andes.kernel.dtx.AndesPreparedMessageMetadata;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotCoordinator;
@@ -66,11 +69,22 @@ public class MessagingEngine {
      */
     private MessageIdGenerator messageIdGenerator;
 
+    /**
+     * Generator of the ids streamed content is stored under. Always time stamp based, as the age of streamed content
+     * is derived from its id.
+     */
+    private final TimeStampBasedMessageIdGenerator streamedContentIdGenerator =
+            new TimeStampBasedMessageIdGenerator();
+
     /**
      * Reference to MessageStore. This holds the messages received by andes
      */
     private MessageStore messageStore;
 
+    /**
+     * Reads pages of messages of queues and the dead letter channel for browsing
+     */
+    private MessageBrowser messageBrowser;
 
     /**
      * Slot coordinator who is responsible of coordinating with the SlotManager
@@ -121,6 +135,7 @@ public class MessagingEngine {
         configureMessageIDGenerator();
 
         this.messageStore = messageStore;
+        this.messageBrowser = new MessageBrowser(messageStore);
         this.messageExpiryManager = messageExpiryManager;
         this.subscriptionManager = subscriptionManager;
 
@@ -172,6 +187,19 @@ public class MessagingEngine {
         messageStore.storeMessages(messageList);
     }
 
+    /**
+     * Persist content streamed ahead of the metadata of the message it belongs to
+     *
+     * @param contentId  id the content is stored under, generated through {@link #generateStreamedContentId()}
+     * @param partList   content parts to persist
+     * @param firstParts true if these are the first parts of the content persisted
+     * @throws AndesException
+     */
+    public void storeStreamedContent(long contentId, List<AndesMessagePart> partList, boolean firstParts)
+            throws AndesException {
+        messageStore.storeStreamedContent(contentId, partList, firstParts);
+    }
+
     /**
      * Get a single metadata object
      *
@@ -183,6 +211,17 @@ public class MessagingEngine {
         return messageStore.getMetadata(messageID);
     }
 
+    /**
+     * Get metadata of a list of messages
+     *
+     * @param messageIdList ids of the messages
+     * @return metadata of the messages found in the store
+     * @throws AndesException
+     */
+    public List<AndesMessageMetadata> getMessageMetaData(LongArrayList messageIdList) throws AndesException {
+        return messageStore.getMetadata(messageIdList);
+    }
+
     /**
      * Move the messages meta data in the given message to the Dead Letter Channel and
      * remove those meta data from the original queue.
@@ -487,6 +526,20 @@ public class MessagingEngine {
         return messageStore.getNextNMessageMetadataFromDLC(dlcQueueName, firstMsgId, count);
     }
 
+    /**
+     * Read the page of messages following a browse cursor
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to read
+     * @param includeContent  whether to read the content of the messages with the page
+     * @return the page
+     * @throws AndesException
+     */
+    public BrowsePage browse(BrowseCursor cursor, int maxMessageCount, boolean includeContent)
+            throws AndesException {
+        return messageBrowser.browse(cursor, maxMessageCount, includeContent);
+    }
+
     /**
      * Get expired but not yet deleted messages from message store
      *
@@ -536,6 +589,17 @@ public class MessagingEngine {
         return messageId;
     }
 
+    /**
+     * Generate an id to store streamed content under. Ids are negative so that they never collide with message ids
+     * or the ids of content shared by the copies of a message, which are generated separately. The ids are unique
+     * even for different message broker nodes.
+     *
+     * @return id generated
+     */
+    public long generateStreamedContentId() {
+        return -streamedContentIdGenerator.getNextId();
+    }
+
     private void configureMessageIDGenerator() {
         // Configure message ID generator
         String idGeneratorImpl = AndesConfigurationManager.readValue(AndesConfiguration.PERSISTENCE_ID_GENERATOR);
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import com.google.common.collect.Iterators;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read but undelivered messages of a storage queue, split into bands by JMS priority. Each band keeps its messages
+ * in message ID order. With a single band all messages are kept in message ID order regardless of priority, which is
+ * the behaviour of a queue without priority support.
+ * <p>
+ * Band 0 holds the lowest priorities. JMS priorities 0 to 9 are spread evenly over the bands.
+ * <p>
+ * The buffer keeps the size of the metadata of its messages, and adds it to a total shared by the buffers of all
+ * storage queues, which the {@link MessageBufferGovernor} keeps within bounds.
+ */
+public class PriorityBandedMessageBuffer {
+
+    /**
+     * Number of JMS priority levels
+     */
+    static final int PRIORITY_LEVELS = 10;
+
+    /**
+     * Messages of each band by message ID. Band 0 holds the lowest priorities
+     */
+    private final ConcurrentSkipListMap<Long, DeliverableAndesMetadata>[] bands;
+
+    /**
+     * Number of messages delivered from higher bands while each band had messages waiting
+     */
+    private final AtomicIntegerArray bypassCounts;
+
+    /**
+     * View of all the messages, highest band first
+     */
+    private final Collection<DeliverableAndesMetadata> allMessages;
+
+    /**
+     * Metadata bytes of the buffered messages
+     */
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+
+    /**
+     * Metadata bytes of the buffered messages of all buffers sharing the total
+     */
+    private final AtomicLong totalBufferedBytes;
+
+    /**
+     * Last time a message was removed from the buffer, or the buffer got its first message after being empty
+     */
+    private volatile long lastActivityTime;
+
+    /**
+     * Create a message buffer
+     *
+     * @param bandCount number of priority bands. Limited to the number of JMS priority levels
+     */
+    public PriorityBandedMessageBuffer(int bandCount) {
+        this(bandCount, new AtomicLong(0));
+    }
+
+    /**
+     * Create a message buffer adding the size of its messages to a shared total
+     *
+     * @param bandCount          number of priority bands. Limited to the number of JMS priority levels
+     * @param totalBufferedBytes metadata bytes of the buffered messages of all buffers sharing it
+     */
+    @SuppressWarnings("unchecked")
+    PriorityBandedMessageBuffer(int bandCount, AtomicLong totalBufferedBytes) {
+        this.totalBufferedBytes = totalBufferedBytes;
+        this.lastActivityTime = System.currentTimeMillis();
+        int count = Math.max(1, Math.min(bandCount, PRIORITY_LEVELS));
+        bands = new ConcurrentSkipListMap[count];
+        for (int i = 0; i < count; i++) {
+            bands[i] = new ConcurrentSkipListMap<>();
+        }
+        bypassCounts = new AtomicIntegerArray(count);
+        allMessages = new AbstractCollection<DeliverableAndesMetadata>() {
+            @Override
+            public Iterator<DeliverableAndesMetadata> iterator() {
+                if (bands.length == 1) {
+                    return new SizeTrackingIterator(bands[0].values().iterator());
+                }
+                List<Iterator<DeliverableAndesMetadata>> bandIterators = new ArrayList<>(bands.length);
+                for (int band = bands.length - 1; band >= 0; band--) {
+                    bandIterators.add(bands[band].values().iterator());
+                }
+                return new SizeTrackingIterator(Iterators.concat(bandIterators.iterator()));
+            }
+
+            @Override
+            public int size() {
+                return PriorityBandedMessageBuffer.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return number of priority bands
+     */
+    public int getBandCount() {
+        return bands.length;
+    }
+
+    /**
+     * Get the band a priority belongs to
+     *
+     * @param priority JMS priority of a message
+     * @return band of the priority
+     */
+    public int getBand(int priority) {
+        int boundedPriority = Math.max(0, Math.min(priority, PRIORITY_LEVELS - 1));
+        return boundedPriority * bands.length / PRIORITY_LEVELS;
+    }
+
+    /**
+     * Add a message to the band of its priority if it is not already buffered
+     *
+     * @param message message to buffer
+     */
+    public void putIfAbsent(DeliverableAndesMetadata message) {
+        if (null == bands[getBand(message.getPriority())].putIfAbsent(message.getMessageID(), message)) {
+            long messageSize = sizeOf(message);
+            if (0 == bufferedBytes.getAndAdd(messageSize)) {
+                lastActivityTime = System.currentTimeMillis();
+            }
+            totalBufferedBytes.addAndGet(messageSize);
+        }
+    }
+
+    /**
+     * Remove a buffered message
+     *
+     * @param messageId ID of the message to remove
+     */
+    public void remove(long messageId) {
+        for (ConcurrentSkipListMap<Long, DeliverableAndesMetadata> band : bands) {
+            DeliverableAndesMetadata message = band.remove(messageId);
+            if (null != message) {
+                messageRemoved(message);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return metadata bytes of the buffered messages
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    /**
+     * @return last time a message was removed from the buffer, or the buffer got its first message after being
+     * empty. Buffers of queues whose messages are being delivered have a recent activity time.
+     */
+    public long getLastActivityTime() {
+        return lastActivityTime;
+    }
+
+    /**
+     * @return number of buffered messages
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentSkipListMap<Long, DeliverableAndesMetadata> band : bands) {
+            size = size + band.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove all buffered messages
+     */
+    public void clear() {
+        for (ConcurrentSkipListMap<Long, DeliverableAndesMetadata> band : bands) {
+            // Messages are removed one by one, so that the size of messages buffered meanwhile is kept
+            for (DeliverableAndesMetadata message : band.values()) {
+                if (band.remove(message.getMessageID(), message)) {
+                    messageRemoved(message);
+                }
+            }
+        }
+        for (int i = 0; i < bands.length; i++) {
+            bypassCounts.set(i, 0);
+        }
+    }
+
+    /**
+     * Get all the buffered messages, highest band first and in message ID order within a band. Messages can be
+     * removed through the iterator of the collection.
+     *
+     * @return buffered messages
+     */
+    public Collection<DeliverableAndesMetadata> values() {
+        return allMessages;
+    }
+
+    /**
+     * Get an iterator over the buffered messages which returns the message of the highest band first. A band with
+     * messages waiting is served once messages from higher bands have been removed through an iterator the given
+     * number of times while it was waiting, so that lower priority messages are not starved by a steady flow of
+     * higher priority messages. Messages returned but left in the buffer do not count. The number of times a band is
+     * bypassed is kept across iterators.
+     *
+     * @param starvationLimit number of messages from higher bands after which a waiting band is served
+     * @return iterator over the buffered messages
+     */
+    public Iterator<DeliverableAndesMetadata> prioritizedIterator(int starvationLimit) {
+        return new PrioritizedIterator(starvationLimit);
+    }
+
+    /**
+     * Size of a message accounted for in the buffer
+     *
+     * @param message buffered message
+     * @return metadata bytes of the message
+     */
+    private static long sizeOf(DeliverableAndesMetadata message) {
+        byte[] metadata = message.getMetadata();
+        return null == metadata ? 0 : metadata.length;
+    }
+
+    /**
+     * Remove a message unless it was removed meanwhile, for instance by clearing the buffer, so that its size is
+     * subtracted once
+     *
+     * @param message message returned by an iterator
+     */
+    private void removeIfBuffered(DeliverableAndesMetadata message) {
+        for (ConcurrentSkipListMap<Long, DeliverableAndesMetadata> band : bands) {
+            if (band.remove(message.getMessageID(), message)) {
+                messageRemoved(message);
+                return;
+            }
+        }
+    }
+
+    private void messageRemoved(DeliverableAndesMetadata message) {
+        long messageSize = sizeOf(message);
+        bufferedBytes.addAndGet(-messageSize);
+        totalBufferedBytes.addAndGet(-messageSize);
+        lastActivityTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Iterator over buffered messages which keeps the size of the buffer when messages are removed through it
+     */
+    private class SizeTrackingIterator implements Iterator<DeliverableAndesMetadata> {
+
+        private final Iterator<DeliverableAndesMetadata> delegate;
+
+        private DeliverableAndesMetadata lastMessage;
+
+        private SizeTrackingIterator(Iterator<DeliverableAndesMetadata> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public DeliverableAndesMetadata next() {
+            lastMessage = delegate.next();
+            return lastMessage;
+        }
+
+        @Override
+        public void remove() {
+            if (null == lastMessage) {
+                throw new IllegalStateException();
+            }
+            removeIfBuffered(lastMessage);
+            lastMessage = null;
+        }
+    }
+
+    /**
+     * Iterator picking the band of each message it returns
+     */
+    private class PrioritizedIterator implements Iterator<DeliverableAndesMetadata> {
+
+        private final int starvationLimit;
+
+        private final Iterator<DeliverableAndesMetadata>[] bandIterators;
+
+        /**
+         * Band the last message was returned from
+         */
+        private int lastBand = -1;
+
+        /**
+         * Message last returned
+         */
+        private DeliverableAndesMetadata lastMessage;
+
+        @SuppressWarnings("unchecked")
+        private PrioritizedIterator(int starvationLimit) {
+            this.starvationLimit = starvationLimit;
+            bandIterators = new Iterator[bands.length];
+            for (int band = 0; band < bands.length; band++) {
+                bandIterators[band] = bands[band].values().iterator();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (Iterator<DeliverableAndesMetadata> bandIterator : bandIterators) {
+                if (bandIterator.hasNext()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public DeliverableAndesMetadata next() {
+            int selectedBand = -1;
+
+            // Serve the lowest band which was bypassed too many times
+            for (int band = 0; band < bandIterators.length - 1; band++) {
+                if (bypassCounts.get(band) >= starvationLimit && bandIterators[band].hasNext()) {
+                    selectedBand = band;
+                    break;
+                }
+            }
+
+            if (selectedBand < 0) {
+                for (int band = bandIterators.length - 1; band >= 0; band--) {
+                    if (bandIterators[band].hasNext()) {
+                        selectedBand = band;
+                        break;
+                    }
+                }
+            }
+
+            if (selectedBand < 0) {
+                throw new NoSuchElementException();
+            }
+
+            DeliverableAndesMetadata message = bandIterators[selectedBand].next();
+            lastBand = selectedBand;
+            lastMessage = message;
+            return message;
+        }
+
+        @Override
+        public void remove() {
+            if (lastBand < 0) {
+                throw new IllegalStateException();
+            }
+            if (bands[lastBand].remove(lastMessage.getMessageID(), lastMessage)) {
+                messageRemoved(lastMessage);
+            }
+
+            // Bands are bypassed only by messages actually taken, not by messages looked at and left in the buffer
+            bypassCounts.set(lastBand, 0);
+            for (int band = 0; band < lastBand; band++) {
+                if (bandIterators[band].hasNext()) {
+                    bypassCounts.incrementAndGet(band);
+                }
+            }
+            lastBand = -1;
+            lastMessage = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.wso2.andes.kernel.subscription.StorageQueue;
+
+import java.util.Iterator;
+
+/**
+ * Strategy definition for queue message delivery considering the JMS priority of messages. Buffered messages of
+ * higher priority bands are delivered first. Once the configured number of higher priority messages are delivered
+ * while a lower priority band has messages waiting, a message of the lower band is delivered.
+ */
+public class PriorityQueueMessageDeliveryImpl extends FlowControlledQueueMessageDeliveryImpl {
+
+    /**
+     * Number of higher priority messages after which a waiting lower priority message is delivered
+     */
+    private final int starvationLimit;
+
+    public PriorityQueueMessageDeliveryImpl(int starvationLimit) {
+        this.starvationLimit = Math.max(1, starvationLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Iterator<DeliverableAndesMetadata> getMessagesForDelivery(StorageQueue storageQueue) {
+        return storageQueue.getMessagesForDeliveryByPriority(starvationLimit);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+/**
+ * Content of a published message which is shared by all the copies of the message routed to different storage
+ * queues. The content is persisted once under the content ID and each copy refers to it, instead of persisting the
+ * content once per copy. The persisted content is removed once all the referring copies are removed.
+ */
+public class SharedContent {
+
+    /**
+     * ID the shared content is persisted under
+     */
+    private final long contentId;
+
+    /**
+     * Number of message copies referring to the content at the time of publishing
+     */
+    private final int referenceCount;
+
+    /**
+     * True if the content was stored ahead of the messages referring to it
+     */
+    private final boolean contentStored;
+
+    public SharedContent(long contentId, int referenceCount) {
+        this(contentId, referenceCount, false);
+    }
+
+    public SharedContent(long contentId, int referenceCount, boolean contentStored) {
+        this.contentId = contentId;
+        this.referenceCount = referenceCount;
+        this.contentStored = contentStored;
+    }
+
+    /**
+     * Get the ID the shared content is persisted under
+     */
+    public long getContentId() {
+        return contentId;
+    }
+
+    /**
+     * Get the number of message copies referring to the content at the time of publishing
+     */
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * Check whether the content was stored ahead of the messages referring to it, as done for the content of large
+     * messages streamed to the store while being received. Such messages carry no content parts and only the
+     * references to the content are stored along with them.
+     */
+    public boolean isContentStored() {
+        return contentStored;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.browse;
+
+/**
+ * Position of a browser in a queue or in the dead letter channel. A cursor keeps the ID of the last message read,
+ * so that the next page is read from the message ID index where the previous page ended instead of skipping the
+ * messages before it. Cursors are immutable, and can be passed around as a token by tools paging through messages.
+ */
+public final class BrowseCursor {
+
+    /**
+     * Prefix of the tokens of cursors browsing a queue
+     */
+    private static final String QUEUE_TOKEN_PREFIX = "Q";
+
+    /**
+     * Prefix of the tokens of cursors browsing the dead letter channel
+     */
+    private static final String DLC_TOKEN_PREFIX = "D";
+
+    private static final char TOKEN_SEPARATOR = ':';
+
+    private final String queueName;
+
+    private final boolean deadLetterChannel;
+
+    private final long lastMessageId;
+
+    private BrowseCursor(String queueName, boolean deadLetterChannel, long lastMessageId) {
+        if (null == queueName || queueName.isEmpty()) {
+            throw new IllegalArgumentException("A queue name is required to browse messages");
+        }
+        this.queueName = queueName;
+        this.deadLetterChannel = deadLetterChannel;
+        this.lastMessageId = lastMessageId;
+    }
+
+    /**
+     * Create a cursor at the start of a queue. Browsing the dead letter queue itself lists all the messages in the
+     * dead letter channel.
+     *
+     * @param queueName name of the storage queue
+     * @return the cursor
+     */
+    public static BrowseCursor forQueue(String queueName) {
+        return new BrowseCursor(queueName, false, 0);
+    }
+
+    /**
+     * Create a cursor at the start of the messages of a queue in the dead letter channel. Given the dead letter
+     * queue itself, the cursor lists all the messages in the dead letter channel.
+     *
+     * @param queueName name of the storage queue the messages were routed to
+     * @return the cursor
+     */
+    public static BrowseCursor forDeadLetterChannel(String queueName) {
+        return new BrowseCursor(queueName, true, 0);
+    }
+
+    /**
+     * Restore a cursor from its token
+     *
+     * @param token token returned by {@link #toToken()}
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a cursor token
+     */
+    public static BrowseCursor fromToken(String token) {
+        int firstSeparator = token.indexOf(TOKEN_SEPARATOR);
+        int secondSeparator = token.indexOf(TOKEN_SEPARATOR, firstSeparator + 1);
+        if (firstSeparator < 0 || secondSeparator < 0) {
+            throw new IllegalArgumentException("Invalid browse cursor token : " + token);
+        }
+
+        String type = token.substring(0, firstSeparator);
+        if (!QUEUE_TOKEN_PREFIX.equals(type) && !DLC_TOKEN_PREFIX.equals(type)) {
+            throw new IllegalArgumentException("Invalid browse cursor token : " + token);
+        }
+        long lastMessageId;
+        try {
+            lastMessageId = Long.parseLong(token.substring(firstSeparator + 1, secondSeparator));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid browse cursor token : " + token, e);
+        }
+        return new BrowseCursor(token.substring(secondSeparator + 1), DLC_TOKEN_PREFIX.equals(type), lastMessageId);
+    }
+
+    /**
+     * Get a cursor past the given message
+     *
+     * @param messageId ID of the last message read
+     * @return the cursor
+     */
+    public BrowseCursor after(long messageId) {
+        return new BrowseCursor(queueName, deadLetterChannel, messageId);
+    }
+
+    /**
+     * Encode the cursor as a token, from which {@link #fromToken(String)} restores it
+     *
+     * @return the token
+     */
+    public String toToken() {
+        return (deadLetterChannel ? DLC_TOKEN_PREFIX : QUEUE_TOKEN_PREFIX) + TOKEN_SEPARATOR + lastMessageId
+                + TOKEN_SEPARATOR + queueName;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    /**
+     * @return whether the cursor browses messages in the dead letter channel
+     */
+    public boolean isDeadLetterChannel() {
+        return deadLetterChannel;
+    }
+
+    /**
+     * @return ID of the last message read, 0 at the start
+     */
+    public long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BrowseCursor)) {
+            return false;
+        }
+        BrowseCursor cursor = (BrowseCursor) o;
+        return deadLetterChannel == cursor.deadLetterChannel && lastMessageId == cursor.lastMessageId
+                && queueName.equals(cursor.queueName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = queueName.hashCode();
+        result = 31 * result + (deadLetterChannel ? 1 : 0);
+        result = 31 * result + (int) (lastMessageId ^ (lastMessageId >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toToken();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.browse;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of messages read by a {@link MessageBrowser}, in message ID order, with the cursor the next page is read
+ * from
+ */
+public class BrowsePage {
+
+    private final List<BrowsedMessage> messages;
+
+    private final BrowseCursor nextCursor;
+
+    private final boolean lastPage;
+
+    BrowsePage(List<BrowsedMessage> messages, BrowseCursor nextCursor, boolean lastPage) {
+        this.messages = Collections.unmodifiableList(messages);
+        this.nextCursor = nextCursor;
+        this.lastPage = lastPage;
+    }
+
+    public List<BrowsedMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return cursor past the last message of this page, or the cursor of this page if it has no messages
+     */
+    public BrowseCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Check whether messages were left after this page when it was read. Messages published later may still be
+     * read from the next cursor.
+     *
+     * @return true if no message followed this page
+     */
+    public boolean isLastPage() {
+        return lastPage;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.browse;
+
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+
+/**
+ * A message read by a {@link MessageBrowser}. Holds the metadata of the message, and its content only if the page
+ * was read with content. Otherwise the content is read from the store each time it is asked for, and is not kept.
+ */
+public class BrowsedMessage {
+
+    private final MessageBrowser browser;
+
+    private final AndesMessageMetadata metadata;
+
+    /**
+     * Content read with the page, null if the page was read without content
+     */
+    private final byte[] content;
+
+    BrowsedMessage(MessageBrowser browser, AndesMessageMetadata metadata, byte[] content) {
+        this.browser = browser;
+        this.metadata = metadata;
+        this.content = content;
+    }
+
+    public long getMessageId() {
+        return metadata.getMessageID();
+    }
+
+    /**
+     * @return metadata of the message, from which protocol specific headers are decoded
+     */
+    public AndesMessageMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return length of the content of the message, before compression
+     */
+    public int getContentLength() {
+        return metadata.getMessageContentLength();
+    }
+
+    /**
+     * @return whether the content was read with the page
+     */
+    public boolean isContentLoaded() {
+        return null != content;
+    }
+
+    /**
+     * Get the content of the message, decompressed. Content not read with the page is read from the store.
+     *
+     * @return the content
+     * @throws AndesException if the content cannot be read, for instance since the message was deleted
+     */
+    public byte[] getContent() throws AndesException {
+        if (null != content) {
+            return content;
+        }
+        return browser.readContent(metadata);
+    }
+}
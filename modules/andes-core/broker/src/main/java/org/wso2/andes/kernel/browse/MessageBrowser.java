@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.browse;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.MessageStore;
+import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+import org.wso2.andes.server.queue.DLCQueueUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the messages of a queue, or of the dead letter channel, a page at a time. Each page is read from the
+ * message ID index past the last message of the previous page, hence reading a page deep into a large queue costs
+ * as much as reading the first one. Pages hold message metadata only unless content is asked for, and are capped
+ * both in message count and in size.
+ */
+public class MessageBrowser {
+
+    private final MessageStore messageStore;
+
+    /**
+     * Maximum number of messages in a page
+     */
+    private final int maxMessagesPerPage;
+
+    /**
+     * Maximum size in bytes of the metadata and content held by a page
+     */
+    private final int maxPageSize;
+
+    private final LZ4CompressionHelper compressionHelper = new LZ4CompressionHelper();
+
+    /**
+     * Create a browser with the page limits of the broker configuration
+     *
+     * @param messageStore store messages are read from
+     */
+    public MessageBrowser(MessageStore messageStore) {
+        this(messageStore, (Integer) AndesConfigurationManager
+                        .readValue(AndesConfiguration.PERFORMANCE_TUNING_BROWSING_MAX_MESSAGES_PER_PAGE),
+                (Integer) AndesConfigurationManager
+                        .readValue(AndesConfiguration.PERFORMANCE_TUNING_BROWSING_MAX_PAGE_SIZE));
+    }
+
+    /**
+     * @param messageStore       store messages are read from
+     * @param maxMessagesPerPage maximum number of messages in a page
+     * @param maxPageSize        maximum size in bytes of the metadata and content held by a page
+     */
+    public MessageBrowser(MessageStore messageStore, int maxMessagesPerPage, int maxPageSize) {
+        this.messageStore = messageStore;
+        this.maxMessagesPerPage = maxMessagesPerPage;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Read the page of message metadata following the cursor. Content is read only when asked for through
+     * {@link BrowsedMessage#getContent()}.
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to read, capped by the configured page limit
+     * @return the page
+     * @throws AndesException if messages cannot be read from the store
+     */
+    public BrowsePage browse(BrowseCursor cursor, int maxMessageCount) throws AndesException {
+        return browse(cursor, maxMessageCount, false);
+    }
+
+    /**
+     * Read the page of messages following the cursor. A page ends early once it reaches the configured page size.
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to read, capped by the configured page limit
+     * @param includeContent  whether to read the content of the messages with the page
+     * @return the page
+     * @throws AndesException if messages cannot be read from the store
+     */
+    public BrowsePage browse(BrowseCursor cursor, int maxMessageCount, boolean includeContent)
+            throws AndesException {
+        int pageMessageCount = Math.max(1, Math.min(maxMessageCount, maxMessagesPerPage));
+
+        // A message more than the page holds tells whether another page follows
+        List<AndesMessageMetadata> metadataList = readMetadata(cursor, pageMessageCount + 1);
+
+        List<BrowsedMessage> messages = new ArrayList<>(Math.min(metadataList.size(), pageMessageCount));
+        long pageSize = 0;
+        for (AndesMessageMetadata metadata : metadataList) {
+            if (messages.size() == pageMessageCount) {
+                break;
+            }
+            long messageSize = null == metadata.getMetadata() ? 0 : metadata.getMetadata().length;
+            if (includeContent) {
+                messageSize = messageSize + metadata.getMessageContentLength();
+            }
+            // A page holds at least a message, so that browsing moves on even past messages larger than a page
+            if (!messages.isEmpty() && pageSize + messageSize > maxPageSize) {
+                break;
+            }
+            messages.add(new BrowsedMessage(this, metadata, includeContent ? readContent(metadata) : null));
+            pageSize = pageSize + messageSize;
+        }
+
+        BrowseCursor nextCursor = cursor;
+        if (!messages.isEmpty()) {
+            nextCursor = cursor.after(messages.get(messages.size() - 1).getMessageId());
+        }
+        return new BrowsePage(messages, nextCursor, messages.size() == metadataList.size());
+    }
+
+    /**
+     * Read metadata of the messages following the cursor, in message ID order
+     *
+     * @param cursor position to read from
+     * @param count  maximum number of messages to read
+     * @return metadata of the messages
+     * @throws AndesException if metadata cannot be read from the store
+     */
+    List<AndesMessageMetadata> readMetadata(BrowseCursor cursor, int count) throws AndesException {
+        String queueName = cursor.getQueueName();
+        long firstMessageId = cursor.getLastMessageId() + 1;
+
+        if (DLCQueueUtils.isDeadLetterQueue(queueName)) {
+            return messageStore.getNextNMessageMetadataFromDLC(queueName, firstMessageId, count);
+        } else if (cursor.isDeadLetterChannel()) {
+            return messageStore.getNextNMessageMetadataForQueueFromDLC(queueName,
+                    DLCQueueUtils.identifyTenantInformationAndGenerateDLCString(queueName), firstMessageId, count);
+        } else {
+            return messageStore.getNextNMessageMetadataFromQueue(queueName, firstMessageId, count);
+        }
+    }
+
+    /**
+     * Read the content of a message from the store, decompressed
+     *
+     * @param metadata metadata of the message
+     * @return the content
+     * @throws AndesException if the content cannot be read
+     */
+    byte[] readContent(AndesMessageMetadata metadata) throws AndesException {
+        long messageId = metadata.getMessageID();
+        int contentLength = metadata.getMessageContentLength();
+        if (0 == contentLength) {
+            return new byte[0];
+        }
+
+        LongArrayList messageIds = new LongArrayList(1);
+        messageIds.add(messageId);
+        List<AndesMessagePart> messageParts = messageStore.getContent(messageIds).get(messageId);
+        if (null == messageParts || messageParts.isEmpty()) {
+            throw new AndesException("Content of message " + messageId + " is not in the store");
+        }
+
+        if (metadata.isCompressed()) {
+            return compressionHelper.getDecompressedMessage(messageParts, contentLength, metadata.isChunkCompressed())
+                    .getData();
+        }
+        byte[] content = new byte[contentLength];
+        for (AndesMessagePart messagePart : messageParts) {
+            int offset = messagePart.getOffset();
+            System.arraycopy(messagePart.getData(), 0, content, offset,
+                    Math.min(messagePart.getDataLength(), contentLength - offset));
+        }
+        return content;
+    }
+}
@@ -77,6 +77,12 @@ public class ConcurrentBatchEventHandler extends InboundEventHandler {
      */
     private final Map<String, AndesMessage> retainMap;
 
+    /**
+     * Events of the messages in the current batch. The message writer holds back the publisher acknowledgements of
+     * these events if the batch could not be persisted
+     */
+    private final List<InboundEventContainer> batchedEvents;
+
     /**
      * Creates an event handler that can be used with a batch processor to do custom batching of inbound
      * event using inbound event type
@@ -102,6 +108,7 @@ public class ConcurrentBatchEventHandler extends InboundEventHandler {
         this.messageWriter = messageWriter;
         messageList = new ArrayList<>(this.batchSize);
         retainMap = new HashMap<>();
+        batchedEvents = new ArrayList<>(this.batchSize);
 
     }
 
@@ -120,6 +127,7 @@ public class ConcurrentBatchEventHandler extends InboundEventHandler {
             currentTurn = sequence % groupCount;
             if (turn == currentTurn) {
                 messageList.addAll(event.getMessageList());
+                batchedEvents.add(event);
                 if(null != event.retainMessage) {
                     retainMap.put(event.retainMessage.getMetadata().getDestination(), event.retainMessage);
                 }
@@ -134,7 +142,7 @@ public class ConcurrentBatchEventHandler extends InboundEventHandler {
         // End of batch may come in an irrelevant event type slot.
         if (((messageList.size() >= batchSize) || endOfBatch)) {
             try {
-                messageWriter.writeMessages(messageList, retainMap);
+                messageWriter.writeMessages(messageList, retainMap, batchedEvents);
                 messageList.clear();
                 retainMap.clear();
                 if (log.isDebugEnabled()) {
@@ -147,6 +155,7 @@ public class ConcurrentBatchEventHandler extends InboundEventHandler {
                 // Respective event handler should take care of the actual events passed. If not same events 
                 // will be passed multiple times to the handler in an erroneous situation
                 messageList.clear();
+                batchedEvents.clear();
             }
         }
     }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.compression;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Gauge;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides per destination and message size band whether message content is compressed and with which LZ4
+ * compressor, using compression ratio and CPU time sampled from recent messages. Compression ratio and bytes saved
+ * of each tracked destination are published through the metrics manager.
+ */
+public class AdaptiveCompressionPolicy {
+
+    private static Log log = LogFactory.getLog(AdaptiveCompressionPolicy.class);
+
+    /**
+     * Name of the shared statistics used once the tracked destination limit is reached
+     */
+    static final String UNTRACKED_DESTINATIONS = "<<untracked>>";
+
+    private final ConcurrentMap<String, DestinationCompressionStatistics> destinationStatistics =
+            new ConcurrentHashMap<>();
+
+    private final int sampleSize;
+
+    private final int reevaluationInterval;
+
+    private final int minSavingPercentage;
+
+    private final int minHighCompressionGainPercentage;
+
+    private final int maxHighCompressionCostFactor;
+
+    private final int maxTrackedDestinations;
+
+    /**
+     * Statistics shared by destinations beyond the tracked destination limit
+     */
+    private final DestinationCompressionStatistics untrackedStatistics;
+
+    /**
+     * Create an adaptive compression policy
+     *
+     * @param sampleSize                       messages compressed with each compressor per sampling round
+     * @param reevaluationInterval             messages between sampling rounds of a size band
+     * @param minSavingPercentage              minimum saving of LZ4 fast compression to keep compressing
+     * @param minHighCompressionGainPercentage minimum additional saving of LZ4 high compression to prefer it
+     * @param maxHighCompressionCostFactor     maximum CPU time of LZ4 high compression relative to LZ4 fast
+     * @param maxTrackedDestinations           maximum number of destinations with their own statistics
+     */
+    public AdaptiveCompressionPolicy(int sampleSize, int reevaluationInterval, int minSavingPercentage,
+                                     int minHighCompressionGainPercentage, int maxHighCompressionCostFactor,
+                                     int maxTrackedDestinations) {
+        this.sampleSize = sampleSize;
+        this.reevaluationInterval = reevaluationInterval;
+        this.minSavingPercentage = minSavingPercentage;
+        this.minHighCompressionGainPercentage = minHighCompressionGainPercentage;
+        this.maxHighCompressionCostFactor = maxHighCompressionCostFactor;
+        this.maxTrackedDestinations = maxTrackedDestinations;
+        this.untrackedStatistics = createStatistics(UNTRACKED_DESTINATIONS);
+        registerMetrics(untrackedStatistics);
+    }
+
+    /**
+     * Get the compressor to use for the next message of a destination
+     *
+     * @param destination   Destination of the message
+     * @param contentLength Original content length of the message
+     * @return Compression level to use
+     */
+    public CompressionLevel nextCompressionLevel(String destination, int contentLength) {
+        return getStatistics(destination).nextCompressionLevel(contentLength);
+    }
+
+    /**
+     * Record the outcome of storing a message of a destination
+     *
+     * @param destination   Destination of the message
+     * @param level         Compression level used for the message
+     * @param contentLength Original content length of the message
+     * @param storedLength  Content length written to the store
+     * @param cpuTime       Time spent on compression, in nanoseconds
+     */
+    public void record(String destination, CompressionLevel level, int contentLength, int storedLength,
+                       long cpuTime) {
+        getStatistics(destination).record(level, contentLength, storedLength, cpuTime);
+    }
+
+    /**
+     * Get compression statistics of a destination. Statistics are created on first use until the tracked
+     * destination limit is reached, after which the shared untracked statistics are returned.
+     *
+     * @param destination Destination name
+     * @return Compression statistics
+     */
+    public DestinationCompressionStatistics getStatistics(String destination) {
+        DestinationCompressionStatistics statistics = destinationStatistics.get(destination);
+
+        if (null == statistics) {
+            if (destinationStatistics.size() >= maxTrackedDestinations) {
+                return untrackedStatistics;
+            }
+
+            statistics = createStatistics(destination);
+            DestinationCompressionStatistics existing = destinationStatistics.putIfAbsent(destination, statistics);
+
+            if (null != existing) {
+                statistics = existing;
+            } else {
+                registerMetrics(statistics);
+                if (log.isDebugEnabled()) {
+                    log.debug("Tracking compression statistics for destination " + destination);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return Compression statistics of all tracked destinations
+     */
+    public Collection<DestinationCompressionStatistics> getAllStatistics() {
+        return destinationStatistics.values();
+    }
+
+    private DestinationCompressionStatistics createStatistics(String destination) {
+        return new DestinationCompressionStatistics(destination, sampleSize, reevaluationInterval,
+                minSavingPercentage, minHighCompressionGainPercentage, maxHighCompressionCostFactor);
+    }
+
+    /**
+     * Add compression ratio and bytes saved gauges of the destination to metrics manager
+     */
+    private void registerMetrics(DestinationCompressionStatistics statistics) {
+        MetricManager.gauge(MetricsConstants.COMPRESSION_RATIO + MetricsConstants.METRICS_NAME_SEPARATOR
+                + statistics.getDestination(), Level.INFO, new CompressionRatioGauge(statistics));
+        MetricManager.gauge(MetricsConstants.COMPRESSION_BYTES_SAVED + MetricsConstants.METRICS_NAME_SEPARATOR
+                + statistics.getDestination(), Level.INFO, new BytesSavedGauge(statistics));
+    }
+
+    /**
+     * Gauge for compression ratio of a destination
+     */
+    private static class CompressionRatioGauge implements Gauge<Double> {
+
+        private final DestinationCompressionStatistics statistics;
+
+        CompressionRatioGauge(DestinationCompressionStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Double getValue() {
+            return statistics.getCompressionRatio();
+        }
+    }
+
+    /**
+     * Gauge for bytes saved by compression for a destination
+     */
+    private static class BytesSavedGauge implements Gauge<Long> {
+
+        private final DestinationCompressionStatistics statistics;
+
+        BytesSavedGauge(DestinationCompressionStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Long getValue() {
+            return statistics.getBytesSaved();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.compression;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compression statistics of a single destination. Messages are grouped into size bands by the bit length of their
+ * content length and the compressor is chosen separately for each band, since the same destination can carry small
+ * and large messages that compress differently.
+ */
+public class DestinationCompressionStatistics {
+
+    /**
+     * Number of size bands. Band i holds messages with content length in [2^(i-1), 2^i)
+     */
+    private static final int SIZE_BAND_COUNT = 32;
+
+    /**
+     * Destination these statistics belong to
+     */
+    private final String destination;
+
+    /**
+     * Per size band sampling state
+     */
+    private final SizeBand[] sizeBands = new SizeBand[SIZE_BAND_COUNT];
+
+    /**
+     * Total original content bytes of all messages of the destination
+     */
+    private final AtomicLong originalBytes = new AtomicLong();
+
+    /**
+     * Total stored content bytes of all messages of the destination
+     */
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    DestinationCompressionStatistics(String destination, int sampleSize, int reevaluationInterval,
+                                     int minSavingPercentage, int minHighCompressionGainPercentage,
+                                     int maxHighCompressionCostFactor) {
+        this.destination = destination;
+
+        for (int i = 0; i < SIZE_BAND_COUNT; i++) {
+            sizeBands[i] = new SizeBand(sampleSize, reevaluationInterval, minSavingPercentage,
+                    minHighCompressionGainPercentage, maxHighCompressionCostFactor);
+        }
+    }
+
+    /**
+     * Get the compressor to use for the next message of the given content length
+     *
+     * @param contentLength Original content length of the message
+     * @return Compression level to use
+     */
+    CompressionLevel nextCompressionLevel(int contentLength) {
+        return getSizeBand(contentLength).nextCompressionLevel();
+    }
+
+    /**
+     * Record the outcome of storing a message
+     *
+     * @param level         Compression level used for the message
+     * @param contentLength Original content length of the message
+     * @param storedLength  Content length written to the store
+     * @param cpuTime       Time spent on compression, in nanoseconds
+     */
+    void record(CompressionLevel level, int contentLength, int storedLength, long cpuTime) {
+        originalBytes.addAndGet(contentLength);
+        storedBytes.addAndGet(storedLength);
+        getSizeBand(contentLength).record(level, contentLength, storedLength, cpuTime);
+    }
+
+    /**
+     * Get the current compressor of the size band of the given content length
+     *
+     * @param contentLength Original content length of a message
+     * @return Compression level chosen for the size band
+     */
+    public CompressionLevel getCompressionLevel(int contentLength) {
+        return getSizeBand(contentLength).getChosenLevel();
+    }
+
+    /**
+     * Stored content size as a fraction of original content size of all messages of the destination
+     *
+     * @return Compression ratio, or 1 if no messages are recorded yet
+     */
+    public double getCompressionRatio() {
+        long original = originalBytes.get();
+        return (0 == original) ? 1 : ((double) storedBytes.get()) / original;
+    }
+
+    /**
+     * Number of content bytes saved by compression for the destination
+     *
+     * @return Bytes saved
+     */
+    public long getBytesSaved() {
+        return originalBytes.get() - storedBytes.get();
+    }
+
+    /**
+     * @return Destination these statistics belong to
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    private SizeBand getSizeBand(int contentLength) {
+        return sizeBands[Math.min(SIZE_BAND_COUNT - 1, 32 - Integer.numberOfLeadingZeros(contentLength))];
+    }
+
+    /**
+     * Sampling state of a size band. A band starts by compressing sampleSize messages with each LZ4 compressor.
+     * It then picks a compressor and keeps it for reevaluationInterval messages before sampling again, so that a
+     * band which was switched off gets turned back on when its content becomes compressible.
+     */
+    private static class SizeBand {
+
+        private final int sampleSize;
+
+        private final int reevaluationInterval;
+
+        private final int minSavingPercentage;
+
+        private final int minHighCompressionGainPercentage;
+
+        private final int maxHighCompressionCostFactor;
+
+        private boolean sampling = true;
+
+        private CompressionLevel chosenLevel = CompressionLevel.LZ4_FAST;
+
+        private int messagesSinceDecision;
+
+        private final Sample fastSample = new Sample();
+
+        private final Sample highSample = new Sample();
+
+        SizeBand(int sampleSize, int reevaluationInterval, int minSavingPercentage,
+                 int minHighCompressionGainPercentage, int maxHighCompressionCostFactor) {
+            this.sampleSize = sampleSize;
+            this.reevaluationInterval = reevaluationInterval;
+            this.minSavingPercentage = minSavingPercentage;
+            this.minHighCompressionGainPercentage = minHighCompressionGainPercentage;
+            this.maxHighCompressionCostFactor = maxHighCompressionCostFactor;
+        }
+
+        synchronized CompressionLevel nextCompressionLevel() {
+            if (!sampling) {
+                messagesSinceDecision++;
+
+                if (messagesSinceDecision < reevaluationInterval) {
+                    return chosenLevel;
+                }
+
+                fastSample.reset();
+                highSample.reset();
+                sampling = true;
+            }
+
+            if (fastSample.issued < sampleSize) {
+                fastSample.issued++;
+                return CompressionLevel.LZ4_FAST;
+            } else if (highSample.issued < sampleSize) {
+                highSample.issued++;
+                return CompressionLevel.LZ4_HIGH;
+            }
+
+            // All samples are issued but not yet recorded
+            return chosenLevel;
+        }
+
+        synchronized void record(CompressionLevel level, int contentLength, int storedLength, long cpuTime) {
+            if (!sampling) {
+                return;
+            }
+
+            if (CompressionLevel.LZ4_FAST == level) {
+                fastSample.add(contentLength, storedLength, cpuTime);
+            } else if (CompressionLevel.LZ4_HIGH == level) {
+                highSample.add(contentLength, storedLength, cpuTime);
+            }
+
+            if (fastSample.recorded >= sampleSize && highSample.recorded >= sampleSize) {
+                chosenLevel = chooseLevel();
+                messagesSinceDecision = 0;
+                sampling = false;
+            }
+        }
+
+        synchronized CompressionLevel getChosenLevel() {
+            return chosenLevel;
+        }
+
+        /**
+         * Pick the compressor based on the collected samples
+         */
+        private CompressionLevel chooseLevel() {
+            double fastSaving = fastSample.getSavingPercentage();
+
+            if (fastSaving < minSavingPercentage) {
+                return CompressionLevel.NONE;
+            }
+
+            double highGain = highSample.getSavingPercentage() - fastSaving;
+            boolean affordable = highSample.cpuTime <= fastSample.cpuTime * maxHighCompressionCostFactor;
+
+            if (highGain >= minHighCompressionGainPercentage && affordable) {
+                return CompressionLevel.LZ4_HIGH;
+            }
+            return CompressionLevel.LZ4_FAST;
+        }
+    }
+
+    /**
+     * Accumulated measurements of one compressor within a sampling round
+     */
+    private static class Sample {
+
+        private int issued;
+
+        private int recorded;
+
+        private long originalBytes;
+
+        private long storedBytes;
+
+        private long cpuTime;
+
+        void add(int contentLength, int storedLength, long time) {
+            recorded++;
+            originalBytes = originalBytes + contentLength;
+            storedBytes = storedBytes + storedLength;
+            cpuTime = cpuTime + time;
+        }
+
+        double getSavingPercentage() {
+            return (0 == originalBytes) ? 0 : ((originalBytes - storedBytes) * 100.0) / originalBytes;
+        }
+
+        void reset() {
+            issued = 0;
+            recorded = 0;
+            originalBytes = 0;
+            storedBytes = 0;
+            cpuTime = 0;
+        }
+    }
+}
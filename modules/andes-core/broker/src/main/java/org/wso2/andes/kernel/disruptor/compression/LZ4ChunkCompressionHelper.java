@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.compression;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.wso2.andes.kernel.AndesMessagePart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresses and decompresses message content chunk by chunk using the LZ4 library.
+ * <p/>
+ * Every stored chunk holds the compressed form of exactly one original chunk of maxChunkSize bytes (the last one
+ * may be shorter) and is stored against the offset of the original chunk. Therefore any chunk can be decompressed
+ * on its own and no full size copy of the message content is needed either when publishing or delivering.
+ * <p/>
+ * Each stored chunk starts with a small header,
+ * <pre>
+ * | magic (1 byte) | method (1 byte) | original chunk length (4 bytes) | chunk data |
+ * </pre>
+ * Chunks that do not get smaller after compression are stored as they are with the raw method. Whether a message
+ * was compressed this way is recorded in its metadata when the content is compressed, and is not derived from the
+ * stored chunks.
+ */
+public class LZ4ChunkCompressionHelper {
+
+    /**
+     * First byte of every chunk written by this helper
+     */
+    static final byte CHUNK_HEADER_MAGIC = (byte) 0xC4;
+
+    /**
+     * Method value for chunks stored without compression
+     */
+    static final byte RAW_CHUNK = 0;
+
+    /**
+     * Method value for chunks compressed with LZ4
+     */
+    static final byte LZ4_CHUNK = 1;
+
+    /**
+     * Length of the header written at the beginning of each chunk, in bytes
+     */
+    static final int CHUNK_HEADER_LENGTH = 6;
+
+    /**
+     * Keep a reference to lz4 instance
+     */
+    private static final LZ4Factory factory = LZ4Factory.fastestInstance();
+
+    /**
+     * Keep a reference to lz4 decompressor to decompress data
+     */
+    private static final LZ4FastDecompressor decompressor = factory.fastDecompressor();
+
+    /**
+     * Compressor used to compress chunks
+     */
+    private final LZ4Compressor compressor;
+
+    /**
+     * Maximum allowed chunk size to be stored in DB, in bytes.
+     */
+    private final int maxChunkSize;
+
+    /**
+     * Maximum length of a compressed chunk without the header
+     */
+    private final int maxCompressedChunkLength;
+
+    /**
+     * Per thread buffer used to assemble a chunk when it spans multiple published content parts
+     */
+    private final ThreadLocal<byte[]> stagingBuffer;
+
+    /**
+     * Per thread buffer the compressor writes into. Only the used part of it is copied to the stored chunk.
+     */
+    private final ThreadLocal<byte[]> compressionBuffer;
+
+    /**
+     * Create a chunk compression helper using the LZ4 fast compressor
+     *
+     * @param maxChunkSize maximum allowed chunk size to be stored in DB
+     */
+    public LZ4ChunkCompressionHelper(int maxChunkSize) {
+        this(maxChunkSize, factory.fastCompressor());
+    }
+
+    /**
+     * Create a chunk compression helper
+     *
+     * @param maxChunkSize maximum allowed chunk size to be stored in DB
+     * @param compressor   LZ4 compressor used to compress chunks
+     */
+    public LZ4ChunkCompressionHelper(final int maxChunkSize, LZ4Compressor compressor) {
+        this.maxChunkSize = maxChunkSize;
+        this.compressor = compressor;
+        this.maxCompressedChunkLength = compressor.maxCompressedLength(maxChunkSize);
+
+        stagingBuffer = new ThreadLocal<byte[]>() {
+            @Override
+            protected byte[] initialValue() {
+                return new byte[maxChunkSize];
+            }
+        };
+
+        compressionBuffer = new ThreadLocal<byte[]>() {
+            @Override
+            protected byte[] initialValue() {
+                return new byte[CHUNK_HEADER_LENGTH + maxCompressedChunkLength];
+            }
+        };
+    }
+
+    /**
+     * Create a chunk compression helper using the LZ4 high compressor. Chunks written by it are read the same way
+     * as chunks written with the fast compressor.
+     *
+     * @param maxChunkSize maximum allowed chunk size to be stored in DB
+     * @return Chunk compression helper
+     */
+    public static LZ4ChunkCompressionHelper createHighCompressionHelper(int maxChunkSize) {
+        return new LZ4ChunkCompressionHelper(maxChunkSize, factory.highCompressor());
+    }
+
+    /**
+     * Compress the content of the message chunk by chunk. Published parts are read in order and each
+     * maxChunkSize range of the original content is compressed into its own stored chunk.
+     *
+     * @param partList              Original content chunk list, ordered by offset
+     * @param originalContentLength Total content length of the original message content
+     * @return Compressed chunks keyed by the offset of the original chunk
+     */
+    public List<AndesMessagePart> compressChunks(List<AndesMessagePart> partList, int originalContentLength) {
+
+        List<AndesMessagePart> chunkList = new ArrayList<>(getChunkCount(originalContentLength));
+        long messageID = partList.get(0).getMessageID();
+
+        int partIndex = 0;
+        int partPosition = 0;   // Read position within the current published part
+
+        for (int chunkOffset = 0; chunkOffset < originalContentLength; chunkOffset = chunkOffset + maxChunkSize) {
+            int chunkLength = Math.min(maxChunkSize, originalContentLength - chunkOffset);
+            AndesMessagePart part = partList.get(partIndex);
+
+            byte[] source;
+            int sourceOffset;
+
+            if ((part.getDataLength() - partPosition) >= chunkLength) {
+                // Whole chunk is within the current part. Compress straight from it without copying
+                source = part.getData();
+                sourceOffset = partPosition;
+                partPosition = partPosition + chunkLength;
+
+                if (partPosition == part.getDataLength()) {
+                    partIndex++;
+                    partPosition = 0;
+                }
+            } else {
+                // Chunk spans multiple parts. Assemble it in the staging buffer
+                source = stagingBuffer.get();
+                sourceOffset = 0;
+                int copied = 0;
+
+                while (copied < chunkLength) {
+                    part = partList.get(partIndex);
+                    int copySize = Math.min(part.getDataLength() - partPosition, chunkLength - copied);
+                    System.arraycopy(part.getData(), partPosition, source, copied, copySize);
+                    copied = copied + copySize;
+                    partPosition = partPosition + copySize;
+
+                    if (partPosition == part.getDataLength()) {
+                        partIndex++;
+                        partPosition = 0;
+                    }
+                }
+            }
+
+            chunkList.add(compressChunk(source, sourceOffset, chunkLength, chunkOffset, messageID));
+        }
+
+        return chunkList;
+    }
+
+    /**
+     * Compress a single chunk of the original content
+     *
+     * @param source       Array holding the original content
+     * @param sourceOffset Start position of the chunk within the source array
+     * @param chunkLength  Length of the original chunk
+     * @param chunkOffset  Offset of the chunk within the message content
+     * @param messageID    Message ID of the message
+     * @return Compressed chunk as an AndesMessagePart
+     */
+    private AndesMessagePart compressChunk(byte[] source, int sourceOffset, int chunkLength, int chunkOffset,
+                                           long messageID) {
+
+        byte[] buffer = compressionBuffer.get();
+        byte method = LZ4_CHUNK;
+        int dataLength = compressor.compress(source, sourceOffset, chunkLength, buffer, CHUNK_HEADER_LENGTH,
+                maxCompressedChunkLength);
+
+        // Already compressed or random content grows after compression, store such chunks as they are
+        if (dataLength >= chunkLength) {
+            System.arraycopy(source, sourceOffset, buffer, CHUNK_HEADER_LENGTH, chunkLength);
+            dataLength = chunkLength;
+            method = RAW_CHUNK;
+        }
+
+        buffer[0] = CHUNK_HEADER_MAGIC;
+        buffer[1] = method;
+        writeInt(buffer, 2, chunkLength);
+
+        AndesMessagePart messagePart = new AndesMessagePart();
+        messagePart.setMessageID(messageID);
+        messagePart.setOffSet(chunkOffset);
+        messagePart.setData(Arrays.copyOf(buffer, CHUNK_HEADER_LENGTH + dataLength));
+
+        return messagePart;
+    }
+
+    /**
+     * Decompress a single stored chunk.
+     *
+     * @param compressedPart Stored chunk written by this helper
+     * @return Original content of the chunk, with the same message ID and offset
+     */
+    public AndesMessagePart decompressChunk(AndesMessagePart compressedPart) {
+        byte[] chunkData = new byte[readInt(compressedPart.getData(), 2)];
+        decompressChunk(compressedPart, chunkData, 0);
+
+        AndesMessagePart messagePart = new AndesMessagePart();
+        messagePart.setMessageID(compressedPart.getMessageID());
+        messagePart.setOffSet(compressedPart.getOffset());
+        messagePart.setData(chunkData);
+
+        return messagePart;
+    }
+
+    /**
+     * Decompress a single stored chunk into the given array
+     *
+     * @param compressedPart    Stored chunk written by this helper
+     * @param destination       Array to write the original content to
+     * @param destinationOffset Start position within the destination array
+     * @return Number of bytes written to the destination array
+     */
+    public int decompressChunk(AndesMessagePart compressedPart, byte[] destination, int destinationOffset) {
+        byte[] data = compressedPart.getData();
+        int chunkLength = readInt(data, 2);
+
+        if (LZ4_CHUNK == data[1]) {
+            decompressor.decompress(data, CHUNK_HEADER_LENGTH, destination, destinationOffset, chunkLength);
+        } else {
+            System.arraycopy(data, CHUNK_HEADER_LENGTH, destination, destinationOffset, chunkLength);
+        }
+
+        return chunkLength;
+    }
+
+    /**
+     * Decompress all stored chunks of a message. Chunks are decompressed one by one and keep their offsets.
+     *
+     * @param messagePartList Compressed message content as a collection of andes message parts
+     * @return Decompressed message content as a map of andes message parts and offsets
+     */
+    public Map<Integer, AndesMessagePart> decompressChunks(Collection<AndesMessagePart> messagePartList) {
+        Map<Integer, AndesMessagePart> messagePartMap = new HashMap<>(messagePartList.size());
+
+        for (AndesMessagePart compressedPart : messagePartList) {
+            AndesMessagePart messagePart = decompressChunk(compressedPart);
+            messagePartMap.put(messagePart.getOffset(), messagePart);
+        }
+
+        return messagePartMap;
+    }
+
+    /**
+     * Decompress all stored chunks of a message into a single array.
+     *
+     * @param messagePartList       Compressed message content as a collection of andes message parts
+     * @param originalContentLength Total content length of the original message content
+     * @return Decompressed message content as a byte array
+     */
+    public byte[] decompressChunksToArray(Collection<AndesMessagePart> messagePartList, int originalContentLength) {
+        byte[] messageData = new byte[originalContentLength];
+
+        for (AndesMessagePart compressedPart : messagePartList) {
+            decompressChunk(compressedPart, messageData, compressedPart.getOffset());
+        }
+
+        return messageData;
+    }
+
+    /**
+     * @return Maximum number of original content bytes held by a single stored chunk
+     */
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    /**
+     * Number of chunks needed to hold content of the given length
+     *
+     * @param contentLength Content length in bytes
+     * @return Chunk count
+     */
+    private int getChunkCount(int contentLength) {
+        return (contentLength + maxChunkSize - 1) / maxChunkSize;
+    }
+
+    /**
+     * Write a big endian integer to the array
+     */
+    private static void writeInt(byte[] buffer, int position, int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+    }
+
+    /**
+     * Read a big endian integer from the array
+     */
+    private static int readInt(byte[] buffer, int position) {
+        return ((buffer[position] & 0xFF) << 24)
+                | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8)
+                | (buffer[position + 3] & 0xFF);
+    }
+}
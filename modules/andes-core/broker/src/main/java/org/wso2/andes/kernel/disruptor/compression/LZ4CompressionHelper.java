@@ -71,6 +71,11 @@ public class LZ4CompressionHelper {
      */
     private static final LZ4FastDecompressor decompressor = factory.fastDecompressor();
 
+    /**
+     * Used to read content written chunk by chunk by {@link LZ4ChunkCompressionHelper}
+     */
+    private final LZ4ChunkCompressionHelper chunkCompressionHelper = new LZ4ChunkCompressionHelper(maxChunkSize);
+
     /**
      * Compress the content of the message, using andes message part list
      *
@@ -101,10 +106,16 @@ public class LZ4CompressionHelper {
      * @param messagePartList       Compressed message content as a collection of andes message parts
      * @param originalContentLength Total content length of the original message content
      * @param messageID             Message ID of the message
+     * @param isChunkCompressed     True if the content was compressed chunk by chunk, as recorded in the metadata
      * @return Decompressed message content as a map of andes message parts and offsets
      */
     public Map<Integer, AndesMessagePart> getDecompressedMessage(Collection<AndesMessagePart> messagePartList, int
-            originalContentLength, long messageID) {
+            originalContentLength, long messageID, boolean isChunkCompressed) {
+
+        if (isChunkCompressed) {
+            return chunkCompressionHelper.decompressChunks(messagePartList);
+        }
+
         byte[] compressedMessageContent = getByteArrayFromPartListForDecompression(messagePartList);
 
         // Decompress message content
@@ -120,14 +131,22 @@ public class LZ4CompressionHelper {
      *
      * @param partList              Compressed message content, as a message part list
      * @param originalContentLength Total content length of the original message content
+     * @param isChunkCompressed     True if the content was compressed chunk by chunk, as recorded in the metadata
      * @return Decompressed message content as an AndesMessagePart
      */
-    public AndesMessagePart getDecompressedMessage(List<AndesMessagePart> partList, int originalContentLength) {
-        byte[] compressedMessageContent = getByteArrayFromPartListForDecompression(partList);
-
-        // Decompress message content
-        byte[] decompressedMessage = new byte[originalContentLength];
-        decompressor.decompress(compressedMessageContent, 0, decompressedMessage, 0, originalContentLength);
+    public AndesMessagePart getDecompressedMessage(List<AndesMessagePart> partList, int originalContentLength,
+                                                   boolean isChunkCompressed) {
+        byte[] decompressedMessage;
+
+        if (isChunkCompressed) {
+            decompressedMessage = chunkCompressionHelper.decompressChunksToArray(partList, originalContentLength);
+        } else {
+            byte[] compressedMessageContent = getByteArrayFromPartListForDecompression(partList);
+
+            // Decompress message content
+            decompressedMessage = new byte[originalContentLength];
+            decompressor.decompress(compressedMessageContent, 0, decompressedMessage, 0, originalContentLength);
+        }
 
         // Creating the AndesMessagePart from decompressed message content
         AndesMessagePart andesMessagePart = new AndesMessagePart();
@@ -259,4 +278,13 @@ public class LZ4CompressionHelper {
         return contentCompressionThreshold;
     }
 
+    /**
+     * Get the helper used to compress and decompress content chunk by chunk
+     *
+     * @return Chunk compression helper
+     */
+    public LZ4ChunkCompressionHelper getChunkCompressionHelper() {
+        return chunkCompressionHelper;
+    }
+
 }
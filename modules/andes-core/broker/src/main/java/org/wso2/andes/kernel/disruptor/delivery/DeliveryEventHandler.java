@@ -32,6 +32,8 @@ import org.wso2.andes.kernel.SubscriptionAlreadyClosedException;
 import org.wso2.andes.kernel.subscription.AndesSubscription;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Counter;
 import org.wso2.carbon.metrics.manager.Level;
@@ -109,6 +111,7 @@ public class DeliveryEventHandler implements EventHandler<DeliveryEventData> {
 
                         subscription.getSubscriberConnection().writeMessageToConnection(protocolMessage,
                                 deliveryEventData.getAndesContent());
+                        LatencyTracer.trace(message, TraceStage.WRITTEN_TO_WIRE);
 
                     } else {
                         onSendError(message, subscription);
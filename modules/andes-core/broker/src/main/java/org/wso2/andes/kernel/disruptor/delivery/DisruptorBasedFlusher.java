@@ -32,6 +32,8 @@ import org.wso2.andes.kernel.ProtocolMessage;
 import org.wso2.andes.kernel.disruptor.waitStrategy.SleepingBlockingWaitStrategy;
 import org.wso2.andes.kernel.subscription.AndesSubscription;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Gauge;
 import org.wso2.carbon.metrics.manager.Level;
@@ -144,6 +146,7 @@ public class DisruptorBasedFlusher {
 
         //Tracing Message
         MessageTracer.trace(metadata.getMessage(), MessageTracer.PUBLISHED_TO_OUTBOUND_DISRUPTOR);
+        LatencyTracer.trace(metadata.getMessage(), TraceStage.PUBLISHED_TO_OUTBOUND_DISRUPTOR);
 
         long nextSequence = ringBuffer.next();
 
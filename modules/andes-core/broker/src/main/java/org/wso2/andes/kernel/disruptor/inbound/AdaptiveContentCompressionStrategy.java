@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.inbound;
+
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.disruptor.compression.AdaptiveCompressionPolicy;
+import org.wso2.andes.kernel.disruptor.compression.CompressionLevel;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
+import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+
+import java.util.List;
+
+/**
+ * Compress the content of the message chunk by chunk, choosing per destination and message size whether to
+ * compress at all and whether to use the LZ4 fast or high compressor. Both compressors produce the chunk layout of
+ * {@link LZ4ChunkCompressionHelper}, so delivery side decompression does not depend on the choice made here.
+ * <p>
+ * A single instance is shared by all content chunk handlers, hence the decision state kept in
+ * {@link AdaptiveCompressionPolicy} is thread safe.
+ */
+public class AdaptiveContentCompressionStrategy implements ContentCompressionStrategy {
+
+    /**
+     * Used to get configuration values related to compression
+     */
+    private final LZ4CompressionHelper lz4CompressionHelper;
+
+    /**
+     * Compress chunks with the LZ4 fast compressor
+     */
+    private final LZ4ChunkCompressionHelper fastCompressionHelper;
+
+    /**
+     * Compress chunks with the LZ4 high compressor
+     */
+    private final LZ4ChunkCompressionHelper highCompressionHelper;
+
+    /**
+     * Decides the compressor for each message based on previous results of the destination
+     */
+    private final AdaptiveCompressionPolicy compressionPolicy;
+
+    public AdaptiveContentCompressionStrategy(LZ4CompressionHelper lz4CompressionHelper) {
+        this.lz4CompressionHelper = lz4CompressionHelper;
+        this.fastCompressionHelper = lz4CompressionHelper.getChunkCompressionHelper();
+        this.highCompressionHelper = LZ4ChunkCompressionHelper.createHighCompressionHelper(
+                fastCompressionHelper.getMaxChunkSize());
+
+        int sampleSize = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_SAMPLE_SIZE);
+        int reevaluationInterval = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_REEVALUATION_INTERVAL);
+        int minSavingPercentage = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MIN_SAVING_PERCENTAGE);
+        int minHighCompressionGainPercentage = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MIN_HIGH_COMPRESSION_GAIN_PERCENTAGE);
+        int maxHighCompressionCostFactor = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MAX_HIGH_COMPRESSION_COST_FACTOR);
+        int maxTrackedDestinations = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_ADAPTIVE_COMPRESSION_MAX_TRACKED_DESTINATIONS);
+
+        this.compressionPolicy = new AdaptiveCompressionPolicy(sampleSize, reevaluationInterval, minSavingPercentage,
+                minHighCompressionGainPercentage, maxHighCompressionCostFactor, maxTrackedDestinations);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ContentPartHolder ContentChunkStrategy(AndesMessage message) {
+        List<AndesMessagePart> partList = message.getContentChunkList();
+        AndesMessageMetadata metadata = message.getMetadata();
+        int contentLength = metadata.getMessageContentLength();
+
+        if (contentLength <= lz4CompressionHelper.getContentCompressionThreshold()) {
+            return new ContentPartHolder(partList, contentLength);
+        }
+
+        String destination = metadata.getDestination();
+        CompressionLevel level = compressionPolicy.nextCompressionLevel(destination, contentLength);
+
+        if (CompressionLevel.NONE == level) {
+            compressionPolicy.record(destination, level, contentLength, contentLength, 0);
+            return new ContentPartHolder(partList, contentLength);
+        }
+
+        LZ4ChunkCompressionHelper compressionHelper =
+                (CompressionLevel.LZ4_HIGH == level) ? highCompressionHelper : fastCompressionHelper;
+
+        long startTime = System.nanoTime();
+        List<AndesMessagePart> compressedPartList = compressionHelper.compressChunks(partList, contentLength);
+        long cpuTime = System.nanoTime() - startTime;
+
+        int storedLength = 0;
+        for (AndesMessagePart part : compressedPartList) {
+            storedLength = storedLength + part.getDataLength();
+        }
+        compressionPolicy.record(destination, level, contentLength, storedLength, cpuTime);
+
+        // Update metadata to indicate the message is compressed chunk by chunk
+        metadata.updateMetadata(true, true);
+        message.setMetadata(metadata);
+
+        return new ContentPartHolder(compressedPartList, contentLength, true);
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.kernel.AndesMessage;
 import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.SharedContent;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -120,10 +121,20 @@ public class ContentChunkHandler implements EventHandler<InboundEventContainer>
                     " message ");
         }
 
+        // Content streamed to the store while the message was received leaves no parts to resize
+        SharedContent sharedContent = message.getSharedContent();
+        if (null != sharedContent && sharedContent.isContentStored()) {
+            return message;
+        }
+
         // andes message chunks will be handled based on configured chunk strategy.
         ContentPartHolder contentChunkPair = chunkStrategy.ContentChunkStrategy(message);
-        message.setChunkList(
-                resizeChunks(contentChunkPair.getAndesMessagePartList(),contentChunkPair.getContentLength()));
+        if (contentChunkPair.isChunksResized()) {
+            message.setChunkList(contentChunkPair.getAndesMessagePartList());
+        } else {
+            message.setChunkList(
+                    resizeChunks(contentChunkPair.getAndesMessagePartList(), contentChunkPair.getContentLength()));
+        }
 
         return message;
     }
@@ -29,9 +29,19 @@ public class ContentPartHolder {
     private final List<AndesMessagePart> andesMessagePartList;
     private final int contentLength;
 
+    /**
+     * True if the parts are already in the chunk layout that should be stored
+     */
+    private final boolean chunksResized;
+
     public ContentPartHolder(List<AndesMessagePart> messagePartList, int contentLength) {
+        this(messagePartList, contentLength, false);
+    }
+
+    public ContentPartHolder(List<AndesMessagePart> messagePartList, int contentLength, boolean chunksResized) {
         this.andesMessagePartList = messagePartList;
         this.contentLength = contentLength;
+        this.chunksResized = chunksResized;
     }
 
 
@@ -51,6 +61,14 @@ public class ContentPartHolder {
         return contentLength;
     }
 
+    /**
+     * Returns whether the part list can be stored without resizing
+     * @return true if parts are already resized by the compression strategy
+     */
+    public boolean isChunksResized() {
+        return chunksResized;
+    }
+
 
 
 
@@ -22,17 +22,27 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.kernel.disruptor.InboundEventHandler;
+import org.wso2.andes.kernel.dtx.DtxBranch;
+import org.wso2.andes.kernel.dtx.DtxRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Distributed transaction messages and acknowledgment handler class. Invokes database calls related to the
- * distributed transaction messages and acknowledge events
+ * distributed transaction messages and acknowledge events.
+ * <p>
+ * Events are partitioned among the {@link DtxDbWriter}s by {@link javax.transaction.xa.Xid}, so all the events of a
+ * transaction are written by the same writer. Prepare and two phase commit events are batched until the end of the
+ * available disruptor batch and written to the database in a single database transaction (group commit). If a group
+ * fails, the events of the group are written one by one so that a failing transaction does not fail the others.
  */
 public class DtxDbWriter extends InboundEventHandler {
 
     /**
      * logger class
      */
-    private static Log log = LogFactory.getLog(StateEventHandler.class);
+    private static Log log = LogFactory.getLog(DtxDbWriter.class);
 
     /**
      * Reference to messaging engine. This is used to store/acknowledge messages
@@ -45,27 +55,126 @@ public class DtxDbWriter extends InboundEventHandler {
     private final int handlerCount;
 
     /**
-     * Turn is the value of, sequence % groupCount this event handler process events. Turn must be
-     * less than groupCount
+     * Partition of the transactions this event handler process events for. Turn must be less than handlerCount
      */
     private final int turn;
 
-    DtxDbWriter(MessagingEngine engine, int turn, int handlerCount) {
+    /**
+     * Maximum number of prepare or commit events written in a single database transaction
+     */
+    private final int batchSize;
+
+    /**
+     * Prepare events batched until the end of the current disruptor batch
+     */
+    private final List<InboundEventContainer> prepareEvents;
+
+    /**
+     * Two phase commit events batched until the end of the current disruptor batch
+     */
+    private final List<InboundEventContainer> commitEvents;
+
+    DtxDbWriter(MessagingEngine engine, int turn, int handlerCount, int batchSize) {
         this.messagingEngine = engine;
         this.turn = turn;
         this.handlerCount = handlerCount;
+        this.batchSize = batchSize;
+        prepareEvents = new ArrayList<>(batchSize);
+        commitEvents = new ArrayList<>(batchSize);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Exceptions are not thrown from this method since the batched events of previous sequences would then be
+     * marked as processed by the disruptor. Errors are set on the failed events instead, which are reported to the
+     * client by the {@link StateEventHandler}.
+     */
     @Override
     public void onEvent(InboundEventContainer event, long sequence, boolean endOfBatch) throws Exception {
 
-        long currentTurn = sequence % handlerCount;
+        DtxBranch branch = event.getDtxBranch();
 
-        if (turn == currentTurn) {
+        if (isDtxEvent(event) && turn == DtxRegistry.getPartition(branch.getXid(), handlerCount)) {
             if (log.isDebugEnabled()) {
                 log.debug("Sequence [ " + sequence + " ] Event " + event.getEventType());
+            }
 
+            if (InboundEventContainer.Type.DTX_PREPARE_EVENT == event.getEventType()) {
+                prepareEvents.add(event);
+            } else if (InboundEventContainer.Type.DTX_COMMIT_EVENT == event.getEventType()) {
+                commitEvents.add(event);
+            } else {
+                writeToDb(event);
             }
+        }
+
+        // End of batch may come in an irrelevant event type slot.
+        if (endOfBatch || prepareEvents.size() >= batchSize) {
+            writePrepareEvents();
+        }
+
+        if (endOfBatch || commitEvents.size() >= batchSize) {
+            writeCommitEvents();
+        }
+    }
+
+    /**
+     * Write batched prepare events in a single database transaction
+     */
+    private void writePrepareEvents() {
+        if (prepareEvents.isEmpty()) {
+            return;
+        }
+
+        try {
+            DtxBranch.persistRecords(getBranches(prepareEvents));
+        } catch (Exception e) {
+            log.warn("Error occurred while writing " + prepareEvents.size() + " dtx prepare events as a group. "
+                    + "Writing events individually", e);
+            writeToDb(prepareEvents);
+        } finally {
+            prepareEvents.clear();
+        }
+    }
+
+    /**
+     * Write batched two phase commit events in a single database transaction
+     */
+    private void writeCommitEvents() {
+        if (commitEvents.isEmpty()) {
+            return;
+        }
+
+        try {
+            DtxBranch.writeToDbOnCommit(getBranches(commitEvents));
+        } catch (Exception e) {
+            log.warn("Error occurred while writing " + commitEvents.size() + " dtx commit events as a group. "
+                    + "Writing events individually", e);
+            writeToDb(commitEvents);
+        } finally {
+            commitEvents.clear();
+        }
+    }
+
+    /**
+     * Write each of the given events in its own database transaction
+     *
+     * @param events dtx events to write
+     */
+    private void writeToDb(List<InboundEventContainer> events) {
+        for (InboundEventContainer event : events) {
+            writeToDb(event);
+        }
+    }
+
+    /**
+     * Write a single dtx event to the database. On failure the error is set on the event
+     *
+     * @param event dtx event to write
+     */
+    private void writeToDb(InboundEventContainer event) {
+        try {
             if (InboundEventContainer.Type.DTX_COMMIT_EVENT == event.getEventType()) {
                 event.getDtxBranch().writeToDbOnCommit();
             } else if (InboundEventContainer.Type.DTX_ONE_PHASE_COMMIT_EVENT == event.getEventType()) {
@@ -75,6 +184,29 @@ public class DtxDbWriter extends InboundEventHandler {
             } else if (InboundEventContainer.Type.DTX_PREPARE_EVENT == event.getEventType()) {
                 event.getDtxBranch().persistRecords();
             }
+        } catch (Exception e) {
+            log.error("Exception occurred while writing dtx event. Event type: " + event.getEventType(), e);
+            event.setError(e);
+        }
+    }
+
+    private static List<DtxBranch> getBranches(List<InboundEventContainer> events) {
+        List<DtxBranch> branches = new ArrayList<>(events.size());
+        for (InboundEventContainer event : events) {
+            branches.add(event.getDtxBranch());
+        }
+        return branches;
+    }
+
+    private static boolean isDtxEvent(InboundEventContainer event) {
+        switch (event.getEventType()) {
+            case DTX_PREPARE_EVENT:
+            case DTX_COMMIT_EVENT:
+            case DTX_ONE_PHASE_COMMIT_EVENT:
+            case DTX_ROLLBACK_EVENT:
+                return true;
+            default:
+                return false;
         }
     }
 }
@@ -25,6 +25,7 @@ import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.util.ContentCompressionMethod;
 import org.wso2.andes.kernel.AndesAckData;
 import org.wso2.andes.kernel.AndesAckEvent;
 import org.wso2.andes.kernel.AndesChannel;
@@ -50,9 +51,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_ACKNOWLEDGEMENT_HANDLER_BATCH_SIZE;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_ACK_HANDLER_COUNT;
+import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_COMPRESSION_METHOD;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_CONTENT_CHUNK_HANDLER_COUNT;
+import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_DTX_WRITER_BATCH_SIZE;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_MESSAGE_WRITER_BATCH_SIZE;
+import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PARALLEL_DTX_WRITERS;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PARALLEL_MESSAGE_WRITERS;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PUBLISHING_BUFFER_SIZE;
@@ -96,7 +100,10 @@ public class InboundEventManager {
         Integer transactionHandlerCount = AndesConfigurationManager.readValue(
                 PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS);
 
-        Integer dtxDbWriterCount = 1; // need to merge local and distributed transaction writing logic to the same
+        Integer dtxDbWriterCount = AndesConfigurationManager.readValue(
+                PERFORMANCE_TUNING_PARALLEL_DTX_WRITERS);
+        Integer dtxDbWriterBatchSize = AndesConfigurationManager.readValue(
+                PERFORMANCE_TUNING_DTX_WRITER_BATCH_SIZE);
 
         disablePubAck = new DisablePubAckImpl();
         int maxContentChunkSize = AndesConfigurationManager.readValue(
@@ -121,9 +128,24 @@ public class InboundEventManager {
 
         lz4CompressionHelper = new LZ4CompressionHelper();
 
+        ContentCompressionMethod compressionMethod = AndesConfigurationManager.readValue(
+                PERFORMANCE_TUNING_COMPRESSION_METHOD);
+
+        // Adaptive strategy keeps per destination statistics, hence shared among all content chunk handlers
+        AdaptiveContentCompressionStrategy adaptiveCompressionStrategy = null;
+        if (lz4CompressionHelper.isCompressionEnabled() && ContentCompressionMethod.ADAPTIVE == compressionMethod) {
+            adaptiveCompressionStrategy = new AdaptiveContentCompressionStrategy(lz4CompressionHelper);
+        }
+
         ContentChunkHandler[] chunkHandlers = new ContentChunkHandler[contentChunkHandlerCount];
         for (int i = 0; i < contentChunkHandlerCount; i++) {
-            if(lz4CompressionHelper.isCompressionEnabled()) {
+            if (null != adaptiveCompressionStrategy) {
+                chunkHandlers[i] = new ContentChunkHandler(maxContentChunkSize, adaptiveCompressionStrategy);
+            } else if (lz4CompressionHelper.isCompressionEnabled()
+                    && ContentCompressionMethod.CHUNK == compressionMethod) {
+                chunkHandlers[i] = new ContentChunkHandler(maxContentChunkSize,
+                            new LZ4ChunkContentCompressionStrategy(lz4CompressionHelper));
+            } else if(lz4CompressionHelper.isCompressionEnabled()) {
                 chunkHandlers[i] = new ContentChunkHandler(maxContentChunkSize,
                             new LZ4ContentCompressionStrategy(lz4CompressionHelper));
             } else {
@@ -153,7 +175,7 @@ public class InboundEventManager {
 
         for (int turn = 0; turn < dtxDbWriterCount; turn++) {
             batchEventHandlers[writeHandlerCount+ transactionHandlerCount + ackHandlerCount + turn] =
-                    new DtxDbWriter(messagingEngine, turn, dtxDbWriterCount);
+                    new DtxDbWriter(messagingEngine, turn, dtxDbWriterCount, dtxDbWriterBatchSize);
         }
 
         MessagePreProcessor preProcessor = new MessagePreProcessor();
@@ -162,7 +184,7 @@ public class InboundEventManager {
         // Order in which handlers run in Disruptor
         // - ContentChunkHandlers
         // - MessagePreProcessor
-        // - AckHandlers, MessageWriters, DtxDbWriter
+        // - AckHandlers, MessageWriters, DtxDbWriters
         // - StateEventHandler
         disruptor.handleEventsWith(chunkHandlers).then(preProcessor);
         disruptor.after(preProcessor)
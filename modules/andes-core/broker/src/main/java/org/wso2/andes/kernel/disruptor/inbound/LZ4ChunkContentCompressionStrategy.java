@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.inbound;
+
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
+import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+
+import java.util.List;
+
+/**
+ * Compress the content of the message chunk by chunk. Unlike {@link LZ4ContentCompressionStrategy} the content
+ * is never combined into a single array, and the resulting chunks are already in the layout stored in DB.
+ */
+public class LZ4ChunkContentCompressionStrategy implements ContentCompressionStrategy {
+
+    /**
+     * Used to get configuration values related to compression
+     */
+    private final LZ4CompressionHelper lz4CompressionHelper;
+
+    /**
+     * Used to compress message content chunk by chunk
+     */
+    private final LZ4ChunkCompressionHelper chunkCompressionHelper;
+
+    public LZ4ChunkContentCompressionStrategy(LZ4CompressionHelper lz4CompressionHelper) {
+        this.lz4CompressionHelper = lz4CompressionHelper;
+        this.chunkCompressionHelper = lz4CompressionHelper.getChunkCompressionHelper();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ContentPartHolder ContentChunkStrategy(AndesMessage message) {
+        List<AndesMessagePart> partList = message.getContentChunkList();
+        AndesMessageMetadata metadata = message.getMetadata();
+        int contentLength = metadata.getMessageContentLength();
+
+        if (contentLength > lz4CompressionHelper.getContentCompressionThreshold()) {
+            List<AndesMessagePart> compressedPartList = chunkCompressionHelper.compressChunks(partList,
+                    contentLength);
+
+            // Update metadata to indicate the message is compressed chunk by chunk
+            metadata.updateMetadata(true, true);
+            message.setMetadata(metadata);
+
+            return new ContentPartHolder(compressedPartList, contentLength, true);
+        }
+
+        return new ContentPartHolder(partList, contentLength);
+    }
+}
@@ -66,7 +66,7 @@ public class LZ4ContentCompressionStrategy implements ContentCompressionStrategy
             AndesMessagePart compressedMessagePart = lz4CompressionHelper.getCompressedMessage(partList, originalContentLength);
 
             // Update metadata to indicate the message is a compressed one
-            metadata.updateMetadata(true);
+            metadata.updateMetadata(true, false);
             message.setMetadata(metadata);
 
             contentLength = compressedMessagePart.getDataLength();
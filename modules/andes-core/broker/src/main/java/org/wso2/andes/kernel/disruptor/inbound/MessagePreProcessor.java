@@ -21,17 +21,22 @@ package org.wso2.andes.kernel.disruptor.inbound;
 import com.lmax.disruptor.EventHandler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesChannel;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesMessage;
 import org.wso2.andes.kernel.AndesMessageMetadata;
 import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.SharedContent;
 import org.wso2.andes.kernel.dtx.AndesPreparedMessageMetadata;
 import org.wso2.andes.kernel.router.AndesMessageRouter;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 import org.wso2.andes.metrics.MetricsConstants;
 import org.wso2.andes.server.ClusterResourceHolder;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Level;
 import org.wso2.carbon.metrics.manager.Meter;
@@ -53,9 +58,23 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
 
     private final ArrayList<AndesMessage> messageList;
 
+    /**
+     * True if the content of a message routed to multiple storage queues is stored once and shared by the copies
+     */
+    private final boolean contentSharingEnabled;
+
+    /**
+     * Minimum content length for the content to be shared between the copies of a message
+     */
+    private final int minSharedContentSize;
+
     public MessagePreProcessor() {
         idGenerator = new MessageIDGenerator();
         messageList = new ArrayList<>();
+        contentSharingEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_CONTENT_SHARING_ENABLED);
+        minSharedContentSize = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_CONTENT_SHARING_MIN_CONTENT_SIZE);
     }
 
     @Override
@@ -215,6 +234,13 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
         Set<StorageQueue> matchingQueues = messageRouter.getMatchingStorageQueues(message);
         messageList.clear(); // clear any previous entries
 
+        // Copies of the message refer to a single stored content instead of storing the content per copy. Content
+        // streamed to the store while the message was received is already referred that way.
+        if (contentSharingEnabled && null == message.getSharedContent() && matchingQueues.size() > 1
+                && message.getMetadata().getMessageContentLength() >= minSharedContentSize) {
+            message.setSharedContent(new SharedContent(idGenerator.getNextId(), matchingQueues.size()));
+        }
+
         boolean originalMessageConsumed = false;
 
         for (StorageQueue matchingQueue : matchingQueues) {
@@ -237,7 +263,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
 
                 // Update cloned message metadata if isCompressed set true.
                 if (clonedMessage.getMetadata().isCompressed()) {
-                    clonedMessage.getMetadata().updateMetadata(true);
+                    clonedMessage.getMetadata().updateMetadata(true, clonedMessage.getMetadata().isChunkCompressed());
                 }
 
                 if (MessageTracer.isEnabled()) {
@@ -294,6 +320,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
         for (AndesMessagePart messagePart : messageParts) {
             clonedMessage.addMessagePart(messagePart.shallowCopy(newMessageId));
         }
+        clonedMessage.setSharedContent(message.getSharedContent());
 
         return clonedMessage;
 
@@ -312,6 +339,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
         if (MessageTracer.isEnabled()) {
             MessageTracer.trace(messageId, message.getMetadata().getDestination(), MessageTracer.MESSAGE_ID_MAPPED);
         }
+        LatencyTracer.trace(message.getMetadata(), TraceStage.PRE_PROCESSED);
 
         for (AndesMessagePart messagePart: message.getContentChunkList()) {
             messagePart.setMessageID(messageId);
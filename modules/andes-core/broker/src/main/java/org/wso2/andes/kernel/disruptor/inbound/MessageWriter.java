@@ -19,21 +19,29 @@
 package org.wso2.andes.kernel.disruptor.inbound;
 
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.DisablePubAckImpl;
 import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.store.AndesBatchUpdateException;
 import org.wso2.andes.store.AndesTransactionRollbackException;
 import org.wso2.andes.store.FailureObservingStoreManager;
 import org.wso2.andes.store.HealthAwareStore;
 import org.wso2.andes.store.StoreHealthListener;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Writes messages in Disruptor ring buffer to message store in batches.
@@ -42,6 +50,12 @@ public class MessageWriter implements StoreHealthListener {
 
     private static Log log = LogFactory.getLog(MessageWriter.class);
 
+    /**
+     * Time in milliseconds after which messages that failed to be written while the message store was considered
+     * operational are written again, unless a new batch writes them first
+     */
+    private static final long FAILED_MESSAGES_RETRY_DELAY = 5000;
+
     /**
      * If the message store became non-operational ( due to errors) when persisting bunch of messages
      * those will be move to this list.
@@ -49,6 +63,18 @@ public class MessageWriter implements StoreHealthListener {
      */
     private final List<AndesMessage> previouslyFailedMessageList;
 
+    /**
+     * Publisher acknowledgements of the messages in previouslyFailedMessageList. Publishers are acknowledged once the
+     * messages are written, and negatively acknowledged if the messages are lost
+     */
+    private final List<PendingPubAck> previouslyFailedPubAcks;
+
+    /**
+     * Handler given to the events of messages moved to previouslyFailedMessageList, so that the
+     * {@link StateEventHandler} does not acknowledge the publishers before the messages are written
+     */
+    private final PubAckHandler deferredPubAckHandler;
+
     /**
      * Indicates if messages stores become offline. Marked as volatile since this value could be set from a different
      * thread (other than those of disruptor)
@@ -60,6 +86,12 @@ public class MessageWriter implements StoreHealthListener {
      */
     private final MessagingEngine messagingEngine;
 
+    /**
+     * Writes previously failed messages when no new batch arrives to write them, so that their publishers are not
+     * left waiting for acknowledgements
+     */
+    private final ScheduledExecutorService failedMessagesWriter;
+
     public MessageWriter(MessagingEngine messagingEngine, int messageBatchSize) {
         this.messagingEngine = messagingEngine;
         /*
@@ -68,36 +100,38 @@ public class MessageWriter implements StoreHealthListener {
          * But this is valid for queues.
          */
         previouslyFailedMessageList = new ArrayList<>(messageBatchSize); // init in the same capacity
+        previouslyFailedPubAcks = new ArrayList<>(messageBatchSize);
+        deferredPubAckHandler = new DisablePubAckImpl();
         messageStoresUnavailable = false;
+        failedMessagesWriter = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("MessageWriter-FailedMessagesWriter").setDaemon(true).build());
         FailureObservingStoreManager.registerStoreHealthListener(this);
     }
 
-    public void writeMessages(final List<AndesMessage> messageList,
-                              final Map<String, AndesMessage> retainMap) throws Exception {
+    /**
+     * Write the given batch of messages and retained messages to the message store. If the store is unavailable or
+     * the write fails, the messages are set aside and written before the next batch, once the store becomes
+     * operational, or after a delay, whichever comes first. The publishers of the given events are acknowledged only
+     * then.
+     *
+     * @param messageList messages to write
+     * @param retainMap   retained messages to write
+     * @param events      events the messages belong to
+     * @throws Exception when the messages could not be written
+     */
+    public void writeMessages(final List<AndesMessage> messageList, final Map<String, AndesMessage> retainMap,
+                              final List<InboundEventContainer> events) throws Exception {
 
         if (messageStoresUnavailable) {
-            handleStoreFailure(messageList);
+            handleStoreFailure(messageList, events);
         }
         else {
             // Try inserting message batch that failed before.
-            if (!previouslyFailedMessageList.isEmpty()) {
-                log.info("Attempting to store previously failed list of messages of size: "
-                         + previouslyFailedMessageList.size());
-                try {
-                    messagingEngine.messagesReceived(previouslyFailedMessageList);
-
-                } catch (AndesException ex) {
-                    log.error("errors encountered while persisting previously failed messages batch, "
-                              + " this incident will result messages being lost", ex);
-
-                }
-
-                previouslyFailedMessageList.clear();
-            }
+            writePreviouslyFailedMessages();
 
             try {
                 if (!messageList.isEmpty()) {
-                    messagingEngine.messagesReceived(messageList);
+                    storeMessages(messageList);
                 }
 
                 if (!retainMap.isEmpty()) {
@@ -115,6 +149,12 @@ public class MessageWriter implements StoreHealthListener {
                     }
                 }
 
+                if (LatencyTracer.isEnabled()) {
+                    for (AndesMessage message : messageList) {
+                        LatencyTracer.trace(message.getMetadata(), TraceStage.WRITTEN_TO_DB);
+                    }
+                }
+
                 if (log.isTraceEnabled()) {
                     StringBuilder messageIDsString = new StringBuilder();
                     for (AndesMessage message : messageList) {
@@ -134,29 +174,101 @@ public class MessageWriter implements StoreHealthListener {
                 // Now message writer goes and inserts same batch again -> results in failures in batch update.
                 // Therefore here we remove conflicting message parts (which are probably already in the database).
                 //currentMessageList.removeAll(batchInsertEx.getFailedInserts());
-                handleStoreFailure(messageList);
+                handleStoreFailure(messageList, events);
                 throw batchInsertEx;
             } catch (AndesTransactionRollbackException transRollbackEx) {
                 // Transaction failed therefore we will re-attempt this batch with next batch insertion.
                 log.warn("Unable to store messages, since transaction rollback. opertation will be reattempted. " +
                                  "messages count : " + messageList.size());
-                handleStoreFailure(messageList);
+                handleStoreFailure(messageList, events);
                 throw transRollbackEx;
             }
             catch (Exception ex) {
                 log.warn("Unable to store messages, due to errors in message stores. operatation will be " +
                                  "reattempted. messages count : " + messageList.size());
-                handleStoreFailure(messageList);
+                handleStoreFailure(messageList, events);
                 throw ex;
             }
         }
     }
 
     /**
-     * Move the messages to previouslyFailedMessageList and clear currentMessageList and retainMap
+     * Write the messages that failed to be written before and acknowledge their publishers. Publishers of messages
+     * that fail again are negatively acknowledged. Nothing is written while the message store is unavailable.
+     * Called from the disruptor thread before each batch and from the failed messages writer, hence synchronized.
+     */
+    private synchronized void writePreviouslyFailedMessages() {
+        if (previouslyFailedMessageList.isEmpty() || messageStoresUnavailable) {
+            return;
+        }
+        log.info("Attempting to store previously failed list of messages of size: "
+                 + previouslyFailedMessageList.size());
+        boolean persisted = false;
+        try {
+            storeMessages(previouslyFailedMessageList);
+            persisted = true;
+        } catch (AndesException ex) {
+            log.error("errors encountered while persisting previously failed messages batch, "
+                      + " this incident will result messages being lost", ex);
+
+        }
+
+        // Publishers of lost messages are negatively acknowledged so that they can republish them
+        for (PendingPubAck pendingPubAck : previouslyFailedPubAcks) {
+            if (persisted) {
+                pendingPubAck.pubAckHandler.ack(pendingPubAck.metadata);
+            } else {
+                pendingPubAck.pubAckHandler.nack(pendingPubAck.metadata);
+            }
+        }
+
+        previouslyFailedMessageList.clear();
+        previouslyFailedPubAcks.clear();
+    }
+
+    /**
+     * Write messages to the message store
+     *
+     * @param messageList messages to write
+     * @throws AndesException when the messages could not be written
      */
-    private void handleStoreFailure(List<AndesMessage> messageList) {
+    void storeMessages(List<AndesMessage> messageList) throws AndesException {
+        messagingEngine.messagesReceived(messageList);
+    }
+
+    /**
+     * Move the messages to previouslyFailedMessageList and hold back the publisher acknowledgements of the events
+     * until the messages are written. Events are not visible to the handlers down the line until the batch handler
+     * is done with them, therefore replacing their handler here is safe. If the message store is not known to be
+     * unavailable, the messages are written again after a delay in case no further batch arrives.
+     */
+    private synchronized void handleStoreFailure(List<AndesMessage> messageList, List<InboundEventContainer> events) {
         previouslyFailedMessageList.addAll(messageList);
+        for (InboundEventContainer event : events) {
+            List<AndesMessage> eventMessages = event.getMessageList();
+            if (!eventMessages.isEmpty()) {
+                AndesMessageMetadata metadata = eventMessages.get(0).getMetadata();
+                previouslyFailedPubAcks.add(new PendingPubAck(event.pubAckHandler, metadata));
+                event.pubAckHandler = deferredPubAckHandler;
+            }
+        }
+        if (!messageStoresUnavailable) {
+            scheduleFailedMessagesWrite(FAILED_MESSAGES_RETRY_DELAY);
+        }
+    }
+
+    /**
+     * Schedule writing the previously failed messages on the failed messages writer
+     *
+     * @param delay time in milliseconds to wait before writing
+     */
+    private void scheduleFailedMessagesWrite(long delay) {
+        failedMessagesWriter.schedule(new Runnable() {
+            @Override
+            public void run() {
+                writePreviouslyFailedMessages();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -175,12 +287,28 @@ public class MessageWriter implements StoreHealthListener {
      * {@inheritDoc}
      * <p/>
      * Sets a value for {@link SettableFuture} indicating message store became
-     * online.
+     * online. Messages that failed to be written are written right away, without waiting for the next batch.
      */
     @Override
     public void storeOperational(HealthAwareStore store) {
         log.info(String.format("Message store became operational. messages to store : %d",
                                previouslyFailedMessageList.size()));
         messageStoresUnavailable = false;
+        scheduleFailedMessagesWrite(0);
+    }
+
+    /**
+     * Publisher acknowledgement held back until the message it belongs to is written
+     */
+    private static class PendingPubAck {
+
+        private final PubAckHandler pubAckHandler;
+
+        private final AndesMessageMetadata metadata;
+
+        PendingPubAck(PubAckHandler pubAckHandler, AndesMessageMetadata metadata) {
+            this.pubAckHandler = pubAckHandler;
+            this.metadata = metadata;
+        }
     }
 }
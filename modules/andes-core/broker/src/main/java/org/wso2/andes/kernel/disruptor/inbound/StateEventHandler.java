@@ -27,6 +27,8 @@ import org.wso2.andes.kernel.DeliverableAndesMetadata;
 import org.wso2.andes.kernel.MessageStatus;
 import org.wso2.andes.kernel.slot.SlotMessageCounter;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.andes.tools.tracing.TraceStage;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Level;
 import org.wso2.carbon.metrics.manager.Meter;
@@ -113,6 +115,7 @@ public class StateEventHandler implements EventHandler<InboundEventContainer> {
         for (AndesMessage message : messageList) {
             //Tracing Message
             MessageTracer.trace(message, MessageTracer.SLOT_INFO_UPDATED);
+            LatencyTracer.trace(message.getMetadata(), TraceStage.SLOT_SUBMITTED);
 
             //Adding metrics meter for ack rate
             Meter ackMeter = MetricManager.meter(MetricsConstants.ACK_SENT_RATE, Level.INFO);
@@ -325,6 +325,47 @@ public class DtxBranch {
         internalXid = dtxRegistry.storeRecords(this);
     }
 
+    /**
+     * Persist enqueue and dequeue records of several branches in a single store transaction. All the branches should
+     * belong to the same {@link DtxRegistry}
+     *
+     * @param branches {@link DtxBranch} list to be prepared
+     * @throws AndesException if an internal error occurred. None of the branches are persisted then
+     */
+    public static void persistRecords(List<DtxBranch> branches) throws AndesException {
+        if (!branches.isEmpty()) {
+            LOGGER.debug("Performing group prepare for " + branches.size() + " DtxBranches");
+            branches.get(0).dtxRegistry.storeRecords(branches);
+        }
+    }
+
+    /**
+     * Internal xid used for the branch in the message store
+     *
+     * @return internal xid or {@link #NULL_XID} if the branch is not prepared
+     */
+    public long getInternalXid() {
+        return internalXid;
+    }
+
+    /**
+     * Set the internal xid assigned by the message store on prepare
+     *
+     * @param internalXid internal xid of the branch
+     */
+    void setInternalXid(long internalXid) {
+        this.internalXid = internalXid;
+    }
+
+    /**
+     * Check whether the dequeue records of the branch are already acknowledged and retrieved for prepare
+     *
+     * @return True if the messages to restore on rollback are set
+     */
+    boolean hasMessagesToRestore() {
+        return null != preparedDequeueMessages;
+    }
+
     /**
      * Retrieve the messages that need to be restored on a rollback event
      *
@@ -452,6 +493,22 @@ public class DtxBranch {
         traceMessageList(enqueueList, MessageTracer.DTX_MESSAGE_WRITTEN_TO_DB);
     }
 
+    /**
+     * Write the committed messages of several prepared branches to the database in a single store transaction. All
+     * the branches should belong to the same {@link DtxRegistry}
+     *
+     * @param branches prepared {@link DtxBranch} list
+     * @throws AndesException throws AndesException on database error. None of the branches are committed then
+     */
+    public static void writeToDbOnCommit(List<DtxBranch> branches) throws AndesException {
+        if (!branches.isEmpty()) {
+            branches.get(0).dtxRegistry.getStore().updateOnCommit(branches);
+            for (DtxBranch branch : branches) {
+                branch.traceMessageList(branch.enqueueList, MessageTracer.DTX_MESSAGE_WRITTEN_TO_DB);
+            }
+        }
+    }
+
     /**
      * Write committed messages to the database.
      *
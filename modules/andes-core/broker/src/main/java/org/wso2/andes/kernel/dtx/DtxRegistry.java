@@ -31,12 +31,15 @@ import org.wso2.andes.server.txn.TimeoutDtxException;
 import org.wso2.andes.tools.utils.MessageTracer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -45,14 +48,25 @@ import java.util.concurrent.TimeUnit;
 import javax.transaction.xa.Xid;
 
 /**
- * In memory registry for distributed transaction related operations
+ * In memory registry for distributed transaction related operations. State changes of a branch are guarded by a
+ * lock stripe selected by the {@link Xid}, so operations on unrelated transactions do not block each other.
  */
 public class DtxRegistry {
 
+    /**
+     * Number of lock stripes guarding branch state changes
+     */
+    private static final int LOCK_STRIPE_COUNT = 64;
+
     /**
      * {@link Xid} to {@link DtxBranch} mapping
      */
-    private final Map<Xid, DtxBranch> branches;
+    private final ConcurrentMap<Xid, DtxBranch> branches;
+
+    /**
+     * Locks guarding state changes of branches. A branch is guarded by the stripe at its {@link Xid} partition
+     */
+    private final Object[] branchLocks;
 
     /**
      * Persistence storage used by the {@link DtxRegistry}
@@ -92,22 +106,58 @@ public class DtxRegistry {
     public DtxRegistry(DtxStore dtxStore, MessagingEngine messagingEngine, InboundEventManager eventManager)
             throws AndesException {
         this.dtxStore = dtxStore;
-        branches = new HashMap<>();
+        branches = new ConcurrentHashMap<>();
+        branchLocks = new Object[LOCK_STRIPE_COUNT];
+        for (int i = 0; i < LOCK_STRIPE_COUNT; i++) {
+            branchLocks[i] = new Object();
+        }
         this.messagingEngine = messagingEngine;
         this.eventManager = eventManager;
         ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("DtxTimeoutExecutor-%d").build();
         nodeId = ClusterResourceHolder.getInstance().getClusterManager().getMyNodeID();
-        storeOnlyXidSet = dtxStore.getStoredXidSet(nodeId);
+        storeOnlyXidSet = Collections.newSetFromMap(new ConcurrentHashMap<XidImpl, Boolean>());
+        storeOnlyXidSet.addAll(dtxStore.getStoredXidSet(nodeId));
         timeoutTaskExecutor = Executors.newSingleThreadScheduledExecutor(namedThreadFactory);
     }
 
+    /**
+     * Get the partition of a {@link Xid} among the given number of partitions. The partition depends only on the
+     * content of the {@link Xid}, hence the same transaction always maps to the same partition.
+     *
+     * @param xid            {@link Xid} of the transaction
+     * @param partitionCount number of partitions
+     * @return partition of the {@link Xid}, between 0 and partitionCount - 1
+     */
+    public static int getPartition(Xid xid, int partitionCount) {
+        int hash = 31 * xid.getFormatId() + Arrays.hashCode(xid.getGlobalTransactionId());
+        hash = 31 * hash + Arrays.hashCode(xid.getBranchQualifier());
+
+        // Mix the bits since sequentially generated ids differ only in the low order bits of the hash
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % partitionCount;
+    }
+
+    /**
+     * Get the lock guarding state changes of the branch with the given {@link Xid}
+     *
+     * @param xid {@link Xid} of the branch
+     * @return lock stripe of the branch
+     */
+    private Object getBranchLock(Xid xid) {
+        return branchLocks[getPartition(xid, LOCK_STRIPE_COUNT)];
+    }
+
     /**
      * Get the {@link DtxBranch} relating to the given {@link Xid}
      *
      * @param xid {@link Xid} of the {@link DtxBranch} to be retrieved
      * @return DtxBranch
      */
-    synchronized DtxBranch getBranch(Xid xid) throws AndesException {
+    DtxBranch getBranch(Xid xid) throws AndesException {
         DtxBranch dtxBranch = branches.get(xid);
         if (dtxBranch == null && storeOnlyXidSet.contains(new XidImpl(xid))) {
 
@@ -125,12 +175,8 @@ public class DtxRegistry {
      * @param branch {@link DtxBranch} to be registered
      * @return True if the registration was successful and wise versa
      */
-    synchronized boolean registerBranch(DtxBranch branch) {
-        if(!branches.containsKey(branch.getXid())) {
-            branches.put(branch.getXid(), branch);
-            return true;
-        }
-        return false;
+    boolean registerBranch(DtxBranch branch) {
+        return null == branches.putIfAbsent(branch.getXid(), branch);
     }
 
     /**
@@ -151,7 +197,7 @@ public class DtxRegistry {
             RollbackOnlyDtxException {
         DtxBranch branch;
 
-        synchronized (this) {
+        synchronized (getBranchLock(xid)) {
             branch = getBranch(xid);
 
             if (branch != null) {
@@ -187,7 +233,7 @@ public class DtxRegistry {
      * @param branch {@link DtxBranch} to be removed
      * @return True if successfully removed and false otherwise
      */
-    private synchronized boolean unregisterBranch(DtxBranch branch) {
+    private boolean unregisterBranch(DtxBranch branch) {
         return (branches.remove(branch.getXid()) != null);
     }
 
@@ -199,20 +245,64 @@ public class DtxRegistry {
      * @throws AndesException when database error occurs
      */
     long storeRecords(DtxBranch branch) throws AndesException {
-        List<AndesPreparedMessageMetadata> dequeueRecords = acknowledgeAndRetrieveDequeueRecords(branch);
-        branch.setMessagesToRestore(dequeueRecords);
-        long internalXid = dtxStore.storeDtxRecords(branch.getXid(), branch.getEnqueueList(), dequeueRecords);
+        retrieveMessagesToRestore(branch);
+        long internalXid = dtxStore.storeDtxRecords(branch.getXid(), branch.getEnqueueList(),
+                branch.getMessagesToRestore());
+        traceStoredRecords(branch);
+        return internalXid;
+    }
+
+    /**
+     * Persist Enqueue and Dequeue records of several branches in a single store transaction and set the internal
+     * XID of each branch. Dequeue records of a branch are acknowledged only once, hence a branch can be stored
+     * individually using {@link #storeRecords(DtxBranch)} if storing the group fails.
+     *
+     * @param branches {@link DtxBranch} list that needs to be stored
+     * @throws AndesException when database error occurs
+     */
+    void storeRecords(List<DtxBranch> branches) throws AndesException {
+        for (DtxBranch branch : branches) {
+            retrieveMessagesToRestore(branch);
+        }
+
+        long[] internalXids = dtxStore.storeDtxRecords(branches);
+
+        for (int i = 0; i < internalXids.length; i++) {
+            DtxBranch branch = branches.get(i);
+            branch.setInternalXid(internalXids[i]);
+            traceStoredRecords(branch);
+        }
+    }
+
+    /**
+     * Acknowledge the dequeue list of the branch and keep the acknowledged messages as the messages to restore on
+     * rollback, unless it is already done for the branch
+     *
+     * @param branch {@link DtxBranch} being prepared
+     * @throws AndesException
+     */
+    private void retrieveMessagesToRestore(DtxBranch branch) throws AndesException {
+        if (!branch.hasMessagesToRestore()) {
+            branch.setMessagesToRestore(acknowledgeAndRetrieveDequeueRecords(branch));
+        }
+    }
+
+    /**
+     * Trace enqueue and dequeue records stored for a prepared branch
+     *
+     * @param branch prepared {@link DtxBranch}
+     */
+    private void traceStoredRecords(DtxBranch branch) {
         if (MessageTracer.isEnabled()) {
             for (AndesMessage message : branch.getEnqueueList()) {
                 MessageTracer.trace(message.getMetadata(), branch.getXid(), branch.getState(),
                         MessageTracer.STORED_PREPARED_ENQUEUE_RECORDS_TO_DB);
             }
-            for (AndesPreparedMessageMetadata preparedMessageMetadata: dequeueRecords) {
+            for (AndesPreparedMessageMetadata preparedMessageMetadata: branch.getMessagesToRestore()) {
                 MessageTracer.trace(preparedMessageMetadata, branch.getXid(), branch.getState(),
                         MessageTracer.MOVE_PREPARED_DEQUEUE_RECORDS_TO_DB);
             }
         }
-        return internalXid;
     }
 
     /**
@@ -236,23 +326,25 @@ public class DtxRegistry {
      * @throws TimeoutDtxException thrown when the branch is expired
      * @throws IncorrectDtxStateException if the state of the branch is invalid. For instance the branch is not prepared
      */
-    public synchronized void rollback(Xid xid, DisruptorEventCallback callback)
+    public void rollback(Xid xid, DisruptorEventCallback callback)
             throws TimeoutDtxException, IncorrectDtxStateException, UnknownDtxBranchException, AndesException {
-        DtxBranch branch = getBranch(xid);
-        if (branch != null) {
-            if (branch.expired()) {
-                unregisterBranch(branch);
-                throw new TimeoutDtxException(xid);
-            }
+        synchronized (getBranchLock(xid)) {
+            DtxBranch branch = getBranch(xid);
+            if (branch != null) {
+                if (branch.expired()) {
+                    unregisterBranch(branch);
+                    throw new TimeoutDtxException(xid);
+                }
 
-            if (!branch.hasAssociatedActiveSessions()) {
-                branch.clearAssociations();
-                branch.rollback(new RollbackCallback(callback, branch));
+                if (!branch.hasAssociatedActiveSessions()) {
+                    branch.clearAssociations();
+                    branch.rollback(new RollbackCallback(callback, branch));
+                } else {
+                    throw new IncorrectDtxStateException("Branch is still associates with a session", xid);
+                }
             } else {
-                throw new IncorrectDtxStateException("Branch is still associates with a session", xid);
+                throw new UnknownDtxBranchException(xid);
             }
-        } else {
-            throw new UnknownDtxBranchException(xid);
         }
     }
 
@@ -269,37 +361,41 @@ public class DtxRegistry {
      * @throws RollbackOnlyDtxException Thrown when commit is invoked on a ROLLBACK_ONLY {@link DtxBranch}
      * @throws TimeoutDtxException Thrown when the respective {@link DtxBranch} relating to the {@link Xid} has expired
      */
-    public synchronized void commit(Xid xid, boolean onePhase, DisruptorEventCallback callback, AndesChannel channel)
+    public void commit(Xid xid, boolean onePhase, DisruptorEventCallback callback, AndesChannel channel)
             throws UnknownDtxBranchException, IncorrectDtxStateException, AndesException, TimeoutDtxException,
             RollbackOnlyDtxException {
 
-        DtxBranch dtxBranch = getBranch(xid);
-        if (null != dtxBranch) {
-            if (!dtxBranch.hasAssociatedActiveSessions()) {
-                // TODO: Need to revisit. What happens if the commit DB call fail?
-                dtxBranch.clearAssociations();
+        synchronized (getBranchLock(xid)) {
+            DtxBranch dtxBranch = getBranch(xid);
+            if (null != dtxBranch) {
+                if (!dtxBranch.hasAssociatedActiveSessions()) {
+                    // TODO: Need to revisit. What happens if the commit DB call fail?
+                    dtxBranch.clearAssociations();
 
-                if (dtxBranch.expired()) {
-                    unregisterBranch(dtxBranch);
-                    throw new TimeoutDtxException(xid);
-                } else if (dtxBranch.getState() == DtxBranch.State.ROLLBACK_ONLY) {
-                    throw new RollbackOnlyDtxException(xid);
-                } else if (onePhase && dtxBranch.getState() == DtxBranch.State.PREPARED) {
-                    throw new IncorrectDtxStateException("Cannot call one-phase commit on a prepared branch", xid);
-                } else if (!onePhase && dtxBranch.getState() != DtxBranch.State.PREPARED) {
-                    throw new IncorrectDtxStateException("Cannot call two-phase commit on a non-prepared branch", xid);
-                }
+                    if (dtxBranch.expired()) {
+                        unregisterBranch(dtxBranch);
+                        throw new TimeoutDtxException(xid);
+                    } else if (dtxBranch.getState() == DtxBranch.State.ROLLBACK_ONLY) {
+                        throw new RollbackOnlyDtxException(xid);
+                    } else if (onePhase && dtxBranch.getState() == DtxBranch.State.PREPARED) {
+                        throw new IncorrectDtxStateException("Cannot call one-phase commit on a prepared branch",
+                                xid);
+                    } else if (!onePhase && dtxBranch.getState() != DtxBranch.State.PREPARED) {
+                        throw new IncorrectDtxStateException("Cannot call two-phase commit on a non-prepared branch",
+                                xid);
+                    }
 
-                dtxBranch.setState(DtxBranch.State.FORGOTTEN);
+                    dtxBranch.setState(DtxBranch.State.FORGOTTEN);
 
-                DisruptorEventCallback wrappedCallback = new CommitCallback(callback, dtxBranch);
-                dtxBranch.commit(wrappedCallback, channel, onePhase);
+                    DisruptorEventCallback wrappedCallback = new CommitCallback(callback, dtxBranch);
+                    dtxBranch.commit(wrappedCallback, channel, onePhase);
 
+                } else {
+                    throw new IncorrectDtxStateException("Branch still has associated sessions", xid);
+                }
             } else {
-                throw new IncorrectDtxStateException("Branch still has associated sessions", xid);
+                throw new UnknownDtxBranchException(xid);
             }
-        } else {
-            throw new UnknownDtxBranchException(xid);
         }
     }
 
@@ -322,7 +418,7 @@ public class DtxRegistry {
     public void forget(Xid xid) throws UnknownDtxBranchException, IncorrectDtxStateException, AndesException {
         DtxBranch branch = getBranch(xid);
         if (branch != null) {
-            synchronized (branch) {
+            synchronized (getBranchLock(xid)) {
                 if (!branch.hasAssociatedActiveSessions()) {
                     if(branch.getState() != DtxBranch.State.HEUR_COM && branch.getState() != DtxBranch.State.HEUR_RB) {
                         throw new IncorrectDtxStateException("Branch should not be forgotten - "
@@ -344,7 +440,7 @@ public class DtxRegistry {
      *
      * @param sessionId sessionId of the closing transactional session
      */
-    public synchronized void close(UUID sessionId) {
+    public void close(UUID sessionId) {
 
         for (Iterator<Map.Entry<Xid, DtxBranch>> iterator = branches.entrySet().iterator();
              iterator.hasNext(); ) {
@@ -352,17 +448,19 @@ public class DtxRegistry {
             Map.Entry<Xid, DtxBranch> entry = iterator.next();
             DtxBranch branch = entry.getValue();
 
-            if (branch.getCreatedSessionId() == sessionId &&
-                    (branch.getState() == DtxBranch.State.ACTIVE || branch.getState() == DtxBranch.State.SUSPENDED)) {
+            synchronized (getBranchLock(entry.getKey())) {
+                if (branch.getCreatedSessionId() == sessionId && (branch.getState() == DtxBranch.State.ACTIVE
+                        || branch.getState() == DtxBranch.State.SUSPENDED)) {
 
-                // If there are no associations delete the entry. If there are associations that is due to a join.
-                // Hence only disassociating the session
-                if (branch.isAssociated(sessionId)) {
-                    branch.disassociateSession(sessionId);
-                }
-                if (!branch.hasAssociatedSessions()) {
-                    branch.setState(DtxBranch.State.FORGOTTEN);
-                    iterator.remove();
+                    // If there are no associations delete the entry. If there are associations that is due to a
+                    // join. Hence only disassociating the session
+                    if (branch.isAssociated(sessionId)) {
+                        branch.disassociateSession(sessionId);
+                    }
+                    if (!branch.hasAssociatedSessions()) {
+                        branch.setState(DtxBranch.State.FORGOTTEN);
+                        iterator.remove();
+                    }
                 }
             }
         }
@@ -441,7 +539,7 @@ public class DtxRegistry {
 
         @Override
         public void execute() {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(dtxBranch.getXid())) {
                 unregisterBranch(dtxBranch);
                 storeOnlyXidSet.remove(new XidImpl(dtxBranch.getXid()));
             }
@@ -451,7 +549,7 @@ public class DtxRegistry {
 
         @Override
         public void onException(Exception exception) {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(dtxBranch.getXid())) {
                 dtxBranch.setState(DtxBranch.State.PREPARED);
             }
 
@@ -481,7 +579,7 @@ public class DtxRegistry {
 
         @Override
         public void execute() {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(dtxBranch.getXid())) {
                 dtxBranch.setState(DtxBranch.State.FORGOTTEN);
                 unregisterBranch(dtxBranch);
                 storeOnlyXidSet.remove(new XidImpl(dtxBranch.getXid()));
@@ -491,7 +589,7 @@ public class DtxRegistry {
 
         @Override
         public void onException(Exception exception) {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(dtxBranch.getXid())) {
                 dtxBranch.setState(DtxBranch.State.PREPARED);
             }
 
@@ -521,7 +619,7 @@ public class DtxRegistry {
 
         @Override
         public void execute() {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(branch.getXid())) {
                 branch.setState(DtxBranch.State.PREPARED);
             }
 
@@ -530,7 +628,7 @@ public class DtxRegistry {
 
         @Override
         public void onException(Exception exception) {
-            synchronized (DtxRegistry.this) {
+            synchronized (getBranchLock(branch.getXid())) {
                 branch.setState(DtxBranch.State.ROLLBACK_ONLY);
             }
 
@@ -19,6 +19,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.kernel.AndesConstants;
 import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.MessageBufferGovernor;
 import org.wso2.andes.kernel.subscription.StorageQueue;
 import org.wso2.andes.server.information.management.DurableTopicSubscriptionInformationMBean;
 
@@ -70,6 +71,7 @@ public class StorageQueueRegistry {
         if (null == storageQueue) {
             storageQueue = new StorageQueue(queueName, isDurable, isShared, queueOwner, isExclusive);
             storageQueueMap.put(queueName, storageQueue);
+            MessageBufferGovernor.getInstance().register(storageQueue);
         }
         //register subscription mbean for a durable subscription
         if (storageQueue.getName().startsWith(AndesConstants.DURABLE_SUBSCRIPTION_QUEUE_PREFIX)) {
@@ -94,6 +96,7 @@ public class StorageQueueRegistry {
     public StorageQueue removeStorageQueue(String queueName) throws AndesException {
         StorageQueue storageQueue = storageQueueMap.remove(queueName);
         storageQueue.unbindQueueFromMessageRouter();
+        MessageBufferGovernor.getInstance().unregister(storageQueue);
         //unregister subscription mbean of a durable subscription
         if (queueName.startsWith(AndesConstants.DURABLE_SUBSCRIPTION_QUEUE_PREFIX) && isMbeanRegistered(queueName)) {
             Hashtable<String, String> tab = getMbeanObjectnameProp(queueName);
@@ -21,9 +21,14 @@ import com.googlecode.cqengine.index.navigable.NavigableIndex;
 import com.googlecode.cqengine.query.Query;
 import org.wso2.andes.kernel.subscription.AndesSubscription;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
-
-import static com.googlecode.cqengine.query.QueryFactory.equal;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -35,9 +40,15 @@ import static com.googlecode.cqengine.query.QueryFactory.equal;
  * will also be registered here.
  * <p/>
  * Thus this will provide full view of subscription distribution in the cluster
+ * <p/>
+ * Lookups on the message path (by subscription ID, protocol channel, node and storage queue) are served from
+ * hashed indexes kept next to the CQEngine collection, so that they do not run a query. The indexes are updated
+ * under the registry lock on register and remove, and read without locking.
  */
 public class SubscriptionRegistry {
 
+    private static final AndesSubscription[] NO_SUBSCRIPTIONS = new AndesSubscription[0];
+
     /**
      * CQEngine based structure for keeping multi-indexed subscriptions
      * <p/>
@@ -46,6 +57,33 @@ public class SubscriptionRegistry {
      */
     private IndexedCollection<AndesSubscription> subscriptions;
 
+    /**
+     * Subscriptions w:r:t subscription ID
+     */
+    private final ConcurrentMap<String, AndesSubscription> subscriptionsById = new ConcurrentHashMap<>();
+
+    /**
+     * Subscriptions w:r:t protocol channel ID. A channel can have more than one subscription, hence the values are
+     * copy-on-write arrays which are never empty.
+     */
+    private final ConcurrentMap<UUID, AndesSubscription[]> subscriptionsByChannel = new ConcurrentHashMap<>();
+
+    /**
+     * Subscriptions w:r:t ID of the node they are connected to
+     */
+    private final SubscriptionSetIndex<String> subscriptionsByNode = new SubscriptionSetIndex<>();
+
+    /**
+     * Subscriptions w:r:t name of the storage queue they are bound to
+     */
+    private final SubscriptionSetIndex<String> subscriptionsByQueue = new SubscriptionSetIndex<>();
+
+    /**
+     * Subscriptions w:r:t name of the storage queue they are bound to and then ID of the node they are connected to
+     */
+    private final ConcurrentMap<String, SubscriptionSetIndex<String>> subscriptionsByQueueAndNode =
+            new ConcurrentHashMap<>();
+
 
     /**
      * Create a registry for keeping subscriptions in-memory. Introduce indexing needed.
@@ -70,8 +108,10 @@ public class SubscriptionRegistry {
      *
      * @param subscription subscription to register
      */
-    public void registerSubscription(AndesSubscription subscription) {
-        subscriptions.add(subscription);
+    public synchronized void registerSubscription(AndesSubscription subscription) {
+        if (subscriptions.add(subscription)) {
+            addToIndexes(subscription);
+        }
     }
 
     /**
@@ -80,7 +120,7 @@ public class SubscriptionRegistry {
      * @param subscription subscription to remove
      */
     public void removeSubscription(AndesSubscription subscription) {
-        subscriptions.remove(subscription);
+        removeSubscription(subscription.getSubscriptionId());
     }
 
     /**
@@ -88,11 +128,145 @@ public class SubscriptionRegistry {
      *
      * @param subID ID of the subscription
      */
-    public void removeSubscription(String subID) {
+    public synchronized void removeSubscription(String subID) {
+        AndesSubscription registeredSubscription = subscriptionsById.get(subID);
+        if (null != registeredSubscription) {
+            subscriptions.remove(registeredSubscription);
+            removeFromIndexes(registeredSubscription);
+        }
+    }
+
+    /**
+     * Get a subscription by its ID
+     *
+     * @param subID ID of the subscription
+     * @return Subscription, or null if there is no such subscription
+     */
+    public AndesSubscription getSubscriptionById(String subID) {
+        return subscriptionsById.get(subID);
+    }
+
+    /**
+     * Get a subscription created on a protocol channel. If the channel has more than one subscription, the one
+     * registered first is returned.
+     *
+     * @param channelID ID of the protocol channel
+     * @return Subscription, or null if the channel has no subscriptions
+     */
+    public AndesSubscription getSubscriptionByChannel(UUID channelID) {
+        AndesSubscription[] channelSubscriptions = subscriptionsByChannel.get(channelID);
+        return (null == channelSubscriptions) ? null : channelSubscriptions[0];
+    }
+
+    /**
+     * Get all subscriptions created on a protocol channel. The returned array must not be modified.
+     *
+     * @param channelID ID of the protocol channel
+     * @return Subscriptions of the channel. Empty array if there are none.
+     */
+    public AndesSubscription[] getSubscriptionsByChannel(UUID channelID) {
+        AndesSubscription[] channelSubscriptions = subscriptionsByChannel.get(channelID);
+        return (null == channelSubscriptions) ? NO_SUBSCRIPTIONS : channelSubscriptions;
+    }
+
+    /**
+     * Get all subscriptions connected to a node
+     *
+     * @param nodeID ID of the node
+     * @return Read-only live view of the subscriptions of the node
+     */
+    public Collection<AndesSubscription> getSubscriptionsByNode(String nodeID) {
+        return subscriptionsByNode.get(nodeID);
+    }
+
+    /**
+     * Get all subscriptions in the cluster bound to a storage queue
+     *
+     * @param storageQueueName name of the storage queue
+     * @return Read-only live view of the subscriptions of the queue
+     */
+    public Collection<AndesSubscription> getSubscriptionsByQueue(String storageQueueName) {
+        return subscriptionsByQueue.get(storageQueueName);
+    }
+
+    /**
+     * Get all subscriptions bound to a storage queue that are connected to a node
+     *
+     * @param storageQueueName name of the storage queue
+     * @param nodeID           ID of the node
+     * @return Read-only live view of the matching subscriptions
+     */
+    public Collection<AndesSubscription> getSubscriptionsByQueue(String storageQueueName, String nodeID) {
+        SubscriptionSetIndex<String> queueSubscriptionsByNode = subscriptionsByQueueAndNode.get(storageQueueName);
+        return (null == queueSubscriptionsByNode) ? Collections.<AndesSubscription>emptySet()
+                : queueSubscriptionsByNode.get(nodeID);
+    }
+
+    private void addToIndexes(AndesSubscription subscription) {
+        String nodeID = subscription.getSubscriberConnection().getConnectedNode();
+        UUID channelID = subscription.getSubscriberConnection().getProtocolChannelID();
+        String storageQueueName = subscription.getStorageQueue().getName();
+
+        subscriptionsById.put(subscription.getSubscriptionId(), subscription);
+
+        if (null != channelID) {
+            AndesSubscription[] channelSubscriptions = subscriptionsByChannel.get(channelID);
+            if (null == channelSubscriptions) {
+                subscriptionsByChannel.put(channelID, new AndesSubscription[]{subscription});
+            } else {
+                AndesSubscription[] newSubscriptions = Arrays.copyOf(channelSubscriptions,
+                        channelSubscriptions.length + 1);
+                newSubscriptions[channelSubscriptions.length] = subscription;
+                subscriptionsByChannel.put(channelID, newSubscriptions);
+            }
+        }
+
+        subscriptionsByNode.add(nodeID, subscription);
+        subscriptionsByQueue.add(storageQueueName, subscription);
+
+        SubscriptionSetIndex<String> queueSubscriptionsByNode = subscriptionsByQueueAndNode.get(storageQueueName);
+        if (null == queueSubscriptionsByNode) {
+            queueSubscriptionsByNode = new SubscriptionSetIndex<>();
+            subscriptionsByQueueAndNode.put(storageQueueName, queueSubscriptionsByNode);
+        }
+        queueSubscriptionsByNode.add(nodeID, subscription);
+    }
+
+    private void removeFromIndexes(AndesSubscription subscription) {
+        String nodeID = subscription.getSubscriberConnection().getConnectedNode();
+        UUID channelID = subscription.getSubscriberConnection().getProtocolChannelID();
+        String storageQueueName = subscription.getStorageQueue().getName();
+
+        subscriptionsById.remove(subscription.getSubscriptionId());
+
+        if (null != channelID) {
+            AndesSubscription[] channelSubscriptions = subscriptionsByChannel.get(channelID);
+            if (null != channelSubscriptions) {
+                AndesSubscription[] newSubscriptions = new AndesSubscription[channelSubscriptions.length];
+                int index = 0;
+                for (AndesSubscription channelSubscription : channelSubscriptions) {
+                    if (channelSubscription != subscription) {
+                        newSubscriptions[index++] = channelSubscription;
+                    }
+                }
 
-        Query<AndesSubscription> query = equal(AndesSubscription.SUB_ID, subID);
-        for (AndesSubscription sub : subscriptions.retrieve(query)) {
-            subscriptions.remove(sub);
+                if (0 == index) {
+                    subscriptionsByChannel.remove(channelID);
+                } else if (index < channelSubscriptions.length) {
+                    subscriptionsByChannel.put(channelID, Arrays.copyOf(newSubscriptions, index));
+                }
+            }
+        }
+
+        subscriptionsByNode.remove(nodeID, subscription);
+        subscriptionsByQueue.remove(storageQueueName, subscription);
+
+        SubscriptionSetIndex<String> queueSubscriptionsByNode = subscriptionsByQueueAndNode.get(storageQueueName);
+        if (null != queueSubscriptionsByNode) {
+            queueSubscriptionsByNode.remove(nodeID, subscription);
+            if (queueSubscriptionsByNode.isEmpty()) {
+                subscriptionsByQueueAndNode.remove(storageQueueName);
+            }
         }
     }
 
@@ -115,4 +289,51 @@ public class SubscriptionRegistry {
         return subscriptions.iterator();
     }
 
+    /**
+     * Hashed index from a key to the set of subscriptions having that key. Modified only under the registry lock.
+     * Each key keeps a read-only view of its set, so that lookups do not allocate.
+     *
+     * @param <K> type of the key
+     */
+    private static class SubscriptionSetIndex<K> {
+
+        private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<>();
+
+        Collection<AndesSubscription> get(K key) {
+            Entry entry = entries.get(key);
+            return (null == entry) ? Collections.<AndesSubscription>emptySet() : entry.view;
+        }
+
+        void add(K key, AndesSubscription subscription) {
+            Entry entry = entries.get(key);
+            if (null == entry) {
+                entry = new Entry();
+                entries.put(key, entry);
+            }
+            entry.subscriptions.add(subscription);
+        }
+
+        void remove(K key, AndesSubscription subscription) {
+            Entry entry = entries.get(key);
+            if (null != entry) {
+                entry.subscriptions.remove(subscription);
+                if (entry.subscriptions.isEmpty()) {
+                    entries.remove(key);
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        private static class Entry {
+
+            private final Set<AndesSubscription> subscriptions =
+                    Collections.newSetFromMap(new ConcurrentHashMap<AndesSubscription, Boolean>());
+
+            private final Set<AndesSubscription> view = Collections.unmodifiableSet(subscriptions);
+        }
+    }
+
 }
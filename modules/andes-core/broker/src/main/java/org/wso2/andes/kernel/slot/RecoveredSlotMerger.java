@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.wso2.andes.kernel.AndesException;
+
+import java.sql.SQLException;
+
+/**
+ * Merges the slots recovered from consecutive message ID ranges of a storage queue, read concurrently, into the slot
+ * map. Each range is cut into slots of its own, so that the last slot of a range is usually not full. Such a slot is
+ * joined with the slots following it as long as the joined slot does not exceed the slot size. Given the slots of
+ * each range in message ID order, the resulting slots depend only on the ranges, not on the order the ranges were
+ * read in.
+ */
+public class RecoveredSlotMerger {
+
+    private final String storageQueueName;
+
+    /**
+     * Configured size of a slot
+     */
+    private final int messageLimitPerSlot;
+
+    private final RecoverySlotCreator.CallBack callBack;
+
+    /**
+     * Slot not yet given to the callback as it may be joined with the next one. Message count is 0 if there is none.
+     */
+    private long pendingFirstMessageId;
+
+    private long pendingLastMessageId;
+
+    private int pendingMessageCount = 0;
+
+    /**
+     * Number of messages in the slots given to the callback
+     */
+    private int recoveredMessageCount = 0;
+
+    /**
+     * @param storageQueueName    storage queue the slots belong to
+     * @param messageLimitPerSlot configured size of a slot
+     * @param callBack            callback the merged slots are given to, in message ID order
+     */
+    public RecoveredSlotMerger(String storageQueueName, int messageLimitPerSlot,
+                               RecoverySlotCreator.CallBack callBack) {
+        this.storageQueueName = storageQueueName;
+        this.messageLimitPerSlot = messageLimitPerSlot;
+        this.callBack = callBack;
+    }
+
+    /**
+     * Add the next slot read. Slots should be added in message ID order, without overlapping.
+     *
+     * @param firstMessageID first message ID of the slot
+     * @param lastMessageID  last message ID of the slot
+     * @param messageCount   number of messages in the slot
+     * @throws SQLException
+     * @throws AndesException
+     */
+    public void add(long firstMessageID, long lastMessageID, int messageCount) throws SQLException, AndesException {
+        if (pendingMessageCount > 0) {
+            if (pendingMessageCount + messageCount <= messageLimitPerSlot) {
+                pendingLastMessageId = lastMessageID;
+                pendingMessageCount = pendingMessageCount + messageCount;
+                if (pendingMessageCount == messageLimitPerSlot) {
+                    flush();
+                }
+                return;
+            }
+            flush();
+        }
+
+        if (messageCount >= messageLimitPerSlot) {
+            createSlot(firstMessageID, lastMessageID, messageCount);
+        } else {
+            pendingFirstMessageId = firstMessageID;
+            pendingLastMessageId = lastMessageID;
+            pendingMessageCount = messageCount;
+        }
+    }
+
+    /**
+     * Give the slot waiting to be joined, if any, to the callback. Called once all slots are added.
+     *
+     * @throws SQLException
+     * @throws AndesException
+     */
+    public void flush() throws SQLException, AndesException {
+        if (pendingMessageCount > 0) {
+            createSlot(pendingFirstMessageId, pendingLastMessageId, pendingMessageCount);
+            pendingMessageCount = 0;
+        }
+    }
+
+    /**
+     * @return number of messages in the slots given to the callback
+     */
+    public int getRecoveredMessageCount() {
+        return recoveredMessageCount;
+    }
+
+    private void createSlot(long firstMessageID, long lastMessageID, int messageCount)
+            throws SQLException, AndesException {
+        callBack.initializeSlotMapForQueue(storageQueueName, firstMessageID, lastMessageID, messageCount);
+        recoveredMessageCount = recoveredMessageCount + messageCount;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesContextStore;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.MessageStore;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+import org.wso2.andes.server.cluster.coordination.TimeStampBasedMessageIdGenerator;
+import org.wso2.andes.server.queue.DLCQueueUtils;
+
+/**
+ * SlotCheckpointTask periodically extends the slot map checkpoint of each storage queue with the messages stored
+ * since the previous run. On a restart, {@link SlotCreator} takes the slots up to the checkpoint from the store and
+ * reads only the message ids after it, instead of reading the ids of every message in the queue.
+ * <p>
+ * Message ids are generated from the time they are published at. A checkpoint covers only ids older than the
+ * configured safety window, so that a message with an id below the checkpoint, which reaches the store late, is not
+ * missed. In a cluster the task runs on the coordinator only.
+ */
+public class SlotCheckpointTask implements Runnable {
+
+    private static Log log = LogFactory.getLog(SlotCheckpointTask.class);
+
+    /**
+     * Message store the checkpoints are kept in
+     */
+    private final MessageStore messageStore;
+
+    /**
+     * Context store to read storage queues from
+     */
+    private final AndesContextStore contextStore;
+
+    /**
+     * Configured size of a slot
+     */
+    private final int slotSize;
+
+    /**
+     * Age in milliseconds a message id should have to be checkpointed
+     */
+    private final long safetyWindow;
+
+    public SlotCheckpointTask(MessageStore messageStore, AndesContextStore contextStore) {
+        this.messageStore = messageStore;
+        this.contextStore = contextStore;
+        this.slotSize = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_SLOT_WINDOW_SIZE);
+        int safetyWindowInSeconds = AndesConfigurationManager
+                .readValue(AndesConfiguration.RECOVERY_SLOT_CHECKPOINT_SAFETY_WINDOW);
+        this.safetyWindow = safetyWindowInSeconds * 1000L;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (!AndesContext.getInstance().isClusteringEnabled()
+                    || AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+                checkpointSlots();
+            }
+        } catch (AndesException e) {
+            log.error("Error occurred while checkpointing slots", e);
+        } catch (Throwable e) {
+            log.error("Error occurred during the slot checkpoint task", e);
+        }
+    }
+
+    /**
+     * Checkpoint the slots of all storage queues except dead letter channels
+     *
+     * @throws AndesException
+     */
+    private void checkpointSlots() throws AndesException {
+        long lastMessageId = TimeStampBasedMessageIdGenerator
+                .getFirstIdOfTime(System.currentTimeMillis() - safetyWindow) - 1;
+
+        for (StorageQueue queue : contextStore.getAllQueuesStored()) {
+            String queueName = queue.getName();
+            if (DLCQueueUtils.isDeadLetterQueue(queueName)) {
+                continue;
+            }
+            int addedSlotCount = messageStore.checkpointSlotsForQueue(queueName, lastMessageId, slotSize);
+            if (log.isDebugEnabled()) {
+                log.debug("Checkpointed " + addedSlotCount + " slots of queue " + queueName);
+            }
+        }
+    }
+}
@@ -52,11 +52,18 @@ public class SlotCreator implements Runnable {
      */
     private final MessageStore messageStore;
 
+    /**
+     * Whether slots are recovered from the slot map checkpoint of the queue
+     */
+    private final boolean checkpointEnabled;
+
     public SlotCreator(MessageStore messageStore, String queueName) {
         this.messageStore = messageStore;
         this.queueName = queueName;
         this.slotSize = AndesConfigurationManager
                 .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_SLOT_WINDOW_SIZE);
+        this.checkpointEnabled = AndesConfigurationManager
+                .readValue(AndesConfiguration.RECOVERY_SLOT_CHECKPOINT_ENABLED);
     }
 
     @Override
@@ -71,7 +78,8 @@ public class SlotCreator implements Runnable {
     }
 
     /**
-     * Recover messages for the storage queue
+     * Recover messages for the storage queue. If checkpoints are enabled, slots up to the last checkpoint of the
+     * queue are taken from the checkpoint and only the messages stored after it are read.
      *
      * @throws AndesException
      * @throws SQLException
@@ -79,7 +87,12 @@ public class SlotCreator implements Runnable {
     private void initializeSlotMapForQueue() throws AndesException, SQLException {
 
         RecoverySlotCreator.CallBack slotCreatorCallBack = new RecoverySlotCreator.CallBack();
-        int restoreMessagesCounter = messageStore.recoverSlotsForQueue(queueName, 0, slotSize, slotCreatorCallBack);
+        long firstMessageId = 0;
+        if (checkpointEnabled) {
+            firstMessageId = messageStore.recoverSlotsFromCheckpoint(queueName, slotCreatorCallBack) + 1;
+        }
+        int restoreMessagesCounter = messageStore.recoverSlotsForQueue(queueName, firstMessageId, slotSize,
+                slotCreatorCallBack);
 
         log.info("Recovered " + restoreMessagesCounter + " messages for queue \"" + queueName + "\".");
 
@@ -51,6 +51,7 @@ import org.wso2.carbon.metrics.manager.Level;
 import org.wso2.carbon.metrics.manager.MetricManager;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -634,35 +635,30 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      * @param nodeID    ID of the node subscription bound to
      */
     public void removeSubscriptionFromRegistry(UUID channelID, String nodeID) throws AndesException {
-        Query<AndesSubscription> subscriptionQuery = and
-                (equal(AndesSubscription.CHANNEL_ID, channelID), equal(AndesSubscription
-                        .NODE_ID, nodeID));
-        for (AndesSubscription sub : subscriptionRegistry.exucuteQuery(subscriptionQuery)) {
-            removeLocalSubscriptionAndNotify(sub);
+        for (AndesSubscription sub : subscriptionRegistry.getSubscriptionsByChannel(channelID)) {
+            if (nodeID.equals(sub.getSubscriberConnection().getConnectedNode())) {
+                removeLocalSubscriptionAndNotify(sub);
+            }
         }
     }
 
     public AndesSubscription getSubscriptionByProtocolChannel(UUID channelID, ProtocolType
             protocolType) {
-        Query<AndesSubscription> subscriptionQuery = and
-                (equal(AndesSubscription.CHANNEL_ID, channelID), equal(AndesSubscription
-                        .NODE_ID, localNodeId), equal(AndesSubscription
-                        .PROTOCOL, protocolType));
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery).iterator().next();
+        for (AndesSubscription sub : subscriptionRegistry.getSubscriptionsByChannel(channelID)) {
+            if (protocolType == sub.getProtocolType()
+                    && localNodeId.equals(sub.getSubscriberConnection().getConnectedNode())) {
+                return sub;
+            }
+        }
+        return null;
     }
 
     public AndesSubscription getSubscriptionByProtocolChannel(UUID channelID) {
-        Query<AndesSubscription> subscriptionQuery = equal(AndesSubscription.CHANNEL_ID, channelID);
-        Iterable<AndesSubscription> subscriptions = subscriptionRegistry.exucuteQuery(subscriptionQuery);
-        Iterator<AndesSubscription> subIterator = subscriptions.iterator();
-        if (subIterator.hasNext()) {
-            return subIterator.next();
-        } else {
-            if (log.isDebugEnabled()) {
-                log.debug("No subscription found for channel ID " + channelID);
-            }
-            return null;
+        AndesSubscription subscription = subscriptionRegistry.getSubscriptionByChannel(channelID);
+        if (null == subscription && log.isDebugEnabled()) {
+            log.debug("No subscription found for channel ID " + channelID);
         }
+        return subscription;
     }
 
     /**
@@ -672,15 +668,11 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      * @return matching subscription
      */
     public AndesSubscription getSubscriptionById(String subscriptionId) {
-        Query<AndesSubscription> subscriptionQuery = equal(AndesSubscription.SUB_ID, subscriptionId);
-        Iterable<AndesSubscription> subscriptions = subscriptionRegistry.exucuteQuery(subscriptionQuery);
-        Iterator<AndesSubscription> subIterator = subscriptions.iterator();
-        if (subIterator.hasNext()) {
-            return subIterator.next();
-        } else {
+        AndesSubscription subscription = subscriptionRegistry.getSubscriptionById(subscriptionId);
+        if (null == subscription) {
             log.warn("No subscription found for subscription ID " + subscriptionId);
-            return null;
         }
+        return subscription;
     }
 
     /**
@@ -690,17 +682,12 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      * @return Iterable over matching subscriptions
      */
     public Iterable<AndesSubscription> getSubscriptionsByNode(String nodeId) {
-        Query<AndesSubscription> subscriptionQuery = equal(AndesSubscription.NODE_ID, nodeId);
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return subscriptionRegistry.getSubscriptionsByNode(nodeId);
     }
 
 
     public Iterable<AndesSubscription> getAllLocalSubscriptions(ProtocolType protocolType) {
-        Query<AndesSubscription> subscriptionQuery = and
-                (equal(AndesSubscription
-                        .NODE_ID, localNodeId), equal(AndesSubscription
-                        .PROTOCOL, protocolType));
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return filterByProtocol(subscriptionRegistry.getSubscriptionsByNode(localNodeId), protocolType);
     }
 
     /**
@@ -709,9 +696,7 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      * @return list of AndesSubscription
      */
     public Iterable<AndesSubscription> getAllLocalSubscriptions() {
-        Query<AndesSubscription> subscriptionQuery = (equal(AndesSubscription
-                .NODE_ID, localNodeId));
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return subscriptionRegistry.getSubscriptionsByNode(localNodeId);
     }
 
     /**
@@ -723,21 +708,13 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      */
     public Iterable<AndesSubscription> getAllSubscriptionsByQueue(ProtocolType protocolType, String
             storageQueueName) {
-        Query<AndesSubscription> subscriptionQuery = and
-                (equal(AndesSubscription
-                        .PROTOCOL, protocolType), equal(AndesSubscription
-                        .STORAGE_QUEUE_NAME, storageQueueName));
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return filterByProtocol(subscriptionRegistry.getSubscriptionsByQueue(storageQueueName), protocolType);
     }
 
     public Iterable<AndesSubscription> getAllLocalSubscriptionsByQueue(ProtocolType protocolType, String
             storageQueueName) {
-        Query<AndesSubscription> subscriptionQuery = and
-                (equal(AndesSubscription
-                        .NODE_ID, localNodeId), equal(AndesSubscription
-                        .PROTOCOL, protocolType), equal(AndesSubscription
-                        .STORAGE_QUEUE_NAME, storageQueueName));
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return filterByProtocol(subscriptionRegistry.getSubscriptionsByQueue(storageQueueName, localNodeId),
+                protocolType);
     }
 
     /**
@@ -748,9 +725,8 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
      */
     public boolean isActiveLocalSubscriptionsExistForQueue(String storageQueueName) {
         boolean isActiveSubscriptionExist = false;
-        Query<AndesSubscription> subscriptionQuery = and(equal(AndesSubscription.NODE_ID, localNodeId),
-                                                     equal(AndesSubscription.STORAGE_QUEUE_NAME, storageQueueName));
-        Iterable<AndesSubscription> subscriptions = subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        Iterable<AndesSubscription> subscriptions =
+                subscriptionRegistry.getSubscriptionsByQueue(storageQueueName, localNodeId);
         for (AndesSubscription subscription : subscriptions) {
             if (subscription.isActive()) {
                 isActiveSubscriptionExist = true;
@@ -777,9 +753,7 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
     }
 
     public Iterable<AndesSubscription> getAllSubscriptionsByQueue(String storageQueueName) {
-        Query<AndesSubscription> subscriptionQuery =
-                equal(AndesSubscription.STORAGE_QUEUE_NAME, storageQueueName);
-        return subscriptionRegistry.exucuteQuery(subscriptionQuery);
+        return subscriptionRegistry.getSubscriptionsByQueue(storageQueueName);
     }
 
     public Iterable<AndesSubscription> getAllSubscriptionsByRoutingKey(ProtocolType protocolType, String
@@ -810,6 +784,24 @@ public class AndesSubscriptionManager implements NetworkPartitionListener, Store
         return subscriptionRegistry.exucuteQuery(subscriptionQuery);
     }
 
+    /**
+     * Select subscriptions of the given protocol
+     *
+     * @param subscriptions subscriptions to filter
+     * @param protocolType  protocol of the subscriptions to select
+     * @return Subscriptions of the given protocol
+     */
+    private Iterable<AndesSubscription> filterByProtocol(Collection<AndesSubscription> subscriptions,
+                                                         ProtocolType protocolType) {
+        List<AndesSubscription> filteredSubscriptions = new ArrayList<>(subscriptions.size());
+        for (AndesSubscription subscription : subscriptions) {
+            if (protocolType == subscription.getProtocolType()) {
+                filteredSubscriptions.add(subscription);
+            }
+        }
+        return filteredSubscriptions;
+    }
+
     /**
      * Close all subscriptions belonging to a particular node that is not the current node. This is called when a node
      * of cluster dis-joint from a cluster or get killed. This call closes subscriptions from local registry.
@@ -24,6 +24,7 @@ import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.DeliverableAndesMetadata;
+import org.wso2.andes.kernel.MessageBufferGovernor;
 import org.wso2.andes.kernel.MessageHandler;
 import org.wso2.andes.kernel.SubscriptionAlreadyExistsException;
 import org.wso2.andes.kernel.router.AndesMessageRouter;
@@ -40,7 +41,7 @@ import java.util.List;
  * can only bound to a single storage queue. Given storage queue can bare multiple
  * subscribers (i.e topic scenario)
  */
-public class StorageQueue {
+public class StorageQueue implements MessageBufferGovernor.GovernedQueue {
 
     private static Log log = LogFactory.getLog(StorageQueue.class);
 
@@ -303,7 +304,10 @@ public class StorageQueue {
                 }
             }
         }
-        boundedSubscriptions.add(subscription);
+        // Guarded against a concurrent eviction of the read buffer, which would return messages sent to subscriptions
+        synchronized (this) {
+            boundedSubscriptions.add(subscription);
+        }
         messageHandler.startMessageDelivery(this);
     }
 
@@ -402,6 +406,19 @@ public class StorageQueue {
         return messageHandler.getReadButUndeliveredMessages();
     }
 
+    /**
+     * Get messages for delivery in the order they should be delivered considering their priority. Higher priority
+     * messages come first, but a waiting lower priority message is returned after the given number of higher
+     * priority messages.
+     *
+     * @param starvationLimit number of higher priority messages after which a waiting lower priority message is
+     *                        returned
+     * @return iterator over the messages buffered for delivery. Messages can be removed through the iterator
+     */
+    public Iterator<DeliverableAndesMetadata> getMessagesForDeliveryByPriority(int starvationLimit) {
+        return messageHandler.getReadButUndeliveredMessagesByPriority(starvationLimit);
+    }
+
     //TODO: is there a workaround to remove this call?
 
     /**
@@ -421,7 +438,71 @@ public class StorageQueue {
      * @return true if buffer has space
      */
     public boolean checkForReadMessageBufferLimit() {
-        return messageHandler.messageBufferHasRoom();
+        return messageHandler.messageBufferHasRoom() && MessageBufferGovernor.getInstance().hasRoom(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBufferedBytes() {
+        return messageHandler.getBufferedBytes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLastBufferActivityTime() {
+        return messageHandler.getLastBufferActivityTime();
+    }
+
+    /**
+     * Count subscriptions bound to the queue which are active, not suspended and have room for more messages
+     *
+     * @return number of subscriptions able to take messages now
+     */
+    @Override
+    public int getConsumerDemand() {
+        int consumerDemand = 0;
+        for (AndesSubscription subscription : new ArrayList<>(boundedSubscriptions)) {
+            SubscriberConnection connection = subscription.getSubscriberConnection();
+            if (subscription.isActive() && !connection.isSuspended() && connection.hasRoomToAcceptMessages()) {
+                consumerDemand++;
+            }
+        }
+        return consumerDemand;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInFlightMessageCount() {
+        int inFlightMessageCount = 0;
+        for (AndesSubscription subscription : new ArrayList<>(boundedSubscriptions)) {
+            inFlightMessageCount = inFlightMessageCount
+                    + subscription.getSubscriberConnection().getUnAckedMessages().size();
+        }
+        return inFlightMessageCount;
+    }
+
+    /**
+     * Release the slots of the queue and drop its read but undelivered messages, as done when the last subscriber of
+     * a durable queue leaves. Messages are read again from the store once slots are assigned back to the queue.
+     * Releasing the slots returns every message read from them, hence the buffer is kept if messages were sent
+     * meanwhile. Synchronized with binding subscriptions.
+     *
+     * @return true if the buffer was evicted
+     */
+    @Override
+    public synchronized boolean evictMessageBuffer() {
+        if (getInFlightMessageCount() > 0) {
+            return false;
+        }
+        messageHandler.releaseAllSlots();
+        messageHandler.clearReadButUndeliveredMessages();
+        return true;
     }
 
     /**
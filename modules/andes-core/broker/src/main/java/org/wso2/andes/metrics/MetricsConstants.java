@@ -215,6 +215,105 @@ public class MetricsConstants {
      */
     public static final String REJECT_MESSAGES = PREFIX + "reject.count";
 
+    /*Content compression*/
+
+    /**
+     * Stored content size as a fraction of the original content size, for a destination
+     */
+    public static final String COMPRESSION_RATIO = PREFIX + "compression.ratio";
+
+    /**
+     * Number of content bytes saved by compression, for a destination
+     */
+    public static final String COMPRESSION_BYTES_SAVED = PREFIX + "compression.bytesSaved";
+
+    /*Read but undelivered message buffers*/
+
+    /**
+     * Metadata bytes of read but undelivered messages of all storage queues
+     */
+    public static final String READ_BUFFER_BYTES = PREFIX + "readBuffer.bytes";
+
+    /**
+     * Metadata bytes of read but undelivered messages, for a storage queue
+     */
+    public static final String READ_BUFFER_QUEUE_BYTES = PREFIX + "readBuffer.queue.bytes";
+
+    /**
+     * Read but undelivered message buffers evicted to keep within the global buffer size limit
+     */
+    public static final String READ_BUFFER_EVICTIONS = PREFIX + "readBuffer.evictions";
+
+    /*Cluster notifications*/
+
+    /**
+     * Time from a cluster notification being pushed by a node to it being dispatched by the receiving node
+     */
+    public static final String CLUSTER_NOTIFICATION_PROPAGATION_LATENCY = PREFIX
+            + "cluster.notification.propagationLatency";
+
+    /**
+     * Cluster notifications pushed directly to other nodes
+     */
+    public static final String CLUSTER_NOTIFICATION_PUSHED = PREFIX + "cluster.notification.pushed";
+
+    /**
+     * Cluster notifications stored in the DB since they could not be pushed to a node
+     */
+    public static final String CLUSTER_NOTIFICATION_DB_FALLBACK = PREFIX + "cluster.notification.dbFallback";
+
+    /**
+     * DB queries made to read cluster notifications
+     */
+    public static final String CLUSTER_NOTIFICATION_DB_READ = PREFIX + "cluster.notification.dbRead";
+
+    /*Slot coordination*/
+
+    /**
+     * Slot requests sent to the slot coordinator by this node
+     */
+    public static final String SLOT_COORDINATOR_GET_SLOT = PREFIX + "slot.coordinator.getSlotInfo";
+
+    /**
+     * Slot submissions sent to the slot coordinator by this node
+     */
+    public static final String SLOT_COORDINATOR_UPDATE_MESSAGE_ID = PREFIX + "slot.coordinator.updateMessageId";
+
+    /**
+     * Slot deletions sent to the slot coordinator by this node
+     */
+    public static final String SLOT_COORDINATOR_DELETE_SLOT = PREFIX + "slot.coordinator.deleteSlot";
+
+    /**
+     * Slot reassignments sent to the slot coordinator by this node when a queue has no subscribers
+     */
+    public static final String SLOT_COORDINATOR_REASSIGN_SLOTS = PREFIX
+            + "slot.coordinator.reAssignSlotWhenNoSubscribers";
+
+    /**
+     * Requests to clear slot relations of a queue sent to the slot coordinator by this node
+     */
+    public static final String SLOT_COORDINATOR_CLEAR_SLOT_RELATIONS = PREFIX
+            + "slot.coordinator.clearAllActiveSlotRelationsToQueue";
+
+    /**
+     * Safe zone updates sent to the slot coordinator by this node
+     */
+    public static final String SLOT_COORDINATOR_UPDATE_SAFE_ZONE = PREFIX
+            + "slot.coordinator.updateCurrentMessageIdForSafeZone";
+
+    /*Latency tracing*/
+
+    /**
+     * Latency of a message life cycle stage of sampled messages. The stage name is appended
+     */
+    public static final String LATENCY_TRACE_STAGE = PREFIX + "latency.stage.";
+
+    /**
+     * Latency from a sampled message being received to it being written to a subscriber
+     */
+    public static final String LATENCY_TRACE_TOTAL = PREFIX + "latency.total";
+
     public static final String METRICS_NAME_SEPARATOR = "|";
 
 }
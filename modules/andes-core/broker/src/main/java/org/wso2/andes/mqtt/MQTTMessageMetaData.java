@@ -47,6 +47,8 @@ public class MQTTMessageMetaData implements StorableMessageMetaData {
     private int qosLevel;
     //Value to indicate, if the message is a compressed one or not
     private boolean _isCompressed = false;
+    //Value to indicate, if the message content is compressed chunk by chunk
+    private boolean _isChunkCompressed = false;
 
 
     /**
@@ -60,9 +62,10 @@ public class MQTTMessageMetaData implements StorableMessageMetaData {
      * @param messageLength      the length of the message which was recived
      * @param qos                The level of qos
      * @param isCompressed       Value to indicate, if the message is a compressed one or not
+     * @param isChunkCompressed  Value to indicate, if the message content is compressed chunk by chunk
      */
     public MQTTMessageMetaData(long mid, long messageArrivalTime, boolean topic, String destination, boolean
-            persistance, int messageLength,int qos, boolean isCompressed) {
+            persistance, int messageLength, int qos, boolean isCompressed, boolean isChunkCompressed) {
         this.messageID = mid;
         this.messageArrivalTime = messageArrivalTime;
         this.isTopic = topic;
@@ -71,6 +74,7 @@ public class MQTTMessageMetaData implements StorableMessageMetaData {
         this.messageLength = messageLength;
         this.qosLevel = qos;
         this._isCompressed = isCompressed;
+        this._isChunkCompressed = isChunkCompressed;
     }
 
     @Override
@@ -134,6 +138,10 @@ public class MQTTMessageMetaData implements StorableMessageMetaData {
         return _isCompressed;
     }
 
+    public boolean isChunkCompressed() {
+        return _isChunkCompressed;
+    }
+
     public void setDestination(String destination) {
         this.destination = destination;
     }
@@ -182,13 +190,20 @@ public class MQTTMessageMetaData implements StorableMessageMetaData {
                 isCompressed = Boolean.parseBoolean(decodedValues.get(MQTTUtils.IS_COMPRESSED));
             }
 
+            // Also optional, not set in metadata written before it was introduced
+            boolean isChunkCompressed = false;
+            if (decodedValues.containsKey(MQTTUtils.IS_CHUNK_COMPRESSED)) {
+                isChunkCompressed = Boolean.parseBoolean(decodedValues.get(MQTTUtils.IS_CHUNK_COMPRESSED));
+            }
+
             return new MQTTMessageMetaData(messageID,
                     messageArrivalTime,
                     isTopic,
                     decodedValues.get("Destination"),
                     isPersistant,
                     messageContentLength,qos,
-                    isCompressed
+                    isCompressed,
+                    isChunkCompressed
                     );
         }
     }
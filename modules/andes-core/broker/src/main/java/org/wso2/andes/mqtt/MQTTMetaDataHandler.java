@@ -45,7 +45,8 @@ public class MQTTMetaDataHandler {
         //Will re-encode the bytes
         return MQTTUtils.encodeMetaInfo(MQTTUtils.MQTT_META_INFO, metaInformation.getMessageID(), metaInformation
                         .getMessageArrivalTime(), false, metaInformation.getQosLevel(), routingKey,
-                metaInformation.isPersistent(), metaInformation.getContentSize(), metaInformation.isCompressed());
+                metaInformation.isPersistent(), metaInformation.getContentSize(), metaInformation.isCompressed(),
+                metaInformation.isChunkCompressed());
 
     }
 
@@ -55,17 +56,19 @@ public class MQTTMetaDataHandler {
      * @param buf                       buffer of the original metadata
      * @param originalMetadata          source metadata that needs to be copied
      * @param newCompressedMessageValue Value to indicate if the message is compressed or not
+     * @param newChunkCompressedValue   Value to indicate if the message content is compressed chunk by chunk
      * @return copy of the metadata as a byte array
      */
     public static byte[] constructMetadata(ByteBuffer buf, StorableMessageMetaData originalMetadata,
-                                           boolean newCompressedMessageValue) {
+                                           boolean newCompressedMessageValue, boolean newChunkCompressedValue) {
 
         //For MQTT we just need to take a copy
         MQTTMessageMetaData metaInformation = (MQTTMessageMetaData) originalMetadata;
         //Will re-encode the bytes
         return MQTTUtils.encodeMetaInfo(MQTTUtils.MQTT_META_INFO, metaInformation.getMessageID(), metaInformation
                         .getMessageArrivalTime(), false, metaInformation.getQosLevel(), metaInformation.getDestination(),
-                metaInformation.isPersistent(), metaInformation.getContentSize(), newCompressedMessageValue);
+                metaInformation.isPersistent(), metaInformation.getContentSize(), newCompressedMessageValue,
+                newChunkCompressedValue);
 
     }
 }
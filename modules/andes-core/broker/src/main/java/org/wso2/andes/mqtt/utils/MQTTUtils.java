@@ -53,6 +53,7 @@ public class MQTTUtils {
     private static final String MESSAGE_CONTENT_LENGTH = "MessageContentLength";
     public static final String QOSLEVEL = "QOSLevel";
     public static final String IS_COMPRESSED = "IsCompressed";
+    public static final String IS_CHUNK_COMPRESSED = "IsChunkCompressed";
     //This will be required to be at the initial byte stream the meta data will have since when the message is processed
     //back from andes since the message relevancy is checked ex :- whether its amqp, mqtt etc
     public static final String MQTT_META_INFO = "\u0002MQTT Protocol v3.1";
@@ -96,15 +97,17 @@ public class MQTTUtils {
      * @param persistence   should this message be persisted
      * @param contentLength the length of the message content
      * @param isCompressed  the value to indicate, if the message is compressed or not
+     * @param isChunkCompressed the value to indicate, if the message content is compressed chunk by chunk
      * @return the collective information as a bytes object
      */
     public static byte[] encodeMetaInfo(String metaData, long messageID, long arrivalTime, boolean topic, int qos,
-                                        String destination, boolean persistence, int contentLength, boolean isCompressed) {
+                                        String destination, boolean persistence, int contentLength,
+                                        boolean isCompressed, boolean isChunkCompressed) {
         byte[] metaInformation;
         String information = metaData + "?" + MESSAGE_ID + "=" + messageID + "," + ARRIVAL_TIME + "=" + arrivalTime
                 + "," + TOPIC + "=" + topic + "," + DESTINATION + "=" + destination + "," + PERSISTENCE
                 + "=" + persistence + "," + MESSAGE_CONTENT_LENGTH + "=" + contentLength + "," + QOSLEVEL + "=" + qos
-                + "," + IS_COMPRESSED + "=" + isCompressed;
+                + "," + IS_COMPRESSED + "=" + isCompressed + "," + IS_CHUNK_COMPRESSED + "=" + isChunkCompressed;
         metaInformation = information.getBytes();
         return metaInformation;
     }
@@ -147,7 +150,7 @@ public class MQTTUtils {
 
         byte[] andesMetaData = encodeMetaInfo(MQTT_META_INFO, messageHeader.getMessageID(), receivedTime,
                 messageHeader.isTopic(), qosLevel, messageHeader.getDestination(), messageHeader.isPersistent(),
-                messageContentLength, isCompressed);
+                messageContentLength, isCompressed, false);
 
         messageHeader.setMetadata(andesMetaData);
         return messageHeader;
@@ -22,7 +22,9 @@ import org.wso2.andes.AMQException;
 import org.wso2.andes.AMQInternalException;
 import org.wso2.andes.AMQSecurityException;
 import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.amqp.PublisherConfirmHandler;
 import org.wso2.andes.amqp.QpidAndesBridge;
+import org.wso2.andes.amqp.StreamedContentWriter;
 import org.wso2.andes.configuration.qpid.ConfigStore;
 import org.wso2.andes.configuration.qpid.ConfiguredObject;
 import org.wso2.andes.configuration.qpid.ConnectionConfig;
@@ -175,6 +177,12 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
      */
     private InboundTransactionEvent andesTransactionEvent;
 
+    /**
+     * Sends publisher confirms for messages published on this channel. Not null only if the channel is in
+     * confirm mode
+     */
+    private volatile PublisherConfirmHandler publisherConfirmHandler;
+
     /**
      * This specifies the beginning of a transaction initiated by a select command
      */
@@ -323,6 +331,22 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
         _transaction = new QpidDistributedTransaction(andesChannel, getId());
     }
 
+    /**
+     * Puts this channel into confirm mode. Messages published afterwards are confirmed to the publisher once persisted
+     */
+    public void setConfirmOnPublish() {
+        if (null == publisherConfirmHandler) {
+            publisherConfirmHandler = new PublisherConfirmHandler(this);
+        }
+    }
+
+    /**
+     * Return true if this channel is in confirm mode
+     */
+    public boolean isConfirmOnPublish() {
+        return null != publisherConfirmHandler;
+    }
+
     public boolean isTransactional()
     {
         // this does not look great but there should only be one "non-transactional"
@@ -413,6 +437,11 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
             }
 
             _currentMessage.setContentHeaderBody(contentHeaderBody);
+            // Content of large messages published outside transactions is written to the store as it is received
+            if (!isAttachedToALocalTransaction() && !isAttachedToADistributedTransaction())
+            {
+                _currentMessage.setContentWriter(StreamedContentWriter.createIfStreamed(contentHeaderBody.bodySize));
+            }
             _currentMessage.setPublisherSessionID(_session.getSessionID());
             _currentMessage.setExpiration();
             _currentMessage.setArrivalTime();
@@ -439,6 +468,13 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
         // check and deliver if header says body length is zero
         if (_currentMessage.allContentReceived())
         {
+            // Sequence number is taken for every message published in confirm mode, including the ones dropped below
+            final PublisherConfirmHandler confirmHandler = publisherConfirmHandler;
+            long publishSequenceNumber = 0;
+            if (null != confirmHandler) {
+                publishSequenceNumber = confirmHandler.nextPublishSequenceNumber();
+            }
+
             try
             {
                 //Srinath - we will do this later
@@ -450,6 +486,7 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
                 {
                     _transaction.addPostTransactionAction(new WriteReturnAction(AMQConstant.ACCESS_REFUSED, "Access Refused", _currentMessage));
                     failIfDistributedTransaction("Access Refused for message - " + createAMQMessage(_currentMessage));
+                    confirmPublish(confirmHandler, publishSequenceNumber, true);
                 }
                 else
                 {
@@ -473,6 +510,8 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
                             _logger.warn(
                                     "MESSAGE DISCARDED: No routes for message - " + createAMQMessage(_currentMessage));
                         }
+                        // Unroutable messages are confirmed as there is nothing to persist
+                        confirmPublish(confirmHandler, publishSequenceNumber, true);
 
                     } else {
                         /**
@@ -518,10 +557,11 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
                                             andesChannel.getIdentifier(),
                                             MessageTracer.MESSAGE_RECEIVED_TO_AMQ_CHANNEL);
                                 }
-                                QpidAndesBridge
-                                        .messageReceived(incomingMessage, andesChannel, andesTransactionEvent);
+                                QpidAndesBridge.messageReceived(incomingMessage, andesChannel, andesTransactionEvent,
+                                        confirmHandler, publishSequenceNumber);
 
                             } catch (Throwable e) {
+                                confirmPublish(confirmHandler, publishSequenceNumber, false);
                                 _logger.error("Error processing completed messages, Close the session " + getSessionName(),
                                         e);
                                 // We mark the session as closed due to error
@@ -605,6 +645,20 @@ public class AMQChannel implements SessionConfig, AMQSessionModel
         }
     }
 
+    /**
+     * Confirm a message published in confirm mode which is not handed over to Andes
+     *
+     * @param confirmHandler        confirm handler of the channel, null if the channel is not in confirm mode
+     * @param publishSequenceNumber publish sequence number of the message
+     * @param persisted             false to negatively acknowledge the message
+     */
+    private void confirmPublish(PublisherConfirmHandler confirmHandler, long publishSequenceNumber,
+                                boolean persisted) {
+        if (null != confirmHandler) {
+            confirmHandler.confirm(publishSequenceNumber, persisted);
+        }
+    }
+
     protected void routeCurrentMessage() throws AMQException
     {
         _currentMessage.route();
@@ -31,6 +31,7 @@ import org.wso2.andes.configuration.qpid.management.ConfigurationManagementMBean
 import org.wso2.andes.kernel.Andes;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesKernelBoot;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
 import org.wso2.andes.server.information.management.ServerInformationMBean;
 import org.wso2.andes.server.logging.SystemOutMessageLogger;
 import org.wso2.andes.server.logging.actors.BrokerActor;
@@ -303,6 +304,7 @@ public class Broker
 
             AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE = AndesConfigurationManager.readValue(
                     AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE);
+            AMQPUtils.CHUNK_COMPRESSION_HELPER = new LZ4ChunkCompressionHelper(AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE);
 
         } catch (ConfigurationException ce) {
             throw new AndesException("Unable to create configuration files based application registry", ce);
@@ -178,13 +178,15 @@ public class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
     {
         synchronized (_lock)
         {
+            // Entries are kept in delivery tag order. Stop at the first entry beyond the acknowledged tag so that an
+            // ack for a tag which is no longer in the map does not acknowledge later deliveries
             for (Map.Entry<Long, QueueEntry> entry : _map.entrySet())
             {
-                msgs.put(entry.getKey(),entry.getValue());
-                if (entry.getKey() == key)
+                if (entry.getKey() > key)
                 {
                     break;
                 }
+                msgs.put(entry.getKey(),entry.getValue());
             }
         }
     }
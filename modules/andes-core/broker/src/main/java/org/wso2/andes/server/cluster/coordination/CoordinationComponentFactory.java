@@ -26,6 +26,7 @@ import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastAgent;
 import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastBasedNotificationAgentImpl;
 import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastClusterNotificationListenerImpl;
+import org.wso2.andes.server.cluster.coordination.rdbms.ClusterNotificationPusher;
 import org.wso2.andes.server.cluster.coordination.rdbms.RDBMSBasedNotificationAgentImpl;
 import org.wso2.andes.server.cluster.coordination.rdbms.RDBMSClusterNotificationListenerImpl;
 
@@ -82,7 +83,14 @@ public class CoordinationComponentFactory {
         ClusterNotificationAgent clusterNotificationAgent;
         if (isClusteringEnabled) {
             if (isRDBMSBasedCoordinationEnabled) {
-                clusterNotificationAgent = new RDBMSBasedNotificationAgentImpl(contextStore);
+                ClusterNotificationListenerManager listenerManager =
+                        AndesContext.getInstance().getClusterNotificationListenerManager();
+                ClusterNotificationPusher notificationPusher = null;
+                if (listenerManager instanceof RDBMSClusterNotificationListenerImpl) {
+                    notificationPusher = ((RDBMSClusterNotificationListenerImpl) listenerManager)
+                            .getNotificationPusher();
+                }
+                clusterNotificationAgent = new RDBMSBasedNotificationAgentImpl(contextStore, notificationPusher);
             } else {
                 HazelcastClusterNotificationListenerImpl hazelcastBasedListener =
                         (HazelcastClusterNotificationListenerImpl) AndesContext.getInstance().
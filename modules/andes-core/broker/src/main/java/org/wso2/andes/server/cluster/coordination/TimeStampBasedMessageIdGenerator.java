@@ -73,4 +73,15 @@ public class TimeStampBasedMessageIdGenerator implements MessageIdGenerator {
         lastID = id;
         return id;
     }
+
+    /**
+     * Get the lowest message ID that can be generated at the given time. All IDs below it were generated before
+     * the given time by any node.
+     *
+     * @param timestamp time in milliseconds
+     * @return lowest message ID of the given time
+     */
+    public static long getFirstIdOfTime(long timestamp) {
+        return (timestamp - REFERENCE_START) * 256 * 1024;
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import org.wso2.andes.server.cluster.coordination.ClusterNotification;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format used to push cluster notifications between nodes. A connection starts with a handshake where the
+ * sender sends the magic number and its node id, and the receiver replies with the magic number once it has
+ * dispatched the notifications stored for it in the DB. After that the sender sends batches, each made of the
+ * notification count, the time the batch was sent and the notifications, and the receiver acknowledges each batch
+ * with its notification count once the batch is dispatched.
+ */
+final class ClusterNotificationProtocol {
+
+    /**
+     * Magic number exchanged in the handshake
+     */
+    static final int MAGIC = 0x414e4350;
+
+    /**
+     * Upper bound of a string length read from the wire, to fail fast on a corrupted stream
+     */
+    private static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * Upper bound of the node id length read in a handshake, which is read before the sender is known to be a member
+     * of the cluster
+     */
+    static final int MAX_NODE_ID_LENGTH = 1024;
+
+    private ClusterNotificationProtocol() {
+    }
+
+    static void writeHandshake(DataOutputStream outputStream, String nodeId) throws IOException {
+        outputStream.writeInt(MAGIC);
+        writeString(outputStream, nodeId);
+        outputStream.flush();
+    }
+
+    /**
+     * Read a handshake sent by a node
+     *
+     * @param inputStream stream to read from
+     * @return Node id of the sending node
+     * @throws IOException if the stream is not a cluster notification stream or the node id is too long
+     */
+    static String readHandshake(DataInputStream inputStream) throws IOException {
+        int magic = inputStream.readInt();
+        if (MAGIC != magic) {
+            throw new IOException("Invalid cluster notification handshake " + Integer.toHexString(magic));
+        }
+        return readString(inputStream, MAX_NODE_ID_LENGTH);
+    }
+
+    static void writeBatch(DataOutputStream outputStream, List<ClusterNotification> notifications)
+            throws IOException {
+        outputStream.writeInt(notifications.size());
+        outputStream.writeLong(System.currentTimeMillis());
+        for (ClusterNotification notification : notifications) {
+            writeString(outputStream, notification.getEncodedObjectAsString());
+            writeString(outputStream, notification.getNotifiedArtifact());
+            writeString(outputStream, notification.getChangeType());
+            writeString(outputStream, notification.getDescription());
+            writeString(outputStream, notification.getOriginatedNode());
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Read a batch of notifications
+     *
+     * @param inputStream stream to read from
+     * @return Batch read
+     * @throws IOException on a read failure
+     */
+    static Batch readBatch(DataInputStream inputStream) throws IOException {
+        int count = inputStream.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid cluster notification batch size " + count);
+        }
+        long sentTime = inputStream.readLong();
+        List<ClusterNotification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String encodedObject = readString(inputStream);
+            String notifiedArtifact = readString(inputStream);
+            String changeType = readString(inputStream);
+            String description = readString(inputStream);
+            String originatedNode = readString(inputStream);
+            notifications.add(new ClusterNotification(encodedObject, notifiedArtifact, changeType, description,
+                    originatedNode));
+        }
+        return new Batch(sentTime, notifications);
+    }
+
+    /**
+     * Parse the node id and push server address of a node from a cluster node address of the form
+     * "nodeId,host,port,isCoordinator" as returned by
+     * {@link org.wso2.andes.server.cluster.ClusterAgent#getAllClusterNodeAddresses()}
+     *
+     * @param nodeAddress cluster node address
+     * @param portOffset  offset added to the cluster agent port to get the push server port
+     * @return Node id and push server address, or null if the address cannot be parsed
+     */
+    static NodeAddress parseNodeAddress(String nodeAddress, int portOffset) {
+        // The node id is user defined and may contain commas, hence parsed from the end
+        int coordinatorIndex = nodeAddress.lastIndexOf(',');
+        int portIndex = (coordinatorIndex > 0) ? nodeAddress.lastIndexOf(',', coordinatorIndex - 1) : -1;
+        int hostIndex = (portIndex > 0) ? nodeAddress.lastIndexOf(',', portIndex - 1) : -1;
+
+        if (hostIndex <= 0) {
+            return null;
+        }
+
+        try {
+            int port = Integer.parseInt(nodeAddress.substring(portIndex + 1, coordinatorIndex));
+            String host = nodeAddress.substring(hostIndex + 1, portIndex);
+            return new NodeAddress(nodeAddress.substring(0, hostIndex),
+                    InetSocketAddress.createUnresolved(host, port + portOffset));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream outputStream, String value) throws IOException {
+        if (null == value) {
+            outputStream.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(bytes.length);
+            outputStream.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException {
+        return readString(inputStream, MAX_STRING_LENGTH);
+    }
+
+    private static String readString(DataInputStream inputStream, int maxLength) throws IOException {
+        int length = inputStream.readInt();
+        if (-1 == length) {
+            return null;
+        } else if (length < 0 || length > maxLength) {
+            throw new IOException("Invalid cluster notification string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Notifications received in a single batch
+     */
+    static class Batch {
+
+        private final long sentTime;
+
+        private final List<ClusterNotification> notifications;
+
+        Batch(long sentTime, List<ClusterNotification> notifications) {
+            this.sentTime = sentTime;
+            this.notifications = notifications;
+        }
+
+        /**
+         * @return Time the batch was sent, in milliseconds as seen by the sending node
+         */
+        long getSentTime() {
+            return sentTime;
+        }
+
+        List<ClusterNotification> getNotifications() {
+            return notifications;
+        }
+    }
+
+    /**
+     * Node id and push server address of a cluster node
+     */
+    static class NodeAddress {
+
+        private final String nodeId;
+
+        private final InetSocketAddress address;
+
+        NodeAddress(String nodeId, InetSocketAddress address) {
+            this.nodeId = nodeId;
+            this.address = address;
+        }
+
+        String getNodeId() {
+            return nodeId;
+        }
+
+        InetSocketAddress getAddress() {
+            return address;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Accepts cluster notifications pushed by the {@link ClusterNotificationPusher} of other nodes and hands them to
+ * the {@link RDBMSClusterNotificationListenerImpl} for dispatching. Each connected node is served by its own thread.
+ * Connections are only accepted from current cluster members, identified by the node id sent in the handshake and
+ * the host of their cluster agent address.
+ */
+class ClusterNotificationPushServer {
+
+    private static final Logger log = Logger.getLogger(ClusterNotificationPushServer.class);
+
+    private final RDBMSClusterNotificationListenerImpl listener;
+
+    private final InetSocketAddress bindAddress;
+
+    /**
+     * Time in milliseconds a connecting node is given to complete the handshake
+     */
+    private final int handshakeTimeout;
+
+    private final Set<Socket> connections = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+    private ServerSocket serverSocket;
+
+    private ExecutorService executorService;
+
+    private volatile boolean running;
+
+    /**
+     * Create a push server
+     *
+     * @param listener         listener to hand received notifications to
+     * @param bindAddress      address to accept connections on
+     * @param handshakeTimeout time in milliseconds a connecting node is given to complete the handshake
+     */
+    ClusterNotificationPushServer(RDBMSClusterNotificationListenerImpl listener, InetSocketAddress bindAddress,
+                                  int handshakeTimeout) {
+        this.listener = listener;
+        this.bindAddress = bindAddress;
+        this.handshakeTimeout = handshakeTimeout;
+    }
+
+    /**
+     * Bind the server socket and start accepting connections
+     *
+     * @throws AndesException if the server socket cannot be bound
+     */
+    synchronized void start() throws AndesException {
+        if (running) {
+            return;
+        }
+
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(bindAddress);
+        } catch (IOException e) {
+            throw new AndesException("Could not start cluster notification push server on " + bindAddress, e);
+        }
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ClusterNotificationPushServer-%d")
+                .setDaemon(true).build();
+        executorService = Executors.newCachedThreadPool(threadFactory);
+        running = true;
+        executorService.submit(new Acceptor());
+        log.info("Cluster notification push server started on " + bindAddress);
+    }
+
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        closeQuietly(serverSocket);
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        executorService.shutdownNow();
+        log.info("Cluster notification push server stopped.");
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Error while closing cluster notification push server socket", e);
+        }
+    }
+
+    /**
+     * Check whether a node is a current member of the cluster whose cluster agent host resolves to the given address
+     *
+     * @param nodeId        node id sent in the handshake
+     * @param remoteAddress address the connection came from
+     * @return True if the connection is from a cluster member
+     * @throws AndesException if the member list cannot be read
+     */
+    private boolean isClusterMember(String nodeId, InetAddress remoteAddress) throws AndesException {
+        for (String nodeAddress : AndesContext.getInstance().getClusterAgent().getAllClusterNodeAddresses()) {
+            ClusterNotificationProtocol.NodeAddress address =
+                    ClusterNotificationProtocol.parseNodeAddress(nodeAddress, 0);
+
+            if (null != address && address.getNodeId().equals(nodeId)) {
+                try {
+                    InetAddress[] memberAddresses = InetAddress.getAllByName(address.getAddress().getHostString());
+                    return Arrays.asList(memberAddresses).contains(remoteAddress);
+                } catch (UnknownHostException e) {
+                    log.warn("Could not resolve cluster agent host of node " + nodeId, e);
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Accepts connections from other nodes
+     */
+    private class Acceptor implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.add(socket);
+                    executorService.submit(new ConnectionHandler(socket));
+                } catch (IOException e) {
+                    if (running) {
+                        log.warn("Error while accepting cluster notification push connection", e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads and dispatches notification batches pushed by a single node
+     */
+    private class ConnectionHandler implements Runnable {
+
+        private final Socket socket;
+
+        ConnectionHandler(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            String nodeId = String.valueOf(socket.getRemoteSocketAddress());
+            try {
+                DataInputStream inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream outputStream =
+                        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+                // Until the node is known to be a member, it may neither hold the connection open nor send a large
+                // node id
+                socket.setSoTimeout(handshakeTimeout);
+                nodeId = ClusterNotificationProtocol.readHandshake(inputStream);
+                if (!isClusterMember(nodeId, socket.getInetAddress())) {
+                    log.warn("Rejected cluster notification push connection from " + socket.getRemoteSocketAddress()
+                            + " claiming to be node " + nodeId + ", which is not a member of the cluster at that "
+                            + "address");
+                    return;
+                }
+                // Members may stay idle between batches
+                socket.setSoTimeout(0);
+                listener.dispatchStoredNotifications();
+                outputStream.writeInt(ClusterNotificationProtocol.MAGIC);
+                outputStream.flush();
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Node " + nodeId + " connected to cluster notification push server");
+                }
+
+                while (running) {
+                    ClusterNotificationProtocol.Batch batch = ClusterNotificationProtocol.readBatch(inputStream);
+                    listener.dispatchPushedNotifications(batch);
+                    outputStream.writeInt(batch.getNotifications().size());
+                    outputStream.flush();
+                }
+            } catch (EOFException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Node " + nodeId + " closed cluster notification push connection");
+                }
+            } catch (IOException | AndesException e) {
+                if (running) {
+                    log.warn("Cluster notification push connection from node " + nodeId + " failed. "
+                            + "Node will fall back to the DB until it reconnects.", e);
+                }
+            } finally {
+                connections.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+}
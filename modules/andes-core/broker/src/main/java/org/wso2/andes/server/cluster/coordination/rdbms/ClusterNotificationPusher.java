@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesContextStore;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.server.cluster.coordination.ClusterNotification;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.Meter;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes cluster notifications directly to the push servers of the other nodes. Each node has its own queue and
+ * sender thread, so that a slow or unreachable node does not delay the others. Notifications queued for a node are
+ * sent in batches. If a node cannot be reached, or does not acknowledge a batch in time, the notifications are stored
+ * in the DB for that node only and the node reads them on its next DB poll or when the connection is re-established.
+ * Notifications for a member no sender has been started for yet are stored in the DB as well.
+ * Delivery is at least once, since a batch whose acknowledgement is lost is stored in the DB as well.
+ */
+public class ClusterNotificationPusher {
+
+    private static final Logger log = Logger.getLogger(ClusterNotificationPusher.class);
+
+    private final AndesContextStore contextStore;
+
+    private final String localNodeID;
+
+    private final int portOffset;
+
+    private final int batchSize;
+
+    private final int timeout;
+
+    private final int reconnectInterval;
+
+    private final int memberRefreshInterval;
+
+    /**
+     * Notification senders w:r:t node id
+     */
+    private final Map<String, NodeSender> nodeSenders = new ConcurrentHashMap<>();
+
+    private final ExecutorService senderExecutor;
+
+    /**
+     * Time in milliseconds the member list was last refreshed
+     */
+    private long lastMemberRefreshTime;
+
+    private volatile boolean running = true;
+
+    private final Meter pushedMeter;
+
+    private final Meter dbFallbackMeter;
+
+    /**
+     * Create a cluster notification pusher
+     *
+     * @param contextStore          store to write notifications that could not be pushed to
+     * @param localNodeID           node id of this node
+     * @param portOffset            offset of push server ports from cluster agent ports
+     * @param batchSize             maximum number of notifications pushed in a batch
+     * @param timeout               connect and acknowledgement timeout in milliseconds
+     * @param reconnectInterval     time in milliseconds to wait before reconnecting to a node after a failure
+     * @param memberRefreshInterval time in milliseconds after which the member list is refreshed
+     */
+    public ClusterNotificationPusher(AndesContextStore contextStore, String localNodeID, int portOffset,
+                                     int batchSize, int timeout, int reconnectInterval, int memberRefreshInterval) {
+        this.contextStore = contextStore;
+        this.localNodeID = localNodeID;
+        this.portOffset = portOffset;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.reconnectInterval = reconnectInterval;
+        this.memberRefreshInterval = memberRefreshInterval;
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ClusterNotificationPusher-%d")
+                .setDaemon(true).build();
+        senderExecutor = Executors.newCachedThreadPool(threadFactory);
+
+        pushedMeter = MetricManager.meter(MetricsConstants.CLUSTER_NOTIFICATION_PUSHED, Level.INFO);
+        dbFallbackMeter = MetricManager.meter(MetricsConstants.CLUSTER_NOTIFICATION_DB_FALLBACK, Level.INFO);
+    }
+
+    /**
+     * Queue a notification to be pushed to all other nodes of the cluster. The member list is read for every
+     * notification, so that a node which joined after the last refresh of the senders gets the notification stored
+     * in the DB until a sender is started for it.
+     *
+     * @param notification notification to push
+     * @throws AndesException if the member list cannot be read or the notification cannot be stored in the DB
+     */
+    public void publish(ClusterNotification notification) throws AndesException {
+        Set<String> nodeIds = new HashSet<>(AndesContext.getInstance().getClusterAgent().getAllNodeIdentifiers());
+        nodeIds.remove(localNodeID);
+
+        try {
+            refreshMembers(!nodeIds.equals(nodeSenders.keySet()));
+        } catch (AndesException e) {
+            log.warn("Could not refresh cluster members. Storing notification in the DB for nodes without a "
+                    + "notification sender.", e);
+        }
+
+        List<String> nodesWithoutSender = new ArrayList<>();
+        for (String nodeId : nodeIds) {
+            NodeSender sender = nodeSenders.get(nodeId);
+            if (null == sender) {
+                nodesWithoutSender.add(nodeId);
+            } else {
+                sender.enqueue(notification);
+            }
+        }
+        storeInDB(nodesWithoutSender, Collections.singletonList(notification));
+    }
+
+    /**
+     * Stop all node senders. Notifications that are still queued are stored in the DB.
+     */
+    public void stop() {
+        running = false;
+        for (NodeSender sender : nodeSenders.values()) {
+            sender.stop();
+        }
+        senderExecutor.shutdown();
+        try {
+            if (!senderExecutor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                log.warn("Cluster notification pushers did not stop within " + timeout + "ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start senders for new nodes and stop senders of nodes that left the cluster, if the member list is older than
+     * the member refresh interval or the refresh is forced
+     *
+     * @param force true to refresh regardless of the member refresh interval
+     */
+    private synchronized void refreshMembers(boolean force) throws AndesException {
+        long currentTime = System.currentTimeMillis();
+        if (!force && currentTime - lastMemberRefreshTime < memberRefreshInterval) {
+            return;
+        }
+
+        Set<String> activeNodes = new HashSet<>();
+        for (String nodeAddress : AndesContext.getInstance().getClusterAgent().getAllClusterNodeAddresses()) {
+            ClusterNotificationProtocol.NodeAddress address =
+                    ClusterNotificationProtocol.parseNodeAddress(nodeAddress, portOffset);
+
+            if (null == address) {
+                log.warn("Could not parse cluster node address " + nodeAddress);
+            } else if (!localNodeID.equals(address.getNodeId())) {
+                activeNodes.add(address.getNodeId());
+                NodeSender sender = nodeSenders.get(address.getNodeId());
+
+                if (null == sender || !sender.address.equals(address.getAddress())) {
+                    if (null != sender) {
+                        sender.stop();
+                    }
+                    sender = new NodeSender(address.getNodeId(), address.getAddress());
+                    nodeSenders.put(address.getNodeId(), sender);
+                    senderExecutor.submit(sender);
+                }
+            }
+        }
+
+        Iterator<Map.Entry<String, NodeSender>> iterator = nodeSenders.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, NodeSender> entry = iterator.next();
+            if (!activeNodes.contains(entry.getKey())) {
+                entry.getValue().stop();
+                iterator.remove();
+            }
+        }
+        lastMemberRefreshTime = currentTime;
+    }
+
+    private void storeInDB(List<String> nodeIds, List<ClusterNotification> notifications) throws AndesException {
+        if (nodeIds.isEmpty()) {
+            return;
+        }
+        for (ClusterNotification notification : notifications) {
+            contextStore.storeClusterNotification(nodeIds, localNodeID, notification.getNotifiedArtifact(),
+                    notification.getChangeType(), notification.getEncodedObjectAsString(),
+                    notification.getDescription());
+        }
+        dbFallbackMeter.mark(notifications.size());
+    }
+
+    /**
+     * Sends the notifications queued for a single node
+     */
+    private class NodeSender implements Runnable {
+
+        private final String nodeId;
+
+        private final InetSocketAddress address;
+
+        private final BlockingQueue<ClusterNotification> queue = new LinkedBlockingQueue<>();
+
+        private volatile boolean active = true;
+
+        private Socket socket;
+
+        private DataInputStream inputStream;
+
+        private DataOutputStream outputStream;
+
+        /**
+         * Time in milliseconds before which a reconnect is not attempted
+         */
+        private long nextConnectTime;
+
+        NodeSender(String nodeId, InetSocketAddress address) {
+            this.nodeId = nodeId;
+            this.address = address;
+        }
+
+        void enqueue(ClusterNotification notification) {
+            queue.add(notification);
+        }
+
+        void stop() {
+            active = false;
+        }
+
+        @Override
+        public void run() {
+            List<ClusterNotification> batch = new ArrayList<>(batchSize);
+            try {
+                while (active && running) {
+                    ClusterNotification notification = queue.poll(timeout, TimeUnit.MILLISECONDS);
+                    if (null != notification) {
+                        batch.add(notification);
+                        queue.drainTo(batch, batchSize - 1);
+                        send(batch);
+                        batch.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeConnection();
+                queue.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    storeBatchInDB(batch);
+                }
+            }
+        }
+
+        /**
+         * Push a batch to the node, or store it in the DB for the node if it cannot be pushed
+         */
+        private void send(List<ClusterNotification> batch) {
+            if (connect()) {
+                try {
+                    ClusterNotificationProtocol.writeBatch(outputStream, batch);
+                    int acknowledged = inputStream.readInt();
+                    if (acknowledged != batch.size()) {
+                        throw new IOException("Node acknowledged " + acknowledged + " notifications of "
+                                + batch.size());
+                    }
+                    pushedMeter.mark(batch.size());
+                    return;
+                } catch (IOException e) {
+                    log.warn("Could not push cluster notifications to node " + nodeId + " at " + address
+                            + ". Storing them in the DB.", e);
+                    closeConnection();
+                    nextConnectTime = System.currentTimeMillis() + reconnectInterval;
+                }
+            }
+            storeBatchInDB(batch);
+        }
+
+        private void storeBatchInDB(List<ClusterNotification> batch) {
+            try {
+                storeInDB(Collections.singletonList(nodeId), batch);
+            } catch (AndesException e) {
+                log.error("Could not store " + batch.size() + " cluster notifications for node " + nodeId
+                        + " in the DB. The node will not be notified of these changes.", e);
+            }
+        }
+
+        /**
+         * Connect to the push server of the node, unless connected already or a reconnect is not yet due. The node
+         * dispatches notifications stored for it in the DB before completing the handshake, so that pushed
+         * notifications are not handled before older ones stored in the DB.
+         *
+         * @return True if connected
+         */
+        private boolean connect() {
+            if (null != socket) {
+                return true;
+            } else if (System.currentTimeMillis() < nextConnectTime) {
+                return false;
+            }
+
+            try {
+                socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(timeout);
+                socket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), timeout);
+                inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+                ClusterNotificationProtocol.writeHandshake(outputStream, localNodeID);
+                if (ClusterNotificationProtocol.MAGIC != inputStream.readInt()) {
+                    throw new IOException("Invalid cluster notification handshake reply");
+                }
+                log.info("Connected to cluster notification push server of node " + nodeId + " at " + address);
+                return true;
+            } catch (IOException e) {
+                log.warn("Could not connect to cluster notification push server of node " + nodeId + " at "
+                        + address + ". Notifications will be stored in the DB. " + e.getMessage());
+                closeConnection();
+                nextConnectTime = System.currentTimeMillis() + reconnectInterval;
+                return false;
+            }
+        }
+
+        private void closeConnection() {
+            if (null != socket) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    log.debug("Error while closing connection to node " + nodeId, e);
+                }
+            }
+            socket = null;
+            inputStream = null;
+            outputStream = null;
+        }
+    }
+}
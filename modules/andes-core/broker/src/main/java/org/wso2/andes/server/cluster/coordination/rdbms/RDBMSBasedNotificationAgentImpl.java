@@ -33,7 +33,8 @@ import java.util.List;
 
 /**
  * This class represents a ClusterNotificationAgent implementation which uses
- * Underlying Database for notifying changes to the other nodes.
+ * Underlying Database for notifying changes to the other nodes. If a {@link ClusterNotificationPusher} is given,
+ * notifications are pushed directly to the other nodes and the DB is only used for nodes that cannot be reached.
  */
 public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent {
 
@@ -53,13 +54,30 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
      */
     private String localNodeID;
 
+    /**
+     * Pusher used to push notifications to the other nodes. Null if push notifications are disabled.
+     */
+    private ClusterNotificationPusher notificationPusher;
+
     /**
      * Create a RDBMS based ClusterNotificationAgent
      *
      * @param contextStore store for storing the notification
      */
     public RDBMSBasedNotificationAgentImpl(AndesContextStore contextStore) {
+        this(contextStore, null);
+    }
+
+    /**
+     * Create a RDBMS based ClusterNotificationAgent which pushes notifications to the other nodes
+     *
+     * @param contextStore       store for storing the notification
+     * @param notificationPusher pusher used to push notifications, or null to only use the store
+     */
+    public RDBMSBasedNotificationAgentImpl(AndesContextStore contextStore,
+                                           ClusterNotificationPusher notificationPusher) {
         this.contextStore = contextStore;
+        this.notificationPusher = notificationPusher;
         this.localNodeID = ClusterResourceHolder.getInstance().getClusterManager().getMyNodeID();
     }
 
@@ -80,7 +98,7 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
             log.debug("Sending router change GOSSIP: " + changeType + " - "
                     + clusterNotification.getEncodedObjectAsString());
         }
-        publishNotificationToDB(clusterNotification);
+        publishNotification(clusterNotification);
     }
 
     /**
@@ -100,7 +118,7 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
             log.debug("Sending queue change GOSSIP: " + changeType + " - "
                     + clusterNotification.getEncodedObjectAsString());
         }
-        publishNotificationToDB(clusterNotification);
+        publishNotification(clusterNotification);
     }
 
     /**
@@ -120,7 +138,7 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
             log.debug("Sending binding change GOSSIP: " + changeType + " - "
                     + clusterNotification.getEncodedObjectAsString());
         }
-        publishNotificationToDB(clusterNotification);
+        publishNotification(clusterNotification);
     }
 
     /**
@@ -140,7 +158,7 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
             log.debug("Sending subscription change GOSSIP: " + changeType + " - "
                     + clusterNotification.getEncodedObjectAsString());
         }
-        publishNotificationToDB(clusterNotification);
+        publishNotification(clusterNotification);
     }
 
     /**
@@ -150,7 +168,21 @@ public class RDBMSBasedNotificationAgentImpl implements ClusterNotificationAgent
     public void notifyAnyDBChange() throws AndesException {
         ClusterNotification clusterNotification = new ClusterNotification("", ClusterNotificationListener
                 .NotifiedArtifact.DBUpdate.toString(), "", "DBSyncEvent", localNodeID);
-        publishNotificationToDB(clusterNotification);
+        publishNotification(clusterNotification);
+    }
+
+    /**
+     * Push the notification to the other nodes if push notifications are enabled, or store it in the DB otherwise
+     *
+     * @param event notification to publish
+     * @throws AndesException
+     */
+    private void publishNotification(ClusterNotification event) throws AndesException {
+        if (null != notificationPusher) {
+            notificationPusher.publish(event);
+        } else {
+            publishNotificationToDB(event);
+        }
     }
 
     /**
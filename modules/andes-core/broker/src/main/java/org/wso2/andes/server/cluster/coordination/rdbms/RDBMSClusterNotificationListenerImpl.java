@@ -26,6 +26,7 @@ import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.ClusterNotificationListener;
 import org.wso2.andes.kernel.disruptor.inbound.InboundEventManager;
 import org.wso2.andes.kernel.subscription.AndesSubscriptionManager;
+import org.wso2.andes.metrics.MetricsConstants;
 import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.server.cluster.coordination.BindingNotificationHandler;
 import org.wso2.andes.server.cluster.coordination.ClusterNotification;
@@ -34,7 +35,12 @@ import org.wso2.andes.server.cluster.coordination.DBSyncNotificationHandler;
 import org.wso2.andes.server.cluster.coordination.ExchangeNotificationHandler;
 import org.wso2.andes.server.cluster.coordination.QueueNotificationHandler;
 import org.wso2.andes.server.cluster.coordination.SubscriptionNotificationHandler;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.Meter;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer;
 
+import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,7 +52,9 @@ import java.util.concurrent.TimeUnit;
 /**
  * This is the ClusterNotificationListenerManager implementation for RDBMS. It periodically polls
  * events from DB and trigger necessary handlers. Changes related to Message routers, queues, bindings
- * and subscriptions are listened and handled.
+ * and subscriptions are listened and handled. If push notifications are enabled, notifications are also received
+ * directly from the other nodes through a {@link ClusterNotificationPushServer} and the DB is only polled for
+ * notifications that could not be pushed.
  */
 public class RDBMSClusterNotificationListenerImpl implements ClusterNotificationListenerManager {
 
@@ -76,6 +84,26 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
      */
     private String nodeID;
 
+    /**
+     * Pushes notifications of this node to the other nodes. Null if push notifications are disabled.
+     */
+    private ClusterNotificationPusher notificationPusher;
+
+    /**
+     * Receives notifications pushed by the other nodes
+     */
+    private ClusterNotificationPushServer pushServer;
+
+    /**
+     * Rate of DB queries made to read notifications
+     */
+    private Meter dbReadMeter;
+
+    /**
+     * Time taken for pushed notifications to reach this node
+     */
+    private Timer propagationLatencyTimer;
+
 
     /**
      * Create a RDBMS based cluster notification listener. This listens for events published to DB.
@@ -87,6 +115,32 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
         this.andesContextStore = contextStore;
         this.nodeID = ClusterResourceHolder.getInstance().getClusterManager().getMyNodeID();
         clusterNotificationListeners = new HashMap<>(5);
+        dbReadMeter = MetricManager.meter(MetricsConstants.CLUSTER_NOTIFICATION_DB_READ, Level.INFO);
+
+        boolean isPushEnabled = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_ENABLED);
+        if (isPushEnabled) {
+            Integer portOffset = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_PORT_OFFSET);
+            Integer batchSize = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_BATCH_SIZE);
+            Integer timeout = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_TIMEOUT);
+            Integer reconnectInterval = AndesConfigurationManager.readValue(
+                    AndesConfiguration.CLUSTER_EVENT_PUSH_RECONNECT_INTERVAL);
+            Integer memberRefreshInterval = AndesConfigurationManager.readValue(
+                    AndesConfiguration.CLUSTER_EVENT_PUSH_MEMBER_REFRESH_INTERVAL);
+
+            notificationPusher = new ClusterNotificationPusher(contextStore, nodeID, portOffset, batchSize, timeout,
+                    reconnectInterval, memberRefreshInterval);
+            propagationLatencyTimer = MetricManager.timer(MetricsConstants.CLUSTER_NOTIFICATION_PROPAGATION_LATENCY,
+                    Level.INFO);
+        }
+    }
+
+    /**
+     * Get the pusher used to push notifications of this node to the other nodes
+     *
+     * @return Notification pusher, or null if push notifications are disabled
+     */
+    public ClusterNotificationPusher getNotificationPusher() {
+        return notificationPusher;
     }
 
     /**
@@ -122,6 +176,43 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
         }
     }
 
+    /**
+     * Read all the unread cluster events from the store and dispatch them. This is synchronized with dispatching
+     * pushed notifications so that notifications are handled one at a time.
+     *
+     * @throws AndesException if notifications cannot be read from the store
+     */
+    synchronized void dispatchStoredNotifications() throws AndesException {
+        List<ClusterNotification> clusterEvents = andesContextStore.readClusterNotifications(nodeID);
+        dbReadMeter.mark();
+        if (log.isDebugEnabled()) {
+            log.debug("Cluster event reader received " + clusterEvents.size() + " events.");
+        }
+        if (!clusterEvents.isEmpty()) {
+            for (ClusterNotification event : clusterEvents) {
+                dispatchClusterNotification(event);
+            }
+        }
+    }
+
+    /**
+     * Dispatch a batch of notifications pushed by another node
+     *
+     * @param batch notifications received
+     */
+    synchronized void dispatchPushedNotifications(ClusterNotificationProtocol.Batch batch) {
+        propagationLatencyTimer.update(Math.max(0, System.currentTimeMillis() - batch.getSentTime()),
+                TimeUnit.MILLISECONDS);
+        for (ClusterNotification notification : batch.getNotifications()) {
+            try {
+                dispatchClusterNotification(notification);
+            } catch (RuntimeException e) {
+                log.error("Could not handle pushed cluster notification " + notification.getEncodedObjectAsString(),
+                        e);
+            }
+        }
+    }
+
     /**
      * Task for reading all the unread cluster event from the store and dispatch to correct cluster notification
      * handlers
@@ -131,15 +222,7 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
         @Override
         public void run() {
             try {
-                List<ClusterNotification> clusterEvents = andesContextStore.readClusterNotifications(nodeID);
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster event reader received " + clusterEvents.size() + " events.");
-                }
-                if (!clusterEvents.isEmpty()) {
-                    for (ClusterNotification event : clusterEvents) {
-                        dispatchClusterNotification(event);
-                    }
-                }
+                dispatchStoredNotifications();
             } catch (Throwable e) {
                 log.warn("Could not read cluster events. Events will not be reflected in the node until next attempt" +
                         ".", e);
@@ -176,12 +259,59 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ClusterEventReaderTask-%d").build();
         int clusterEventReaderInterval = AndesConfigurationManager.readValue(AndesConfiguration
                 .CLUSTER_EVENT_SYNC_INTERVAL);
+
+        // Notifications pushed by other nodes only fall back to the DB when this node cannot be reached, hence the
+        // DB is polled less frequently
+        if (null != notificationPusher && startPushServer()) {
+            clusterEventReaderInterval = AndesConfigurationManager.readValue(AndesConfiguration
+                    .CLUSTER_EVENT_PUSH_FALLBACK_SYNC_INTERVAL);
+        }
         scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
         scheduledExecutorService.scheduleWithFixedDelay(new ClusterEventReaderTask(),
                 clusterEventReaderInterval, clusterEventReaderInterval, TimeUnit.MILLISECONDS);
         log.info("RDBMS cluster event listener started with an interval of: " + clusterEventReaderInterval + "ms.");
     }
 
+    /**
+     * Start the push server on the cluster agent host of this node, at the cluster agent port plus the configured
+     * port offset.
+     *
+     * @return True if the push server is running
+     */
+    private boolean startPushServer() {
+        try {
+            if (null == pushServer) {
+                Integer portOffset = AndesConfigurationManager.readValue(
+                        AndesConfiguration.CLUSTER_EVENT_PUSH_PORT_OFFSET);
+                InetSocketAddress localAddress = null;
+
+                for (String nodeAddress : AndesContext.getInstance().getClusterAgent().getAllClusterNodeAddresses()) {
+                    ClusterNotificationProtocol.NodeAddress address =
+                            ClusterNotificationProtocol.parseNodeAddress(nodeAddress, portOffset);
+                    if (null != address && nodeID.equals(address.getNodeId())) {
+                        localAddress = new InetSocketAddress(address.getAddress().getHostString(),
+                                address.getAddress().getPort());
+                    }
+                }
+
+                if (null == localAddress) {
+                    log.warn("Could not find the cluster agent address of node " + nodeID + ". Cluster "
+                            + "notifications will be received through the DB only.");
+                    return false;
+                }
+                Integer handshakeTimeout = AndesConfigurationManager.readValue(
+                        AndesConfiguration.CLUSTER_EVENT_PUSH_TIMEOUT);
+                pushServer = new ClusterNotificationPushServer(this, localAddress, handshakeTimeout);
+            }
+            pushServer.start();
+            return true;
+        } catch (AndesException e) {
+            log.warn("Could not start cluster notification push server. Cluster notifications will be received "
+                    + "through the DB only.", e);
+            return false;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -200,6 +330,12 @@ public class RDBMSClusterNotificationListenerImpl implements ClusterNotification
     @Override
     public void stopListener() throws AndesException {
         scheduledExecutorService.shutdown();
+        if (null != pushServer) {
+            pushServer.stop();
+        }
+        if (null != notificationPusher) {
+            notificationPusher.stop();
+        }
         log.info("RDBMS cluster event listener stopped.");
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.embedded;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the state of the queues of an embedded broker and the message latencies recorded by the latency
+ * tracer, taken at a point in time.
+ */
+public class BrokerMetrics {
+
+    private final String nodeId;
+
+    private final long timestamp;
+
+    private final Map<String, QueueMetrics> queueMetrics;
+
+    private final String[] stageLatencies;
+
+    private final long databaseStatementCount;
+
+    private final Map<String, Long> slotCoordinatorRequestCounts;
+
+    BrokerMetrics(String nodeId, long timestamp, Map<String, QueueMetrics> queueMetrics, String[] stageLatencies,
+            long databaseStatementCount, Map<String, Long> slotCoordinatorRequestCounts) {
+        this.nodeId = nodeId;
+        this.timestamp = timestamp;
+        this.queueMetrics = Collections.unmodifiableMap(queueMetrics);
+        this.stageLatencies = stageLatencies;
+        this.databaseStatementCount = databaseStatementCount;
+        this.slotCoordinatorRequestCounts = slotCoordinatorRequestCounts;
+    }
+
+    /**
+     * @return ID of the node the snapshot was taken on
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return time the snapshot was taken at in milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return metrics of each storage queue of the node by queue name
+     */
+    public Map<String, QueueMetrics> getQueueMetrics() {
+        return queueMetrics;
+    }
+
+    /**
+     * Latency of each stage of the message life cycle as reported by
+     * {@link org.wso2.andes.tools.tracing.LatencyTracer#getStageLatencies()}. Empty if latency tracing is disabled.
+     *
+     * @return a line per stage
+     */
+    public String[] getStageLatencies() {
+        return stageLatencies.clone();
+    }
+
+    /**
+     * @return number of statements the stores of the node executed on the database since the broker was created
+     */
+    public long getDatabaseStatementCount() {
+        return databaseStatementCount;
+    }
+
+    /**
+     * Requests the node sent to the slot coordinator since it started. Empty unless the node is clustered.
+     *
+     * @return request count by meter name of the slot coordinator request meters
+     */
+    public Map<String, Long> getSlotCoordinatorRequestCounts() {
+        return slotCoordinatorRequestCounts;
+    }
+
+    /**
+     * Metrics of a storage queue
+     */
+    public static class QueueMetrics {
+
+        private final String queueName;
+
+        private final long storedMessageCount;
+
+        private final int bufferedMessageCount;
+
+        private final int subscriptionCount;
+
+        QueueMetrics(String queueName, long storedMessageCount, int bufferedMessageCount, int subscriptionCount) {
+            this.queueName = queueName;
+            this.storedMessageCount = storedMessageCount;
+            this.bufferedMessageCount = bufferedMessageCount;
+            this.subscriptionCount = subscriptionCount;
+        }
+
+        public String getQueueName() {
+            return queueName;
+        }
+
+        /**
+         * @return number of messages of the queue in the message store, including messages in delivery
+         */
+        public long getStoredMessageCount() {
+            return storedMessageCount;
+        }
+
+        /**
+         * @return number of messages read from the store by this node and waiting to be delivered
+         */
+        public int getBufferedMessageCount() {
+            return bufferedMessageCount;
+        }
+
+        /**
+         * @return number of subscriptions bound to the queue, on all nodes
+         */
+        public int getSubscriptionCount() {
+            return subscriptionCount;
+        }
+
+        @Override
+        public String toString() {
+            return queueName + " [stored=" + storedMessageCount + ", buffered=" + bufferedMessageCount
+                    + ", subscriptions=" + subscriptionCount + "]";
+        }
+    }
+}
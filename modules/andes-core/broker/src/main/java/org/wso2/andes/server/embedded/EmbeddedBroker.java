@@ -0,0 +1,879 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.embedded;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.Andes;
+import org.wso2.andes.kernel.AndesConstants;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesContextStore;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesKernelBoot;
+import org.wso2.andes.kernel.MessageStore;
+import org.wso2.andes.kernel.disruptor.compression.LZ4ChunkCompressionHelper;
+import org.wso2.andes.kernel.disruptor.inbound.InboundBindingEvent;
+import org.wso2.andes.kernel.disruptor.inbound.InboundExchangeEvent;
+import org.wso2.andes.kernel.disruptor.inbound.InboundQueueEvent;
+import org.wso2.andes.kernel.disruptor.inbound.QueueInfo;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastAgent;
+import org.wso2.andes.store.rdbms.RDBMSAndesContextStoreImpl;
+import org.wso2.andes.store.rdbms.RDBMSMessageStoreImpl;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+/**
+ * Andes kernel running inside the JVM of a test, without the Qpid broker and the carbon server. The message store
+ * and the Andes context store are the RDBMS stores on an in-memory H2 database by default, so that a broker starts
+ * in a fraction of a second and leaves nothing behind. Brokers are created through {@link Builder}:
+ * <pre>
+ * EmbeddedBroker broker = new EmbeddedBroker.Builder()
+ *         .nodeId("node-1")
+ *         .configuration(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_SLOT_WINDOW_SIZE, "100")
+ *         .metricsListener(listener, 1000)
+ *         .build();
+ * broker.start();
+ * </pre>
+ * Messages are published, subscribed and acknowledged through {@link Andes}, which is the API the transports use.
+ * The AMQP and MQTT transports are not started.
+ * <p>
+ * The kernel keeps its state in static fields, hence only one broker can run in a class loader at a time. Nodes of
+ * a cluster simulated in one JVM run in class loaders of their own, sharing the H2 and Hazelcast classes, and use
+ * the same {@link Builder#sharedDatabase(String) shared database}.
+ */
+public class EmbeddedBroker {
+
+    private static Log log = LogFactory.getLog(EmbeddedBroker.class);
+
+    /**
+     * Schema of the RDBMS stores on H2, a resource next to this class
+     */
+    private static final String SCHEMA_RESOURCE = "mb-h2.sql";
+
+    private static final String DATA_SOURCE_NAME_PREFIX = "jdbc/EmbeddedBrokerDB/";
+
+    private static final String CONFIGURATION_FILE_NAME = "broker.xml";
+
+    private static final String LOCAL_HOST_ADDRESS = "127.0.0.1";
+
+    /**
+     * Owner of the dead letter channel of the super tenant
+     */
+    private static final String DLC_QUEUE_OWNER = "admin";
+
+    /**
+     * Maximum number of connections to the database. Connections are held by the store operations only, and
+     * operations wait for a connection once all of them are in use.
+     */
+    private static final int MAX_DATABASE_CONNECTIONS = 64;
+
+    /**
+     * Meters of the requests the thrift client sends to the slot coordinator
+     */
+    private static final String[] SLOT_COORDINATOR_REQUEST_METERS = { MetricsConstants.SLOT_COORDINATOR_GET_SLOT,
+            MetricsConstants.SLOT_COORDINATOR_UPDATE_MESSAGE_ID, MetricsConstants.SLOT_COORDINATOR_DELETE_SLOT,
+            MetricsConstants.SLOT_COORDINATOR_REASSIGN_SLOTS, MetricsConstants.SLOT_COORDINATOR_CLEAR_SLOT_RELATIONS,
+            MetricsConstants.SLOT_COORDINATOR_UPDATE_SAFE_ZONE };
+
+    /**
+     * Broker running in this class loader, if any
+     */
+    private static final AtomicReference<EmbeddedBroker> runningBroker = new AtomicReference<>();
+
+    private final String nodeId;
+
+    private final String databaseName;
+
+    /**
+     * Whether the database is shared with other brokers, in which case it is kept when the broker stops
+     */
+    private final boolean sharedDatabase;
+
+    private final String messageStoreClassName;
+
+    private final Map<String, String> messageStoreProperties;
+
+    private final String contextStoreClassName;
+
+    private final Map<String, String> contextStoreProperties;
+
+    /**
+     * Hazelcast instance the node clusters with. Null for a standalone broker
+     */
+    private final HazelcastInstance hazelcastInstance;
+
+    private final int portOffset;
+
+    /**
+     * Configuration values by their key in broker.xml
+     */
+    private final Map<String, String> configuration;
+
+    private final BrokerMetricsListener metricsListener;
+
+    private final long metricsIntervalMillis;
+
+    /**
+     * Number of statements the stores executed on the database since the broker was created
+     */
+    private final AtomicLong databaseStatementCount = new AtomicLong();
+
+    private JdbcConnectionPool connectionPool;
+
+    private ManualCommitDataSource dataSource;
+
+    private File configurationDirectory;
+
+    private ScheduledExecutorService metricsReporter;
+
+    private volatile boolean running;
+
+    private EmbeddedBroker(Builder builder) {
+        nodeId = builder.nodeId;
+        sharedDatabase = null != builder.databaseName;
+        databaseName = sharedDatabase ? builder.databaseName : "andes-" + UUID.randomUUID();
+        hazelcastInstance = builder.hazelcastInstance;
+        portOffset = builder.portOffset;
+        configuration = new LinkedHashMap<>(builder.configuration);
+        metricsListener = builder.metricsListener;
+        metricsIntervalMillis = builder.metricsIntervalMillis;
+
+        Map<String, String> rdbmsStoreProperties = new LinkedHashMap<>();
+        rdbmsStoreProperties.put("dataSource", getDataSourceName());
+        rdbmsStoreProperties.put("storeUnavailableSQLStateClasses", "08");
+        rdbmsStoreProperties.put("integrityViolationSQLStateClasses", "23");
+        rdbmsStoreProperties.put("dataErrorSQLStateClasses", "22");
+        rdbmsStoreProperties.put("transactionRollbackSQLStateClasses", "40");
+
+        if (null != builder.messageStoreClass) {
+            messageStoreClassName = builder.messageStoreClass.getName();
+            messageStoreProperties = builder.messageStoreProperties;
+        } else {
+            messageStoreClassName = RDBMSMessageStoreImpl.class.getName();
+            messageStoreProperties = rdbmsStoreProperties;
+        }
+        if (null != builder.contextStoreClass) {
+            contextStoreClassName = builder.contextStoreClass.getName();
+            contextStoreProperties = builder.contextStoreProperties;
+        } else {
+            contextStoreClassName = RDBMSAndesContextStoreImpl.class.getName();
+            contextStoreProperties = rdbmsStoreProperties;
+        }
+    }
+
+    /**
+     * Start the broker. Returns once the kernel delivers messages.
+     *
+     * @throws AndesException if the kernel fails to start
+     * @throws IllegalStateException if another embedded broker is running in this class loader
+     */
+    public synchronized void start() throws AndesException {
+        if (running) {
+            return;
+        }
+        if (!runningBroker.compareAndSet(null, this)) {
+            throw new IllegalStateException("Embedded broker " + runningBroker.get().nodeId
+                    + " is already running in this class loader");
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            createDatabase();
+            File configurationFile = writeConfiguration();
+
+            AndesConfigurationManager.initialize(portOffset, configurationFile.getAbsolutePath());
+            AndesContext.getInstance().constructStoreConfiguration();
+            AndesContext.getInstance().setClusteringEnabled(null != hazelcastInstance);
+            if (null != hazelcastInstance) {
+                HazelcastAgent.getInstance().init(hazelcastInstance);
+            }
+
+            AndesKernelBoot.startAndesStores();
+            AndesKernelBoot.startAndesCluster();
+            AndesKernelBoot.initializeComponents(false);
+            AndesKernelBoot.startMessaging();
+            createDefaultExchanges();
+            createDeadLetterChannel();
+
+            AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE = AndesConfigurationManager.readValue(
+                    AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE);
+            AMQPUtils.CHUNK_COMPRESSION_HELPER = new LZ4ChunkCompressionHelper(AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE);
+
+            startMetricsReporter();
+            running = true;
+            log.info("Embedded broker " + nodeId + " started in " + (System.currentTimeMillis() - startTime)
+                    + " ms");
+        } catch (Exception e) {
+            releaseResources();
+            runningBroker.set(null);
+            if (e instanceof AndesException) {
+                throw (AndesException) e;
+            }
+            throw new AndesException("Error occurred while starting embedded broker " + nodeId, e);
+        }
+    }
+
+    /**
+     * Stop the broker gracefully. The database is dropped unless it is shared.
+     *
+     * @throws AndesException if the kernel fails to shut down
+     */
+    public synchronized void stop() throws AndesException {
+        if (!running) {
+            return;
+        }
+        try {
+            stopMetricsReporter();
+
+            // The kernel only stops the thrift server of the coordinator
+            boolean stopThriftServer = null != hazelcastInstance
+                    && !AndesContext.getInstance().getClusterAgent().isCoordinator();
+            AndesKernelBoot.shutDownAndesKernel();
+            if (stopThriftServer) {
+                AndesKernelBoot.stopThriftServer();
+            }
+            log.info("Embedded broker " + nodeId + " stopped");
+        } finally {
+            releaseResources();
+            running = false;
+            runningBroker.set(null);
+        }
+    }
+
+    /**
+     * Stop the broker abruptly, as if the process of the node died. The node leaves the Hazelcast cluster and loses
+     * its database before the kernel is shut down, hence nothing the kernel does while shutting down reaches the
+     * other nodes. They detect the failure of the node as they detect a crashed node. The Hazelcast instance the
+     * broker was built with is terminated.
+     */
+    public synchronized void kill() {
+        if (!running) {
+            return;
+        }
+        try {
+            stopMetricsReporter();
+            dataSource.disconnect();
+            if (null != hazelcastInstance) {
+                hazelcastInstance.getLifecycleService().terminate();
+            }
+            AndesKernelBoot.stopThriftServer();
+            try {
+                AndesKernelBoot.shutDownAndesKernel();
+            } catch (Exception e) {
+                // The kernel cannot reach the database anymore, errors are expected
+                log.debug("Error occurred while shutting down the kernel of killed embedded broker " + nodeId, e);
+            }
+            log.info("Embedded broker " + nodeId + " killed");
+        } finally {
+            releaseResources();
+            running = false;
+            runningBroker.set(null);
+        }
+    }
+
+    /**
+     * Take a snapshot of the metrics of the broker
+     *
+     * @return metrics of the broker
+     * @throws AndesException if message counts cannot be read from the message store
+     */
+    public BrokerMetrics getMetrics() throws AndesException {
+        List<StorageQueue> storageQueues = AndesContext.getInstance().getStorageQueueRegistry().getAllStorageQueues();
+        List<String> queueNames = new ArrayList<>(storageQueues.size());
+        for (StorageQueue storageQueue : storageQueues) {
+            queueNames.add(storageQueue.getName());
+        }
+        Map<String, Integer> storedMessageCounts = Andes.getInstance().getMessageCountForAllQueues(queueNames);
+
+        Map<String, BrokerMetrics.QueueMetrics> queueMetrics = new TreeMap<>();
+        for (StorageQueue storageQueue : storageQueues) {
+            Integer storedMessageCount = storedMessageCounts.get(storageQueue.getName());
+            queueMetrics.put(storageQueue.getName(), new BrokerMetrics.QueueMetrics(storageQueue.getName(),
+                    null == storedMessageCount ? 0 : storedMessageCount,
+                    storageQueue.getMessagesForDelivery().size(),
+                    storageQueue.getBoundSubscriptions().size()));
+        }
+        return new BrokerMetrics(nodeId, System.currentTimeMillis(), queueMetrics,
+                LatencyTracer.getStageLatencies(), databaseStatementCount.get(), getSlotCoordinatorRequestCounts());
+    }
+
+    /**
+     * Get the number of statements the stores executed on the database since the broker was created. Unlike
+     * {@link #getMetrics()}, this does not query the database.
+     *
+     * @return number of statements executed
+     */
+    public long getDatabaseStatementCount() {
+        return databaseStatementCount.get();
+    }
+
+    /**
+     * Get the number of requests sent to the slot coordinator since the node started, as recorded by the slot
+     * coordinator request meters. Like {@link #getDatabaseStatementCount()}, this does not query the database.
+     *
+     * @return request count by meter name
+     */
+    public Map<String, Long> getSlotCoordinatorRequestCounts() {
+        Map<String, Long> requestCounts = new TreeMap<>();
+        for (String meterName : SLOT_COORDINATOR_REQUEST_METERS) {
+            long count = MetricManager.meter(meterName, Level.INFO).getCount();
+            if (count > 0) {
+                requestCounts.put(meterName, count);
+            }
+        }
+        return requestCounts;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return JDBC URL of the H2 database of the broker, through which tests can inspect the stores
+     */
+    public String getDatabaseUrl() {
+        return "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1";
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Create the database and its schema, and bind its data source for the RDBMS stores to look up
+     */
+    private void createDatabase() throws AndesException, NamingException, SQLException, IOException {
+        connectionPool = JdbcConnectionPool.create(getDatabaseUrl(), "sa", "");
+        connectionPool.setMaxConnections(MAX_DATABASE_CONNECTIONS);
+
+        try (Connection connection = connectionPool.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (String schemaStatement : readSchema()) {
+                statement.execute(schemaStatement);
+            }
+        }
+
+        dataSource = new ManualCommitDataSource(connectionPool, databaseStatementCount);
+        if (null == System.getProperty(Context.INITIAL_CONTEXT_FACTORY)) {
+            System.setProperty(Context.INITIAL_CONTEXT_FACTORY, EmbeddedDataSourceContextFactory.class.getName());
+        }
+        if (EmbeddedDataSourceContextFactory.class.getName().equals(
+                System.getProperty(Context.INITIAL_CONTEXT_FACTORY))) {
+            EmbeddedDataSourceContextFactory.bind(getDataSourceName(), dataSource);
+        } else {
+            // A naming provider of the test is in use, the data source has to be bound there
+            new InitialContext().rebind(getDataSourceName(), dataSource);
+        }
+    }
+
+    /**
+     * Read the statements of the schema. Statements end with a semicolon at the end of a line.
+     */
+    static List<String> readSchema() throws AndesException, IOException {
+        InputStream schemaStream = EmbeddedBroker.class.getResourceAsStream(SCHEMA_RESOURCE);
+        if (null == schemaStream) {
+            throw new AndesException("Schema " + SCHEMA_RESOURCE + " of the embedded broker database not found");
+        }
+
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(schemaStream,
+                StandardCharsets.UTF_8))) {
+            StringBuilder statement = new StringBuilder();
+            String line;
+            while (null != (line = reader.readLine())) {
+                String trimmedLine = line.trim();
+                if (trimmedLine.isEmpty() || trimmedLine.startsWith("--")) {
+                    continue;
+                }
+                if (trimmedLine.endsWith(";")) {
+                    statement.append(trimmedLine, 0, trimmedLine.length() - 1);
+                    statements.add(statement.toString());
+                    statement.setLength(0);
+                } else {
+                    statement.append(trimmedLine).append(' ');
+                }
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Write the broker.xml of the broker into a new temporary directory
+     *
+     * @return the configuration file
+     */
+    private File writeConfiguration() throws ParserConfigurationException, TransformerException, IOException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = document.createElement("broker");
+        document.appendChild(root);
+
+        setValue(root, AndesConfiguration.COORDINATION_NODE_ID.get().getKeyInFile(), nodeId);
+        setValue(root, AndesConfiguration.COORDINATION_THRIFT_SERVER_HOST.get().getKeyInFile(), LOCAL_HOST_ADDRESS);
+        setValue(root, AndesConfiguration.TRANSPORTS_BIND_ADDRESS.get().getKeyInFile(), LOCAL_HOST_ADDRESS);
+        setValue(root, AndesConfiguration.TRANSPORTS_AMQP_BIND_ADDRESS.get().getKeyInFile(), LOCAL_HOST_ADDRESS);
+        setValue(root, AndesConfiguration.TRANSPORTS_MQTT_BIND_ADDRESS.get().getKeyInFile(), LOCAL_HOST_ADDRESS);
+        for (Map.Entry<String, String> entry : configuration.entrySet()) {
+            setValue(root, entry.getKey(), entry.getValue());
+        }
+
+        Element persistence = getOrCreateChild(root, "persistence");
+        addStore(persistence, "messageStore", messageStoreClassName, messageStoreProperties);
+        addStore(persistence, "contextStore", contextStoreClassName, contextStoreProperties);
+
+        configurationDirectory = Files.createTempDirectory("andes-embedded-").toFile();
+        File configurationFile = new File(configurationDirectory, CONFIGURATION_FILE_NAME);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(document), new StreamResult(configurationFile));
+        return configurationFile;
+    }
+
+    /**
+     * Set the value of the element or attribute at the given path under the root element
+     *
+     * @param root  root element of the configuration
+     * @param key   path of the value, such as "coordination/nodeID" or "transports/amqp/@enabled"
+     * @param value value to set
+     */
+    private static void setValue(Element root, String key, String value) {
+        String[] pathElements = key.split("/");
+        Element element = root;
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            element = getOrCreateChild(element, pathElements[i]);
+        }
+
+        String lastPathElement = pathElements[pathElements.length - 1];
+        if (lastPathElement.startsWith("@")) {
+            element.setAttribute(lastPathElement.substring(1), value);
+        } else {
+            getOrCreateChild(element, lastPathElement).setTextContent(value);
+        }
+    }
+
+    private static Element getOrCreateChild(Element parent, String name) {
+        for (Node child = parent.getFirstChild(); null != child; child = child.getNextSibling()) {
+            if (child instanceof Element && name.equals(child.getNodeName())) {
+                return (Element) child;
+            }
+        }
+        Element child = parent.getOwnerDocument().createElement(name);
+        parent.appendChild(child);
+        return child;
+    }
+
+    private static void addStore(Element persistence, String storeElementName, String className,
+            Map<String, String> properties) {
+        Element store = getOrCreateChild(persistence, storeElementName);
+        store.setAttribute("class", className);
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            Element propertyElement = persistence.getOwnerDocument().createElement("property");
+            propertyElement.setAttribute("name", property.getKey());
+            propertyElement.setTextContent(property.getValue());
+            store.appendChild(propertyElement);
+        }
+    }
+
+    /**
+     * Create the exchanges the Qpid virtual host declares at startup, which queues and topics are bound to
+     */
+    private void createDefaultExchanges() throws AndesException {
+        createExchange(AMQPUtils.DIRECT_EXCHANGE_NAME, "direct");
+        createExchange(AMQPUtils.TOPIC_EXCHANGE_NAME, "topic");
+    }
+
+    /**
+     * Create the exchange unless it exists already, such as when it was created by another node of the cluster
+     */
+    private void createExchange(String exchangeName, String type) throws AndesException {
+        if (null == AndesContext.getInstance().getMessageRouterRegistry().getMessageRouter(exchangeName)) {
+            Andes.getInstance().createExchange(new InboundExchangeEvent(exchangeName, type, false));
+        }
+    }
+
+    /**
+     * Create the dead letter channel of the super tenant, as the broker does at startup
+     */
+    private void createDeadLetterChannel() throws AndesException {
+        String dlcQueueName = AndesConstants.DEAD_LETTER_QUEUE_SUFFIX;
+        if (null != AndesContext.getInstance().getStorageQueueRegistry().getStorageQueue(dlcQueueName)) {
+            return;
+        }
+        createExchange(AMQPUtils.DLC_EXCHANGE_NAME, "DLC");
+        Andes.getInstance().createQueue(new InboundQueueEvent(dlcQueueName, true, false, DLC_QUEUE_OWNER, false));
+        Andes.getInstance().addBinding(new InboundBindingEvent(
+                new QueueInfo(dlcQueueName, true, false, DLC_QUEUE_OWNER, false),
+                AMQPUtils.DLC_EXCHANGE_NAME, dlcQueueName));
+    }
+
+    private void startMetricsReporter() {
+        if (null == metricsListener) {
+            return;
+        }
+        metricsReporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("EmbeddedBrokerMetricsReporter-" + nodeId + "-%d").build());
+        metricsReporter.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    metricsListener.onMetrics(getMetrics());
+                } catch (Throwable e) {
+                    // Keep reporting, a failure of a single report should not stop the reporter
+                    log.error("Error occurred while reporting metrics of embedded broker " + nodeId, e);
+                }
+            }
+        }, metricsIntervalMillis, metricsIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopMetricsReporter() {
+        if (null != metricsReporter) {
+            metricsReporter.shutdownNow();
+            metricsReporter = null;
+        }
+    }
+
+    /**
+     * Release the data source, the database unless it is shared, and the configuration
+     */
+    private void releaseResources() {
+        stopMetricsReporter();
+        EmbeddedDataSourceContextFactory.unbind(getDataSourceName());
+        if (null != connectionPool) {
+            if (!sharedDatabase) {
+                try (Connection connection = connectionPool.getConnection();
+                        Statement statement = connection.createStatement()) {
+                    statement.execute("SHUTDOWN");
+                } catch (SQLException e) {
+                    log.warn("Error occurred while dropping database " + databaseName, e);
+                }
+            }
+            connectionPool.dispose();
+            connectionPool = null;
+            dataSource = null;
+        }
+        if (null != configurationDirectory) {
+            File configurationFile = new File(configurationDirectory, CONFIGURATION_FILE_NAME);
+            if (!configurationFile.delete() || !configurationDirectory.delete()) {
+                configurationDirectory.deleteOnExit();
+            }
+            configurationDirectory = null;
+        }
+    }
+
+    private String getDataSourceName() {
+        return DATA_SOURCE_NAME_PREFIX + databaseName;
+    }
+
+    /**
+     * Data source handing out connections with auto commit disabled, as the data sources of the RDBMS stores are
+     * configured in the carbon server. The stores commit their transactions themselves. Statements executed over
+     * the connections are counted.
+     */
+    private static class ManualCommitDataSource implements DataSource {
+
+        /**
+         * SQL state of a connection failure, which the stores treat as the database being unavailable
+         */
+        private static final String CONNECTION_FAILURE_SQL_STATE = "08006";
+
+        private final JdbcConnectionPool connectionPool;
+
+        private final AtomicLong statementCount;
+
+        /**
+         * Whether connections are handed out. Cleared when the broker is killed.
+         */
+        private volatile boolean connected = true;
+
+        ManualCommitDataSource(JdbcConnectionPool connectionPool, AtomicLong statementCount) {
+            this.connectionPool = connectionPool;
+            this.statementCount = statementCount;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!connected) {
+                throw new SQLException("Database is not reachable from a killed broker", CONNECTION_FAILURE_SQL_STATE);
+            }
+            Connection connection = connectionPool.getConnection();
+            connection.setAutoCommit(false);
+            return (Connection) countStatements(connection, Connection.class);
+        }
+
+        /**
+         * Fail every later request for a connection
+         */
+        void disconnect() {
+            connected = false;
+        }
+
+        /**
+         * Wrap a connection, or a statement created through it, so that executions of statements are counted
+         *
+         * @param target connection or statement to wrap
+         * @param type   interface the wrapper implements
+         * @return the wrapper
+         */
+        private Object countStatements(final Object target, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                                statementCount.incrementAndGet();
+                            }
+                            Object result;
+                            try {
+                                result = method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (result instanceof Statement && Statement.class.isAssignableFrom(
+                                    method.getReturnType())) {
+                                return countStatements(result, method.getReturnType());
+                            }
+                            return result;
+                        }
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return connectionPool.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            connectionPool.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            connectionPool.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return connectionPool.getLoginTimeout();
+        }
+
+        @Override
+        public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException("Parent logger is not supported");
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException(getClass().getName() + " is not a wrapper of " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+
+    /**
+     * Builder of embedded brokers. Every setting is optional.
+     */
+    public static class Builder {
+
+        private String nodeId = "embedded-node";
+
+        private String databaseName;
+
+        private Class<? extends MessageStore> messageStoreClass;
+
+        private Map<String, String> messageStoreProperties = Collections.emptyMap();
+
+        private Class<? extends AndesContextStore> contextStoreClass;
+
+        private Map<String, String> contextStoreProperties = Collections.emptyMap();
+
+        private HazelcastInstance hazelcastInstance;
+
+        private int portOffset;
+
+        private final Map<String, String> configuration = new LinkedHashMap<>();
+
+        private BrokerMetricsListener metricsListener;
+
+        private long metricsIntervalMillis;
+
+        /**
+         * Set the ID of the node. Defaults to "embedded-node".
+         */
+        public Builder nodeId(String nodeId) {
+            this.nodeId = nodeId;
+            return this;
+        }
+
+        /**
+         * Use the in-memory H2 database of the given name rather than a database of the broker's own. The database
+         * is kept when the broker stops, hence brokers started later with the same name, such as the other nodes of
+         * a cluster or the same node restarted, see its content. It lives as long as the JVM.
+         */
+        public Builder sharedDatabase(String databaseName) {
+            this.databaseName = databaseName;
+            return this;
+        }
+
+        /**
+         * Use the given message store instead of the RDBMS message store on H2, such as a store keeping messages in
+         * memory
+         *
+         * @param storeClass store class, with a public no-argument constructor
+         * @param properties properties the store is initialized with
+         */
+        public Builder messageStore(Class<? extends MessageStore> storeClass, Map<String, String> properties) {
+            this.messageStoreClass = storeClass;
+            this.messageStoreProperties = new LinkedHashMap<>(properties);
+            return this;
+        }
+
+        /**
+         * Use the given Andes context store instead of the RDBMS context store on H2
+         *
+         * @param storeClass store class, with a public no-argument constructor
+         * @param properties properties the store is initialized with
+         */
+        public Builder contextStore(Class<? extends AndesContextStore> storeClass, Map<String, String> properties) {
+            this.contextStoreClass = storeClass;
+            this.contextStoreProperties = new LinkedHashMap<>(properties);
+            return this;
+        }
+
+        /**
+         * Run the broker as a node of a cluster. Nodes of a cluster share the database and the Hazelcast cluster,
+         * and each node needs a thrift port of its own.
+         *
+         * @param hazelcastInstance Hazelcast instance of the node
+         * @param thriftServerPort  port the thrift server of the node listens on when it is the coordinator
+         */
+        public Builder clustered(HazelcastInstance hazelcastInstance, int thriftServerPort) {
+            this.hazelcastInstance = hazelcastInstance;
+            return configuration(AndesConfiguration.COORDINATION_THRIFT_SERVER_PORT,
+                    Integer.toString(thriftServerPort));
+        }
+
+        /**
+         * Set the offset added to the ports of the broker, as the carbon port offset is
+         */
+        public Builder portOffset(int portOffset) {
+            this.portOffset = portOffset;
+            return this;
+        }
+
+        /**
+         * Override a value of the broker configuration
+         *
+         * @param property configuration to override
+         * @param value    value in the form used in broker.xml
+         * @throws IllegalArgumentException if the configuration is a property of a list, which cannot be set
+         */
+        public Builder configuration(AndesConfiguration property, String value) {
+            String key = property.get().getKeyInFile();
+            if (key.contains("[")) {
+                throw new IllegalArgumentException("Configuration " + property + " cannot be set on an embedded "
+                        + "broker");
+            }
+            configuration.put(key, value);
+            return this;
+        }
+
+        /**
+         * Report the metrics of the broker to the given listener periodically while the broker runs
+         *
+         * @param listener       listener of the metrics
+         * @param intervalMillis interval between reports in milliseconds
+         */
+        public Builder metricsListener(BrokerMetricsListener listener, long intervalMillis) {
+            if (intervalMillis <= 0) {
+                throw new IllegalArgumentException("Metrics interval should be positive : " + intervalMillis);
+            }
+            this.metricsListener = listener;
+            this.metricsIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        public EmbeddedBroker build() {
+            return new EmbeddedBroker(this);
+        }
+    }
+}
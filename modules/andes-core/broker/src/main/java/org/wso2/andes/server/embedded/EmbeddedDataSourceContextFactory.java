@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.embedded;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.naming.Context;
+import javax.naming.Name;
+import javax.naming.NameNotFoundException;
+import javax.naming.OperationNotSupportedException;
+import javax.naming.spi.InitialContextFactory;
+import javax.sql.DataSource;
+
+/**
+ * Initial context factory through which the RDBMS stores of an embedded broker look up the data source of its
+ * database, as they look up the data sources of the carbon server. The context only supports looking up the data
+ * sources bound through {@link #bind(String, DataSource)}.
+ */
+public class EmbeddedDataSourceContextFactory implements InitialContextFactory {
+
+    /**
+     * Data sources of the running embedded brokers by JNDI name
+     */
+    private static final ConcurrentMap<String, DataSource> dataSources = new ConcurrentHashMap<>();
+
+    /**
+     * Make the data source available for look up under the given name
+     *
+     * @param name       JNDI name of the data source
+     * @param dataSource data source
+     */
+    static void bind(String name, DataSource dataSource) {
+        dataSources.put(name, dataSource);
+    }
+
+    /**
+     * Remove the data source bound under the given name
+     *
+     * @param name JNDI name of the data source
+     */
+    static void unbind(String name) {
+        dataSources.remove(name);
+    }
+
+    @Override
+    public Context getInitialContext(Hashtable<?, ?> environment) {
+        final Hashtable<?, ?> contextEnvironment = new Hashtable<>(environment);
+        return (Context) Proxy.newProxyInstance(Context.class.getClassLoader(), new Class<?>[] { Context.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                        if (Object.class.equals(method.getDeclaringClass())) {
+                            return method.invoke(this, args);
+                        }
+                        String methodName = method.getName();
+                        if ("lookup".equals(methodName)) {
+                            String name = args[0] instanceof Name ? args[0].toString() : (String) args[0];
+                            DataSource dataSource = dataSources.get(name);
+                            if (null == dataSource) {
+                                throw new NameNotFoundException(name + " is not bound to an embedded broker");
+                            }
+                            return dataSource;
+                        } else if ("getEnvironment".equals(methodName)) {
+                            return contextEnvironment;
+                        } else if ("close".equals(methodName)) {
+                            return null;
+                        }
+                        throw new OperationNotSupportedException(methodName + " is not supported by the context of "
+                                + "embedded brokers");
+                    }
+                });
+    }
+}
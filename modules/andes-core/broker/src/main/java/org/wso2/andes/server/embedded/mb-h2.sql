@@ -0,0 +1,234 @@
+-- Schema of the message store and the Andes context store on H2, created by the embedded broker in an in-memory
+-- database. Statements are separated by semicolons at the end of a line.
+
+CREATE TABLE IF NOT EXISTS MB_QUEUE_MAPPING (
+    QUEUE_ID INT AUTO_INCREMENT,
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    PRIMARY KEY (QUEUE_ID),
+    UNIQUE (QUEUE_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS MB_METADATA (
+    MESSAGE_ID BIGINT NOT NULL,
+    QUEUE_ID INT NOT NULL,
+    DLC_QUEUE_ID INT NOT NULL,
+    MESSAGE_METADATA VARBINARY,
+    PRIMARY KEY (MESSAGE_ID),
+    FOREIGN KEY (QUEUE_ID) REFERENCES MB_QUEUE_MAPPING (QUEUE_ID)
+);
+
+CREATE INDEX IF NOT EXISTS MB_METADATA_QUEUE_ID ON MB_METADATA (QUEUE_ID, DLC_QUEUE_ID, MESSAGE_ID);
+
+CREATE TABLE IF NOT EXISTS MB_CONTENT (
+    MESSAGE_ID BIGINT NOT NULL,
+    CONTENT_OFFSET INT NOT NULL,
+    MESSAGE_CONTENT VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET),
+    FOREIGN KEY (MESSAGE_ID) REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_CONTENT_REFERENCE (
+    MESSAGE_ID BIGINT NOT NULL,
+    CONTENT_ID BIGINT NOT NULL,
+    PRIMARY KEY (MESSAGE_ID),
+    FOREIGN KEY (MESSAGE_ID) REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS MB_CONTENT_REFERENCE_CONTENT_ID ON MB_CONTENT_REFERENCE (CONTENT_ID);
+
+CREATE TABLE IF NOT EXISTS MB_EXPIRATION_DATA (
+    MESSAGE_ID BIGINT NOT NULL,
+    EXPIRATION_TIME BIGINT,
+    DLC_QUEUE_ID INT NOT NULL,
+    MESSAGE_DESTINATION VARCHAR(512) NOT NULL,
+    PRIMARY KEY (MESSAGE_ID),
+    FOREIGN KEY (MESSAGE_ID) REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_DTX_XID (
+    INTERNAL_XID BIGINT NOT NULL,
+    NODE_ID VARCHAR(512) NOT NULL,
+    FORMAT_CODE BIGINT NOT NULL,
+    GLOBAL_ID VARBINARY NOT NULL,
+    BRANCH_ID VARBINARY NOT NULL,
+    PRIMARY KEY (INTERNAL_XID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_DTX_ENQUEUE_RECORD (
+    INTERNAL_XID BIGINT NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    MESSAGE_METADATA VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID),
+    FOREIGN KEY (INTERNAL_XID) REFERENCES MB_DTX_XID (INTERNAL_XID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_DTX_DEQUEUE_RECORD (
+    INTERNAL_XID BIGINT NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    MESSAGE_METADATA VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID),
+    FOREIGN KEY (INTERNAL_XID) REFERENCES MB_DTX_XID (INTERNAL_XID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_DTX_ENQUEUE_CONTENT (
+    INTERNAL_XID BIGINT NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    CONTENT_OFFSET INT NOT NULL,
+    MESSAGE_CONTENT VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET),
+    FOREIGN KEY (MESSAGE_ID) REFERENCES MB_DTX_ENQUEUE_RECORD (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_DTX_DEQUEUE_CONTENT (
+    INTERNAL_XID BIGINT NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    CONTENT_OFFSET INT NOT NULL,
+    MESSAGE_CONTENT VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET),
+    FOREIGN KEY (MESSAGE_ID) REFERENCES MB_DTX_DEQUEUE_RECORD (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_MSG_STORE_STATUS (
+    NODE_ID VARCHAR(512) NOT NULL,
+    TIME_STAMP BIGINT,
+    PRIMARY KEY (NODE_ID, TIME_STAMP)
+);
+
+CREATE TABLE IF NOT EXISTS MB_RETAINED_METADATA (
+    TOPIC_ID INT NOT NULL,
+    TOPIC_NAME VARCHAR(512) NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    MESSAGE_METADATA VARBINARY,
+    PRIMARY KEY (TOPIC_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_RETAINED_CONTENT (
+    MESSAGE_ID BIGINT NOT NULL,
+    CONTENT_OFFSET INT NOT NULL,
+    MESSAGE_CONTENT VARBINARY NOT NULL,
+    PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET)
+);
+
+CREATE TABLE IF NOT EXISTS MB_DURABLE_SUBSCRIPTION (
+    SUBSCRIPTION_ID VARCHAR(512) NOT NULL,
+    DESTINATION_IDENTIFIER VARCHAR(512) NOT NULL,
+    SUBSCRIPTION_DATA VARCHAR(2048) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS MB_NODE (
+    NODE_ID VARCHAR(512) NOT NULL,
+    NODE_DATA VARCHAR(2048) NOT NULL,
+    PRIMARY KEY (NODE_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_EXCHANGE (
+    EXCHANGE_NAME VARCHAR(512) NOT NULL,
+    EXCHANGE_DATA VARCHAR(2048) NOT NULL,
+    PRIMARY KEY (EXCHANGE_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS MB_QUEUE (
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    QUEUE_DATA VARCHAR(2048) NOT NULL,
+    PRIMARY KEY (QUEUE_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS MB_BINDING (
+    EXCHANGE_NAME VARCHAR(512) NOT NULL,
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    BINDING_DETAILS VARCHAR(2048) NOT NULL,
+    FOREIGN KEY (QUEUE_NAME) REFERENCES MB_QUEUE (QUEUE_NAME) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_QUEUE_COUNTER (
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    MESSAGE_COUNT BIGINT,
+    PRIMARY KEY (QUEUE_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS MB_SLOT (
+    SLOT_ID BIGINT AUTO_INCREMENT,
+    START_MESSAGE_ID BIGINT NOT NULL,
+    END_MESSAGE_ID BIGINT NOT NULL,
+    STORAGE_QUEUE_NAME VARCHAR(512) NOT NULL,
+    SLOT_STATE TINYINT NOT NULL DEFAULT 1,
+    ASSIGNED_NODE_ID VARCHAR(512),
+    ASSIGNED_QUEUE_NAME VARCHAR(512),
+    PRIMARY KEY (SLOT_ID)
+);
+
+CREATE INDEX IF NOT EXISTS MB_SLOT_MESSAGE_ID_RANGE ON MB_SLOT (START_MESSAGE_ID, END_MESSAGE_ID);
+
+CREATE INDEX IF NOT EXISTS MB_SLOT_STORAGE_QUEUE_NAME ON MB_SLOT (STORAGE_QUEUE_NAME);
+
+CREATE TABLE IF NOT EXISTS MB_SLOT_MESSAGE_ID (
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    PRIMARY KEY (QUEUE_NAME, MESSAGE_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_NODE_TO_LAST_PUBLISHED_ID (
+    NODE_ID VARCHAR(512) NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    PRIMARY KEY (NODE_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_QUEUE_TO_LAST_ASSIGNED_ID (
+    QUEUE_NAME VARCHAR(512) NOT NULL,
+    MESSAGE_ID BIGINT NOT NULL,
+    PRIMARY KEY (QUEUE_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS MB_SLOT_CHECKPOINT (
+    QUEUE_ID INT NOT NULL,
+    START_MESSAGE_ID BIGINT NOT NULL,
+    END_MESSAGE_ID BIGINT NOT NULL,
+    MESSAGE_COUNT INT NOT NULL,
+    PRIMARY KEY (QUEUE_ID, START_MESSAGE_ID),
+    FOREIGN KEY (QUEUE_ID) REFERENCES MB_QUEUE_MAPPING (QUEUE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_SLOT_CHECKPOINT_WATERMARK (
+    QUEUE_ID INT NOT NULL,
+    LAST_MESSAGE_ID BIGINT NOT NULL,
+    PRIMARY KEY (QUEUE_ID),
+    FOREIGN KEY (QUEUE_ID) REFERENCES MB_QUEUE_MAPPING (QUEUE_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS MB_COORDINATOR_HEARTBEAT (
+    ANCHOR INT NOT NULL,
+    NODE_ID VARCHAR(512) NOT NULL,
+    LAST_HEARTBEAT BIGINT NOT NULL,
+    THRIFT_HOST VARCHAR(512),
+    THRIFT_PORT INT,
+    PRIMARY KEY (ANCHOR)
+);
+
+CREATE TABLE IF NOT EXISTS MB_NODE_HEARTBEAT (
+    NODE_ID VARCHAR(512) NOT NULL,
+    LAST_HEARTBEAT BIGINT NOT NULL,
+    IS_NEW_NODE TINYINT NOT NULL,
+    CLUSTER_AGENT_HOST VARCHAR(512) NOT NULL,
+    CLUSTER_AGENT_PORT INT NOT NULL,
+    PRIMARY KEY (NODE_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_MEMBERSHIP (
+    EVENT_ID BIGINT AUTO_INCREMENT,
+    NODE_ID VARCHAR(512) NOT NULL,
+    CHANGE_TYPE TINYINT NOT NULL,
+    CHANGED_MEMBER_ID VARCHAR(512) NOT NULL,
+    PRIMARY KEY (EVENT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS MB_CLUSTER_EVENT (
+    EVENT_ID BIGINT AUTO_INCREMENT,
+    ORIGINATED_NODE_ID VARCHAR(512) NOT NULL,
+    DESTINED_NODE_ID VARCHAR(512) NOT NULL,
+    EVENT_ARTIFACT VARCHAR(25) NOT NULL,
+    EVENT_TYPE VARCHAR(25) NOT NULL,
+    EVENT_DETAILS VARCHAR(1024),
+    EVENT_DESCRIPTION VARCHAR(1024),
+    PRIMARY KEY (EVENT_ID)
+);
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.andes.server.handler;
+
+import org.wso2.andes.AMQException;
+import org.wso2.andes.framing.ConfirmSelectBody;
+import org.wso2.andes.framing.ConfirmSelectOkBody;
+import org.wso2.andes.framing.amqp_0_91.MethodRegistry_0_91;
+import org.wso2.andes.protocol.AMQConstant;
+import org.wso2.andes.server.AMQChannel;
+import org.wso2.andes.server.protocol.AMQProtocolSession;
+import org.wso2.andes.server.state.AMQStateManager;
+import org.wso2.andes.server.state.StateAwareMethodListener;
+
+/**
+ * Puts a channel into publisher confirm mode. Each message published on the channel afterwards is acknowledged to the
+ * publisher with a basic.ack once it is persisted, or a basic.nack if it could not be persisted.
+ */
+public class ConfirmSelectHandler implements StateAwareMethodListener<ConfirmSelectBody> {
+    private static ConfirmSelectHandler _instance = new ConfirmSelectHandler();
+
+    public static ConfirmSelectHandler getInstance() {
+        return _instance;
+    }
+
+    private ConfirmSelectHandler() {
+    }
+
+    @Override
+    public void methodReceived(AMQStateManager stateManager, ConfirmSelectBody body, int channelId)
+            throws AMQException {
+        AMQProtocolSession session = stateManager.getProtocolSession();
+
+        AMQChannel channel = session.getChannel(channelId);
+
+        if (channel == null) {
+            throw body.getChannelNotFoundException(channelId);
+        }
+
+        // Transactions already give the publisher a point at which messages are persisted
+        if (channel.isTransactional()) {
+            throw body.getChannelException(AMQConstant.NOT_ALLOWED,
+                    "A transactional channel cannot be put into confirm mode");
+        }
+
+        channel.setConfirmOnPublish();
+
+        if (!body.getNowait()) {
+            MethodRegistry_0_91 methodRegistry = (MethodRegistry_0_91) session.getMethodRegistry();
+            ConfirmSelectOkBody responseBody = methodRegistry.createConfirmSelectOkBody();
+            session.writeFrame(responseBody.generateFrame(channelId));
+        }
+    }
+}
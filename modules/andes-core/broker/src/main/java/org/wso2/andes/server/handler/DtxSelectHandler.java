@@ -43,6 +43,11 @@ public class DtxSelectHandler implements StateAwareMethodListener<DtxSelectBody>
             throw body.getChannelNotFoundException(channelId);
         }
 
+        if (channel.isConfirmOnPublish()) {
+            throw body.getChannelException(AMQConstant.NOT_ALLOWED,
+                    "A channel in confirm mode cannot be made transactional");
+        }
+
         try {
             channel.setDtxTransactional();
         } catch (AndesException e) {
@@ -18,6 +18,7 @@
 package org.wso2.andes.server.handler;
 
 import org.wso2.andes.AMQException;
+import org.wso2.andes.framing.BasicNackBody;
 import org.wso2.andes.framing.BasicRecoverOkBody;
 import org.wso2.andes.framing.BasicRecoverSyncBody;
 import org.wso2.andes.framing.BasicRecoverSyncOkBody;
@@ -25,6 +26,8 @@ import org.wso2.andes.framing.ChannelOkBody;
 import org.wso2.andes.framing.ChannelPingBody;
 import org.wso2.andes.framing.ChannelPongBody;
 import org.wso2.andes.framing.ChannelResumeBody;
+import org.wso2.andes.framing.ConfirmSelectBody;
+import org.wso2.andes.framing.ConfirmSelectOkBody;
 import org.wso2.andes.framing.DtxCommitBody;
 import org.wso2.andes.framing.DtxCommitOkBody;
 import org.wso2.andes.framing.DtxEndBody;
@@ -90,6 +93,8 @@ public class ServerMethodDispatcherImpl_0_91
     private static final DtxSetTimeoutHandler dtxSetTimeoutHandler = DtxSetTimeoutHandler.getInstance();
     private static final DtxRecoverHandler dtxRecoverHandler = DtxRecoverHandler.getInstance();
 
+    private static final ConfirmSelectHandler confirmSelectHandler = ConfirmSelectHandler.getInstance();
+
     private final AMQStateManager stateManager;
 
     public ServerMethodDispatcherImpl_0_91(AMQStateManager stateManager)
@@ -120,6 +125,22 @@ public class ServerMethodDispatcherImpl_0_91
         throw new UnexpectedMethodException(body);
     }
 
+    @Override
+    public boolean dispatchBasicNack(BasicNackBody body, int channelId) throws AMQException {
+        throw new UnexpectedMethodException(body);
+    }
+
+    @Override
+    public boolean dispatchConfirmSelect(ConfirmSelectBody body, int channelId) throws AMQException {
+        confirmSelectHandler.methodReceived(stateManager, body, channelId);
+        return true;
+    }
+
+    @Override
+    public boolean dispatchConfirmSelectOk(ConfirmSelectOkBody body, int channelId) throws AMQException {
+        throw new UnexpectedMethodException(body);
+    }
+
     public boolean dispatchDtxSelect(DtxSelectBody body, int channelId) throws AMQException
     {
         dtxSelectHandler.methodReceived(stateManager, body, channelId);
@@ -21,6 +21,7 @@ import org.wso2.andes.AMQException;
 import org.wso2.andes.framing.TxSelectBody;
 import org.wso2.andes.framing.TxSelectOkBody;
 import org.wso2.andes.framing.MethodRegistry;
+import org.wso2.andes.protocol.AMQConstant;
 import org.wso2.andes.protocol.AMQMethodEvent;
 import org.wso2.andes.server.protocol.AMQProtocolSession;
 import org.wso2.andes.server.state.AMQStateManager;
@@ -51,6 +52,12 @@ public class TxSelectHandler implements StateAwareMethodListener<TxSelectBody>
             throw body.getChannelNotFoundException(channelId);
         }
 
+        if (channel.isConfirmOnPublish())
+        {
+            throw body.getChannelException(AMQConstant.NOT_ALLOWED,
+                                           "A channel in confirm mode cannot be made transactional");
+        }
+
         channel.setLocalTransactional();
 
         MethodRegistry methodRegistry = session.getMethodRegistry();
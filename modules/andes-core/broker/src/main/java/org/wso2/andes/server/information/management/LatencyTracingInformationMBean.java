@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.andes.server.information.management;
+
+import org.wso2.andes.management.common.mbeans.LatencyTracingInformation;
+import org.wso2.andes.management.common.mbeans.annotations.MBeanConstructor;
+import org.wso2.andes.server.management.AMQManagedObject;
+import org.wso2.andes.tools.tracing.LatencyTracer;
+
+import javax.management.JMException;
+
+/**
+ * MBean exposing the per stage message latency recorded by the {@link LatencyTracer}
+ */
+public class LatencyTracingInformationMBean extends AMQManagedObject implements LatencyTracingInformation {
+
+    @MBeanConstructor("Creates an MBean exposing message latency tracing information")
+    public LatencyTracingInformationMBean() throws JMException {
+        super(LatencyTracingInformation.class, LatencyTracingInformation.TYPE);
+    }
+
+    @Override
+    public String getObjectInstanceName() {
+        return LatencyTracingInformation.TYPE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getStageLatencies() {
+        return LatencyTracer.getStageLatencies();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] dumpSlowestTraces() {
+        return LatencyTracer.getSlowestTraces();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetLatencyStatistics() {
+        LatencyTracer.reset();
+    }
+}
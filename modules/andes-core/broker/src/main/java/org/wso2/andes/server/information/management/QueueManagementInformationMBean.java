@@ -40,11 +40,13 @@ import org.wso2.andes.kernel.AndesMessage;
 import org.wso2.andes.kernel.AndesMessageMetadata;
 import org.wso2.andes.kernel.AndesMessagePart;
 import org.wso2.andes.kernel.AndesUtils;
+import org.wso2.andes.kernel.BulkOperationProgress;
 import org.wso2.andes.kernel.DisablePubAckImpl;
 import org.wso2.andes.kernel.FlowControlListener;
-import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.kernel.ProtocolType;
-import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+import org.wso2.andes.kernel.browse.BrowseCursor;
+import org.wso2.andes.kernel.browse.BrowsePage;
+import org.wso2.andes.kernel.browse.BrowsedMessage;
 import org.wso2.andes.kernel.disruptor.inbound.InboundQueueEvent;
 import org.wso2.andes.kernel.registry.StorageQueueRegistry;
 import org.wso2.andes.kernel.router.AndesMessageRouter;
@@ -167,11 +169,6 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
      */
     private int byteArrayRemaining = -1;
 
-    /**
-     * Used to get configuration values related to compression and used to decompress message content
-     */
-    LZ4CompressionHelper lz4CompressionHelper;
-
     /**
      * AndesChannel for this dead letter channel restore which implements flow control.
      */
@@ -224,7 +221,6 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
                 VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC
                         .toArray(new String[VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC.size()]),
                 _msgContentAttributeTypes);
-        lz4CompressionHelper = new LZ4CompressionHelper();
     }
 
     public String getObjectInstanceName() {
@@ -472,20 +468,8 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
             @MBeanOperationParameter(name = "maxMsgCount",
                                      description = "Maximum message count per " + "request") int maxMsgCount)
             throws MBeanException {
-        List<CompositeData> compositeDataList = new ArrayList<>();
         try {
-
-            List<AndesMessageMetadata> nextNMessageMetadataFromQueue;
-            if (!DLCQueueUtils.isDeadLetterQueue(queueName)) {
-                nextNMessageMetadataFromQueue = Andes.getInstance()
-                        .getNextNMessageMetadataFromQueue(queueName, nextMsgId, maxMsgCount);
-            } else {
-                nextNMessageMetadataFromQueue = Andes.getInstance()
-                        .getNextNMessageMetadataFromDLC(queueName, nextMsgId, maxMsgCount);
-            }
-
-            return getDisplayableMetaData(nextNMessageMetadataFromQueue, true);
-
+            return browseMessages(BrowseCursor.forQueue(queueName).after(nextMsgId - 1), maxMsgCount);
         } catch (AndesException e) {
             throw new MBeanException(e, "Error occurred in browse queue.");
         }
@@ -518,18 +502,8 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
             throws MBeanException {
 
         try {
-
-            List<AndesMessageMetadata> nextNMessageMetadataFromQueue;
-            if (!DLCQueueUtils.isDeadLetterQueue(queueName)) {
-                nextNMessageMetadataFromQueue = Andes.getInstance().getNextNMessageMetadataInDLCForQueue(queueName,
-                        DLCQueueUtils.identifyTenantInformationAndGenerateDLCString(queueName), nextMsgId,
-                        maxMessageCount);
-            } else {
-                nextNMessageMetadataFromQueue = Andes.getInstance().getNextNMessageMetadataFromDLC(
-                        DLCQueueUtils.identifyTenantInformationAndGenerateDLCString(queueName), nextMsgId,
-                        maxMessageCount);
-            }
-            return getDisplayableMetaData(nextNMessageMetadataFromQueue, true);
+            return browseMessages(BrowseCursor.forDeadLetterChannel(queueName).after(nextMsgId - 1),
+                    maxMessageCount);
         } catch (AndesException e) {
             throw new MBeanException(e, "Error occurred in browse queue.");
         }
@@ -845,36 +819,89 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
      * @return Composite data array of properties of all messages
      * @throws MBeanException if an OpenDataException occurs while mapping JMS headers for the Message.
      */
-    private CompositeData[] getDisplayableMetaData(List<AndesMessageMetadata> metadataList, boolean includeContent) throws MBeanException {
+    private CompositeData[] getDisplayableMetaData(List<AndesMessageMetadata> metadataList) throws MBeanException {
         List<CompositeData> compositeDataList = new ArrayList<>();
-        try {
-            for (AndesMessageMetadata andesMessageMetadata : metadataList) {
-                Object[] itemValues = getItemValues(andesMessageMetadata, includeContent);
-                if (null != itemValues) {
-                    CompositeDataSupport support = new CompositeDataSupport(_msgContentType,
-                            VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC
-                                    .toArray(new String[VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC.size()]),
-                            itemValues);
-                    compositeDataList.add(support);
-                }
+        for (AndesMessageMetadata andesMessageMetadata : metadataList) {
+            compositeDataList.add(getCompositeData(getItemValues(andesMessageMetadata, null)));
+        }
+        return compositeDataList.toArray(new CompositeData[compositeDataList.size()]);
+    }
+
+    /**
+     * Read the messages following the cursor along with their content, page by page, until the requested number
+     * of messages is read. The page limits of the broker bound each read from the store, not the number of
+     * messages returned to the caller.
+     *
+     * @param cursor          position to read from
+     * @param maxMessageCount maximum number of messages to return
+     * @return Composite data array of properties of all messages read
+     * @throws AndesException if messages cannot be read from the store
+     * @throws MBeanException if the content of a message cannot be read or formatted
+     */
+    private CompositeData[] browseMessages(BrowseCursor cursor, int maxMessageCount)
+            throws AndesException, MBeanException {
+        List<CompositeData> compositeDataList = new ArrayList<>();
+        BrowseCursor nextCursor = cursor;
+        while (compositeDataList.size() < maxMessageCount) {
+            BrowsePage page = Andes.getInstance()
+                    .browse(nextCursor, maxMessageCount - compositeDataList.size(), true);
+            addDisplayableMessages(page, compositeDataList);
+            if (page.isLastPage()) {
+                break;
+            }
+            nextCursor = page.getNextCursor();
+        }
+        return compositeDataList.toArray(new CompositeData[compositeDataList.size()]);
+    }
+
+    /**
+     * Method to add a page of browsed messages along with their content to a list of displayable messages.
+     *
+     * @param page              the page of messages read with content
+     * @param compositeDataList list the properties of the messages are added to
+     * @throws MBeanException if the content of a message cannot be read or formatted
+     */
+    private void addDisplayableMessages(BrowsePage page, List<CompositeData> compositeDataList)
+            throws MBeanException {
+        for (BrowsedMessage message : page.getMessages()) {
+            try {
+                compositeDataList.add(getCompositeData(getItemValues(message.getMetadata(), message.getContent())));
+            } catch (AndesException e) {
+                throw new MBeanException(e, "Error occurred while reading the content of message with Id : "
+                        + message.getMessageId());
             }
+        }
+    }
+
+    /**
+     * Method to map the properties of a single message to composite data.
+     *
+     * @param itemValues properties of the message
+     * @return Composite data of the message
+     * @throws MBeanException if an OpenDataException occurs while mapping the properties
+     */
+    private CompositeData getCompositeData(Object[] itemValues) throws MBeanException {
+        try {
+            return new CompositeDataSupport(_msgContentType, VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC
+                    .toArray(new String[VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC.size()]), itemValues);
         } catch (OpenDataException exception) {
             throw new MBeanException(exception, "Error occurred when formatting message in queue.");
         }
-        return compositeDataList.toArray(new CompositeData[compositeDataList.size()]);
     }
 
     /**
      * Method to get an array of properties of a single message.
      *
      * @param andesMessageMetadata andes message metadata to be parsed
+     * @param messageContent       decompressed content of the message, null if content is not displayed
      * @return an array of properties of the message
      * @throws MBeanException if an AMQException occurs while reading Message Content headers.
      */
-    private Object[] getItemValues(AndesMessageMetadata andesMessageMetadata, boolean includeContent) throws MBeanException {
+    private Object[] getItemValues(AndesMessageMetadata andesMessageMetadata, byte[] messageContent)
+            throws MBeanException {
         try {
 
-            Object[] itemValues = null;
+            Object[] itemValues;
             //get AMQMessage from AndesMessageMetadata
             AMQMessage amqMessage = AMQPUtils.getAMQMessageFromAndesMetaData(andesMessageMetadata);
             //header properties from AMQMessage
@@ -910,22 +937,15 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
             //get AndesMessageMetadata id
             long andesMessageMetadataId = andesMessageMetadata.getMessageID();
 
-            //content is constructing
-            final int bodySize = (int) amqMessage.getSize();
-
-            if (includeContent) {
-                AndesMessagePart constructedContent = constructContent(bodySize, amqMessage);
-                byte[] messageContent = constructedContent.getData();
-                int position = constructedContent.getOffset();
-                //if position did not proceed, there is an error receiving content. If not, decode content
-                if (!((bodySize != 0) && (position == 0))) {
+            if (null != messageContent) {
+                if (0 != messageContent.length) {
                     String[] content = decodeContent(amqMessage, messageContent);
                     //set content type of message to readable name
                     contentType = getReadableNameForMessageContentType(contentType);
                     //set CompositeData of message
                     itemValues = new Object[]{msgProperties, contentType, content, messageId, redelivered,
                             timeStamp, destination, andesMessageMetadataId};
-                } else if (bodySize == 0) { //empty message
+                } else { //empty message
                     itemValues = new Object[]{msgProperties, contentType, "", messageId, redelivered,
                             timeStamp, destination, andesMessageMetadataId};
                 }
@@ -940,68 +960,6 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
         }
     }
 
-    /**
-     * Method to construct message body of a single message.
-     *
-     * @param bodySize   Original content size of the message
-     * @param amqMessage AMQMessage
-     * @return Message content and last position of written data as an AndesMessagePart
-     * @throws MBeanException
-     */
-    private AndesMessagePart constructContent(int bodySize, AMQMessage amqMessage) throws MBeanException {
-
-        AndesMessagePart andesMessagePart;
-
-        if (amqMessage.getMessageMetaData().isCompressed()) {
-            /* If the current message was compressed by the server, decompress the message content and, get it as an
-             * AndesMessagePart
-             */
-            long messageID = amqMessage.getMessageId();
-            LongArrayList messList = new LongArrayList();
-            messList.add(messageID);
-
-            try {
-                LongObjectHashMap<List<AndesMessagePart>> contentListMap = MessagingEngine.getInstance()
-                        .getContent(messList);
-                List<AndesMessagePart> contentList = contentListMap.get(messageID);
-
-                andesMessagePart = lz4CompressionHelper.getDecompressedMessage(contentList, bodySize);
-
-            } catch (AndesException e) {
-                throw new MBeanException(e,
-                        "Error occurred while construct the message content. Message ID:" + amqMessage.getMessageId());
-            }
-        } else {
-            byte[] messageContent = new byte[bodySize];
-
-            //Getting a buffer, to write data into the byte array and to the buffer at the same time
-            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(messageContent);
-
-            int position = 0;
-
-            while (position < bodySize) {
-                position = position + amqMessage.getContent(buffer, position);
-
-                //If position did not proceed, there is an error receiving content
-                if ((0 != bodySize) && (0 == position)) {
-                    break;
-                }
-
-                //The limit is setting to the current position and then the position of the buffer is setting to zero
-                buffer.flip();
-
-                //The position of the buffer is setting to zero, the limit is setting to the capacity
-                buffer.clear();
-            }
-
-            andesMessagePart = new AndesMessagePart();
-            andesMessagePart.setData(messageContent);
-            andesMessagePart.setOffSet(position);
-        }
-
-        return andesMessagePart;
-    }
-
     /**
      * Method to decode content of a single message into text
      *
@@ -1063,7 +1021,8 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
     }
 
     /**
-     * Common method to restore a list of messages based on Id to its original queue or a different queue.
+     * Common method to restore a list of messages based on Id to its original queue or a different queue. Metadata
+     * of the messages is read in chunks, one store call per chunk.
      *
      * @param messageIds             list of messages to be restored
      * @param sourceQueue            original destination queue of the messages.
@@ -1077,23 +1036,60 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
                                                     boolean restoreToOriginalQueue)
             throws AndesException {
 
-        List<AndesMessageMetadata> messagesToRemove = new ArrayList<>(messageIds.size());
+        BulkOperationProgress progress = new BulkOperationProgress("Moving selected messages in DLC for "
+                + sourceQueue + " to " + targetQueue);
+        int movedMessageCount = 0;
+        for (int start = 0; start < messageIds.size(); start = start + progress.getChunkSize()) {
+            int end = Math.min(messageIds.size(), start + progress.getChunkSize());
+            LongArrayList messageIdChunk = new LongArrayList(end - start);
+            for (Long messageId : messageIds.subList(start, end)) {
+                messageIdChunk.add(messageId);
+            }
+            List<AndesMessageMetadata> messages = Andes.getInstance().getMessageMetaData(messageIdChunk);
+            if (!messages.isEmpty()) {
+                int movedMessageCountInChunk = moveMetadataFromDLCToNewDestination(messages, sourceQueue,
+                        targetQueue, restoreToOriginalQueue);
+                movedMessageCount = movedMessageCount + movedMessageCountInChunk;
+                progress.chunkProcessed(movedMessageCountInChunk);
+            }
+        }
+        progress.completed();
+        return movedMessageCount;
+    }
+
+    /**
+     * Move a chunk of messages read from the DLC to a new destination. Content of the whole chunk is read in a
+     * single store call, and the messages are removed from the DLC in a single store call once they are handed
+     * over to Andes.
+     *
+     * @param messages               metadata of the messages read from the DLC
+     * @param sourceQueue            the original queue of the messages
+     * @param targetQueue            the new destination of the messages
+     * @param restoreToOriginalQueue true if the messages are restored to the original queue
+     * @return number of messages moved
+     * @throws AndesException if an error occurred while moving the messages
+     */
+    private int moveMetadataFromDLCToNewDestination(List<AndesMessageMetadata> messages, String sourceQueue,
+                                                    String targetQueue, boolean restoreToOriginalQueue)
+            throws AndesException {
+
+        List<AndesMessageMetadata> messagesToRemove = new ArrayList<>(messages.size());
 
         LongArrayList messageIdCollection = new LongArrayList();
-        for (Long messageId : messageIds) {
-            messageIdCollection.add(messageId);
+        for (AndesMessageMetadata message : messages) {
+            messageIdCollection.add(message.getMessageID());
         }
 
         int movedMessageCount = 0;
         LongObjectHashMap<List<AndesMessagePart>> messageContent = Andes.getInstance().getContent(messageIdCollection);
         boolean interruptedByFlowControl = false;
 
-        for (Long messageId : messageIds) {
+        for (AndesMessageMetadata metadata : messages) {
             if (restoreBlockedByFlowControl) {
                 interruptedByFlowControl = true;
                 break;
             }
-            AndesMessageMetadata metadata = Andes.getInstance().getMessageMetaData(messageId);
+            long messageId = metadata.getMessageID();
             if (!restoreToOriginalQueue) {
                 // Set the new destination queue
                 StorageQueue newStorageQueue = AndesContext.getInstance().
@@ -1175,7 +1171,7 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
                         DLCQueueUtils.identifyTenantInformationAndGenerateDLCString(targetQueue), startMessageId,
                         pageLimit);
             }
-            return getDisplayableMetaData(nextNMessageMetadataFromQueue, false);
+            return getDisplayableMetaData(nextNMessageMetadataFromQueue);
 
         } catch (AndesException e) {
             throw new MBeanException(e,
@@ -1195,40 +1191,36 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
                     + "single database call.") int internalBatchSize)
             throws MBeanException {
 
-        List<Long> currentMessageIdList;
-        Long lastMessageId = 0L;
+        List<AndesMessageMetadata> currentMessageList;
+        long lastMessageId = 0L;
         int movedMessageCount = 0;
 
         // Get full name of Dead Letter Channel
         String dlcQueueName = DLCQueueUtils.identifyTenantInformationAndGenerateDLCString(sourceQueue);
+        boolean isDeadLetterQueue = DLCQueueUtils.isDeadLetterQueue(sourceQueue);
 
-        try {
-            if (DLCQueueUtils.isDeadLetterQueue(sourceQueue)) {
-                currentMessageIdList = Andes.getInstance()
-                        .getNextNMessageIdsInDLC(dlcQueueName, lastMessageId, internalBatchSize);
-
-                while (currentMessageIdList.size() > 0) {
-                    int movedMessageCountInThisBatch = moveMessagesFromDLCToNewDestination(currentMessageIdList,
-                            sourceQueue, targetQueue, false);
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Successfully restored messages from DLC to targetQueue: " + targetQueue
-                                + " movedMessageCountInThisBatch : " + movedMessageCountInThisBatch);
-                    }
-
-                    movedMessageCount = movedMessageCount + movedMessageCountInThisBatch;
-                    lastMessageId = currentMessageIdList.get(currentMessageIdList.size() - 1);
+        // Messages are read in chunks with their metadata, instead of reading the metadata of each message by id
+        BulkOperationProgress progress;
+        if (internalBatchSize > 0) {
+            progress = new BulkOperationProgress("Rerouting messages in DLC for " + sourceQueue + " to "
+                    + targetQueue, internalBatchSize);
+        } else {
+            progress = new BulkOperationProgress("Rerouting messages in DLC for " + sourceQueue + " to "
+                    + targetQueue);
+        }
 
-                    currentMessageIdList = Andes.getInstance().getNextNMessageIdsInDLC(dlcQueueName, lastMessageId,
-                            internalBatchSize);
+        try {
+            do {
+                if (isDeadLetterQueue) {
+                    currentMessageList = Andes.getInstance().getNextNMessageMetadataFromDLC(dlcQueueName,
+                            lastMessageId + 1, progress.getChunkSize());
+                } else {
+                    currentMessageList = Andes.getInstance().getNextNMessageMetadataInDLCForQueue(sourceQueue,
+                            dlcQueueName, lastMessageId + 1, progress.getChunkSize());
                 }
-            } else {
-                currentMessageIdList = Andes.getInstance()
-                        .getNextNMessageIdsInDLCForQueue(sourceQueue, dlcQueueName, lastMessageId,
-                                internalBatchSize);
 
-                while (currentMessageIdList.size() > 0) {
-                    int movedMessageCountInThisBatch = moveMessagesFromDLCToNewDestination(currentMessageIdList,
+                if (!currentMessageList.isEmpty()) {
+                    int movedMessageCountInThisBatch = moveMetadataFromDLCToNewDestination(currentMessageList,
                             sourceQueue, targetQueue, false);
 
                     if (log.isDebugEnabled()) {
@@ -1238,13 +1230,11 @@ public class QueueManagementInformationMBean extends AMQManagedObject implements
                     }
 
                     movedMessageCount = movedMessageCount + movedMessageCountInThisBatch;
-                    lastMessageId = currentMessageIdList.get(currentMessageIdList.size() - 1);
-
-                    currentMessageIdList = Andes.getInstance()
-                            .getNextNMessageIdsInDLCForQueue(sourceQueue, dlcQueueName,
-                                    lastMessageId, internalBatchSize);
+                    lastMessageId = currentMessageList.get(currentMessageList.size() - 1).getMessageID();
+                    progress.chunkProcessed(movedMessageCountInThisBatch);
                 }
-            }
+            } while (currentMessageList.size() >= progress.getChunkSize());
+            progress.completed();
         } catch (AndesException ex) {
             throw new MBeanException(ex, "Error occurred when moving metadata destined to sourceQueue : " + sourceQueue
                     + " from DLC to targetQueue : " + targetQueue + ". movedMessageCount : " + movedMessageCount);
@@ -72,6 +72,11 @@ public class AMQMessage implements ServerMessage
     private boolean isTopicMessage = false;
     private long publisherSessionID;
 
+    /**
+     * True if the same message is delivered to many subscribers so that its encoded frames can be shared
+     */
+    private boolean sharedDelivery = false;
+
     public AMQMessage(StoredMessage<MessageMetaData> handle)
     {
         this(handle, null);
@@ -368,4 +373,12 @@ public class AMQMessage implements ServerMessage
     public void setPublisherSessionID(long publisherSessionID) {
         this.publisherSessionID = publisherSessionID;
     }
+
+    public boolean isSharedDelivery() {
+        return sharedDelivery;
+    }
+
+    public void setSharedDelivery(boolean sharedDelivery) {
+        this.sharedDelivery = sharedDelivery;
+    }
 }
@@ -48,6 +48,11 @@ public class MessageMetaData implements StorableMessageMetaData
 
     private boolean _isCompressed = false;
 
+    /**
+     * True if the content was compressed chunk by chunk instead of as a whole message
+     */
+    private boolean _isChunkCompressed = false;
+
     /**
      * Unique publisher's session id to validate whether subscriber and publisher has the same session
      */
@@ -103,8 +108,25 @@ public class MessageMetaData implements StorableMessageMetaData
      */
     public MessageMetaData(MessagePublishInfo publishBody, ContentHeaderBody contentHeaderBody, long sessionID,
                            int contentChunkCount, long arrivalTime, boolean isCompressed) {
+        this(publishBody, contentHeaderBody, sessionID, contentChunkCount, arrivalTime, isCompressed, false);
+    }
+
+    /**
+     * This constructor is used to set isCompressed and isChunkCompressed values into message meta data
+     *
+     * @param publishBody       Message publish information
+     * @param contentHeaderBody Message content header body
+     * @param sessionID         Publisher's SessionId
+     * @param contentChunkCount Content chunk count
+     * @param arrivalTime       Arrival time of the message
+     * @param isCompressed      Value to indicate, if the message is compressed or not
+     * @param isChunkCompressed Value to indicate, if the message content is compressed chunk by chunk
+     */
+    public MessageMetaData(MessagePublishInfo publishBody, ContentHeaderBody contentHeaderBody, long sessionID,
+                           int contentChunkCount, long arrivalTime, boolean isCompressed, boolean isChunkCompressed) {
         this(publishBody, contentHeaderBody, sessionID, contentChunkCount, arrivalTime);
         _isCompressed = isCompressed;
+        _isChunkCompressed = isChunkCompressed;
     }
 
     public long getPublisherSessionID() {
@@ -164,6 +186,10 @@ public class MessageMetaData implements StorableMessageMetaData
         return _isCompressed;
     }
 
+    public boolean isChunkCompressed() {
+        return _isChunkCompressed;
+    }
+
     public int getStorableSize()
     {
         int size = _contentHeaderBody.getSize();
@@ -173,7 +199,7 @@ public class MessageMetaData implements StorableMessageMetaData
         size += 1; // flags for immediate/mandatory
         size += EncodingUtils.encodedLongLength(); // for sessionID
         size += EncodingUtils.encodedLongLength();
-        size += EncodingUtils.encodedBooleanLength(); // for compression state of the message
+        size += EncodingUtils.encodedBooleanLength(); // for compression state and method of the message
 
         return size;
     }
@@ -199,7 +225,7 @@ public class MessageMetaData implements StorableMessageMetaData
         EncodingUtils.writeByte(minaSrc, flags);
         EncodingUtils.writeLong(minaSrc, publisherSessionID);
         EncodingUtils.writeLong(minaSrc, _arrivalTime);
-        EncodingUtils.writeBoolean(minaSrc, _isCompressed);
+        EncodingUtils.writeBooleans(minaSrc, _isCompressed, _isChunkCompressed);
 
         src.position(minaSrc.position());
         src.flip();
@@ -252,9 +278,13 @@ public class MessageMetaData implements StorableMessageMetaData
                 long arrivalTime = EncodingUtils.readLong(minaSrc);
 
                 // isCompressed is an optional property. Thus, can't add properties to MessageMetaData after this.
+                // isChunkCompressed shares its byte, and is not set in metadata written before it was introduced
                 boolean isCompressed = false;
+                boolean isChunkCompressed = false;
                 if (minaSrc.hasRemaining()) {
-                    isCompressed = EncodingUtils.readBoolean(minaSrc);
+                    boolean[] compressionFlags = EncodingUtils.readBooleans(minaSrc);
+                    isCompressed = compressionFlags[0];
+                    isChunkCompressed = compressionFlags[1];
                 }
 
                 MessagePublishInfo publishBody =
@@ -290,7 +320,8 @@ public class MessageMetaData implements StorableMessageMetaData
                                 return routingKey;
                             }
                         };
-                return new MessageMetaData(publishBody, chb, sessionID, 0, arrivalTime, isCompressed);
+                return new MessageMetaData(publishBody, chb, sessionID, 0, arrivalTime, isCompressed,
+                        isChunkCompressed);
             }
             catch (AMQException e)
             {
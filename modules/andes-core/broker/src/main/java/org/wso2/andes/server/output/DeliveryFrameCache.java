@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.server.output;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import org.wso2.andes.AMQException;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.framing.AMQBody;
+import org.wso2.andes.framing.ContentBody;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.protocol.AMQConstant;
+import org.wso2.andes.protocol.AMQVersionAwareProtocolSession;
+import org.wso2.andes.server.message.MessageContentSource;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the content header and content body frames of messages delivered to many subscribers, such as non-durable
+ * topic messages, encoded once. Cached frames are backed by read-only buffers so that they can be written to any
+ * number of connections concurrently. Only the basic.deliver method body, which carries the consumer tag, delivery
+ * tag and redelivered flag, is encoded for each subscriber.
+ */
+public class DeliveryFrameCache {
+
+    private static volatile DeliveryFrameCache instance;
+
+    /**
+     * True if encoded frames are cached
+     */
+    private final boolean enabled;
+
+    /**
+     * Encoded frames by message id
+     */
+    private final Cache<Long, EncodedDelivery> encodedDeliveries;
+
+    private DeliveryFrameCache() {
+        enabled = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_ENABLED);
+        Integer maximumSizeInBytes = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_MAXIMUM_SIZE_IN_BYTES);
+        Integer expiryTime = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_ENCODED_FRAME_CACHE_EXPIRY_TIME);
+
+        encodedDeliveries = CacheBuilder.newBuilder()
+                .maximumWeight(maximumSizeInBytes)
+                .weigher(new Weigher<Long, EncodedDelivery>() {
+                    @Override
+                    public int weigh(Long messageId, EncodedDelivery encodedDelivery) {
+                        return encodedDelivery.getEncodedSize();
+                    }
+                })
+                .expireAfterWrite(expiryTime, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Get the delivery frame cache of the broker. The cache is created on first use since it reads the broker
+     * configuration.
+     *
+     * @return delivery frame cache
+     */
+    public static DeliveryFrameCache getInstance() {
+        if (null == instance) {
+            synchronized (DeliveryFrameCache.class) {
+                if (null == instance) {
+                    instance = new DeliveryFrameCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return true if encoded frames are cached
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the encoded frames of a message, encoding them if they are not already cached for the given frame size.
+     *
+     * @param messageId         id of the message
+     * @param message           source of the message content
+     * @param contentHeaderBody content header of the message
+     * @param maxBodySize       maximum size of a content body frame payload on the connection
+     * @return encoded frames of the message
+     * @throws AMQException if the message content could not be read
+     */
+    public EncodedDelivery getEncodedDelivery(long messageId, MessageContentSource message,
+                                              ContentHeaderBody contentHeaderBody, int maxBodySize)
+            throws AMQException {
+        EncodedDelivery encodedDelivery = encodedDeliveries.getIfPresent(messageId);
+
+        if (null == encodedDelivery || encodedDelivery.getMaxBodySize() != maxBodySize) {
+            EncodedDelivery newEncodedDelivery = encode(message, contentHeaderBody, maxBodySize);
+
+            // Another subscriber may have encoded the same message concurrently. Keep the cached one in that case
+            // so that the message is held in memory only once.
+            EncodedDelivery existing = encodedDeliveries.asMap().putIfAbsent(messageId, newEncodedDelivery);
+            if (null != existing && existing.getMaxBodySize() == maxBodySize) {
+                encodedDelivery = existing;
+            } else {
+                if (null != existing) {
+                    encodedDeliveries.put(messageId, newEncodedDelivery);
+                }
+                encodedDelivery = newEncodedDelivery;
+            }
+        }
+
+        return encodedDelivery;
+    }
+
+    /**
+     * Encode the content header and split the content into content body frames of the given size
+     */
+    private EncodedDelivery encode(MessageContentSource message, ContentHeaderBody contentHeaderBody,
+                                   int maxBodySize) throws AMQException {
+        int bodySize = (int) message.getSize();
+        int frameCount = (bodySize + maxBodySize - 1) / maxBodySize;
+        AMQBody[] contentBodies = new AMQBody[frameCount];
+
+        int writtenSize = 0;
+        for (int i = 0; i < frameCount; i++) {
+            int capacity = Math.min(maxBodySize, bodySize - writtenSize);
+            java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(capacity);
+
+            int oldWrittenSize = writtenSize;
+            writtenSize += message.getContent(buf, writtenSize);
+            if (writtenSize <= oldWrittenSize) {
+                throw new AMQException(AMQConstant.MESSAGE_CONTENT_OBSOLETE, "Unexpected Error while getting message "
+                        + "content : writtenSize= " + writtenSize + " bodySize= " + bodySize);
+            }
+            buf.flip();
+            contentBodies[i] = new ContentBody(ByteBuffer.wrap(buf).asReadOnlyBuffer());
+        }
+
+        return new EncodedDelivery(new EncodedBody(contentHeaderBody), contentBodies, bodySize, maxBodySize);
+    }
+
+    /**
+     * Encoded frames of a message
+     */
+    public static class EncodedDelivery {
+
+        private final AMQBody contentHeaderBody;
+
+        private final AMQBody[] contentBodies;
+
+        private final int encodedSize;
+
+        private final int maxBodySize;
+
+        private EncodedDelivery(AMQBody contentHeaderBody, AMQBody[] contentBodies, int bodySize,
+                                int maxBodySize) {
+            this.contentHeaderBody = contentHeaderBody;
+            this.contentBodies = contentBodies;
+            this.encodedSize = contentHeaderBody.getSize() + bodySize;
+            this.maxBodySize = maxBodySize;
+        }
+
+        /**
+         * @return encoded content header body
+         */
+        public AMQBody getContentHeaderBody() {
+            return contentHeaderBody;
+        }
+
+        /**
+         * @return encoded content bodies in the order they should be written
+         */
+        public AMQBody[] getContentBodies() {
+            return contentBodies;
+        }
+
+        /**
+         * @return number of bytes held by the encoded frames
+         */
+        int getEncodedSize() {
+            return encodedSize;
+        }
+
+        /**
+         * @return maximum content body frame payload size the content is split with
+         */
+        int getMaxBodySize() {
+            return maxBodySize;
+        }
+    }
+
+    /**
+     * Frame body holding the payload of another body encoded in a read-only buffer
+     */
+    private static class EncodedBody implements AMQBody {
+
+        private final byte frameType;
+
+        private final ByteBuffer payload;
+
+        private EncodedBody(AMQBody body) {
+            frameType = body.getFrameType();
+            ByteBuffer buf = ByteBuffer.wrap(new byte[body.getSize()]);
+            body.writePayload(buf);
+            buf.flip();
+            payload = buf.asReadOnlyBuffer();
+        }
+
+        @Override
+        public byte getFrameType() {
+            return frameType;
+        }
+
+        @Override
+        public int getSize() {
+            return payload.limit();
+        }
+
+        @Override
+        public void writePayload(ByteBuffer buffer) {
+            buffer.put(payload.duplicate());
+        }
+
+        @Override
+        public void handle(int channelId, AMQVersionAwareProtocolSession session) throws AMQException {
+            throw new UnsupportedOperationException("Encoded frames are only written to the wire");
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.wso2.andes.protocol.AMQVersionAwareProtocolSession;
 import org.wso2.andes.server.message.AMQMessage;
 import org.wso2.andes.server.message.MessageContentSource;
 import org.wso2.andes.server.message.MessageTransferMessage;
+import org.wso2.andes.server.output.DeliveryFrameCache;
 import org.wso2.andes.server.output.HeaderPropertiesConverter;
 import org.wso2.andes.server.output.ProtocolOutputConverter;
 import org.wso2.andes.server.protocol.AMQProtocolSession;
@@ -97,7 +98,47 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
     private void writeMessageDelivery(QueueEntry entry, int channelId, AMQBody deliverBody)
             throws AMQException
     {
-        writeMessageDelivery(entry.getMessage(), getContentHeaderBody(entry), channelId, deliverBody);
+        if (isEncodedOnce(entry))
+        {
+            writeEncodedMessageDelivery((AMQMessage) entry.getMessage(), channelId, deliverBody);
+        }
+        else
+        {
+            writeMessageDelivery(entry.getMessage(), getContentHeaderBody(entry), channelId, deliverBody);
+        }
+    }
+
+    /**
+     * Check whether the content header and content body frames of the message are shared with the other
+     * subscribers through the {@link DeliveryFrameCache}
+     */
+    private boolean isEncodedOnce(QueueEntry entry)
+    {
+        return entry.getMessage() instanceof AMQMessage
+               && ((AMQMessage) entry.getMessage()).isSharedDelivery()
+               && entry.getMessage().getSize() > 0
+               && DeliveryFrameCache.getInstance().isEnabled();
+    }
+
+    /**
+     * Write a message using the content header and content body frames encoded once for all subscribers. Only the
+     * deliver body is encoded for this subscriber.
+     */
+    private void writeEncodedMessageDelivery(AMQMessage message, int channelId, AMQBody deliverBody)
+            throws AMQException
+    {
+        int maxBodySize = (int) getProtocolSession().getMaxFrameSize() - AMQFrame.getFrameOverhead();
+
+        DeliveryFrameCache.EncodedDelivery encodedDelivery = DeliveryFrameCache.getInstance()
+                .getEncodedDelivery(message.getMessageId(), message, message.getContentHeaderBody(), maxBodySize);
+
+        AMQBody[] contentBodies = encodedDelivery.getContentBodies();
+        writeFrame(new CompositeAMQBodyBlock(channelId, deliverBody, encodedDelivery.getContentHeaderBody(),
+                                             contentBodies[0]));
+        for (int i = 1; i < contentBodies.length; i++)
+        {
+            writeFrame(new AMQFrame(channelId, contentBodies[i]));
+        }
     }
 
     private void writeMessageDelivery(MessageContentSource message, ContentHeaderBody contentHeaderBody, int channelId, AMQBody deliverBody)
@@ -23,6 +23,7 @@ import org.wso2.andes.AMQConnectionException;
 import org.wso2.andes.AMQException;
 import org.wso2.andes.AMQSecurityException;
 import org.wso2.andes.codec.AMQCodecFactory;
+import org.wso2.andes.codec.AMQDataBlockListener;
 import org.wso2.andes.codec.AMQDecoder;
 import org.wso2.andes.common.ClientProperties;
 import org.wso2.andes.configuration.qpid.ConfigStore;
@@ -162,6 +163,23 @@ public class AMQProtocolEngine implements ProtocolEngine, Managable, AMQProtocol
     private Job _readJob;
     private Job _writeJob;
 
+    /** Processes the data blocks as the decoder decodes them, closing the session if one cannot be processed. */
+    private final AMQDataBlockListener _dataBlockListener = new AMQDataBlockListener()
+    {
+        public void dataBlockDecoded(AMQDataBlock dataBlock)
+        {
+            try
+            {
+                dataBlockReceived(dataBlock);
+            }
+            catch (Exception e)
+            {
+                _logger.error("Unexpected exception when processing datablock", e);
+                closeProtocolSession();
+            }
+        }
+    };
+
     private ReferenceCountingExecutorService _poolReference = ReferenceCountingExecutorService.getInstance();
     private long _maxFrameSize;
     private final AtomicBoolean _closing = new AtomicBoolean(false);
@@ -234,38 +252,28 @@ public class AMQProtocolEngine implements ProtocolEngine, Managable, AMQProtocol
         return _closing.get();
     }
 
+    /**
+     * Hands the read to the read job, which decodes it and processes each data block as soon as it is decoded. The
+     * read job runs one read at a time in the order they were received.
+     *
+     * @param msg data read from the network
+     */
     public void received(final ByteBuffer msg)
     {
             _lastIoTime = System.currentTimeMillis();
-            try
-            {
-                final ArrayList<AMQDataBlock> dataBlocks = _codecFactory.getDecoder().decodeBuffer(msg);
-                Job.fireAsynchEvent(_poolReference.getPool(), _readJob, new Runnable() {
-                    public void run() {
-                        // Decode buffer
-
-                        for (AMQDataBlock dataBlock : dataBlocks)
-                        {
-                            try
-                            {
-                                dataBlockReceived(dataBlock);
-                            }
-                            catch (Exception e)
-                            {
-                                _logger.error("Unexpected exception when processing datablock", e);
-                                e.printStackTrace();
-                                closeProtocolSession();
-                            }
-                        }
-                        dataBlocks.clear();
+            Job.fireAsynchEvent(_poolReference.getPool(), _readJob, new Runnable() {
+                public void run() {
+                    try
+                    {
+                        _codecFactory.getDecoder().decodeBuffer(msg, _dataBlockListener);
                     }
-                });
-            }
-            catch (Exception e)
-            {
-                _logger.error("Unexpected exception when processing datablock", e);
-                closeProtocolSession();
-            }
+                    catch (Exception e)
+                    {
+                        _logger.error("Unexpected exception when processing datablock", e);
+                        closeProtocolSession();
+                    }
+                }
+            });
     }
 
     public void dataBlockReceived(AMQDataBlock message) throws Exception
@@ -31,6 +31,9 @@ import org.wso2.andes.server.message.EnqueableMessage;
 import org.wso2.andes.server.message.MessageContentSource;
 import org.wso2.andes.server.message.MessageMetaData;
 import org.wso2.andes.AMQException;
+import org.wso2.andes.amqp.StreamedContentWriter;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.protocol.AMQConstant;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -70,6 +73,12 @@ public class IncomingMessage implements Filterable, InboundMessage, EnqueableMes
     private int _receivedChunkCount = 0;
     private List<ContentChunk> _contentChunks = new ArrayList<ContentChunk>();
 
+    /**
+     * Writes the content to the store as it is received, in which case content chunks are not kept. Null if the
+     * content is kept until the message is received fully.
+     */
+    private StreamedContentWriter _contentWriter;
+
     // we keep both the original meta data object and the store reference to it just in case the
     // store would otherwise flow it to disk
 
@@ -134,10 +143,42 @@ public class IncomingMessage implements Filterable, InboundMessage, EnqueableMes
             throws AMQException
     {
         _bodyLengthReceived += contentChunk.getSize();
-        _contentChunks.add(contentChunk);
+        if (_contentWriter != null)
+        {
+            try
+            {
+                _contentWriter.write(contentChunk);
+            }
+            catch (AndesException e)
+            {
+                throw new AMQException(AMQConstant.INTERNAL_ERROR, "Error while streaming message content", e);
+            }
+        }
+        else
+        {
+            _contentChunks.add(contentChunk);
+        }
         return _receivedChunkCount++;
     }
 
+    /**
+     * Set the writer streaming the content of the message to the store. Should be set before any content is added.
+     *
+     * @param contentWriter writer of the content, or null to keep the content until the message is received fully
+     */
+    public void setContentWriter(StreamedContentWriter contentWriter)
+    {
+        _contentWriter = contentWriter;
+    }
+
+    /**
+     * @return writer streaming the content of the message to the store, or null if the content is kept in memory
+     */
+    public StreamedContentWriter getContentWriter()
+    {
+        return _contentWriter;
+    }
+
     public long getBodyLengthReceived() {
         return _bodyLengthReceived;
     }
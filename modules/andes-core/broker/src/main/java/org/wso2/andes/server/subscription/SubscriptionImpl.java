@@ -51,6 +51,7 @@ import org.wso2.andes.server.message.AMQMessage;
 import org.wso2.andes.server.output.ProtocolOutputConverter;
 import org.wso2.andes.server.protocol.AMQProtocolSession;
 import org.wso2.andes.server.queue.AMQQueue;
+import org.wso2.andes.server.queue.Filterable;
 import org.wso2.andes.server.queue.QueueEntry;
 import org.wso2.andes.tools.utils.MessageTracer;
 
@@ -580,6 +581,18 @@ public abstract class SubscriptionImpl implements Subscription, FlowCreditManage
         return (_filters == null) || _filters.allAllow(msg);
     }
 
+    /**
+     * Check whether the filters of the subscription, such as the selector, accept a message without creating a
+     * queue entry for it
+     *
+     * @param message headers of the message
+     * @return true if the message is accepted by all the filters
+     */
+    public boolean isAcceptedByFilters(Filterable message)
+    {
+        return (_filters == null) || _filters.allAllow(message);
+    }
+
     public boolean isAutoClose()
     {
         return _autoClose;
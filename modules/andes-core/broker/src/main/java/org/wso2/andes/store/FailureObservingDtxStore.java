@@ -61,6 +61,19 @@ public class FailureObservingDtxStore extends FailureObservingStore<DtxStore> im
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] storeDtxRecords(List<DtxBranch> branches) throws AndesException {
+        try {
+            return wrappedInstance.storeDtxRecords(branches);
+        } catch (AndesStoreUnavailableException e) {
+            notifyFailures(e);
+            throw new AndesException(e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -74,6 +87,19 @@ public class FailureObservingDtxStore extends FailureObservingStore<DtxStore> im
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateOnCommit(List<DtxBranch> branches) throws AndesException {
+        try {
+            wrappedInstance.updateOnCommit(branches);
+        } catch (AndesStoreUnavailableException e) {
+            notifyFailures(e);
+            throw new AndesException(e);
+        }
+    }
+
     @Override
     public void updateOnOnePhaseCommit(List<AndesMessage> enqueueRecords,
             List<AndesPreparedMessageMetadata> dequeueRecordsMetadata) throws AndesException {
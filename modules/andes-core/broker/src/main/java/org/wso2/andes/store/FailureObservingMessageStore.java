@@ -91,6 +91,20 @@ public class FailureObservingMessageStore extends FailureObservingStore<MessageS
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void storeStreamedContent(long contentId, List<AndesMessagePart> partList, boolean firstParts)
+            throws AndesException {
+        try {
+            wrappedInstance.storeStreamedContent(contentId, partList, firstParts);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -196,6 +210,19 @@ public class FailureObservingMessageStore extends FailureObservingStore<MessageS
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesMessageMetadata> getMetadata(LongArrayList messageIDList) throws AndesException {
+        try {
+            return wrappedInstance.getMetadata(messageIDList);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -236,6 +263,32 @@ public class FailureObservingMessageStore extends FailureObservingStore<MessageS
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public long recoverSlotsFromCheckpoint(String storageQueueName, RecoverySlotCreator.CallBack callBack)
+            throws AndesException {
+        try {
+            return wrappedInstance.recoverSlotsFromCheckpoint(storageQueueName, callBack);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int checkpointSlotsForQueue(String storageQueueName, long lastMessageId, int messageLimitPerSlot)
+            throws AndesException {
+        try {
+            return wrappedInstance.checkpointSlotsForQueue(storageQueueName, lastMessageId, messageLimitPerSlot);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -418,6 +471,32 @@ public class FailureObservingMessageStore extends FailureObservingStore<MessageS
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteNextNMessageMetadata(String storageQueueName, int count) throws AndesException {
+        try {
+            return wrappedInstance.deleteNextNMessageMetadata(storageQueueName, count);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteNextNMessagesInDLC(String dlcQueueName, int count) throws AndesException {
+        try {
+            return wrappedInstance.deleteNextNMessagesInDLC(dlcQueueName, count);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -24,6 +24,7 @@ import org.wso2.andes.AMQException;
 import org.wso2.andes.amqp.QpidAndesBridge;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.message.MessageMetaData;
 import org.wso2.andes.server.store.StorableMessageMetaData;
 import org.wso2.andes.server.store.StoredMessage;
 import org.wso2.andes.server.store.TransactionLog;
@@ -90,7 +91,9 @@ public class StoredAMQPMessage implements StoredMessage {
     public int getContent(int offsetInMessage, ByteBuffer dst) {
         int c = 0;
         try {
-            c = QpidAndesBridge.getMessageContentChunk(_messageId, offsetInMessage, dst);
+            boolean isChunkCompressed = (metaData instanceof MessageMetaData)
+                    && ((MessageMetaData) metaData).isChunkCompressed();
+            c = QpidAndesBridge.getMessageContentChunk(_messageId, offsetInMessage, dst, isChunkCompressed);
         } catch (AMQException e) {
            log.error("Error while getting message content chunk messageID=" + _messageId + " offset=" + offsetInMessage,e);
         }
@@ -29,6 +29,7 @@ import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesMessage;
 import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.SharedContent;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -99,6 +100,11 @@ public class GuavaBasedMessageCacheImpl implements AndesMessageCache {
                 .weigher(new Weigher<Long, AndesMessage>() {
                     @Override
                     public int weigh(Long l, AndesMessage m) {
+                        // Copies of a message sharing content refer to the same content bytes
+                        SharedContent sharedContent = m.getSharedContent();
+                        if (null != sharedContent && sharedContent.getReferenceCount() > 1) {
+                            return m.getMetadata().getMessageContentLength() / sharedContent.getReferenceCount();
+                        }
                         return m.getMetadata().getMessageContentLength();
                     }
                 });
@@ -136,6 +142,11 @@ public class GuavaBasedMessageCacheImpl implements AndesMessageCache {
     @Override
     public void addToCache(AndesMessage message) {
 
+        // Content streamed to the store while the message was received is not held in memory
+        SharedContent sharedContent = message.getSharedContent();
+        if (null != sharedContent && sharedContent.isContentStored()) {
+            return;
+        }
         cache.put(message.getMetadata().getMessageID(), message);
 
     }
@@ -91,6 +91,7 @@ public class RDBMSConstants {
     protected static final String MSG_STORE_STATUS_TABLE = "MB_MSG_STORE_STATUS";
     protected static final String RETAINED_METADATA_TABLE = "MB_RETAINED_METADATA";
     protected static final String RETAINED_CONTENT_TABLE = "MB_RETAINED_CONTENT";
+    protected static final String CONTENT_REFERENCE_TABLE = "MB_CONTENT_REFERENCE";
     // Message Store table columns
     protected static final String MESSAGE_ID = "MESSAGE_ID";
     protected static final String INTERNAL_XID = "INTERNAL_XID";
@@ -104,6 +105,7 @@ public class RDBMSConstants {
     protected static final String MSG_OFFSET = "CONTENT_OFFSET";
     protected static final String MESSAGE_CONTENT = "MESSAGE_CONTENT";
     protected static final String EXPIRATION_TIME = "EXPIRATION_TIME";
+    protected static final String CONTENT_ID = "CONTENT_ID";
     protected static final String DESTINATION_QUEUE = "MESSAGE_DESTINATION";
     protected static final String TOPIC_NAME = "TOPIC_NAME";
     protected static final String TOPIC_ID = "TOPIC_ID";
@@ -118,6 +120,8 @@ public class RDBMSConstants {
     protected static final String SLOT_TABLE = "MB_SLOT";
     protected static final String SLOT_MESSAGE_ID_TABLE = "MB_SLOT_MESSAGE_ID";
     protected static final String QUEUE_TO_LAST_ASSIGNED_ID = "MB_QUEUE_TO_LAST_ASSIGNED_ID";
+    protected static final String SLOT_CHECKPOINT_TABLE = "MB_SLOT_CHECKPOINT";
+    protected static final String SLOT_CHECKPOINT_WATERMARK_TABLE = "MB_SLOT_CHECKPOINT_WATERMARK";
     // Coordination related tables
     protected static final String CLUSTER_COORDINATOR_HEARTBEAT_TABLE = "MB_COORDINATOR_HEARTBEAT";
     protected static final String CLUSTER_NODE_HEARTBEAT_TABLE = "MB_NODE_HEARTBEAT";
@@ -161,10 +165,17 @@ public class RDBMSConstants {
     protected static final String SLOT_STATE = "SLOT_STATE";
     protected static final String ASSIGNED_NODE_ID = "ASSIGNED_NODE_ID";
     protected static final String ASSIGNED_QUEUE_NAME = "ASSIGNED_QUEUE_NAME";
+    protected static final String LAST_MESSAGE_ID = "LAST_MESSAGE_ID";
 
     // Constants
     protected static final int COORDINATOR_ANCHOR = 1;
 
+    /**
+     * Storage queue holding a metadata row for each shared content, so that the content is removed through the
+     * content table foreign key once the holder row is removed.
+     */
+    protected static final String SHARED_CONTENT_QUEUE = "<<SharedContentHolder>>";
+
     //columns for cluster membership communication
     protected static final String MEMBERSHIP_CHANGE_TYPE = "CHANGE_TYPE";
     protected static final String MEMBERSHIP_CHANGED_MEMBER_ID = "CHANGED_MEMBER_ID";
@@ -190,6 +201,32 @@ public class RDBMSConstants {
             + " WHERE " + MESSAGE_ID + "=?"
             + " AND " + MSG_OFFSET + "=?";
 
+    protected static final String PS_INSERT_CONTENT_REFERENCE =
+            "INSERT INTO " + CONTENT_REFERENCE_TABLE + "("
+            + MESSAGE_ID + ","
+            + CONTENT_ID + ") VALUES (?, ?)";
+
+    protected static final String PS_RETRIEVE_SHARED_MESSAGE_PART =
+            "SELECT " + CONTENT_TABLE + "." + MESSAGE_CONTENT
+            + " FROM " + CONTENT_REFERENCE_TABLE
+            + " INNER JOIN " + CONTENT_TABLE
+            + " ON " + CONTENT_REFERENCE_TABLE + "." + CONTENT_ID + "=" + CONTENT_TABLE + "." + MESSAGE_ID
+            + " WHERE " + CONTENT_REFERENCE_TABLE + "." + MESSAGE_ID + "=?"
+            + " AND " + CONTENT_TABLE + "." + MSG_OFFSET + "=?";
+
+    /**
+     * Shared content is held by a metadata row in the shared content queue. Holder rows no longer referred by any
+     * message are removed along with the content. Holder rows with ids below the given bound hold content still
+     * being streamed and are kept.
+     */
+    protected static final String PS_DELETE_UNREFERENCED_SHARED_CONTENT =
+            "DELETE FROM " + METADATA_TABLE
+            + " WHERE " + QUEUE_ID + "=?"
+            + " AND " + MESSAGE_ID + ">?"
+            + " AND NOT EXISTS (SELECT 1 FROM " + CONTENT_REFERENCE_TABLE
+                + " WHERE " + CONTENT_REFERENCE_TABLE + "." + CONTENT_ID + "=" + METADATA_TABLE + "." + MESSAGE_ID
+                + ")";
+
     /**
      * We need to select rows that have the DLC_QUEUE_ID = -1 indicating that the message is not moved
      * into the dead letter channel
@@ -302,6 +339,74 @@ public class RDBMSConstants {
             + " AND " + DLC_QUEUE_ID + "=-1"
             + " ORDER BY " + MESSAGE_ID;
 
+    /**
+     * Prepared statement to retrieve the message ids of a queue within a message id range, lower bound excluded
+     */
+    protected static final String PS_SELECT_MESSAGE_IDS_FROM_QUEUE_IN_RANGE =
+            "SELECT " + MESSAGE_ID
+            + " FROM " + METADATA_TABLE
+            + " WHERE " + MESSAGE_ID + ">?"
+            + " AND " + MESSAGE_ID + "<=?"
+            + " AND " + QUEUE_ID + "=?"
+            + " AND " + DLC_QUEUE_ID + "=-1"
+            + " ORDER BY " + MESSAGE_ID;
+
+    /**
+     * Prepared statement to retrieve the lowest and the highest id of the messages of a queue after a message id
+     */
+    protected static final String PS_SELECT_MESSAGE_ID_BOUNDS_FROM_QUEUE =
+            "SELECT MIN(" + MESSAGE_ID + ") AS " + START_MESSAGE_ID
+            + ", MAX(" + MESSAGE_ID + ") AS " + END_MESSAGE_ID
+            + " FROM " + METADATA_TABLE
+            + " WHERE " + MESSAGE_ID + ">?"
+            + " AND " + QUEUE_ID + "=?"
+            + " AND " + DLC_QUEUE_ID + "=-1";
+
+    protected static final String PS_SELECT_MIN_MESSAGE_ID_FROM_QUEUE =
+            "SELECT MIN(" + MESSAGE_ID + ") AS " + MESSAGE_ID
+            + " FROM " + METADATA_TABLE
+            + " WHERE " + QUEUE_ID + "=?"
+            + " AND " + DLC_QUEUE_ID + "=-1";
+
+    protected static final String PS_SELECT_SLOT_CHECKPOINT =
+            "SELECT " + START_MESSAGE_ID + "," + END_MESSAGE_ID + "," + MESSAGE_COUNT
+            + " FROM " + SLOT_CHECKPOINT_TABLE
+            + " WHERE " + QUEUE_ID + "=?"
+            + " ORDER BY " + START_MESSAGE_ID;
+
+    protected static final String PS_INSERT_SLOT_CHECKPOINT =
+            "INSERT INTO " + SLOT_CHECKPOINT_TABLE + " ("
+            + QUEUE_ID + ","
+            + START_MESSAGE_ID + ","
+            + END_MESSAGE_ID + ","
+            + MESSAGE_COUNT + ")"
+            + " VALUES (?,?,?,?)";
+
+    /**
+     * Prepared statement to remove checkpointed slots of a queue which end below the given message id, i.e. slots
+     * whose messages are all consumed
+     */
+    protected static final String PS_DELETE_SLOT_CHECKPOINT =
+            "DELETE FROM " + SLOT_CHECKPOINT_TABLE
+            + " WHERE " + QUEUE_ID + "=?"
+            + " AND " + END_MESSAGE_ID + "<?";
+
+    protected static final String PS_SELECT_SLOT_CHECKPOINT_WATERMARK =
+            "SELECT " + LAST_MESSAGE_ID
+            + " FROM " + SLOT_CHECKPOINT_WATERMARK_TABLE
+            + " WHERE " + QUEUE_ID + "=?";
+
+    protected static final String PS_INSERT_SLOT_CHECKPOINT_WATERMARK =
+            "INSERT INTO " + SLOT_CHECKPOINT_WATERMARK_TABLE + " ("
+            + QUEUE_ID + ","
+            + LAST_MESSAGE_ID + ")"
+            + " VALUES (?,?)";
+
+    protected static final String PS_UPDATE_SLOT_CHECKPOINT_WATERMARK =
+            "UPDATE " + SLOT_CHECKPOINT_WATERMARK_TABLE
+            + " SET " + LAST_MESSAGE_ID + "=?"
+            + " WHERE " + QUEUE_ID + "=?";
+
     protected static final String PS_SELECT_METADATA_IN_DLC_FOR_QUEUE =
             "SELECT " + MESSAGE_ID + "," + METADATA
             + " FROM " + METADATA_TABLE
@@ -345,6 +450,16 @@ public class RDBMSConstants {
             "DELETE  FROM " + METADATA_TABLE
             + " WHERE " + DLC_QUEUE_ID + "=?";
 
+    protected static final String PS_DELETE_METADATA_FROM_QUEUE_UP_TO_ID =
+            "DELETE  FROM " + METADATA_TABLE
+            + " WHERE " + QUEUE_ID + "=?"
+            + " AND " + MESSAGE_ID + "<=?";
+
+    protected static final String PS_DELETE_METADATA_IN_DLC_UP_TO_ID =
+            "DELETE  FROM " + METADATA_TABLE
+            + " WHERE " + DLC_QUEUE_ID + "=?"
+            + " AND " + MESSAGE_ID + "<=?";
+
     protected static final String PS_SELECT_EXPIRED_MESSAGES =
             "SELECT " + MESSAGE_ID + "," + DESTINATION_QUEUE
             + " FROM " + EXPIRATION_TABLE
@@ -1127,6 +1242,18 @@ public class RDBMSConstants {
                     + "SELECT ?," + MESSAGE_ID + "," + MSG_OFFSET + "," + MESSAGE_CONTENT
                     + " FROM " + CONTENT_TABLE + " WHERE " + MESSAGE_ID + "=?";
 
+    static final String PS_INSERT_DTX_DEQUEUE_SHARED_MESSAGE_PART =
+            "INSERT INTO " + DTX_CONTENT_DEQUEUE_TABLE + " ("
+                    + INTERNAL_XID + ","
+                    + MESSAGE_ID + ","
+                    + MSG_OFFSET + ","
+                    + MESSAGE_CONTENT + ") "
+                    + "SELECT ?," + CONTENT_REFERENCE_TABLE + "." + MESSAGE_ID + ","
+                    + CONTENT_TABLE + "." + MSG_OFFSET + "," + CONTENT_TABLE + "." + MESSAGE_CONTENT
+                    + " FROM " + CONTENT_REFERENCE_TABLE + " INNER JOIN " + CONTENT_TABLE
+                    + " ON " + CONTENT_REFERENCE_TABLE + "." + CONTENT_ID + "=" + CONTENT_TABLE + "." + MESSAGE_ID
+                    + " WHERE " + CONTENT_REFERENCE_TABLE + "." + MESSAGE_ID + "=?";
+
     static final String PS_INSERT_DTX_RESTORE_ACKED_MESSAGE_PART =
             "INSERT INTO " + CONTENT_TABLE + " ("
                     + MESSAGE_ID + ","
@@ -1165,6 +1292,9 @@ public class RDBMSConstants {
     protected static final String TASK_DELETING_MESSAGE_PARTS = "deleting message parts.";
     protected static final String TASK_RETRIEVING_MESSAGE_PARTS = "retrieving message parts.";
     protected static final String TASK_RETRIEVING_CONTENT_FOR_MESSAGES = "retrieving content for multiple messages";
+    protected static final String TASK_RETRIEVING_SHARED_CONTENT = "retrieving shared content.";
+    protected static final String TASK_DELETING_UNREFERENCED_SHARED_CONTENT = "deleting unreferenced shared content.";
+    protected static final String TASK_STORING_STREAMED_CONTENT = "storing streamed content.";
     protected static final String TASK_ADDING_METADATA_LIST = "adding metadata list.";
     protected static final String TASK_ADDING_METADATA = "adding metadata.";
     protected static final String TASK_ADDING_MESSAGE = "adding message.";
@@ -1180,6 +1310,7 @@ public class RDBMSConstants {
     protected static final String TASK_RETRIEVING_QUEUE_MSG_COUNT_IN_DLC = "retrieving message count in DLC for"
                                                                            + " queue. ";
     protected static final String TASK_RETRIEVING_METADATA = "retrieving metadata for message id. ";
+    protected static final String TASK_RETRIEVING_METADATA_FOR_MESSAGES = "retrieving metadata for multiple messages";
     protected static final String TASK_RETRIEVING_METADATA_RANGE_FROM_QUEUE = "retrieving metadata within a range "
                                                                               + "from queue. ";
     protected static final String TASK_RETRIEVING_METADATA_RANGE_IN_DLC_FROM_QUEUE = "retrieving metadata in dlc "
@@ -1187,6 +1318,10 @@ public class RDBMSConstants {
     protected static final String TASK_RETRIEVING_METADATA_RANGE_IN_DLC = "retrieving metadata in dlc within a range. ";
     protected static final String TASK_RETRIEVING_NEXT_N_METADATA_FROM_QUEUE = "retrieving metadata list from queue. ";
     protected static final String TASK_RETRIEVING_NEXT_N_IDS_FROM_QUEUE = "retrieving message id list from queue. ";
+    protected static final String TASK_RETRIEVING_MESSAGE_ID_BOUNDS_OF_QUEUE = "retrieving message id bounds of "
+                                                                              + "queue. ";
+    protected static final String TASK_RETRIEVING_SLOT_CHECKPOINT = "retrieving slot checkpoint of queue. ";
+    protected static final String TASK_UPDATING_SLOT_CHECKPOINT = "updating slot checkpoint of queue. ";
     protected static final String TASK_RETRIEVING_NEXT_N_METADATA_IN_DLC_FOR_QUEUE = "retrieving metadata list in DLC "
                                                                                      + "for queue. ";
     protected static final String TASK_RETRIEVING_NEXT_N_METADATA_FROM_DLC = "retrieving metadata list from DLC ";
@@ -99,6 +99,49 @@ public class RDBMSDtxStoreImpl implements DtxStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] storeDtxRecords(List<DtxBranch> branches) throws AndesException {
+
+        Connection connection = null;
+        String taskDescription = "Storing dtx enqueue/dequeue records of " + branches.size()
+                + " branches for dtx.prepare";
+
+        try {
+
+            connection = rdbmsMessageStore.getConnection();
+            long[] internalXids = new long[branches.size()];
+
+            for (int i = 0; i < branches.size(); i++) {
+                DtxBranch branch = branches.get(i);
+                List<AndesPreparedMessageMetadata> dequeueRecords = branch.getMessagesToRestore();
+
+                long internalXid = prepareToStoreXid(branch.getXid(), connection);
+                prepareToStoreEnqueuedRecords(branch.getEnqueueList(), internalXid, connection);
+
+                if (!dequeueRecords.isEmpty()) {
+                    prepareToBackupDequeueRecords(dequeueRecords, internalXid, connection);
+                    rdbmsMessageStore.prepareToDeleteMessages(connection, dequeueRecords);
+                }
+                internalXids[i] = internalXid;
+            }
+
+            connection.commit();
+            return internalXids;
+
+        } catch (AndesException e) {
+            rdbmsMessageStore.rollback(connection, taskDescription);
+            throw e;
+        } catch (SQLException e) {
+            rdbmsMessageStore.rollback(connection, taskDescription);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while storing dtx records for dtx.prepare", e);
+        } finally {
+            rdbmsMessageStore.close(connection, taskDescription);
+        }
+    }
+
     /**
      * Set dequeued records to the prepared statements
      *
@@ -113,11 +156,19 @@ public class RDBMSDtxStoreImpl implements DtxStore {
 
         PreparedStatement storeDequeueRecordMetadataPS = null;
         PreparedStatement backupDequeueMessagesPS = null;
+        PreparedStatement backupDequeueSharedMessagesPS = null;
 
         String taskDescription = "prepare to store dequeued messages for dtx prepare stage";
         try {
             storeDequeueRecordMetadataPS = connection.prepareStatement(RDBMSConstants.PS_INSERT_DTX_DEQUEUE_RECORD);
             backupDequeueMessagesPS = connection.prepareStatement(RDBMSConstants.PS_INSERT_DTX_DEQUEUE_MESSAGE_PART);
+
+            // Shared content is backed up as content of the dequeued message itself, so that a rollback restores the
+            // message with its own content
+            if (rdbmsMessageStore.isContentReferenceEnabled()) {
+                backupDequeueSharedMessagesPS =
+                        connection.prepareStatement(RDBMSConstants.PS_INSERT_DTX_DEQUEUE_SHARED_MESSAGE_PART);
+            }
             for (AndesMessageMetadata messageMetadata : dequeueRecords) {
 
                 storeDequeueRecordMetadataPS.setLong(1, internalXid);
@@ -129,13 +180,23 @@ public class RDBMSDtxStoreImpl implements DtxStore {
                 backupDequeueMessagesPS.setLong(1, internalXid);
                 backupDequeueMessagesPS.setLong(2, messageMetadata.getMessageID());
                 backupDequeueMessagesPS.addBatch();
+
+                if (null != backupDequeueSharedMessagesPS) {
+                    backupDequeueSharedMessagesPS.setLong(1, internalXid);
+                    backupDequeueSharedMessagesPS.setLong(2, messageMetadata.getMessageID());
+                    backupDequeueSharedMessagesPS.addBatch();
+                }
             }
 
             storeDequeueRecordMetadataPS.executeBatch();
             backupDequeueMessagesPS.executeBatch();
+            if (null != backupDequeueSharedMessagesPS) {
+                backupDequeueSharedMessagesPS.executeBatch();
+            }
         } finally {
             rdbmsMessageStore.close(storeDequeueRecordMetadataPS, taskDescription);
             rdbmsMessageStore.close(backupDequeueMessagesPS, taskDescription);
+            rdbmsMessageStore.close(backupDequeueSharedMessagesPS, taskDescription);
         }
     }
 
@@ -235,6 +296,38 @@ public class RDBMSDtxStoreImpl implements DtxStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateOnCommit(List<DtxBranch> branches) throws AndesException {
+        Connection connection = null;
+
+        String task = "Updating records of " + branches.size() + " branches on dtx.commit ";
+
+        try {
+            connection = rdbmsMessageStore.getConnection();
+
+            List<AndesMessage> enqueueRecords = new ArrayList<>();
+            for (DtxBranch branch : branches) {
+                enqueueRecords.addAll(branch.getEnqueueList());
+            }
+
+            if (!enqueueRecords.isEmpty()) {
+                rdbmsMessageStore.prepareToStoreMessages(connection, enqueueRecords);
+            }
+
+            removePreparedRecords(branches, connection);
+            connection.commit();
+
+        } catch (SQLException e) {
+            rdbmsMessageStore.rollback(connection, task);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while executing dtx commit event", e);
+        } finally {
+            rdbmsMessageStore.close(connection, RDBMSConstants.TASK_DTX_COMMIT);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -533,6 +626,30 @@ public class RDBMSDtxStoreImpl implements DtxStore {
         }
     }
 
+    /**
+     * Remove prepared records of several branches as a single batch
+     *
+     * @param branches   {@link DtxBranch} list of which the prepared records are removed
+     * @param connection JDBC {@link Connection}
+     * @throws SQLException throws {@link SQLException} on database driver related exception
+     */
+    private void removePreparedRecords(List<DtxBranch> branches, Connection connection) throws SQLException {
+
+        PreparedStatement statement = null;
+        try {
+            String nodeId = ClusterResourceHolder.getInstance().getClusterManager().getMyNodeID();
+            statement = connection.prepareStatement(RDBMSConstants.PS_DELETE_DTX_ENTRY);
+            for (DtxBranch branch : branches) {
+                statement.setLong(1, branch.getInternalXid());
+                statement.setString(2, nodeId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } finally {
+            rdbmsMessageStore.close(statement, RDBMSConstants.TASK_DELETING_DTX_PREPARED_XID);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -22,9 +22,12 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
 import org.apache.log4j.Logger;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
 import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
@@ -35,9 +38,12 @@ import org.wso2.andes.kernel.DeliverableAndesMetadata;
 import org.wso2.andes.kernel.DtxStore;
 import org.wso2.andes.kernel.DurableStoreConnection;
 import org.wso2.andes.kernel.MessageStore;
+import org.wso2.andes.kernel.SharedContent;
+import org.wso2.andes.kernel.slot.RecoveredSlotMerger;
 import org.wso2.andes.kernel.slot.RecoverySlotCreator;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.server.cluster.coordination.TimeStampBasedMessageIdGenerator;
 import org.wso2.andes.server.queue.DLCQueueUtils;
 import org.wso2.andes.store.AndesDataIntegrityViolationException;
 import org.wso2.andes.store.cache.AndesMessageCache;
@@ -55,9 +61,19 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.wso2.andes.store.rdbms.RDBMSConstants.CONTENT_TABLE;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.MESSAGE_CONTENT;
@@ -97,6 +113,11 @@ public class RDBMSMessageStoreImpl implements MessageStore {
      */
     private static final int STAT_PUBLISHING_INTERVAL = 10 * 1000;
 
+    /**
+     * Last checkpointed message id of a queue without a slot checkpoint
+     */
+    private static final long NO_SLOT_CHECKPOINT = -1;
+
     /**
      * Partially created prepared statement to retrieve content of multiple messages using IN operator
      * this will be completed on the fly when the request comes
@@ -106,6 +127,34 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                     " FROM " + CONTENT_TABLE +
                     " WHERE " + MESSAGE_ID + " IN (";
 
+    /**
+     * Partially created prepared statement to retrieve metadata of multiple messages using IN operator
+     * this will be completed on the fly when the request comes
+     */
+    private static final String PS_SELECT_METADATA_PART =
+            "SELECT " + MESSAGE_ID + ", " + RDBMSConstants.METADATA +
+                    " FROM " + RDBMSConstants.METADATA_TABLE +
+                    " WHERE " + MESSAGE_ID + " IN (";
+
+    /**
+     * Maximum number of message ids bound to a single IN operator, which some databases limit
+     */
+    private static final int MAX_MESSAGE_IDS_PER_QUERY = 1000;
+
+    /**
+     * Partially created prepared statement to retrieve shared content of multiple messages using IN operator. Content
+     * is returned against the ID of the referring message.
+     */
+    private static final String PS_SELECT_SHARED_CONTENT_PART =
+            "SELECT " + CONTENT_TABLE + "." + MESSAGE_CONTENT + ", "
+                    + RDBMSConstants.CONTENT_REFERENCE_TABLE + "." + MESSAGE_ID + ", "
+                    + CONTENT_TABLE + "." + MSG_OFFSET
+                    + " FROM " + RDBMSConstants.CONTENT_REFERENCE_TABLE
+                    + " INNER JOIN " + CONTENT_TABLE
+                    + " ON " + RDBMSConstants.CONTENT_REFERENCE_TABLE + "." + RDBMSConstants.CONTENT_ID
+                    + "=" + CONTENT_TABLE + "." + MESSAGE_ID
+                    + " WHERE " + RDBMSConstants.CONTENT_REFERENCE_TABLE + "." + MESSAGE_ID + " IN (";
+
     /**
      * The cache which holds the queue mappings(queue name to queue id) in memory
      * In the absence of a queried queue name in the cache, the queue id is loaded from the database
@@ -117,6 +166,35 @@ public class RDBMSMessageStoreImpl implements MessageStore {
      */
     private DtxStore dtxStore;
 
+    /**
+     * True if messages may refer to content stored under another id. This is the case when the content of a message
+     * routed to multiple storage queues is stored once and referred by the copies, or when the content of large
+     * messages is streamed to the store ahead of their metadata.
+     */
+    private boolean contentReferenceEnabled;
+
+    /**
+     * Time in milliseconds after which streamed content not referred by any message is removed. Negative if content
+     * streaming is disabled.
+     */
+    private long incompleteContentTimeout = -1;
+
+    /**
+     * Scheduler running the task which removes shared content no longer referred by any message
+     */
+    private ScheduledExecutorService sharedContentCleanupScheduler;
+
+    /**
+     * Number of message id ranges the messages of a large queue are read in concurrently during slot recovery
+     */
+    private int recoveryPartitionsPerQueue;
+
+    /**
+     * Message count above which the messages of a queue are read in concurrent message id ranges during slot
+     * recovery
+     */
+    private int partitionedRecoveryThreshold;
+
     /**
      * {@inheritDoc}
      */
@@ -132,6 +210,23 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         this.messageCache = (new MessageCacheFactory()).create();
         initializeQueueMappingCache();
         dtxStore = new RDBMSDtxStoreImpl(this, rdbmsStoreUtils);
+
+        boolean contentSharingEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_CONTENT_SHARING_ENABLED);
+        boolean contentStreamingEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_ENABLED);
+        if (contentStreamingEnabled) {
+            incompleteContentTimeout = TimeUnit.SECONDS.toMillis((Integer) AndesConfigurationManager.readValue(
+                    AndesConfiguration.PERFORMANCE_TUNING_CONTENT_STREAMING_INCOMPLETE_CONTENT_TIMEOUT));
+        }
+        contentReferenceEnabled = contentSharingEnabled || contentStreamingEnabled;
+        if (contentReferenceEnabled) {
+            startSharedContentCleanupTask();
+        }
+        recoveryPartitionsPerQueue = AndesConfigurationManager.readValue(
+                AndesConfiguration.RECOVERY_PARTITIONED_READS_PARTITIONS_PER_QUEUE);
+        partitionedRecoveryThreshold = AndesConfigurationManager.readValue(
+                AndesConfiguration.RECOVERY_PARTITIONED_READS_MESSAGE_COUNT_THRESHOLD);
         log.info("Message Store initialised");
         return rdbmsConnection;
     }
@@ -208,6 +303,50 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The content is held by a metadata row in the shared content queue, the same way content shared by the copies
+     * of a message is held, and is removed along with it once no message refers to it.
+     */
+    @Override
+    public void storeStreamedContent(long contentId, List<AndesMessagePart> partList, boolean firstParts)
+            throws AndesException {
+        Connection connection = null;
+        PreparedStatement storeMetadataPS = null;
+        PreparedStatement storeContentPS = null;
+        Context contextWrite = MetricManager.timer(MetricsConstants.DB_WRITE, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            if (firstParts) {
+                storeMetadataPS = connection.prepareStatement(PS_INSERT_METADATA);
+                storeMetadataPS.setLong(1, contentId);
+                storeMetadataPS.setInt(2, getCachedQueueID(RDBMSConstants.SHARED_CONTENT_QUEUE));
+                storeMetadataPS.setBytes(3, new byte[0]);
+                storeMetadataPS.execute();
+            }
+
+            storeContentPS = connection.prepareStatement(PS_INSERT_MESSAGE_PART);
+            for (AndesMessagePart messagePart : partList) {
+                addContentToBatch(storeContentPS, messagePart);
+            }
+            storeContentPS.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_STORING_STREAMED_CONTENT);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while adding streamed content to DB"
+                    + " [content_id= " + contentId + " ]", e);
+        } catch (AndesException e) {
+            rollback(connection, RDBMSConstants.TASK_STORING_STREAMED_CONTENT);
+            throw e;
+        } finally {
+            contextWrite.stop();
+            close(storeMetadataPS, RDBMSConstants.TASK_STORING_STREAMED_CONTENT);
+            close(connection, storeContentPS, RDBMSConstants.TASK_STORING_STREAMED_CONTENT);
+        }
+    }
+
     /**
      * Adds message content to provided prepared statements batch.
      *
@@ -266,6 +405,8 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
             if (results.next()) {
                 messagePart = createMessagePart(results, messageId, offsetValue);
+            } else if (contentReferenceEnabled) {
+                messagePart = getSharedContentFromStorage(connection, messageId, offsetValue);
             }
             connection.commit();
         } catch (SQLException e) {
@@ -279,6 +420,36 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return messagePart;
     }
 
+    /**
+     * Retrieve a part of the content shared by the given message with other copies of the message, using the
+     * provided database connection
+     *
+     * @param connection  database connection
+     * @param messageId   message id of the referring message
+     * @param offsetValue offset value
+     * @return a {@link AndesMessagePart} if the message refers to shared content, null otherwise
+     * @throws SQLException an error
+     */
+    private AndesMessagePart getSharedContentFromStorage(Connection connection, long messageId, int offsetValue)
+            throws SQLException {
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        try {
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_RETRIEVE_SHARED_MESSAGE_PART);
+            preparedStatement.setLong(1, messageId);
+            preparedStatement.setInt(2, offsetValue);
+            results = preparedStatement.executeQuery();
+
+            if (results.next()) {
+                return createMessagePart(results, messageId, offsetValue);
+            }
+            return null;
+        } finally {
+            close(results, RDBMSConstants.TASK_RETRIEVING_SHARED_CONTENT);
+            close(preparedStatement, RDBMSConstants.TASK_RETRIEVING_SHARED_CONTENT);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -323,22 +494,27 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
         try {
             connection = getConnection();
-            preparedStatement = connection.prepareStatement(getSelectContentPreparedStmt(messageIDList.size()));
+            preparedStatement = connection.prepareStatement(
+                    getSelectContentPreparedStmt(PS_SELECT_CONTENT_PART, messageIDList.size()));
             for (int mesageIDCounter = 0; mesageIDCounter < messageIDList.size(); mesageIDCounter++) {
                 preparedStatement.setLong(mesageIDCounter + 1, messageIDList.get(mesageIDCounter));
             }
 
             resultSet = preparedStatement.executeQuery();
-            while (resultSet.next()) {
-                long messageID = resultSet.getLong(MESSAGE_ID);
-                int offset = resultSet.getInt(MSG_OFFSET);
-                List<AndesMessagePart> partList = contentList.get(messageID);
-                if (null == partList) {
-                    partList = new ArrayList<>();
-                    contentList.put(messageID, partList);
+            addContentToList(resultSet, contentList);
+
+            if (contentReferenceEnabled) {
+                // Messages without content of their own may refer to content shared with other copies
+                LongArrayList referringMessageIDList = new LongArrayList();
+                for (int mesageIDCounter = 0; mesageIDCounter < messageIDList.size(); mesageIDCounter++) {
+                    long messageID = messageIDList.get(mesageIDCounter);
+                    if (!contentList.containsKey(messageID)) {
+                        referringMessageIDList.add(messageID);
+                    }
+                }
+                if (!referringMessageIDList.isEmpty()) {
+                    fillSharedContentFromStorage(connection, referringMessageIDList, contentList);
                 }
-                AndesMessagePart msgPart = createMessagePart(resultSet, messageID, offset);
-                partList.add(msgPart);
             }
             connection.commit();
         } catch (SQLException e) {
@@ -351,6 +527,56 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         }
     }
 
+    /**
+     * Retrieve the content shared by the given messages with other copies of the messages, using the provided
+     * database connection
+     *
+     * @param connection    database connection
+     * @param messageIDList ids of the referring messages
+     * @param contentList   this list will be filled with content retrieved from database
+     * @throws SQLException an error
+     */
+    private void fillSharedContentFromStorage(Connection connection, LongArrayList messageIDList,
+            LongObjectHashMap<List<AndesMessagePart>> contentList) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        try {
+            preparedStatement = connection.prepareStatement(
+                    getSelectContentPreparedStmt(PS_SELECT_SHARED_CONTENT_PART, messageIDList.size()));
+            for (int mesageIDCounter = 0; mesageIDCounter < messageIDList.size(); mesageIDCounter++) {
+                preparedStatement.setLong(mesageIDCounter + 1, messageIDList.get(mesageIDCounter));
+            }
+
+            resultSet = preparedStatement.executeQuery();
+            addContentToList(resultSet, contentList);
+        } finally {
+            close(resultSet, RDBMSConstants.TASK_RETRIEVING_SHARED_CONTENT);
+            close(preparedStatement, RDBMSConstants.TASK_RETRIEVING_SHARED_CONTENT);
+        }
+    }
+
+    /**
+     * Add the message parts in the given result set to the content list against the message id of each row
+     *
+     * @param resultSet   result set with message id, offset and content columns
+     * @param contentList list the message parts are added to
+     * @throws SQLException an error
+     */
+    private void addContentToList(ResultSet resultSet, LongObjectHashMap<List<AndesMessagePart>> contentList)
+            throws SQLException {
+        while (resultSet.next()) {
+            long messageID = resultSet.getLong(MESSAGE_ID);
+            int offset = resultSet.getInt(MSG_OFFSET);
+            List<AndesMessagePart> partList = contentList.get(messageID);
+            if (null == partList) {
+                partList = new ArrayList<>();
+                contentList.put(messageID, partList);
+            }
+            AndesMessagePart msgPart = createMessagePart(resultSet, messageID, offset);
+            partList.add(msgPart);
+        }
+    }
+
     private AndesMessagePart createMessagePart(ResultSet results, long messageId, int offsetValue) throws SQLException {
         byte[] b = results.getBytes(MESSAGE_CONTENT);
         AndesMessagePart messagePart = new AndesMessagePart();
@@ -364,13 +590,14 @@ public class RDBMSMessageStoreImpl implements MessageStore {
     /**
      * Create a prepared statement with given number of ? values set to IN operator
      *
-     * @param messageCount number of messages that content need to be retrieved from.
-     *                     CONDITION: messageCount > 0
+     * @param partialStatement partially created statement ending with the IN operator
+     * @param messageCount     number of messages that content need to be retrieved from.
+     *                         CONDITION: messageCount > 0
      * @return Prepared Statement
      */
-    private String getSelectContentPreparedStmt(int messageCount) {
+    private String getSelectContentPreparedStmt(String partialStatement, int messageCount) {
 
-        StringBuilder stmtBuilder = new StringBuilder(PS_SELECT_CONTENT_PART);
+        StringBuilder stmtBuilder = new StringBuilder(partialStatement);
         for (int i = 0; i < messageCount - 1; i++) {
             stmtBuilder.append("?,");
         }
@@ -419,7 +646,9 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         PreparedStatement storeMetadataPS = null;
         PreparedStatement storeContentPS = null;
         PreparedStatement storeExpiryMetadataPS = null;
+        PreparedStatement storeContentReferencePS = null;
         boolean messageWithExpirationDetected = false;
+        Set<Long> storedSharedContentIds = null;
 
         try {
             storeMetadataPS = connection.prepareStatement(PS_INSERT_METADATA);
@@ -435,18 +664,40 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                     addExpiryTableEntryToBatch(storeExpiryMetadataPS, message.getMetadata());
                 }
 
-                for (AndesMessagePart messagePart : message.getContentChunkList()) {
-                    addContentToBatch(storeContentPS, messagePart);
+                SharedContent sharedContent = message.getSharedContent();
+                if (contentReferenceEnabled && null != sharedContent) {
+                    if (null == storedSharedContentIds) {
+                        storedSharedContentIds = new HashSet<>();
+                        storeContentReferencePS = connection.prepareStatement(
+                                RDBMSConstants.PS_INSERT_CONTENT_REFERENCE);
+                    }
+
+                    // Content is stored once under the content id, held by a row in the shared content queue.
+                    // Streamed content is already stored.
+                    if (!sharedContent.isContentStored() && storedSharedContentIds.add(sharedContent.getContentId())) {
+                        addSharedContentToBatch(storeMetadataPS, storeContentPS, message);
+                    }
+                    storeContentReferencePS.setLong(1, message.getMetadata().getMessageID());
+                    storeContentReferencePS.setLong(2, sharedContent.getContentId());
+                    storeContentReferencePS.addBatch();
+                } else {
+                    for (AndesMessagePart messagePart : message.getContentChunkList()) {
+                        addContentToBatch(storeContentPS, messagePart);
+                    }
                 }
             }
 
             storeMetadataPS.executeBatch();
             storeContentPS.executeBatch();
+            if (null != storeContentReferencePS) {
+                storeContentReferencePS.executeBatch();
+            }
             if (messageWithExpirationDetected) {
                 storeExpiryMetadataPS.executeBatch();
             }
 
         } finally {
+            close(storeContentReferencePS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeExpiryMetadataPS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeMetadataPS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeContentPS, RDBMSConstants.TASK_ADDING_MESSAGES);
@@ -454,7 +705,36 @@ public class RDBMSMessageStoreImpl implements MessageStore {
     }
 
     /**
-     * Store a given Andes message to the database and the cache
+     * Adds the holder metadata row and the content parts of the content shared by the given message to the provided
+     * prepared statement batches. The content is stored under the shared content id.
+     *
+     * @param storeMetadataPS prepared statement for storing metadata
+     * @param storeContentPS  prepared statement for storing message content
+     * @param message         message referring to the shared content
+     * @throws SQLException   an error
+     * @throws AndesException an error while retrieving the shared content queue id
+     */
+    private void addSharedContentToBatch(PreparedStatement storeMetadataPS, PreparedStatement storeContentPS,
+            AndesMessage message) throws SQLException, AndesException {
+        long contentId = message.getSharedContent().getContentId();
+
+        storeMetadataPS.setLong(1, contentId);
+        storeMetadataPS.setInt(2, getCachedQueueID(RDBMSConstants.SHARED_CONTENT_QUEUE));
+        storeMetadataPS.setBytes(3, message.getMetadata().getMetadata());
+        storeMetadataPS.addBatch();
+
+        for (AndesMessagePart messagePart : message.getContentChunkList()) {
+            storeContentPS.setLong(1, contentId);
+            storeContentPS.setInt(2, messagePart.getOffset());
+            storeContentPS.setBytes(3, messagePart.getData());
+            storeContentPS.addBatch();
+        }
+    }
+
+    /**
+     * Store a given Andes message to the database and the cache. Content is stored under the message id even when
+     * it is shared with other copies of the message, since the other copies may be stored separately. Content
+     * streamed to the store ahead of the message is referred instead.
      *
      * @param message
      * @throws AndesException
@@ -464,6 +744,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         PreparedStatement storeMetadataPS = null;
         PreparedStatement storeContentPS = null;
         PreparedStatement storeExpiryMetadataPS = null;
+        PreparedStatement storeContentReferencePS = null;
         AndesMessageMetadata metadata = null;
 
         try {
@@ -482,6 +763,13 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                 addContentToBatch(storeContentPS, messagePart);
             }
             storeContentPS.executeBatch();
+            SharedContent sharedContent = message.getSharedContent();
+            if (null != sharedContent && sharedContent.isContentStored()) {
+                storeContentReferencePS = connection.prepareStatement(RDBMSConstants.PS_INSERT_CONTENT_REFERENCE);
+                storeContentReferencePS.setLong(1, metadata.getMessageID());
+                storeContentReferencePS.setLong(2, sharedContent.getContentId());
+                storeContentReferencePS.execute();
+            }
             if (metadata.isExpirationDefined()) {
                 storeExpiryMetadataPS.setLong(1, metadata.getMessageID());
                 storeExpiryMetadataPS.setLong(2, metadata.getExpirationTime());
@@ -507,6 +795,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                 throw andesException;
             }
         } finally {
+            close(storeContentReferencePS, RDBMSConstants.TASK_ADDING_MESSAGE);
             close(storeExpiryMetadataPS,RDBMSConstants.TASK_ADDING_MESSAGE);
             close(storeMetadataPS, RDBMSConstants.TASK_ADDING_MESSAGE);
             close(storeContentPS, RDBMSConstants.TASK_ADDING_MESSAGE);
@@ -763,6 +1052,70 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return md;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesMessageMetadata> getMetadata(LongArrayList messageIDList) throws AndesException {
+
+        LongObjectHashMap<AndesMessageMetadata> metadataMap = new LongObjectHashMap<>(messageIDList.size());
+        LongArrayList messagesToRead = new LongArrayList();
+        for (int i = 0; i < messageIDList.size(); i++) {
+            long messageId = messageIDList.get(i);
+            AndesMessage cached = getMessageFromCache(messageId);
+            if (null != cached) {
+                metadataMap.put(messageId, cached.getMetadata());
+            } else {
+                messagesToRead.add(messageId);
+            }
+        }
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+
+        Context metaRetrievalContext = MetricManager.timer(MetricsConstants.GET_META_DATA, Level.INFO).start();
+        Context contextRead = MetricManager.timer(MetricsConstants.DB_READ, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            for (int start = 0; start < messagesToRead.size(); start = start + MAX_MESSAGE_IDS_PER_QUERY) {
+                int count = Math.min(MAX_MESSAGE_IDS_PER_QUERY, messagesToRead.size() - start);
+                preparedStatement = connection.prepareStatement(
+                        getSelectContentPreparedStmt(PS_SELECT_METADATA_PART, count));
+                for (int i = 0; i < count; i++) {
+                    preparedStatement.setLong(i + 1, messagesToRead.get(start + i));
+                }
+                results = preparedStatement.executeQuery();
+                while (results.next()) {
+                    long messageId = results.getLong(MESSAGE_ID);
+                    byte[] b = results.getBytes(RDBMSConstants.METADATA);
+                    metadataMap.put(messageId, new AndesMessageMetadata(messageId, b, true));
+                }
+                results.close();
+                preparedStatement.close();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_RETRIEVING_METADATA_FOR_MESSAGES);
+            throw rdbmsStoreUtils.convertSQLException("error occurred while retrieving message metadata for "
+                    + messagesToRead.size() + " messages", e);
+        } finally {
+            metaRetrievalContext.stop();
+            contextRead.stop();
+            close(connection, preparedStatement, results, RDBMSConstants.TASK_RETRIEVING_METADATA_FOR_MESSAGES);
+        }
+
+        List<AndesMessageMetadata> metadataList = new ArrayList<>(metadataMap.size());
+        for (int i = 0; i < messageIDList.size(); i++) {
+            AndesMessageMetadata metadata = metadataMap.remove(messageIDList.get(i));
+            if (null != metadata) {
+                metadataList.add(metadata);
+            }
+        }
+        return metadataList;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -874,6 +1227,10 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                                     RecoverySlotCreator.CallBack callBack) throws AndesException {
 
         long messageCountForQueue = getMessageCountForQueue(storageQueueName);
+        if (recoveryPartitionsPerQueue > 1 && messageCountForQueue > partitionedRecoveryThreshold) {
+            return recoverSlotsForQueueInPartitions(storageQueueName, firstMsgId, messageLimitPerSlot, callBack,
+                    messageCountForQueue);
+        }
 
         Connection connection = null;
         PreparedStatement preparedStatement = null;
@@ -935,6 +1292,203 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return restoreMessagesCounter;
     }
 
+    /**
+     * Recover slots for given queue by reading its messages in message id ranges concurrently. Message ids after
+     * the first message id are split into ranges of equal width, each read through its own connection and cut into
+     * slots of its own. Slots of the ranges are then merged in message id order, so that the slot map does not
+     * depend on the order ranges are read in.
+     *
+     * @param storageQueueName     storage queue name
+     * @param firstMsgId           first message id
+     * @param messageLimitPerSlot  slot size
+     * @param callBack             callBack for slot creator
+     * @param messageCountForQueue message count for queue, used to publish progress
+     * @return total number of recovered message count
+     * @throws AndesException
+     */
+    private int recoverSlotsForQueueInPartitions(final String storageQueueName, long firstMsgId,
+                                                 final int messageLimitPerSlot, RecoverySlotCreator.CallBack callBack,
+                                                 long messageCountForQueue) throws AndesException {
+
+        long[] messageIdBounds = getMessageIdBoundsOfQueue(storageQueueName, firstMsgId);
+        if (null == messageIdBounds) {
+            return 0;
+        }
+
+        long firstMessageIdOfQueue = messageIdBounds[0];
+        long lastMessageIdOfQueue = messageIdBounds[1];
+        long rangeWidth = (lastMessageIdOfQueue - firstMessageIdOfQueue) / recoveryPartitionsPerQueue + 1;
+
+        ExecutorService partitionReaders = Executors.newFixedThreadPool(recoveryPartitionsPerQueue,
+                new ThreadFactoryBuilder().setNameFormat("SlotRecoveryPartitionReader-%d").setDaemon(true).build());
+        final AtomicInteger restoreMessagesCounter = new AtomicInteger(0);
+        List<Future<LongArrayList>> rangeSlotFutures = new ArrayList<>(recoveryPartitionsPerQueue);
+        RecoveredSlotMerger slotMerger = new RecoveredSlotMerger(storageQueueName, messageLimitPerSlot, callBack);
+
+        try {
+            for (long rangeStart = firstMessageIdOfQueue; rangeStart <= lastMessageIdOfQueue;
+                 rangeStart = rangeStart + rangeWidth) {
+                final long firstMessageIdOfRange = rangeStart;
+                final long lastMessageIdOfRange = Math.min(rangeStart + rangeWidth - 1, lastMessageIdOfQueue);
+                rangeSlotFutures.add(partitionReaders.submit(new Callable<LongArrayList>() {
+                    @Override
+                    public LongArrayList call() throws AndesException {
+                        return readSlotsOfRange(storageQueueName, firstMessageIdOfRange, lastMessageIdOfRange,
+                                messageLimitPerSlot, restoreMessagesCounter);
+                    }
+                }));
+            }
+
+            long lastStatPublishTime = System.currentTimeMillis();
+            for (Future<LongArrayList> rangeSlotFuture : rangeSlotFutures) {
+                LongArrayList rangeSlots = null;
+                while (null == rangeSlots) {
+                    try {
+                        rangeSlots = rangeSlotFuture.get(STAT_PUBLISHING_INTERVAL, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Range is still being read, progress is published below
+                    }
+                    lastStatPublishTime = publishStat(storageQueueName, messageCountForQueue,
+                            restoreMessagesCounter.get(), lastStatPublishTime);
+                }
+                for (int index = 0; index < rangeSlots.size(); index = index + 3) {
+                    slotMerger.add(rangeSlots.get(index), rangeSlots.get(index + 1), (int) rangeSlots.get(index + 2));
+                }
+            }
+            slotMerger.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AndesException("Interrupted while recovering slots for queue " + storageQueueName, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AndesException) {
+                throw (AndesException) e.getCause();
+            }
+            throw new AndesException("Error occurred while recovering slots for queue " + storageQueueName,
+                    e.getCause());
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException("error occurred while recovering slots for queue "
+                    + storageQueueName, e);
+        } finally {
+            partitionReaders.shutdownNow();
+        }
+
+        log.info("Recovered messages of queue \"" + storageQueueName + "\" in " + rangeSlotFutures.size()
+                + " concurrently read message id ranges.");
+        return slotMerger.getRecoveredMessageCount();
+    }
+
+    /**
+     * Get the lowest and the highest id of the messages of a queue after given message id
+     *
+     * @param storageQueueName storage queue name
+     * @param firstMsgId       first message id
+     * @return lowest and highest message id, null if the queue has no messages after given message id
+     * @throws AndesException
+     */
+    private long[] getMessageIdBoundsOfQueue(String storageQueueName, long firstMsgId) throws AndesException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        Context contextRead = MetricManager.timer(MetricsConstants.DB_READ, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_MESSAGE_ID_BOUNDS_FROM_QUEUE);
+            preparedStatement.setLong(1, firstMsgId - 1);
+            preparedStatement.setInt(2, getCachedQueueID(storageQueueName));
+            results = preparedStatement.executeQuery();
+
+            long[] messageIdBounds = null;
+            if (results.next()) {
+                long firstMessageId = results.getLong(RDBMSConstants.START_MESSAGE_ID);
+                // Bounds are null if the queue has no messages
+                if (!results.wasNull()) {
+                    messageIdBounds = new long[] { firstMessageId, results.getLong(RDBMSConstants.END_MESSAGE_ID) };
+                }
+            }
+            connection.commit();
+            return messageIdBounds;
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_RETRIEVING_MESSAGE_ID_BOUNDS_OF_QUEUE);
+            throw rdbmsStoreUtils.convertSQLException("error occurred while retrieving message id bounds of queue "
+                    + storageQueueName, e);
+        } finally {
+            contextRead.stop();
+            close(connection, preparedStatement, results, RDBMSConstants.TASK_RETRIEVING_MESSAGE_ID_BOUNDS_OF_QUEUE);
+        }
+    }
+
+    /**
+     * Read the ids of the messages of a queue within a message id range and cut them into slots
+     *
+     * @param storageQueueName       storage queue name
+     * @param firstMessageId         first message id of the range
+     * @param lastMessageId          last message id of the range
+     * @param messageLimitPerSlot    slot size
+     * @param restoreMessagesCounter counter of the messages read, shared by the ranges of the queue
+     * @return first message id, last message id and message count of each slot, in message id order
+     * @throws AndesException
+     */
+    private LongArrayList readSlotsOfRange(String storageQueueName, long firstMessageId, long lastMessageId,
+                                           int messageLimitPerSlot, AtomicInteger restoreMessagesCounter)
+            throws AndesException {
+
+        LongArrayList slots = new LongArrayList();
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+
+        Context nextMessageIdsRetrievalContext = MetricManager
+                .timer(MetricsConstants.GET_NEXT_MESSAGE_IDS_FROM_QUEUE, Level.INFO).start();
+        Context contextRead = MetricManager.timer(MetricsConstants.DB_READ, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_MESSAGE_IDS_FROM_QUEUE_IN_RANGE);
+            preparedStatement.setLong(1, firstMessageId - 1);
+            preparedStatement.setLong(2, lastMessageId);
+            preparedStatement.setInt(3, getCachedQueueID(storageQueueName));
+            results = preparedStatement.executeQuery();
+
+            long batchStartMessageID = 0;
+            int currentBatchCount = 0;
+            long currentMessageId = 0;
+            while (results.next()) {
+                currentMessageId = results.getLong(RDBMSConstants.MESSAGE_ID);
+
+                if (currentBatchCount == 0) {
+                    batchStartMessageID = currentMessageId;
+                }
+
+                currentBatchCount++;
+
+                if (currentBatchCount == messageLimitPerSlot) {
+                    slots.add(batchStartMessageID);
+                    slots.add(currentMessageId);
+                    slots.add(currentBatchCount);
+                    restoreMessagesCounter.addAndGet(currentBatchCount);
+                    currentBatchCount = 0;
+                }
+            }
+
+            if (currentBatchCount > 0) {
+                slots.add(batchStartMessageID);
+                slots.add(currentMessageId);
+                slots.add(currentBatchCount);
+                restoreMessagesCounter.addAndGet(currentBatchCount);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_RETRIEVING_NEXT_N_IDS_FROM_QUEUE);
+            throw rdbmsStoreUtils.convertSQLException("error occurred while retrieving message ids from queue ", e);
+        } finally {
+            nextMessageIdsRetrievalContext.stop();
+            contextRead.stop();
+            close(connection, preparedStatement, results, RDBMSConstants.TASK_RETRIEVING_NEXT_N_IDS_FROM_QUEUE);
+        }
+        return slots;
+    }
+
     /**
      * Publish restore slot process progress in given time intervals
      *
@@ -957,6 +1511,190 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return lastStatPublishTime;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long recoverSlotsFromCheckpoint(String storageQueueName, RecoverySlotCreator.CallBack callBack)
+            throws AndesException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        Context contextRead = MetricManager.timer(MetricsConstants.DB_READ, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            int queueId = getCachedQueueID(storageQueueName);
+            long lastCheckpointedMessageId = getSlotCheckpointWatermark(connection, queueId);
+
+            if (NO_SLOT_CHECKPOINT == lastCheckpointedMessageId) {
+                connection.commit();
+                return 0;
+            }
+
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_SLOT_CHECKPOINT);
+            preparedStatement.setInt(1, queueId);
+            results = preparedStatement.executeQuery();
+
+            int slotCount = 0;
+            while (results.next()) {
+                callBack.initializeSlotMapForQueue(storageQueueName,
+                        results.getLong(RDBMSConstants.START_MESSAGE_ID),
+                        results.getLong(RDBMSConstants.END_MESSAGE_ID),
+                        results.getInt(RDBMSConstants.MESSAGE_COUNT));
+                slotCount++;
+            }
+            connection.commit();
+
+            log.info("Recovered " + slotCount + " slots up to message id " + lastCheckpointedMessageId
+                    + " from the checkpoint of queue \"" + storageQueueName + "\".");
+            return lastCheckpointedMessageId;
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_RETRIEVING_SLOT_CHECKPOINT);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while recovering slots from the checkpoint of "
+                    + "queue " + storageQueueName, e);
+        } finally {
+            contextRead.stop();
+            close(connection, preparedStatement, results, RDBMSConstants.TASK_RETRIEVING_SLOT_CHECKPOINT);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int checkpointSlotsForQueue(String storageQueueName, long lastMessageId, int messageLimitPerSlot)
+            throws AndesException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        Context contextWrite = MetricManager.timer(MetricsConstants.DB_WRITE, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            int queueId = getCachedQueueID(storageQueueName);
+            long lastCheckpointedMessageId = getSlotCheckpointWatermark(connection, queueId);
+
+            // Slot boundaries are collected first, so that the result set is closed before writing
+            LongArrayList slotBoundaries = new LongArrayList();
+            if (lastMessageId > lastCheckpointedMessageId) {
+                preparedStatement = connection.prepareStatement(
+                        RDBMSConstants.PS_SELECT_MESSAGE_IDS_FROM_QUEUE_IN_RANGE);
+                preparedStatement.setLong(1, Math.max(lastCheckpointedMessageId, 0));
+                preparedStatement.setLong(2, lastMessageId);
+                preparedStatement.setInt(3, queueId);
+                results = preparedStatement.executeQuery();
+
+                long slotStartMessageId = 0;
+                int currentSlotCount = 0;
+                while (results.next()) {
+                    long messageId = results.getLong(RDBMSConstants.MESSAGE_ID);
+                    if (0 == currentSlotCount) {
+                        slotStartMessageId = messageId;
+                    }
+                    currentSlotCount++;
+
+                    // Messages of an incomplete slot are left to the next checkpoint
+                    if (currentSlotCount == messageLimitPerSlot) {
+                        slotBoundaries.add(slotStartMessageId);
+                        slotBoundaries.add(messageId);
+                        currentSlotCount = 0;
+                    }
+                }
+                close(results, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+                close(preparedStatement, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+                results = null;
+            }
+
+            int addedSlotCount = slotBoundaries.size() / 2;
+            if (addedSlotCount > 0) {
+                preparedStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_SLOT_CHECKPOINT);
+                for (int i = 0; i < slotBoundaries.size(); i = i + 2) {
+                    preparedStatement.setInt(1, queueId);
+                    preparedStatement.setLong(2, slotBoundaries.get(i));
+                    preparedStatement.setLong(3, slotBoundaries.get(i + 1));
+                    preparedStatement.setInt(4, messageLimitPerSlot);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                close(preparedStatement, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+
+                long newCheckpointedMessageId = slotBoundaries.getLast();
+                if (NO_SLOT_CHECKPOINT == lastCheckpointedMessageId) {
+                    preparedStatement = connection.prepareStatement(
+                            RDBMSConstants.PS_INSERT_SLOT_CHECKPOINT_WATERMARK);
+                    preparedStatement.setInt(1, queueId);
+                    preparedStatement.setLong(2, newCheckpointedMessageId);
+                } else {
+                    preparedStatement = connection.prepareStatement(
+                            RDBMSConstants.PS_UPDATE_SLOT_CHECKPOINT_WATERMARK);
+                    preparedStatement.setLong(1, newCheckpointedMessageId);
+                    preparedStatement.setInt(2, queueId);
+                }
+                preparedStatement.executeUpdate();
+                close(preparedStatement, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+            }
+
+            // Drop checkpointed slots below the oldest message of the queue. All their messages are removed.
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_MIN_MESSAGE_ID_FROM_QUEUE);
+            preparedStatement.setInt(1, queueId);
+            results = preparedStatement.executeQuery();
+            long firstMessageId = Long.MAX_VALUE;
+            if (results.next()) {
+                long minMessageId = results.getLong(RDBMSConstants.MESSAGE_ID);
+                if (!results.wasNull()) {
+                    firstMessageId = minMessageId;
+                }
+            }
+            close(results, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+            close(preparedStatement, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+            results = null;
+
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_SLOT_CHECKPOINT);
+            preparedStatement.setInt(1, queueId);
+            preparedStatement.setLong(2, firstMessageId);
+            preparedStatement.executeUpdate();
+
+            connection.commit();
+            return addedSlotCount;
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while updating the slot checkpoint of queue "
+                    + storageQueueName, e);
+        } finally {
+            contextWrite.stop();
+            close(connection, preparedStatement, results, RDBMSConstants.TASK_UPDATING_SLOT_CHECKPOINT);
+        }
+    }
+
+    /**
+     * Get the last message id covered by the slot checkpoint of a queue using the provided connection
+     *
+     * @param connection database connection
+     * @param queueId    id of the storage queue
+     * @return last checkpointed message id, {@link #NO_SLOT_CHECKPOINT} if the queue has no checkpoint
+     * @throws SQLException an error
+     */
+    private long getSlotCheckpointWatermark(Connection connection, int queueId) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        try {
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_SLOT_CHECKPOINT_WATERMARK);
+            preparedStatement.setInt(1, queueId);
+            results = preparedStatement.executeQuery();
+
+            if (results.next()) {
+                return results.getLong(RDBMSConstants.LAST_MESSAGE_ID);
+            }
+            return NO_SLOT_CHECKPOINT;
+        } finally {
+            close(results, RDBMSConstants.TASK_RETRIEVING_SLOT_CHECKPOINT);
+            close(preparedStatement, RDBMSConstants.TASK_RETRIEVING_SLOT_CHECKPOINT);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -978,6 +1716,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
             preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_METADATA_FROM_QUEUE);
             preparedStatement.setLong(1, firstMsgId - 1);
             preparedStatement.setInt(2, getCachedQueueID(storageQueueName));
+            preparedStatement.setMaxRows(count);
 
             results = preparedStatement.executeQuery();
             int resultCount = 0;
@@ -1028,6 +1767,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
             preparedStatement.setLong(1, firstMsgId - 1);
             preparedStatement.setInt(2, getCachedQueueID(storageQueueName));
             preparedStatement.setInt(3, getCachedQueueID(dlcQueueName));
+            preparedStatement.setMaxRows(count);
             results = preparedStatement.executeQuery();
             int resultCount = 0;
             while (results.next()) {
@@ -1076,6 +1816,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
             preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_METADATA_IN_DLC);
             preparedStatement.setLong(1, firstMsgId - 1);
             preparedStatement.setInt(2, getCachedQueueID(dlcQueueName));
+            preparedStatement.setMaxRows(count);
             results = preparedStatement.executeQuery();
             int resultCount = 0;
             while (results.next()) {
@@ -1372,7 +2113,84 @@ public class RDBMSMessageStoreImpl implements MessageStore {
      */
     @Override
     public void close() {
+        if (null != sharedContentCleanupScheduler) {
+            sharedContentCleanupScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns whether messages may refer to content stored under another id, either content shared by the copies of
+     * a message routed to multiple storage queues or content streamed to the store ahead of the message metadata
+     *
+     * @return true if content sharing or content streaming is enabled
+     */
+    boolean isContentReferenceEnabled() {
+        return contentReferenceEnabled;
+    }
+
+    /**
+     * Schedule the task which periodically removes shared content no longer referred by any message. References are
+     * removed along with the referring messages when they are acknowledged, expired or purged. Streamed content is
+     * not referred until the message is received fully, hence it is removed only once it is older than the
+     * incomplete content timeout.
+     */
+    private void startSharedContentCleanupTask() {
+        int cleanupInterval = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_CONTENT_SHARING_CLEANUP_INTERVAL);
+
+        sharedContentCleanupScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("SharedContentCleanupTask-%d").setDaemon(true).build());
+        sharedContentCleanupScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    deleteUnreferencedSharedContent();
+                } catch (AndesException e) {
+                    log.error("Error occurred while deleting unreferenced shared content", e);
+                } catch (Throwable e) {
+                    log.error("Error occurred during the shared content cleanup task", e);
+                }
+            }
+        }, cleanupInterval, cleanupInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Delete shared content which is no longer referred by any message, along with its holder metadata row.
+     * Streamed content is held under the negated id generated when streaming started, hence streamed content
+     * younger than the incomplete content timeout has an id below the bound given to the statement.
+     *
+     * @return number of shared content deleted
+     * @throws AndesException an error
+     */
+    int deleteUnreferencedSharedContent() throws AndesException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        Context contextWrite = MetricManager.timer(MetricsConstants.DB_WRITE, Level.INFO).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_UNREFERENCED_SHARED_CONTENT);
+            preparedStatement.setInt(1, getCachedQueueID(RDBMSConstants.SHARED_CONTENT_QUEUE));
+            if (incompleteContentTimeout < 0) {
+                preparedStatement.setLong(2, Long.MIN_VALUE);
+            } else {
+                preparedStatement.setLong(2, -TimeStampBasedMessageIdGenerator.getFirstIdOfTime(
+                        System.currentTimeMillis() - incompleteContentTimeout));
+            }
+            int deletedCount = preparedStatement.executeUpdate();
+            connection.commit();
 
+            if (log.isDebugEnabled()) {
+                log.debug(deletedCount + " unreferenced shared content deleted");
+            }
+            return deletedCount;
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_DELETING_UNREFERENCED_SHARED_CONTENT);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while deleting unreferenced shared content", e);
+        } finally {
+            contextWrite.stop();
+            close(connection, preparedStatement, RDBMSConstants.TASK_DELETING_UNREFERENCED_SHARED_CONTENT);
+        }
     }
 
 
@@ -1677,6 +2495,121 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return deletedMessagecount;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteNextNMessageMetadata(String storageQueueName, int count) throws AndesException {
+        Connection connection = null;
+        PreparedStatement selectionStatement = null;
+        PreparedStatement deletionStatement = null;
+        Context contextWrite = MetricManager.timer(MetricsConstants.DB_WRITE, Level.INFO).start();
+        int deletedMessageCount = 0;
+        try {
+            int queueID = getCachedQueueID(storageQueueName);
+
+            connection = getConnection();
+            selectionStatement = connection
+                    .prepareStatement(RDBMSConstants.PS_SELECT_MESSAGE_IDS_FROM_METADATA_FOR_QUEUE);
+            selectionStatement.setInt(1, queueID);
+            deletionStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_METADATA_FROM_QUEUE_UP_TO_ID);
+
+            deletedMessageCount = deleteUpToNthMessage(selectionStatement, deletionStatement, queueID, count,
+                    RDBMSConstants.TASK_DELETING_METADATA + storageQueueName);
+            connection.commit();
+
+            if (log.isDebugEnabled()) {
+                log.debug("DELETED " + deletedMessageCount + " message metadata from " + storageQueueName
+                        + " with queue ID " + queueID);
+            }
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_DELETING_METADATA + storageQueueName);
+            throw rdbmsStoreUtils.convertSQLException(
+                    "error occurred while deleting message metadata from queue :" + storageQueueName, e);
+        } finally {
+            contextWrite.stop();
+            close(selectionStatement, RDBMSConstants.TASK_DELETING_METADATA + storageQueueName);
+            close(connection, deletionStatement, RDBMSConstants.TASK_DELETING_METADATA + storageQueueName);
+        }
+        return deletedMessageCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteNextNMessagesInDLC(String dlcQueueName, int count) throws AndesException {
+        Connection connection = null;
+        PreparedStatement selectionStatement = null;
+        PreparedStatement deletionStatement = null;
+        Context contextWrite = MetricManager.timer(MetricsConstants.DB_WRITE, Level.INFO).start();
+        int deletedMessageCount = 0;
+        try {
+            int queueID = getCachedQueueID(dlcQueueName);
+
+            connection = getConnection();
+            selectionStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_MESSAGE_IDS_IN_DLC_FROM_METADATA);
+            selectionStatement.setLong(1, 0);
+            selectionStatement.setInt(2, queueID);
+            deletionStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_METADATA_IN_DLC_UP_TO_ID);
+
+            deletedMessageCount = deleteUpToNthMessage(selectionStatement, deletionStatement, queueID, count,
+                    RDBMSConstants.TASK_CLEARING_DLC_QUEUE + dlcQueueName);
+            connection.commit();
+
+            if (log.isDebugEnabled()) {
+                log.debug("DELETED " + deletedMessageCount + " message metadata from dlc queue " + dlcQueueName
+                        + " with queue ID " + queueID);
+            }
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_CLEARING_DLC_QUEUE + dlcQueueName);
+            throw rdbmsStoreUtils.convertSQLException("error occurred while clearing dlc queue:" + dlcQueueName, e);
+        } finally {
+            contextWrite.stop();
+            close(selectionStatement, RDBMSConstants.TASK_CLEARING_DLC_QUEUE + dlcQueueName);
+            close(connection, deletionStatement, RDBMSConstants.TASK_CLEARING_DLC_QUEUE + dlcQueueName);
+        }
+        return deletedMessageCount;
+    }
+
+    /**
+     * Find the Nth lowest message ID selected by the selection statement and delete all the messages up to that ID
+     * with the deletion statement. Only the message IDs are read, and the messages are deleted with a single
+     * statement.
+     *
+     * @param selectionStatement statement selecting message IDs in ascending order
+     * @param deletionStatement  statement deleting messages of a queue up to a message ID
+     * @param queueID            ID of the queue the messages are deleted from
+     * @param count              maximum number of messages to delete
+     * @param task               task description used when closing the result set
+     * @return number of messages deleted
+     * @throws SQLException
+     */
+    private int deleteUpToNthMessage(PreparedStatement selectionStatement, PreparedStatement deletionStatement,
+                                     int queueID, int count, String task) throws SQLException {
+        long lastMessageId = -1;
+        ResultSet results = null;
+        try {
+            selectionStatement.setMaxRows(count);
+            results = selectionStatement.executeQuery();
+            int resultCount = 0;
+            while (resultCount < count && results.next()) {
+                lastMessageId = results.getLong(RDBMSConstants.MESSAGE_ID);
+                resultCount++;
+            }
+        } finally {
+            close(results, task);
+        }
+
+        if (lastMessageId < 0) {
+            return 0;
+        }
+
+        deletionStatement.setInt(1, queueID);
+        deletionStatement.setLong(2, lastMessageId);
+        return deletionStatement.executeUpdate();
+    }
+
     /**
      * {@inheritDoc}
      */
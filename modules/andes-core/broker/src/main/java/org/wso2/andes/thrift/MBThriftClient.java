@@ -30,8 +30,11 @@ import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.slot.ConnectionException;
 import org.wso2.andes.kernel.slot.CoordinatorConnectionListener;
 import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.metrics.MetricsConstants;
 import org.wso2.andes.thrift.slot.gen.SlotInfo;
 import org.wso2.andes.thrift.slot.gen.SlotManagementService;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -109,6 +112,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_GET_SLOT, Level.INFO).mark();
                 slotInfo = client.getSlotInfo(queueName, nodeId);
                 return convertSlotInforToSlot(slotInfo);
             } catch (TException e) {
@@ -174,6 +178,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_UPDATE_MESSAGE_ID, Level.INFO).mark();
                 client.updateMessageId(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
                 updateSuccess = true;
             } catch (TException e) {
@@ -211,6 +216,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_DELETE_SLOT, Level.INFO).mark();
                 return client.deleteSlot(queueName, slotInfo, nodeId);
             } catch (TException e) {
                 invalidateServiceClient(client);
@@ -246,6 +252,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_REASSIGN_SLOTS, Level.INFO).mark();
                 client.reAssignSlotWhenNoSubscribers(nodeId, queueName);
                 reassignSuccess = true;
             } catch (TException e) {
@@ -282,6 +289,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_CLEAR_SLOT_RELATIONS, Level.INFO).mark();
                 client.clearAllActiveSlotRelationsToQueue(queueName);
                 success = true;
             } catch (TException e) {
@@ -314,6 +322,7 @@ public class MBThriftClient {
 
             try {
                 client = getServiceClient();
+                MetricManager.meter(MetricsConstants.SLOT_COORDINATOR_UPDATE_SAFE_ZONE, Level.INFO).mark();
                 return client.updateCurrentMessageIdForSafeZone(safeZoneMessageID, nodeID);
             } catch (TException e) {
                 invalidateServiceClient(client);
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.tools.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latency values with a fixed relative precision, in the same manner as an HDR histogram. Each power of
+ * two range of values is split into {@link #SUB_BUCKET_COUNT} linear buckets, giving a precision of about 3% over the
+ * whole range. Recording a value does not allocate and does not lock, so it can be done from any thread.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of bits used to select the linear bucket within a power of two range
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value tracked. Larger values are recorded as this value
+     */
+    static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+
+    private static final int BUCKET_COUNT = getBucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalValue = new AtomicLong();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record a value
+     *
+     * @param value value to record. Negative values are ignored
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            return;
+        }
+        long trackedValue = Math.min(value, MAX_TRACKABLE_VALUE);
+
+        counts.incrementAndGet(getBucketIndex(trackedValue));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(trackedValue);
+
+        long currentMax = maxValue.get();
+        while (trackedValue > currentMax && !maxValue.compareAndSet(currentMax, trackedValue)) {
+            currentMax = maxValue.get();
+        }
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return largest value recorded
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return mean of the recorded values, or 0 if no values are recorded
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalValue.get() / count;
+    }
+
+    /**
+     * Get the value below which the given percentage of recorded values fall. The value returned is the highest
+     * value of the bucket the percentile falls in.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value at the percentile, or 0 if no values are recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long runningCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            runningCount = runningCount + counts.get(i);
+            if (runningCount >= countAtPercentile) {
+                return Math.min(getHighestValueInBucket(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * Get the bucket a value is counted in. Values below {@link #SUB_BUCKET_COUNT} have a bucket each. Above that,
+     * each power of two range has {@link #SUB_BUCKET_COUNT} buckets.
+     */
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Get the highest value counted in a bucket
+     */
+    static long getHighestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowestValue = ((long) ((index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT)) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
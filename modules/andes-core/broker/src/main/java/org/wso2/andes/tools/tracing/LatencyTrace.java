@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.tools.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timestamp vector of a sampled message. The time each {@link TraceStage} is first reached by the message is recorded
+ * in nanoseconds. Stages are recorded by different threads as the message moves through the broker.
+ */
+public class LatencyTrace {
+
+    private static final TraceStage[] STAGES = TraceStage.values();
+
+    /**
+     * Time each stage was reached in nanoseconds, indexed by the stage ordinal. 0 if the stage is not reached
+     */
+    private final AtomicLongArray timestamps = new AtomicLongArray(STAGES.length);
+
+    /**
+     * Set once the trace is recorded into the histograms so that a message delivered to many subscribers is
+     * counted once
+     */
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    /**
+     * Id of the traced message. Assigned after the message is pre processed
+     */
+    private volatile long messageId;
+
+    /**
+     * Destination of the traced message
+     */
+    private volatile String destination;
+
+    LatencyTrace() {
+    }
+
+    /**
+     * Record the time a stage is reached. Only the first time is kept.
+     *
+     * @param stage stage reached by the message
+     */
+    void record(TraceStage stage) {
+        timestamps.compareAndSet(stage.ordinal(), 0, System.nanoTime());
+    }
+
+    /**
+     * Mark the trace as completed
+     *
+     * @return true if the trace was not completed before
+     */
+    boolean complete() {
+        return completed.compareAndSet(false, true);
+    }
+
+    /**
+     * Get the latency of a stage, which is the time from the closest earlier stage reached by the message
+     *
+     * @param stage stage to get the latency for
+     * @return latency in microseconds, or -1 if the stage or no earlier stage was reached
+     */
+    public long getStageLatency(TraceStage stage) {
+        long reachedAt = timestamps.get(stage.ordinal());
+        if (0 == reachedAt) {
+            return -1;
+        }
+        for (int i = stage.ordinal() - 1; i >= 0; i--) {
+            long previous = timestamps.get(i);
+            if (0 != previous) {
+                return TimeUnit.NANOSECONDS.toMicros(reachedAt - previous);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the time from the first stage to the last stage reached by the message
+     *
+     * @return latency in microseconds
+     */
+    public long getTotalLatency() {
+        long first = 0;
+        long last = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            long reachedAt = timestamps.get(i);
+            if (0 != reachedAt) {
+                if (0 == first) {
+                    first = reachedAt;
+                }
+                last = reachedAt;
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMicros(last - first);
+    }
+
+    public long getMessageId() {
+        return messageId;
+    }
+
+    void setMessageId(long messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * Describe the trace with the latency of each stage reached
+     *
+     * @return trace description
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("messageId=").append(messageId)
+                .append(", destination=").append(destination)
+                .append(", total=").append(getTotalLatency()).append("us");
+        for (TraceStage stage : STAGES) {
+            long latency = getStageLatency(stage);
+            if (latency >= 0) {
+                builder.append(", ").append(stage.getStageName()).append("=").append(latency).append("us");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.tools.tracing;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Histogram;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the latency of each stage of the message life cycle for a sample of the messages. One out of every
+ * configured number of messages received carries a {@link LatencyTrace} through the inbound disruptor, the message
+ * store write, slot submission, slot read, the outbound disruptor and the write to the subscriber. When the message is
+ * written to a subscriber the latency of each stage is recorded in a histogram per stage, which are exported through
+ * the metrics manager and JMX.
+ * <p>
+ * Unlike {@link org.wso2.andes.tools.utils.MessageTracer} nothing is logged or formatted while messages are traced,
+ * and messages which are not sampled are not touched other than checking whether they carry a trace.
+ */
+public class LatencyTracer {
+
+    private static Log log = LogFactory.getLog(LatencyTracer.class);
+
+    /**
+     * Number of traces of messages which are persisted but not yet read from a slot that are kept. Traces of messages
+     * which are never delivered are overwritten by later traces.
+     */
+    private static final int PENDING_TRACE_TABLE_SIZE = 4096;
+
+    private static final TraceStage[] STAGES = TraceStage.values();
+
+    /**
+     * Tracer used by the broker. Null if tracing is disabled
+     */
+    private static volatile LatencyTracer tracer;
+
+    /**
+     * One out of this many messages is traced
+     */
+    private final int sampleInterval;
+
+    /**
+     * Number of slowest traces kept
+     */
+    private final int slowestTraceCount;
+
+    /**
+     * Number of messages received since tracing was enabled
+     */
+    private final AtomicLong receivedMessageCount = new AtomicLong();
+
+    /**
+     * Traces of persisted messages by message id. Messages read from the message store for delivery are new objects,
+     * so the trace is looked up from here when the message is read from a slot.
+     */
+    private final AtomicReferenceArray<LatencyTrace> pendingTraces =
+            new AtomicReferenceArray<>(PENDING_TRACE_TABLE_SIZE);
+
+    /**
+     * Latency histograms by stage ordinal
+     */
+    private final LatencyHistogram[] stageHistograms = new LatencyHistogram[STAGES.length];
+
+    /**
+     * Metrics histograms by stage ordinal
+     */
+    private final Histogram[] stageMetrics = new Histogram[STAGES.length];
+
+    private final LatencyHistogram totalHistogram = new LatencyHistogram();
+
+    private final Histogram totalMetric;
+
+    /**
+     * Slowest traces completed, with the fastest of them at the head
+     */
+    private final PriorityQueue<LatencyTrace> slowestTraces;
+
+    private LatencyTracer(int sampleInterval, int slowestTraceCount) {
+        this.sampleInterval = sampleInterval;
+        this.slowestTraceCount = slowestTraceCount;
+
+        for (TraceStage stage : STAGES) {
+            stageHistograms[stage.ordinal()] = new LatencyHistogram();
+            stageMetrics[stage.ordinal()] = MetricManager.histogram(
+                    MetricsConstants.LATENCY_TRACE_STAGE + stage.getStageName(), Level.INFO);
+        }
+        totalMetric = MetricManager.histogram(MetricsConstants.LATENCY_TRACE_TOTAL, Level.INFO);
+
+        slowestTraces = new PriorityQueue<>(slowestTraceCount + 1, new Comparator<LatencyTrace>() {
+            @Override
+            public int compare(LatencyTrace trace1, LatencyTrace trace2) {
+                return Long.compare(trace1.getTotalLatency(), trace2.getTotalLatency());
+            }
+        });
+    }
+
+    /**
+     * Enable latency tracing if it is enabled in the broker configuration
+     */
+    public static void initialize() {
+        Boolean enabled = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_LATENCY_TRACING_ENABLED);
+        if (enabled) {
+            Integer sampleInterval = AndesConfigurationManager
+                    .readValue(AndesConfiguration.PERFORMANCE_TUNING_LATENCY_TRACING_SAMPLE_INTERVAL);
+            Integer slowestTraceCount = AndesConfigurationManager
+                    .readValue(AndesConfiguration.PERFORMANCE_TUNING_LATENCY_TRACING_SLOWEST_TRACE_COUNT);
+            tracer = new LatencyTracer(Math.max(1, sampleInterval), Math.max(0, slowestTraceCount));
+            log.info("Latency tracing enabled for one out of every " + sampleInterval + " messages");
+        } else {
+            tracer = null;
+        }
+    }
+
+    /**
+     * @return true if latency tracing is enabled
+     */
+    public static boolean isEnabled() {
+        return null != tracer;
+    }
+
+    /**
+     * Start a trace for the message if it is sampled. Called when the message is handed over to Andes.
+     *
+     * @param metadata metadata of the received message
+     */
+    public static void startTrace(AndesMessageMetadata metadata) {
+        LatencyTracer currentTracer = tracer;
+        if (null != currentTracer
+                && currentTracer.receivedMessageCount.incrementAndGet() % currentTracer.sampleInterval == 0) {
+            LatencyTrace trace = new LatencyTrace();
+            trace.setDestination(metadata.getDestination());
+            trace.record(TraceStage.RECEIVED);
+            metadata.setLatencyTrace(trace);
+        }
+    }
+
+    /**
+     * Record that a message reached a stage, if the message is traced. When the message is read from a slot the
+     * trace is looked up by message id, since the message read from the store is a new object.
+     *
+     * @param metadata metadata of the message
+     * @param stage    stage reached
+     */
+    public static void trace(AndesMessageMetadata metadata, TraceStage stage) {
+        LatencyTracer currentTracer = tracer;
+        if (null == currentTracer) {
+            return;
+        }
+
+        LatencyTrace trace = metadata.getLatencyTrace();
+        if (null == trace) {
+            if (TraceStage.READ_FROM_SLOT != stage) {
+                return;
+            }
+            trace = currentTracer.findPendingTrace(metadata.getMessageID());
+            if (null == trace) {
+                return;
+            }
+            metadata.setLatencyTrace(trace);
+        }
+
+        trace.record(stage);
+
+        switch (stage) {
+            case PRE_PROCESSED:
+                trace.setMessageId(metadata.getMessageID());
+                break;
+            case WRITTEN_TO_DB:
+                currentTracer.addPendingTrace(trace);
+                break;
+            case WRITTEN_TO_WIRE:
+                currentTracer.completeTrace(trace);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Get the latency statistics of each stage
+     *
+     * @return one line per stage with the count, mean, percentiles and maximum in microseconds. Empty if tracing is
+     * disabled
+     */
+    public static String[] getStageLatencies() {
+        LatencyTracer currentTracer = tracer;
+        if (null == currentTracer) {
+            return new String[0];
+        }
+
+        String[] stageLatencies = new String[STAGES.length + 1];
+        for (TraceStage stage : STAGES) {
+            stageLatencies[stage.ordinal()] = describe(stage.getStageName(),
+                    currentTracer.stageHistograms[stage.ordinal()]);
+        }
+        stageLatencies[STAGES.length] = describe("total", currentTracer.totalHistogram);
+        return stageLatencies;
+    }
+
+    /**
+     * Get the slowest traces recorded, slowest first
+     *
+     * @return one line per trace with the latency of each stage. Empty if tracing is disabled
+     */
+    public static String[] getSlowestTraces() {
+        LatencyTracer currentTracer = tracer;
+        if (null == currentTracer) {
+            return new String[0];
+        }
+
+        List<LatencyTrace> traces;
+        synchronized (currentTracer.slowestTraces) {
+            traces = new ArrayList<>(currentTracer.slowestTraces);
+        }
+        Collections.sort(traces, Collections.reverseOrder(currentTracer.slowestTraces.comparator()));
+
+        String[] slowestTraces = new String[traces.size()];
+        for (int i = 0; i < traces.size(); i++) {
+            slowestTraces[i] = traces.get(i).toString();
+        }
+        return slowestTraces;
+    }
+
+    /**
+     * Clear the recorded latency statistics and slowest traces
+     */
+    public static void reset() {
+        LatencyTracer currentTracer = tracer;
+        if (null == currentTracer) {
+            return;
+        }
+
+        for (LatencyHistogram histogram : currentTracer.stageHistograms) {
+            histogram.reset();
+        }
+        currentTracer.totalHistogram.reset();
+        synchronized (currentTracer.slowestTraces) {
+            currentTracer.slowestTraces.clear();
+        }
+    }
+
+    private static String describe(String name, LatencyHistogram histogram) {
+        return name + " count=" + histogram.getTotalCount()
+                + " mean=" + Math.round(histogram.getMean())
+                + " p50=" + histogram.getValueAtPercentile(50)
+                + " p99=" + histogram.getValueAtPercentile(99)
+                + " p99.9=" + histogram.getValueAtPercentile(99.9)
+                + " max=" + histogram.getMaxValue() + " (us)";
+    }
+
+    private void addPendingTrace(LatencyTrace trace) {
+        pendingTraces.set(getPendingTraceIndex(trace.getMessageId()), trace);
+    }
+
+    private LatencyTrace findPendingTrace(long messageId) {
+        LatencyTrace trace = pendingTraces.get(getPendingTraceIndex(messageId));
+        if (null != trace && trace.getMessageId() == messageId) {
+            return trace;
+        }
+        return null;
+    }
+
+    /**
+     * Record the latencies of a trace once the message is written to a subscriber. A message delivered to many
+     * subscribers is recorded only for the first delivery.
+     */
+    private void completeTrace(LatencyTrace trace) {
+        if (!trace.complete()) {
+            return;
+        }
+
+        pendingTraces.compareAndSet(getPendingTraceIndex(trace.getMessageId()), trace, null);
+
+        for (TraceStage stage : STAGES) {
+            long latency = trace.getStageLatency(stage);
+            if (latency >= 0) {
+                stageHistograms[stage.ordinal()].recordValue(latency);
+                stageMetrics[stage.ordinal()].update(latency);
+            }
+        }
+        long totalLatency = trace.getTotalLatency();
+        totalHistogram.recordValue(totalLatency);
+        totalMetric.update(totalLatency);
+
+        if (slowestTraceCount > 0) {
+            synchronized (slowestTraces) {
+                slowestTraces.offer(trace);
+                if (slowestTraces.size() > slowestTraceCount) {
+                    slowestTraces.poll();
+                }
+            }
+        }
+    }
+
+    private static int getPendingTraceIndex(long messageId) {
+        long hash = messageId ^ (messageId >>> 32);
+        hash = hash ^ (hash >>> 16);
+        return (int) (hash & (PENDING_TRACE_TABLE_SIZE - 1));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.tools.tracing;
+
+/**
+ * Stages of the message life cycle recorded by the {@link LatencyTracer}, in the order a message passes them. The
+ * latency of a stage is the time from the previous stage reached by the message.
+ */
+public enum TraceStage {
+
+    /**
+     * Message handed over to Andes by the protocol
+     */
+    RECEIVED("received"),
+
+    /**
+     * Message id assigned and message routed to storage queues by the inbound disruptor
+     */
+    PRE_PROCESSED("preProcessed"),
+
+    /**
+     * Message written to the message store
+     */
+    WRITTEN_TO_DB("writtenToDb"),
+
+    /**
+     * Message counted into a slot to be submitted to the slot coordinator
+     */
+    SLOT_SUBMITTED("slotSubmitted"),
+
+    /**
+     * Message metadata read from a slot and buffered for delivery
+     */
+    READ_FROM_SLOT("readFromSlot"),
+
+    /**
+     * Delivery submitted to the outbound disruptor
+     */
+    PUBLISHED_TO_OUTBOUND_DISRUPTOR("publishedToOutboundDisruptor"),
+
+    /**
+     * Message written to the subscriber connection
+     */
+    WRITTEN_TO_WIRE("writtenToWire");
+
+    /**
+     * Name used for the stage in metrics and dumps
+     */
+    private final String stageName;
+
+    TraceStage(String stageName) {
+        this.stageName = stageName;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link MessageBufferGovernor}
+ */
+public class MessageBufferGovernorTest {
+
+    private static final long IDLE_TIME = 1000;
+
+    @Test
+    public void testNoLimit() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(0, IDLE_TIME);
+        TestQueue queue = new TestQueue(governor, "orders", 1, 0, 0);
+        queue.fill(1000);
+
+        assertTrue(governor.hasRoom(queue));
+        assertEquals(0, queue.evictions);
+    }
+
+    @Test
+    public void testHotQueuesAreNotEvicted() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue busyQueue = new TestQueue(governor, "orders", 2, 0, 0);
+        TestQueue requestingQueue = new TestQueue(governor, "payments", 1, 0, IDLE_TIME * 10);
+        busyQueue.fill(60);
+        requestingQueue.fill(50);
+
+        assertEquals(110, governor.getTotalBufferedBytes());
+        assertFalse(governor.hasRoom(requestingQueue));
+        assertEquals(0, busyQueue.evictions);
+        assertEquals(0, requestingQueue.evictions);
+    }
+
+    @Test
+    public void testQueueWithLeastDemandIsEvictedFirst() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue requestingQueue = new TestQueue(governor, "orders", 3, 0, 0);
+        TestQueue consumedQueue = new TestQueue(governor, "payments", 1, 0, IDLE_TIME * 10);
+        TestQueue abandonedQueue = new TestQueue(governor, "audit", 0, 0, IDLE_TIME * 2);
+        requestingQueue.fill(40);
+        consumedQueue.fill(30);
+        abandonedQueue.fill(40);
+
+        // The queue without consumers goes first although idle for less time, which brings the buffers below the
+        // eviction target
+        assertTrue(governor.hasRoom(requestingQueue));
+        assertEquals(1, abandonedQueue.evictions);
+        assertEquals(0, consumedQueue.evictions);
+        assertEquals(70, governor.getTotalBufferedBytes());
+        assertEquals(0, governor.getBufferedBytes("audit"));
+    }
+
+    @Test
+    public void testLongestIdleQueueIsEvictedFirst() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue requestingQueue = new TestQueue(governor, "orders", 1, 0, 0);
+        TestQueue recentQueue = new TestQueue(governor, "payments", 0, 0, IDLE_TIME * 2);
+        TestQueue oldQueue = new TestQueue(governor, "audit", 0, 0, IDLE_TIME * 5);
+        requestingQueue.fill(50);
+        recentQueue.fill(30);
+        oldQueue.fill(30);
+
+        assertTrue(governor.hasRoom(requestingQueue));
+        assertEquals(1, oldQueue.evictions);
+        assertEquals(0, recentQueue.evictions);
+    }
+
+    @Test
+    public void testQueueWithUnackedMessagesIsNotEvicted() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue requestingQueue = new TestQueue(governor, "orders", 1, 0, 0);
+        TestQueue slowConsumerQueue = new TestQueue(governor, "payments", 1, 10, IDLE_TIME * 10);
+        TestQueue closedConsumerQueue = new TestQueue(governor, "audit", 0, 5, IDLE_TIME * 10);
+        requestingQueue.fill(40);
+        slowConsumerQueue.fill(40);
+        closedConsumerQueue.fill(40);
+
+        // Releasing slots of either queue would return messages still in flight
+        assertFalse(governor.hasRoom(requestingQueue));
+        assertEquals(0, slowConsumerQueue.evictions);
+        assertEquals(0, closedConsumerQueue.evictions);
+        assertEquals(120, governor.getTotalBufferedBytes());
+    }
+
+    @Test
+    public void testSlowQueueDoesNotBlockFastQueue() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue slowQueue = new TestQueue(governor, "orders", 0, 10, 0);
+        TestQueue fastQueue = new TestQueue(governor, "payments", 1, 0, 0);
+        slowQueue.fill(100);
+        fastQueue.fill(10);
+
+        // The fast queue is within its fair share of half the limit, while the slow queue is above it
+        assertTrue(governor.hasRoom(fastQueue));
+        assertFalse(governor.hasRoom(slowQueue));
+        assertEquals(0, slowQueue.evictions);
+        assertEquals(110, governor.getTotalBufferedBytes());
+    }
+
+    @Test
+    public void testUnregisteredQueueIsNotEvicted() {
+        MessageBufferGovernor governor = new MessageBufferGovernor(100, IDLE_TIME);
+        TestQueue requestingQueue = new TestQueue(governor, "orders", 1, 0, 0);
+        TestQueue deletedQueue = new TestQueue(governor, "audit", 0, 0, IDLE_TIME * 5);
+        requestingQueue.fill(100);
+        deletedQueue.fill(50);
+        governor.unregister(deletedQueue);
+
+        assertFalse(governor.hasRoom(requestingQueue));
+        assertEquals(0, deletedQueue.evictions);
+        assertEquals(0, governor.getBufferedBytes("audit"));
+    }
+
+    /**
+     * Queue with a buffer created by the governor, filled with a single message of the given size. Subscriptions are
+     * represented by the number of them able to take messages and the number of messages sent to them but not
+     * acknowledged
+     */
+    private static class TestQueue implements MessageBufferGovernor.GovernedQueue {
+
+        private final String name;
+
+        private final int consumerDemand;
+
+        private final int inFlightMessageCount;
+
+        private final long lastActivityTime;
+
+        private final PriorityBandedMessageBuffer buffer;
+
+        private int evictions = 0;
+
+        TestQueue(MessageBufferGovernor governor, String name, int consumerDemand, int inFlightMessageCount,
+                  long idleTime) {
+            this.name = name;
+            this.consumerDemand = consumerDemand;
+            this.inFlightMessageCount = inFlightMessageCount;
+            this.lastActivityTime = System.currentTimeMillis() - idleTime;
+            this.buffer = governor.createMessageBuffer(1);
+            governor.register(this);
+        }
+
+        void fill(int metadataLength) {
+            buffer.putIfAbsent(new DeliverableAndesMetadata(null, 1, new byte[metadataLength], false));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getBufferedBytes() {
+            return buffer.getBufferedBytes();
+        }
+
+        @Override
+        public int getConsumerDemand() {
+            return consumerDemand;
+        }
+
+        @Override
+        public int getInFlightMessageCount() {
+            return inFlightMessageCount;
+        }
+
+        @Override
+        public long getLastBufferActivityTime() {
+            return lastActivityTime;
+        }
+
+        @Override
+        public boolean evictMessageBuffer() {
+            evictions++;
+            buffer.clear();
+            return true;
+        }
+    }
+}
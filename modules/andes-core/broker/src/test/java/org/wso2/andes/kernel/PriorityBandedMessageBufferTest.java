@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test class for {@link PriorityBandedMessageBuffer}
+ */
+public class PriorityBandedMessageBufferTest {
+
+    @Test
+    public void testSingleBandKeepsMessageIdOrder() {
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(1);
+        buffer.putIfAbsent(createMessage(3, 9));
+        buffer.putIfAbsent(createMessage(1, 0));
+        buffer.putIfAbsent(createMessage(2, 4));
+
+        assertEquals(createIdList(1, 2, 3), drain(buffer.prioritizedIterator(100)));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testHigherBandsAreDeliveredFirst() {
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(10);
+        buffer.putIfAbsent(createMessage(1, 4));
+        buffer.putIfAbsent(createMessage(2, 9));
+        buffer.putIfAbsent(createMessage(3, 0));
+        buffer.putIfAbsent(createMessage(4, 9));
+
+        List<Long> expected = createIdList(2, 4, 1, 3);
+        List<Long> allMessages = new ArrayList<>();
+        for (DeliverableAndesMetadata message : buffer.values()) {
+            allMessages.add(message.getMessageID());
+        }
+        assertEquals(expected, allMessages);
+        assertEquals(expected, drain(buffer.prioritizedIterator(100)));
+    }
+
+    @Test
+    public void testWaitingBandIsServedAfterStarvationLimit() {
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(2);
+        buffer.putIfAbsent(createMessage(1, 0));
+        buffer.putIfAbsent(createMessage(2, 0));
+        for (long messageId = 10; messageId < 15; messageId++) {
+            buffer.putIfAbsent(createMessage(messageId, 9));
+        }
+
+        assertEquals(createIdList(10, 11, 1, 12, 13, 2, 14), drain(buffer.prioritizedIterator(2)));
+    }
+
+    @Test
+    public void testMessagesLeftInBufferDoNotBypassBands() {
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(2);
+        buffer.putIfAbsent(createMessage(1, 0));
+        for (long messageId = 10; messageId < 13; messageId++) {
+            buffer.putIfAbsent(createMessage(messageId, 9));
+        }
+
+        // Deliveries stopping at the first message, as when the subscriber has no room, never take a message
+        for (int attempt = 0; attempt < 5; attempt++) {
+            assertEquals(10, buffer.prioritizedIterator(2).next().getMessageID());
+        }
+
+        assertEquals(createIdList(10, 11, 1, 12), drain(buffer.prioritizedIterator(2)));
+    }
+
+    @Test
+    public void testRemoveBufferedMessage() {
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(3);
+        buffer.putIfAbsent(createMessage(1, 0));
+        buffer.putIfAbsent(createMessage(2, 9));
+        buffer.putIfAbsent(createMessage(2, 9));
+
+        assertEquals(2, buffer.size());
+        buffer.remove(2);
+        assertEquals(createIdList(1), drain(buffer.prioritizedIterator(100)));
+        assertFalse(buffer.prioritizedIterator(100).hasNext());
+    }
+
+    @Test
+    public void testBufferedBytesFollowMessages() {
+        AtomicLong totalBufferedBytes = new AtomicLong(0);
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(2, totalBufferedBytes);
+        PriorityBandedMessageBuffer otherBuffer = new PriorityBandedMessageBuffer(1, totalBufferedBytes);
+        buffer.putIfAbsent(createMessage(1, 0, 10));
+        buffer.putIfAbsent(createMessage(2, 9, 20));
+        buffer.putIfAbsent(createMessage(2, 9, 20));
+        buffer.putIfAbsent(createMessage(3, 9, 30));
+        buffer.putIfAbsent(createMessage(4, 0));
+        otherBuffer.putIfAbsent(createMessage(5, 4, 40));
+
+        assertEquals(60, buffer.getBufferedBytes());
+        assertEquals(100, totalBufferedBytes.get());
+
+        buffer.remove(1);
+        assertEquals(50, buffer.getBufferedBytes());
+
+        Iterator<DeliverableAndesMetadata> allMessages = buffer.values().iterator();
+        allMessages.next();
+        allMessages.remove();
+        assertEquals(30, buffer.getBufferedBytes());
+
+        Iterator<DeliverableAndesMetadata> prioritizedMessages = buffer.prioritizedIterator(100);
+        prioritizedMessages.next();
+        prioritizedMessages.remove();
+        assertEquals(0, buffer.getBufferedBytes());
+        assertEquals(40, totalBufferedBytes.get());
+
+        otherBuffer.clear();
+        assertEquals(0, otherBuffer.getBufferedBytes());
+        assertEquals(0, totalBufferedBytes.get());
+    }
+
+    @Test
+    public void testMessageRemovedMeanwhileIsSubtractedOnce() {
+        AtomicLong totalBufferedBytes = new AtomicLong(0);
+        PriorityBandedMessageBuffer buffer = new PriorityBandedMessageBuffer(2, totalBufferedBytes);
+        buffer.putIfAbsent(createMessage(1, 0, 10));
+        buffer.putIfAbsent(createMessage(2, 9, 20));
+
+        Iterator<DeliverableAndesMetadata> allMessages = buffer.values().iterator();
+        Iterator<DeliverableAndesMetadata> prioritizedMessages = buffer.prioritizedIterator(100);
+        allMessages.next();
+        prioritizedMessages.next();
+        buffer.clear();
+        allMessages.remove();
+        prioritizedMessages.remove();
+
+        assertEquals(0, buffer.getBufferedBytes());
+        assertEquals(0, totalBufferedBytes.get());
+    }
+
+    private static DeliverableAndesMetadata createMessage(long messageId, int priority) {
+        DeliverableAndesMetadata message = new DeliverableAndesMetadata(null, messageId, null, false);
+        message.setPriority(priority);
+        return message;
+    }
+
+    private static DeliverableAndesMetadata createMessage(long messageId, int priority, int metadataLength) {
+        DeliverableAndesMetadata message =
+                new DeliverableAndesMetadata(null, messageId, new byte[metadataLength], false);
+        message.setPriority(priority);
+        return message;
+    }
+
+    private static List<Long> createIdList(long... messageIds) {
+        List<Long> idList = new ArrayList<>(messageIds.length);
+        for (long messageId : messageIds) {
+            idList.add(messageId);
+        }
+        return idList;
+    }
+
+    private static List<Long> drain(Iterator<DeliverableAndesMetadata> iterator) {
+        List<Long> messageIds = new ArrayList<>();
+        while (iterator.hasNext()) {
+            messageIds.add(iterator.next().getMessageID());
+            iterator.remove();
+        }
+        return messageIds;
+    }
+}
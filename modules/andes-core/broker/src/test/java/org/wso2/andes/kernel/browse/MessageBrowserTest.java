@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.browse;
+
+import org.junit.Test;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link MessageBrowser} and {@link BrowseCursor}
+ */
+public class MessageBrowserTest {
+
+    private static final int METADATA_LENGTH = 10;
+
+    @Test
+    public void testCursorTokenRoundTrip() {
+        BrowseCursor queueCursor = BrowseCursor.forQueue("carbon:orders").after(42);
+        BrowseCursor dlcCursor = BrowseCursor.forDeadLetterChannel("orders").after(7);
+
+        assertEquals(queueCursor, BrowseCursor.fromToken(queueCursor.toToken()));
+        assertEquals(dlcCursor, BrowseCursor.fromToken(dlcCursor.toToken()));
+        assertEquals("carbon:orders", BrowseCursor.fromToken(queueCursor.toToken()).getQueueName());
+        assertTrue(BrowseCursor.fromToken(dlcCursor.toToken()).isDeadLetterChannel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursorToken() {
+        BrowseCursor.fromToken("X:12:orders");
+    }
+
+    @Test
+    public void testPagesFollowTheCursor() throws Exception {
+        TestBrowser browser = new TestBrowser(100, 1024, 1, 2, 3, 4, 5);
+
+        BrowsePage firstPage = browser.browse(BrowseCursor.forQueue("orders"), 2);
+        assertEquals(createIdList(1, 2), getIds(firstPage));
+        assertFalse(firstPage.isLastPage());
+        assertEquals(2, firstPage.getNextCursor().getLastMessageId());
+
+        BrowsePage secondPage = browser.browse(firstPage.getNextCursor(), 2);
+        assertEquals(createIdList(3, 4), getIds(secondPage));
+
+        BrowsePage lastPage = browser.browse(secondPage.getNextCursor(), 2);
+        assertEquals(createIdList(5), getIds(lastPage));
+        assertTrue(lastPage.isLastPage());
+
+        BrowsePage emptyPage = browser.browse(lastPage.getNextCursor(), 2);
+        assertTrue(emptyPage.getMessages().isEmpty());
+        assertTrue(emptyPage.isLastPage());
+        assertEquals(lastPage.getNextCursor(), emptyPage.getNextCursor());
+    }
+
+    @Test
+    public void testPageMessageCountIsCapped() throws Exception {
+        TestBrowser browser = new TestBrowser(3, 1024, 1, 2, 3, 4, 5);
+
+        BrowsePage page = browser.browse(BrowseCursor.forQueue("orders"), 1000);
+        assertEquals(createIdList(1, 2, 3), getIds(page));
+        assertFalse(page.isLastPage());
+    }
+
+    @Test
+    public void testPageSizeIsCapped() throws Exception {
+        TestBrowser browser = new TestBrowser(100, 3 * METADATA_LENGTH, 1, 2, 3, 4, 5);
+
+        BrowsePage headerPage = browser.browse(BrowseCursor.forQueue("orders"), 100);
+        assertEquals(createIdList(1, 2, 3), getIds(headerPage));
+
+        // Content of each message is as large as a page, yet every page moves past a message
+        browser.contentLength = 3 * METADATA_LENGTH;
+        BrowsePage contentPage = browser.browse(BrowseCursor.forQueue("orders"), 100, true);
+        assertEquals(createIdList(1), getIds(contentPage));
+        assertFalse(contentPage.isLastPage());
+        assertEquals(createIdList(2), getIds(browser.browse(contentPage.getNextCursor(), 100, true)));
+    }
+
+    @Test
+    public void testContentIsReadLazily() throws Exception {
+        TestBrowser browser = new TestBrowser(100, 1024, 1, 2);
+
+        BrowsePage page = browser.browse(BrowseCursor.forQueue("orders"), 100);
+        assertEquals(0, browser.contentReads);
+
+        BrowsedMessage message = page.getMessages().get(1);
+        assertFalse(message.isContentLoaded());
+        assertArrayEquals(new byte[] { 2 }, message.getContent());
+        assertEquals(1, browser.contentReads);
+
+        BrowsePage contentPage = browser.browse(BrowseCursor.forQueue("orders"), 100, true);
+        assertTrue(contentPage.getMessages().get(0).isContentLoaded());
+        assertEquals(3, browser.contentReads);
+    }
+
+    private List<Long> getIds(BrowsePage page) {
+        List<Long> messageIds = new ArrayList<>();
+        for (BrowsedMessage message : page.getMessages()) {
+            messageIds.add(message.getMessageId());
+        }
+        return messageIds;
+    }
+
+    private List<Long> createIdList(long... messageIds) {
+        List<Long> idList = new ArrayList<>(messageIds.length);
+        for (long messageId : messageIds) {
+            idList.add(messageId);
+        }
+        return idList;
+    }
+
+    /**
+     * Browser over messages held in memory. Content of a message is a single byte, its ID.
+     */
+    private static class TestBrowser extends MessageBrowser {
+
+        private final NavigableMap<Long, AndesMessageMetadata> messages = new TreeMap<>();
+
+        private int contentLength = 1;
+
+        private int contentReads = 0;
+
+        TestBrowser(int maxMessagesPerPage, int maxPageSize, long... messageIds) {
+            super(null, maxMessagesPerPage, maxPageSize);
+            for (long messageId : messageIds) {
+                messages.put(messageId, new AndesMessageMetadata(messageId, new byte[METADATA_LENGTH], false));
+            }
+        }
+
+        @Override
+        List<AndesMessageMetadata> readMetadata(BrowseCursor cursor, int count) {
+            List<AndesMessageMetadata> metadataList = new ArrayList<>(count);
+            for (AndesMessageMetadata metadata : messages.tailMap(cursor.getLastMessageId(), false).values()) {
+                if (metadataList.size() == count) {
+                    break;
+                }
+                metadata.setMessageContentLength(contentLength);
+                metadataList.add(metadata);
+            }
+            return metadataList;
+        }
+
+        @Override
+        byte[] readContent(AndesMessageMetadata metadata) {
+            contentReads++;
+            return new byte[] { (byte) metadata.getMessageID() };
+        }
+    }
+}
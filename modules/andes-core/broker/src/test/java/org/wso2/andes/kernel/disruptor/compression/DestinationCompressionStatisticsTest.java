@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.compression;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link DestinationCompressionStatistics}
+ * This class tests the compressor chosen for a size band after a sampling round
+ */
+public class DestinationCompressionStatisticsTest {
+
+    private static final int SAMPLE_SIZE = 4;
+    private static final int REEVALUATION_INTERVAL = 10;
+    private static final int CONTENT_LENGTH = 2000;
+
+    private DestinationCompressionStatistics createStatistics() {
+        return new DestinationCompressionStatistics("queue", SAMPLE_SIZE, REEVALUATION_INTERVAL, 10, 10, 5);
+    }
+
+    /**
+     * Run a sampling round with the given stored lengths and CPU times of each compressor
+     */
+    private void sample(DestinationCompressionStatistics statistics, int fastLength, long fastTime,
+                        int highLength, long highTime) {
+        for (int i = 0; i < 2 * SAMPLE_SIZE; i++) {
+            CompressionLevel level = statistics.nextCompressionLevel(CONTENT_LENGTH);
+            if (CompressionLevel.LZ4_FAST == level) {
+                statistics.record(level, CONTENT_LENGTH, fastLength, fastTime);
+            } else {
+                assertEquals(CompressionLevel.LZ4_HIGH, level);
+                statistics.record(level, CONTENT_LENGTH, highLength, highTime);
+            }
+        }
+    }
+
+    @Test
+    public void testIncompressibleContentDisablesCompression() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        sample(statistics, 1990, 100, 1980, 300);
+
+        assertEquals(CompressionLevel.NONE, statistics.getCompressionLevel(CONTENT_LENGTH));
+        assertEquals(CompressionLevel.NONE, statistics.nextCompressionLevel(CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testHighCompressionChosenWhenAffordable() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        sample(statistics, 1000, 100, 600, 300);
+
+        assertEquals(CompressionLevel.LZ4_HIGH, statistics.getCompressionLevel(CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testFastCompressionChosenWhenHighTooExpensive() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        sample(statistics, 1000, 100, 600, 1000);
+
+        assertEquals(CompressionLevel.LZ4_FAST, statistics.getCompressionLevel(CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testSizeBandsAreIndependent() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        sample(statistics, 1990, 100, 1980, 300);
+
+        assertEquals(CompressionLevel.LZ4_FAST, statistics.nextCompressionLevel(CONTENT_LENGTH * 8));
+    }
+
+    @Test
+    public void testResamplingAfterReevaluationInterval() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        sample(statistics, 1990, 100, 1980, 300);
+
+        for (int i = 1; i < REEVALUATION_INTERVAL; i++) {
+            assertEquals(CompressionLevel.NONE, statistics.nextCompressionLevel(CONTENT_LENGTH));
+            statistics.record(CompressionLevel.NONE, CONTENT_LENGTH, CONTENT_LENGTH, 0);
+        }
+
+        assertEquals(CompressionLevel.LZ4_FAST, statistics.nextCompressionLevel(CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testBytesSaved() {
+        DestinationCompressionStatistics statistics = createStatistics();
+        statistics.record(CompressionLevel.LZ4_FAST, CONTENT_LENGTH, 500, 100);
+        statistics.record(CompressionLevel.NONE, CONTENT_LENGTH, CONTENT_LENGTH, 0);
+
+        assertEquals(1500, statistics.getBytesSaved());
+        assertEquals(0.625, statistics.getCompressionRatio(), 0.0001);
+    }
+}
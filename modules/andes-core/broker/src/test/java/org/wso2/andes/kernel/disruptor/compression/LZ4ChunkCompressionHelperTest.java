@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.compression;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.wso2.andes.kernel.AndesMessagePart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link LZ4ChunkCompressionHelper}
+ * This class tests compressing and decompressing content chunk by chunk for different content chunk sizes
+ */
+@RunWith(Parameterized.class)
+public class LZ4ChunkCompressionHelperTest {
+
+    private int maxChunkSize;
+    private int originalChunkSize;
+    private int originalChunkCount;
+    private boolean compressible;
+    private LZ4ChunkCompressionHelper chunkCompressionHelper;
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {65500, 65500, 16, true},   // same size
+                {65500, 65534, 16, true},   // original chunk larger than max chunk size
+                {15000, 512, 30, true},     // chunk size smaller than max chunk size
+                {65534, 450, 10, false},    // total length smaller than max chunk size, not compressible
+                {800, 252525, 4, false}     // original chunk size is a multiple of max chunk size
+        });
+    }
+
+    public LZ4ChunkCompressionHelperTest(int maxChunkSize, int originalChunkSize, int originalChunkCount,
+                                         boolean compressible) {
+        this.maxChunkSize = maxChunkSize;
+        this.originalChunkSize = originalChunkSize;
+        this.originalChunkCount = originalChunkCount;
+        this.compressible = compressible;
+        chunkCompressionHelper = new LZ4ChunkCompressionHelper(maxChunkSize);
+    }
+
+    /**
+     * Test that chunks are stored against original offsets and each chunk can be decompressed independently
+     */
+    @Test
+    public void testCompressAndDecompressChunks() {
+        int contentLength = originalChunkSize * originalChunkCount;
+        byte[] content = createContent(contentLength);
+        List<AndesMessagePart> originalChunks = createParts(content);
+
+        List<AndesMessagePart> compressedChunks = chunkCompressionHelper.compressChunks(originalChunks,
+                contentLength);
+
+        assertEquals("Incorrect chunk count", (contentLength + maxChunkSize - 1) / maxChunkSize,
+                compressedChunks.size());
+
+        int offset = 0;
+        for (AndesMessagePart compressedChunk : compressedChunks) {
+            int chunkLength = Math.min(maxChunkSize, contentLength - offset);
+
+            assertEquals("Incorrect offset", offset, compressedChunk.getOffset());
+
+            AndesMessagePart decompressedChunk = chunkCompressionHelper.decompressChunk(compressedChunk);
+            assertArrayEquals("Chunk content mismatch", Arrays.copyOfRange(content, offset, offset + chunkLength),
+                    decompressedChunk.getData());
+
+            offset = offset + chunkLength;
+        }
+
+        Map<Integer, AndesMessagePart> decompressedChunks =
+                chunkCompressionHelper.decompressChunks(compressedChunks);
+        assertEquals("Incorrect decompressed chunk count", compressedChunks.size(), decompressedChunks.size());
+
+        assertArrayEquals("Content mismatch", content,
+                chunkCompressionHelper.decompressChunksToArray(compressedChunks, contentLength));
+    }
+
+    /**
+     * Create test content. Compressible content only has a few distinct characters
+     */
+    private byte[] createContent(int contentLength) {
+        byte[] content = new byte[contentLength];
+        Random random = new Random(contentLength);
+
+        if (compressible) {
+            for (int i = 0; i < contentLength; i++) {
+                content[i] = (byte) ('0' + random.nextInt(4));
+            }
+        } else {
+            random.nextBytes(content);
+        }
+        return content;
+    }
+
+    /**
+     * Split content into parts of the original chunk size
+     */
+    private List<AndesMessagePart> createParts(byte[] content) {
+        List<AndesMessagePart> parts = new ArrayList<>(originalChunkCount);
+
+        for (int offset = 0; offset < content.length; offset = offset + originalChunkSize) {
+            AndesMessagePart part = new AndesMessagePart();
+            part.setMessageID(1);
+            part.setOffSet(offset);
+            part.setData(Arrays.copyOfRange(content, offset, offset + originalChunkSize));
+            parts.add(part);
+        }
+        return parts;
+    }
+}
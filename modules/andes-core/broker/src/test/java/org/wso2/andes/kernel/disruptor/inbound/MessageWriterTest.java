@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.inbound;
+
+import org.junit.Test;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for {@link MessageWriter}
+ */
+public class MessageWriterTest {
+
+    private static final long ACK_WAIT_TIME = 2000;
+
+    @Test
+    public void testParkedPublishersAreAckedWhenStoreRecovers() throws Exception {
+        TestMessageWriter writer = new TestMessageWriter();
+        TestPubAckHandler pubAckHandler = new TestPubAckHandler();
+        InboundEventContainer event = createEvent(1, pubAckHandler);
+
+        writer.failing = true;
+        writeEvent(writer, event);
+        writer.storeNonOperational(null, new AndesException("Store is down"));
+
+        // No further publish follows the failure
+        writer.failing = false;
+        writer.storeOperational(null);
+
+        assertTrue(pubAckHandler.await());
+        assertEquals(1, pubAckHandler.ackCount);
+        assertEquals(0, pubAckHandler.nackCount);
+        assertEquals(1, writer.storedMessages.size());
+    }
+
+    @Test
+    public void testParkedPublishersAreNackedWhenMessagesAreLost() throws Exception {
+        TestMessageWriter writer = new TestMessageWriter();
+        TestPubAckHandler pubAckHandler = new TestPubAckHandler();
+        InboundEventContainer event = createEvent(1, pubAckHandler);
+
+        writer.failing = true;
+        writeEvent(writer, event);
+        writer.storeNonOperational(null, new AndesException("Store is down"));
+        writer.storeOperational(null);
+
+        assertTrue(pubAckHandler.await());
+        assertEquals(0, pubAckHandler.ackCount);
+        assertEquals(1, pubAckHandler.nackCount);
+        assertTrue(writer.storedMessages.isEmpty());
+    }
+
+    @Test
+    public void testPublishersAreNotAckedWhileStoreIsDown() throws Exception {
+        TestMessageWriter writer = new TestMessageWriter();
+        TestPubAckHandler pubAckHandler = new TestPubAckHandler();
+        InboundEventContainer event = createEvent(1, pubAckHandler);
+
+        writer.storeNonOperational(null, new AndesException("Store is down"));
+        writer.writeMessages(event.getMessageList(), Collections.<String, AndesMessage>emptyMap(),
+                Collections.singletonList(event));
+
+        assertFalse(pubAckHandler.await());
+        assertTrue(writer.storedMessages.isEmpty());
+    }
+
+    /**
+     * Write the messages of the event, expecting the write to fail
+     */
+    private void writeEvent(MessageWriter writer, InboundEventContainer event) {
+        try {
+            writer.writeMessages(event.getMessageList(), Collections.<String, AndesMessage>emptyMap(),
+                    Collections.singletonList(event));
+            fail("Writing messages should have failed");
+        } catch (Exception e) {
+            // Messages are set aside to be written later
+        }
+    }
+
+    private InboundEventContainer createEvent(long messageId, PubAckHandler pubAckHandler) {
+        InboundEventContainer event = new InboundEventContainer();
+        AndesMessageMetadata metadata = new AndesMessageMetadata();
+        metadata.setMessageID(messageId);
+        event.getMessageList().add(new AndesMessage(metadata));
+        event.pubAckHandler = pubAckHandler;
+        return event;
+    }
+
+    /**
+     * Message writer keeping written messages in memory, failing to write while marked as failing
+     */
+    private static class TestMessageWriter extends MessageWriter {
+
+        private final List<AndesMessage> storedMessages = new ArrayList<>();
+
+        private volatile boolean failing = false;
+
+        TestMessageWriter() {
+            super(null, 10);
+        }
+
+        @Override
+        void storeMessages(List<AndesMessage> messageList) throws AndesException {
+            if (failing) {
+                throw new AndesException("Unable to store messages");
+            }
+            storedMessages.addAll(messageList);
+        }
+    }
+
+    /**
+     * Publisher acknowledgement handler counting acknowledgements
+     */
+    private static class TestPubAckHandler implements PubAckHandler {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile int ackCount = 0;
+
+        private volatile int nackCount = 0;
+
+        @Override
+        public void ack(AndesMessageMetadata metadata) {
+            ackCount++;
+            latch.countDown();
+        }
+
+        @Override
+        public void nack(AndesMessageMetadata metadata) {
+            nackCount++;
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(ACK_WAIT_TIME, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.dtx;
+
+import org.junit.Test;
+import org.wso2.andes.dtx.XidImpl;
+
+import java.util.HashSet;
+import java.util.Set;
+import javax.transaction.xa.Xid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for partitioning of transactions by {@link Xid} in {@link DtxRegistry}
+ */
+public class DtxRegistryTest {
+
+    private static final int PARTITION_COUNT = 16;
+
+    private static Xid createXid(int id) {
+        return new XidImpl(("branch" + id).getBytes(), 1, ("global" + id).getBytes());
+    }
+
+    @Test
+    public void testPartitionDependsOnlyOnXidContent() {
+        for (int i = 0; i < 100; i++) {
+            Xid xid = createXid(i);
+            assertEquals(DtxRegistry.getPartition(xid, PARTITION_COUNT),
+                    DtxRegistry.getPartition(new XidImpl(xid), PARTITION_COUNT));
+        }
+    }
+
+    @Test
+    public void testTransactionsSpreadAcrossPartitions() {
+        Set<Integer> usedPartitions = new HashSet<>();
+
+        for (int i = 0; i < PARTITION_COUNT * 100; i++) {
+            int partition = DtxRegistry.getPartition(createXid(i), PARTITION_COUNT);
+            assertTrue("Partition out of range " + partition, partition >= 0 && partition < PARTITION_COUNT);
+            usedPartitions.add(partition);
+        }
+
+        assertEquals(PARTITION_COUNT, usedPartitions.size());
+    }
+}
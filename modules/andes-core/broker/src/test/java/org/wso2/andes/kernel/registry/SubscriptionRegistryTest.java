@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.registry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.kernel.ProtocolType;
+import org.wso2.andes.kernel.subscription.AndesSubscription;
+import org.wso2.andes.kernel.subscription.StorageQueue;
+import org.wso2.andes.kernel.subscription.SubscriberConnection;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the hashed lookup indexes of {@link SubscriptionRegistry}
+ */
+public class SubscriptionRegistryTest {
+
+    private SubscriptionRegistry registry;
+
+    private static AndesSubscription createSubscription(String id, String queueName, String nodeId, UUID channelId) {
+        StorageQueue storageQueue = new StorageQueue(queueName, true, false, null, false);
+        SubscriberConnection connection = new SubscriberConnection("127.0.0.1", nodeId, channelId, null);
+        return new AndesSubscription(id, storageQueue, ProtocolType.AMQP, connection);
+    }
+
+    @Before
+    public void setUp() {
+        registry = new SubscriptionRegistry();
+    }
+
+    @Test
+    public void testLookupsAfterRegister() {
+        UUID channelId = UUID.randomUUID();
+        AndesSubscription subscription = createSubscription("sub1", "queue1", "node1", channelId);
+        registry.registerSubscription(subscription);
+
+        assertSame(subscription, registry.getSubscriptionById("sub1"));
+        assertSame(subscription, registry.getSubscriptionByChannel(channelId));
+        assertTrue(registry.getSubscriptionsByNode("node1").contains(subscription));
+        assertTrue(registry.getSubscriptionsByQueue("queue1").contains(subscription));
+        assertTrue(registry.getSubscriptionsByQueue("queue1", "node1").contains(subscription));
+        assertTrue(registry.getSubscriptionsByQueue("queue1", "node2").isEmpty());
+    }
+
+    @Test
+    public void testLookupsAfterRemove() {
+        UUID channelId = UUID.randomUUID();
+        AndesSubscription subscription = createSubscription("sub1", "queue1", "node1", channelId);
+        registry.registerSubscription(subscription);
+        registry.removeSubscription(createSubscription("sub1", "queue1", "node1", channelId));
+
+        assertNull(registry.getSubscriptionById("sub1"));
+        assertNull(registry.getSubscriptionByChannel(channelId));
+        assertEquals(0, registry.getSubscriptionsByChannel(channelId).length);
+        assertTrue(registry.getSubscriptionsByNode("node1").isEmpty());
+        assertTrue(registry.getSubscriptionsByQueue("queue1").isEmpty());
+        assertTrue(registry.getSubscriptionsByQueue("queue1", "node1").isEmpty());
+        assertTrue(!registry.getAllSubscriptions().hasNext());
+    }
+
+    @Test
+    public void testSubscriptionsSharingChannel() {
+        UUID channelId = UUID.randomUUID();
+        AndesSubscription first = createSubscription("sub1", "queue1", "node1", channelId);
+        AndesSubscription second = createSubscription("sub2", "queue2", "node1", channelId);
+        registry.registerSubscription(first);
+        registry.registerSubscription(second);
+
+        assertEquals(2, registry.getSubscriptionsByChannel(channelId).length);
+        assertSame(first, registry.getSubscriptionByChannel(channelId));
+
+        registry.removeSubscription("sub1");
+        assertSame(second, registry.getSubscriptionByChannel(channelId));
+        assertEquals(1, registry.getSubscriptionsByNode("node1").size());
+    }
+
+    @Test
+    public void testDuplicateRegistrationIgnored() {
+        UUID channelId = UUID.randomUUID();
+        AndesSubscription subscription = createSubscription("sub1", "queue1", "node1", channelId);
+        registry.registerSubscription(subscription);
+        registry.registerSubscription(createSubscription("sub1", "queue1", "node1", channelId));
+
+        assertSame(subscription, registry.getSubscriptionById("sub1"));
+        assertEquals(1, registry.getSubscriptionsByChannel(channelId).length);
+        assertEquals(1, registry.getSubscriptionsByQueue("queue1").size());
+    }
+}
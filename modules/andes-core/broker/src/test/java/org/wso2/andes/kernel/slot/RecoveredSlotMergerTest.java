@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link RecoveredSlotMerger}
+ */
+public class RecoveredSlotMergerTest {
+
+    private static final String QUEUE_NAME = "orders";
+
+    @Test
+    public void testFullSlotsAreKept() throws Exception {
+        RecordingCallBack callBack = new RecordingCallBack();
+        RecoveredSlotMerger merger = new RecoveredSlotMerger(QUEUE_NAME, 10, callBack);
+
+        merger.add(1, 10, 10);
+        merger.add(11, 20, 10);
+        merger.flush();
+
+        assertEquals(Arrays.asList("1-10:10", "11-20:10"), callBack.slots);
+        assertEquals(20, merger.getRecoveredMessageCount());
+    }
+
+    @Test
+    public void testPartialSlotsOfRangesAreJoined() throws Exception {
+        RecordingCallBack callBack = new RecordingCallBack();
+        RecoveredSlotMerger merger = new RecoveredSlotMerger(QUEUE_NAME, 10, callBack);
+
+        // Last slots of the first two ranges fit together, the third range starts with a full slot
+        merger.add(1, 10, 10);
+        merger.add(11, 14, 4);
+        merger.add(100, 105, 6);
+        merger.add(200, 209, 10);
+        merger.add(210, 212, 3);
+        merger.add(300, 308, 9);
+        merger.flush();
+
+        assertEquals(Arrays.asList("1-10:10", "11-105:10", "200-209:10", "210-212:3", "300-308:9"), callBack.slots);
+        assertEquals(42, merger.getRecoveredMessageCount());
+    }
+
+    @Test
+    public void testSparseRangesAreJoined() throws Exception {
+        RecordingCallBack callBack = new RecordingCallBack();
+        RecoveredSlotMerger merger = new RecoveredSlotMerger(QUEUE_NAME, 10, callBack);
+
+        for (long messageId = 1; messageId <= 25; messageId++) {
+            merger.add(messageId * 100, messageId * 100 + 1, 2);
+        }
+        merger.flush();
+
+        assertEquals(Arrays.asList("100-501:10", "600-1001:10", "1100-1501:10", "1600-2001:10", "2100-2501:10"),
+                callBack.slots);
+    }
+
+    @Test
+    public void testFlushWithoutSlots() throws Exception {
+        RecordingCallBack callBack = new RecordingCallBack();
+        RecoveredSlotMerger merger = new RecoveredSlotMerger(QUEUE_NAME, 10, callBack);
+
+        merger.flush();
+
+        assertEquals(0, callBack.slots.size());
+        assertEquals(0, merger.getRecoveredMessageCount());
+    }
+
+    /**
+     * Callback recording the slots given to it instead of updating the slot manager
+     */
+    private static class RecordingCallBack extends RecoverySlotCreator.CallBack {
+
+        private final List<String> slots = new ArrayList<>();
+
+        @Override
+        public void initializeSlotMapForQueue(String storageQueueName, long firstMessageID, long lastMessageID,
+                                              int messageCount) {
+            assertEquals(QUEUE_NAME, storageQueueName);
+            slots.add(firstMessageID + "-" + lastMessageID + ":" + messageCount);
+        }
+    }
+}
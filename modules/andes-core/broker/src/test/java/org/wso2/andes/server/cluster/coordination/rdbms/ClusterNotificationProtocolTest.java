@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import org.junit.Test;
+import org.wso2.andes.server.cluster.coordination.ClusterNotification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for the wire format of {@link ClusterNotificationProtocol}
+ */
+public class ClusterNotificationProtocolTest {
+
+    @Test
+    public void testHandshakeRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ClusterNotificationProtocol.writeHandshake(new DataOutputStream(bytes), "node-1");
+
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("node-1", ClusterNotificationProtocol.readHandshake(inputStream));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHandshakeRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(0);
+
+        ClusterNotificationProtocol.readHandshake(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLongHandshakeNodeIdRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream outputStream = new DataOutputStream(bytes);
+        outputStream.writeInt(ClusterNotificationProtocol.MAGIC);
+        outputStream.writeInt(ClusterNotificationProtocol.MAX_NODE_ID_LENGTH + 1);
+
+        ClusterNotificationProtocol.readHandshake(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testBatchRoundTrip() throws IOException {
+        List<ClusterNotification> notifications = Arrays.asList(
+                new ClusterNotification("{\"queue\":\"q1\"}", "Queue", "Added", "Queue Notification", "node-1"),
+                new ClusterNotification("", "DBUpdate", "", "DBSyncEvent \u00e9", "node-1"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ClusterNotificationProtocol.writeBatch(new DataOutputStream(bytes), notifications);
+
+        ClusterNotificationProtocol.Batch batch = ClusterNotificationProtocol.readBatch(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(notifications.size(), batch.getNotifications().size());
+        for (int i = 0; i < notifications.size(); i++) {
+            ClusterNotification expected = notifications.get(i);
+            ClusterNotification actual = batch.getNotifications().get(i);
+            assertEquals(expected.getEncodedObjectAsString(), actual.getEncodedObjectAsString());
+            assertEquals(expected.getNotifiedArtifact(), actual.getNotifiedArtifact());
+            assertEquals(expected.getChangeType(), actual.getChangeType());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getOriginatedNode(), actual.getOriginatedNode());
+        }
+    }
+
+    @Test
+    public void testParseNodeAddress() {
+        ClusterNotificationProtocol.NodeAddress address =
+                ClusterNotificationProtocol.parseNodeAddress("node,1,10.0.0.5,4000,true", 1000);
+
+        assertEquals("node,1", address.getNodeId());
+        assertEquals("10.0.0.5", address.getAddress().getHostString());
+        assertEquals(5000, address.getAddress().getPort());
+    }
+
+    @Test
+    public void testParseInvalidNodeAddress() {
+        assertNull(ClusterNotificationProtocol.parseNodeAddress("node1", 1000));
+        assertNull(ClusterNotificationProtocol.parseNodeAddress("node1,host,port,false", 1000));
+    }
+}
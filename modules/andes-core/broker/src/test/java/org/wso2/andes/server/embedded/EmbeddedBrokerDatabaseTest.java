@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.embedded;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Hashtable;
+import java.util.UUID;
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the database of {@link EmbeddedBroker} and the look up of its data source
+ */
+public class EmbeddedBrokerDatabaseTest {
+
+    @Test
+    public void testSchemaCreatesStoreTables() throws Exception {
+        JdbcConnectionPool connectionPool = JdbcConnectionPool.create(
+                "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "");
+        try (Connection connection = connectionPool.getConnection()) {
+            Statement statement = connection.createStatement();
+            for (String schemaStatement : EmbeddedBroker.readSchema()) {
+                statement.execute(schemaStatement);
+            }
+            // Creating the schema again is harmless
+            for (String schemaStatement : EmbeddedBroker.readSchema()) {
+                statement.execute(schemaStatement);
+            }
+
+            statement.execute("INSERT INTO MB_QUEUE_MAPPING (QUEUE_NAME) VALUES ('queue')");
+            statement.execute("INSERT INTO MB_METADATA (MESSAGE_ID,QUEUE_ID,DLC_QUEUE_ID,MESSAGE_METADATA) "
+                    + "VALUES (1,1,-1,X'01')");
+            statement.execute("INSERT INTO MB_CONTENT (MESSAGE_ID,CONTENT_OFFSET,MESSAGE_CONTENT) VALUES (1,0,X'02')");
+
+            // Content goes with the metadata of the message
+            statement.execute("DELETE FROM MB_METADATA WHERE MESSAGE_ID=1");
+            try (PreparedStatement contentQuery = connection.prepareStatement(
+                    "SELECT MESSAGE_CONTENT FROM MB_CONTENT WHERE MESSAGE_ID=?")) {
+                contentQuery.setLong(1, 1);
+                try (ResultSet resultSet = contentQuery.executeQuery()) {
+                    assertFalse(resultSet.next());
+                }
+            }
+        } finally {
+            connectionPool.dispose();
+        }
+    }
+
+    @Test
+    public void testSchemaStatementsAreComplete() throws Exception {
+        for (String schemaStatement : EmbeddedBroker.readSchema()) {
+            assertTrue(schemaStatement, schemaStatement.startsWith("CREATE "));
+            assertFalse(schemaStatement, schemaStatement.endsWith(";"));
+        }
+    }
+
+    @Test
+    public void testBoundDataSourceIsLookedUp() throws Exception {
+        JdbcConnectionPool connectionPool = JdbcConnectionPool.create(
+                "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "");
+        Context context = new EmbeddedDataSourceContextFactory().getInitialContext(new Hashtable<String, Object>());
+        try {
+            EmbeddedDataSourceContextFactory.bind("jdbc/test", connectionPool);
+            assertSame(connectionPool, context.lookup("jdbc/test"));
+
+            EmbeddedDataSourceContextFactory.unbind("jdbc/test");
+            try {
+                context.lookup("jdbc/test");
+                fail("Unbound data source should not be found");
+            } catch (NameNotFoundException e) {
+                assertEquals(NameNotFoundException.class, e.getClass());
+            }
+        } finally {
+            EmbeddedDataSourceContextFactory.unbind("jdbc/test");
+            connectionPool.dispose();
+        }
+    }
+}
@@ -332,6 +332,11 @@ public class AMQQueueAlertTest extends InternalBrokerBaseCase
                     return _data;
                 }
 
+                public void copyData(byte[] destination, int offset)
+                {
+                    _data.duplicate().rewind().get(destination, offset, _data.limit());
+                }
+
                 public void reduceToFit()
                 {
 
@@ -292,6 +292,11 @@ public class AMQQueueMBeanTest extends InternalBrokerBaseCase
                 return _data;
             }
 
+            public void copyData(byte[] destination, int offset)
+            {
+                _data.duplicate().rewind().get(destination, offset, _data.limit());
+            }
+
             public void reduceToFit()
             {
 
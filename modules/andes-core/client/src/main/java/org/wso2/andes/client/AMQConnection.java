@@ -188,6 +188,20 @@ public class AMQConnection extends Closeable implements Connection, QueueConnect
     //By default it's async publish
     private String _syncPublish = "";
 
+    //Maximum number of published messages not yet confirmed by the broker
+    //By default publisher confirms are disabled
+    private int _publisherConfirmWindow = 0;
+
+    //Maximum number of acknowledgements coalesced into a single ack
+    //By default every consumed message is acknowledged on its own
+    private int _ackBatchSize = 0;
+
+    //Maximum time in milliseconds an acknowledgement is held back for coalescing
+    private long _ackBatchTimeout = 100;
+
+    //Indicates whether published messages are encoded into buffers reused by the publishing thread
+    private boolean _directEncoding;
+
     // Indicates whether to use the old map message format or the
     // new amqp-0-10 encoded format.
     private boolean _useLegacyMapMessageFormat;
@@ -326,6 +340,48 @@ public class AMQConnection extends Closeable implements Connection, QueueConnect
             _syncPublish = System.getProperty((ClientProperties.SYNC_PUBLISH_PROP_NAME),_syncPublish);
         }
 
+        if (connectionURL.getOption(ConnectionURL.OPTIONS_PUBLISHER_CONFIRMS) != null)
+        {
+            _publisherConfirmWindow =
+                Integer.parseInt(connectionURL.getOption(ConnectionURL.OPTIONS_PUBLISHER_CONFIRMS));
+        }
+        else
+        {
+            // use the default value set for all connections
+            _publisherConfirmWindow =
+                Integer.getInteger(ClientProperties.PUBLISHER_CONFIRMS_PROP_NAME, _publisherConfirmWindow);
+        }
+
+        if (connectionURL.getOption(ConnectionURL.OPTIONS_ACK_BATCH_SIZE) != null)
+        {
+            _ackBatchSize = Integer.parseInt(connectionURL.getOption(ConnectionURL.OPTIONS_ACK_BATCH_SIZE));
+        }
+        else
+        {
+            // use the default value set for all connections
+            _ackBatchSize = Integer.getInteger(ClientProperties.ACK_BATCH_SIZE_PROP_NAME, _ackBatchSize);
+        }
+
+        if (connectionURL.getOption(ConnectionURL.OPTIONS_ACK_BATCH_TIMEOUT) != null)
+        {
+            _ackBatchTimeout = Long.parseLong(connectionURL.getOption(ConnectionURL.OPTIONS_ACK_BATCH_TIMEOUT));
+        }
+        else
+        {
+            // use the default value set for all connections
+            _ackBatchTimeout = Long.getLong(ClientProperties.ACK_BATCH_TIMEOUT_PROP_NAME, _ackBatchTimeout);
+        }
+
+        if (connectionURL.getOption(ConnectionURL.OPTIONS_DIRECT_ENCODING) != null)
+        {
+            _directEncoding = Boolean.parseBoolean(connectionURL.getOption(ConnectionURL.OPTIONS_DIRECT_ENCODING));
+        }
+        else
+        {
+            // use the default value set for all connections
+            _directEncoding = Boolean.getBoolean(ClientProperties.DIRECT_ENCODING_PROP_NAME);
+        }
+
         if (connectionURL.getOption(ConnectionURL.OPTIONS_USE_LEGACY_MAP_MESSAGE_FORMAT) != null)
         {
             _useLegacyMapMessageFormat =  Boolean.parseBoolean(
@@ -1550,6 +1606,40 @@ public class AMQConnection extends Closeable implements Connection, QueueConnect
         return _syncPublish;
     }
 
+    /**
+     * Maximum number of published messages not yet confirmed by the broker. Publisher confirms are disabled if
+     * this is not greater than 0
+     */
+    public int getPublisherConfirmWindow()
+    {
+        return _publisherConfirmWindow;
+    }
+
+    /**
+     * Maximum number of acknowledgements coalesced into a single ack. Acknowledgements are not coalesced if this is
+     * not greater than 1
+     */
+    public int getAckBatchSize()
+    {
+        return _ackBatchSize;
+    }
+
+    /**
+     * Maximum time in milliseconds an acknowledgement is held back for coalescing
+     */
+    public long getAckBatchTimeout()
+    {
+        return _ackBatchTimeout;
+    }
+
+    /**
+     * Indicates whether published messages are encoded into buffers reused by the publishing thread
+     */
+    public boolean isDirectEncoding()
+    {
+        return _directEncoding;
+    }
+
     public int getNextChannelID()
     {
         return _sessions.getNextChannelId();
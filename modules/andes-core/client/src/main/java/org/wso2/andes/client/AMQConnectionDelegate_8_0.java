@@ -250,7 +250,7 @@ public class AMQConnectionDelegate_8_0 implements AMQConnectionDelegate
         return createXASession((int) _conn.getMaxPrefetch(), (int) _conn.getMaxPrefetch() / 2);
     }
 
-    private void createChannelOverWire(int channelId, int prefetchHigh, int prefetchLow, boolean transacted)
+    protected void createChannelOverWire(int channelId, int prefetchHigh, int prefetchLow, boolean transacted)
             throws AMQException, FailoverException
     {
         ChannelOpenBody channelOpenBody = _conn.getProtocolHandler().getMethodRegistry().createChannelOpenBody(null);
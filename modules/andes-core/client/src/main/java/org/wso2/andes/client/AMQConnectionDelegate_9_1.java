@@ -24,7 +24,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.andes.AMQException;
 import org.wso2.andes.client.failover.FailoverException;
+import org.wso2.andes.framing.ConfirmSelectBody;
+import org.wso2.andes.framing.ConfirmSelectOkBody;
 import org.wso2.andes.framing.ProtocolVersion;
+import org.wso2.andes.framing.amqp_0_91.MethodRegistry_0_91;
 import org.wso2.andes.jms.ChannelLimitReachedException;
 
 import javax.jms.JMSException;
@@ -55,6 +58,31 @@ public class AMQConnectionDelegate_9_1 extends AMQConnectionDelegate_8_0
         return ProtocolVersion.v0_91;
     }
 
+    /**
+     * Puts the channel of a non transacted session into confirm mode if publisher confirms are enabled for the
+     * connection. XA sessions are left out since the channel of an XA session is made transactional.
+     */
+    @Override
+    protected void createChannelOverWire(int channelId, int prefetchHigh, int prefetchLow, boolean transacted)
+            throws AMQException, FailoverException
+    {
+        super.createChannelOverWire(channelId, prefetchHigh, prefetchLow, transacted);
+
+        AMQSession session = conn.getSession(channelId);
+        int publisherConfirmWindow = conn.getPublisherConfirmWindow();
+        if (!transacted && publisherConfirmWindow > 0 && session instanceof AMQSession_0_8
+            && !(session instanceof XASession_9_1)) {
+            if (_logger.isDebugEnabled()) {
+                _logger.debug("Issuing ConfirmSelect for " + channelId);
+            }
+            MethodRegistry_0_91 methodRegistry = (MethodRegistry_0_91) conn.getProtocolHandler().getMethodRegistry();
+            ConfirmSelectBody body = methodRegistry.createConfirmSelectBody(false);
+            conn._protocolHandler.syncWrite(body.generateFrame(channelId), ConfirmSelectOkBody.class);
+
+            ((AMQSession_0_8) session).publisherConfirmsSelected(publisherConfirmWindow);
+        }
+    }
+
     /**
      * create an XA Session and start it if required.
      */
@@ -740,6 +740,17 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
      */
     public abstract void acknowledgeMessage(long deliveryTag, boolean multiple);
 
+    /**
+     * Acknowledge a message consumed on an AUTO_ACKNOWLEDGE or DUPS_OK_ACKNOWLEDGE session. Sessions which coalesce
+     * acknowledgements may hold the ack back and send it later together with acknowledgements of following messages.
+     *
+     * @param deliveryTag The tag of the consumed message.
+     */
+    void acknowledgeConsumedMessage(long deliveryTag)
+    {
+        acknowledgeMessage(deliveryTag, false);
+    }
+
     public MethodRegistry getMethodRegistry()
     {
         MethodRegistry methodRegistry = getProtocolHandler().getMethodRegistry();
@@ -33,6 +33,7 @@ import org.wso2.andes.client.message.AbstractJMSMessage;
 import org.wso2.andes.client.message.MessageFactoryRegistry;
 import org.wso2.andes.client.message.ReturnMessage;
 import org.wso2.andes.client.message.UnprocessedMessage;
+import org.wso2.andes.client.pool.NamedThreadFactoryBuilder;
 import org.wso2.andes.client.protocol.AMQProtocolHandler;
 import org.wso2.andes.client.state.AMQState;
 import org.wso2.andes.client.state.AMQStateManager;
@@ -74,7 +75,12 @@ import org.wso2.andes.jms.Session;
 import org.wso2.andes.protocol.AMQConstant;
 import org.wso2.andes.protocol.AMQMethodEvent;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 
@@ -84,6 +90,27 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
     /** Used for debugging. */
     private static final Logger _logger = LoggerFactory.getLogger(AMQSession.class);
 
+    /**
+     * Tracks messages not yet confirmed by the broker. Not null only if the channel is in confirm mode
+     */
+    private volatile PublisherConfirmTracker _publisherConfirmTracker;
+
+    /** executor to run the tasks sending coalesced acknowledgements held back for longer than the batch timeout */
+    private static final ScheduledExecutorService ACK_BATCH_FLUSH_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactoryBuilder()
+                                                               .setNameFormat("andes-ack-batch-flusher-%d")
+                                                               .setDaemon(true).build());
+
+    /**
+     * Coalesces acknowledgements of consumed messages. Not null only if acknowledgements are batched for this session
+     */
+    private final AcknowledgementBatcher _acknowledgementBatcher;
+
+    /**
+     * Task sending acknowledgements held back for longer than the batch timeout
+     */
+    private volatile ScheduledFuture _acknowledgementFlushTask;
+
     /**
      * Creates a new session on a connection.
      *
@@ -100,6 +127,21 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
     {
 
          super(con,channelId,transacted,acknowledgeMode,messageFactoryRegistry,defaultPrefetchHighMark,defaultPrefetchLowMark);
+
+        // XA sessions acknowledge within the transaction, hence acknowledgements are not coalesced for them
+        int ackBatchSize = con.getAckBatchSize();
+        if (!transacted && ackBatchSize > 1 && !(this instanceof XASession_9_1)
+            && (acknowledgeMode == AUTO_ACKNOWLEDGE || acknowledgeMode == DUPS_OK_ACKNOWLEDGE))
+        {
+            _acknowledgementBatcher = new AcknowledgementBatcher(ackBatchSize, con.getAckBatchTimeout());
+            long flushPeriod = Math.max(1, con.getAckBatchTimeout());
+            _acknowledgementFlushTask = ACK_BATCH_FLUSH_SCHEDULER.scheduleWithFixedDelay(
+                    new AcknowledgementFlushTask(), flushPeriod, flushPeriod, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            _acknowledgementBatcher = null;
+        }
     }
 
     /**
@@ -119,6 +161,52 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
              defaultPrefetchLow);
     }
 
+    /**
+     * Called once the channel of this session is put into confirm mode. If the channel is reopened after failover
+     * the messages not confirmed on the old channel are treated as negatively acknowledged.
+     *
+     * @param windowSize maximum number of messages which can be published without being confirmed
+     */
+    void publisherConfirmsSelected(int windowSize)
+    {
+        if (null == _publisherConfirmTracker)
+        {
+            _publisherConfirmTracker = new PublisherConfirmTracker(windowSize);
+        }
+        else
+        {
+            _publisherConfirmTracker.reset();
+        }
+    }
+
+    /**
+     * Get the tracker of messages not yet confirmed by the broker
+     *
+     * @return the tracker, or null if the channel is not in confirm mode
+     */
+    PublisherConfirmTracker getPublisherConfirmTracker()
+    {
+        return _publisherConfirmTracker;
+    }
+
+    /**
+     * Handle a basic.ack or basic.nack sent by the broker for published messages
+     *
+     * @param deliveryTag publish sequence number of the message
+     * @param multiple    true if all messages up to and including the given one are confirmed
+     * @param ack         true for a basic.ack, false for a basic.nack
+     */
+    public void confirmPublish(long deliveryTag, boolean multiple, boolean ack)
+    {
+        PublisherConfirmTracker tracker = _publisherConfirmTracker;
+        if (null == tracker)
+        {
+            _logger.warn("Received a publisher confirm on channel " + _channelId + " which is not in confirm mode");
+            return;
+        }
+        tracker.confirm(deliveryTag, multiple, ack);
+    }
+
     private ProtocolVersion getProtocolVersion()
     {
         return getProtocolHandler().getProtocolVersion();
@@ -145,6 +233,71 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
         }
     }
 
+    /**
+     * Acknowledge a consumed message. If acknowledgements are batched the ack is held back until the batch size is
+     * reached, the batch timeout elapses or the session is recovered or closed.
+     *
+     * @param deliveryTag The tag of the consumed message.
+     */
+    @Override
+    void acknowledgeConsumedMessage(long deliveryTag)
+    {
+        AcknowledgementBatcher batcher = _acknowledgementBatcher;
+        if (null == batcher)
+        {
+            acknowledgeMessage(deliveryTag, false);
+            return;
+        }
+
+        if (_acknowledgeMode != AUTO_ACKNOWLEDGE || _unacknowledgedMessageTags.contains(deliveryTag))
+        {
+            // The message is consumed, hence it must not be rejected for exceeding the ack wait timeout
+            // while its ack is held back
+            ackWaitTimeOutTrackingMap.remove(deliveryTag);
+            if (batcher.add(deliveryTag))
+            {
+                flushAcknowledgments();
+            }
+        }
+    }
+
+    /**
+     * Send a single ack covering all messages up to and including the given one
+     *
+     * @param deliveryTag The tag of the last consumed message.
+     */
+    private void acknowledgeUpTo(long deliveryTag)
+    {
+        BasicAckBody body = getMethodRegistry().createBasicAckBody(deliveryTag, true);
+        getProtocolHandler().writeFrame(body.generateFrame(_channelId));
+
+        Iterator<Long> iterator = _unacknowledgedMessageTags.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next() <= deliveryTag)
+            {
+                iterator.remove();
+            }
+        }
+        synchronized (ackWaitTimeOutTrackingMap)
+        {
+            Iterator<Long> waitingTags = ackWaitTimeOutTrackingMap.keySet().iterator();
+            while (waitingTags.hasNext())
+            {
+                if (waitingTags.next() <= deliveryTag)
+                {
+                    waitingTags.remove();
+                }
+            }
+        }
+
+        if (_logger.isDebugEnabled())
+        {
+            _logger.debug("Sending ack for delivery tags up to " + deliveryTag + " on channel " + _channelId
+                          + " remaining unacked count is " + _unacknowledgedMessageTags.size());
+        }
+    }
+
     public void sendQueueBind(final AMQShortString queueName, final AMQShortString routingKey, final FieldTable arguments,
                               final AMQShortString exchangeName, final AMQDestination dest,
                               final boolean nowait) throws AMQException, FailoverException
@@ -165,6 +318,8 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
         if (!(getProtocolHandler().getStateManager().getCurrentState().equals(AMQState.CONNECTION_CLOSED)
             || getProtocolHandler().getStateManager().getCurrentState().equals(AMQState.CONNECTION_CLOSING)))
         {
+            // Send the acknowledgements held back while the channel is still open
+            flushAcknowledgments();
 
             getProtocolHandler().closeSession(this);
             getProtocolHandler().syncWrite(getProtocolHandler().getMethodRegistry().createChannelCloseBody(AMQConstant.REPLY_SUCCESS.getCode(),
@@ -595,9 +750,77 @@ public class AMQSession_0_8 extends AMQSession<BasicMessageConsumer_0_8, BasicMe
                 + "not supported for AMQP 0-8/0-9 versions");
     }
     
+    /**
+     * Send the acknowledgements held back for coalescing, if any
+     */
     protected void flushAcknowledgments()
     {
-        
+        AcknowledgementBatcher batcher = _acknowledgementBatcher;
+        if (null != batcher)
+        {
+            // Draining and sending under the lock keeps the acks on the wire in delivery tag order
+            synchronized (batcher)
+            {
+                long deliveryTag = batcher.drain();
+                if (AcknowledgementBatcher.NO_PENDING_ACKNOWLEDGEMENT != deliveryTag)
+                {
+                    acknowledgeUpTo(deliveryTag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Acknowledgements held back belong to the channel lost with the previous connection and the broker redelivers
+     * those messages. They are therefore dropped rather than sent on the reopened channel.
+     */
+    @Override
+    void resubscribe() throws AMQException
+    {
+        if (null != _acknowledgementBatcher)
+        {
+            _acknowledgementBatcher.clear();
+        }
+        super.resubscribe();
+    }
+
+    /**
+     * Sends acknowledgements held back for longer than the batch timeout. The failover mutex is held while sending
+     * so that acknowledgements of a lost channel are never written to the connection established by failover.
+     */
+    private class AcknowledgementFlushTask implements Runnable
+    {
+        public void run()
+        {
+            try
+            {
+                if (isClosed())
+                {
+                    _acknowledgementBatcher.clear();
+                    ScheduledFuture flushTask = _acknowledgementFlushTask;
+                    if (null != flushTask)
+                    {
+                        flushTask.cancel(false);
+                    }
+                    return;
+                }
+
+                if (_acknowledgementBatcher.isTimedOut(System.currentTimeMillis()))
+                {
+                    synchronized (getFailoverMutex())
+                    {
+                        if (!isClosed())
+                        {
+                            flushAcknowledgments();
+                        }
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                _logger.error("Error while sending coalesced acknowledgements on channel " + _channelId, e);
+            }
+        }
     }
 
     public boolean isQueueBound(String exchangeName, String queueName,
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+/**
+ * Coalesces the acknowledgements of messages consumed on a session so that a single ack with the multiple flag set
+ * covers all of them. Only the highest delivery tag is kept, which is correct as long as messages of the channel are
+ * consumed in delivery order. Andes allows only one consumer per channel, hence this holds for the
+ * AUTO_ACKNOWLEDGE and DUPS_OK_ACKNOWLEDGE modes.
+ * <p>
+ * A batch is due once the batch size is reached or the oldest acknowledgement in it has waited for the batch
+ * timeout. The caller drains the batch through {@link #drain()} and sends the ack.
+ */
+public class AcknowledgementBatcher {
+
+    /**
+     * Returned by {@link #drain()} when there is nothing to acknowledge
+     */
+    public static final long NO_PENDING_ACKNOWLEDGEMENT = -1;
+
+    /**
+     * Number of acknowledgements after which the batch is due
+     */
+    private final int batchSize;
+
+    /**
+     * Time in milliseconds after which a batch with acknowledgements is due
+     */
+    private final long batchTimeout;
+
+    /**
+     * Highest delivery tag waiting to be acknowledged. Guarded by this
+     */
+    private long lastDeliveryTag;
+
+    /**
+     * Number of acknowledgements in the current batch. Guarded by this
+     */
+    private int pendingCount;
+
+    /**
+     * Time the first acknowledgement of the current batch was added. Guarded by this
+     */
+    private long batchStartTime;
+
+    /**
+     * @param batchSize    number of acknowledgements after which the batch is due
+     * @param batchTimeout time in milliseconds after which a batch with acknowledgements is due
+     */
+    public AcknowledgementBatcher(int batchSize, long batchTimeout) {
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        lastDeliveryTag = NO_PENDING_ACKNOWLEDGEMENT;
+        pendingCount = 0;
+    }
+
+    /**
+     * Add the acknowledgement of a consumed message to the batch
+     *
+     * @param deliveryTag delivery tag of the consumed message
+     * @return true if the batch size is reached and the batch should be drained
+     */
+    public synchronized boolean add(long deliveryTag) {
+        if (0 == pendingCount) {
+            batchStartTime = System.currentTimeMillis();
+        }
+        lastDeliveryTag = Math.max(lastDeliveryTag, deliveryTag);
+        pendingCount++;
+        return pendingCount >= batchSize;
+    }
+
+    /**
+     * Check whether the oldest acknowledgement of the batch has waited for the batch timeout
+     *
+     * @param currentTime current time in milliseconds
+     * @return true if the batch should be drained
+     */
+    public synchronized boolean isTimedOut(long currentTime) {
+        return pendingCount > 0 && (currentTime - batchStartTime) >= batchTimeout;
+    }
+
+    /**
+     * Take the delivery tag to acknowledge and start a new batch
+     *
+     * @return delivery tag to acknowledge with the multiple flag set, or {@link #NO_PENDING_ACKNOWLEDGEMENT} if the
+     * batch is empty
+     */
+    public synchronized long drain() {
+        long deliveryTag = lastDeliveryTag;
+        clear();
+        return deliveryTag;
+    }
+
+    /**
+     * Drop the acknowledgements of the batch. Used when the channel they belong to is gone.
+     */
+    public synchronized void clear() {
+        lastDeliveryTag = NO_PENDING_ACKNOWLEDGEMENT;
+        pendingCount = 0;
+    }
+
+    /**
+     * @return number of acknowledgements in the current batch
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return time in milliseconds after which a batch with acknowledgements is due
+     */
+    public long getBatchTimeout() {
+        return batchTimeout;
+    }
+}
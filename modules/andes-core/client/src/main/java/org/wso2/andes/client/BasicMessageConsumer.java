@@ -899,7 +899,7 @@ public abstract class BasicMessageConsumer<U> extends Closeable implements Messa
                 // we do not auto ack a message if the application code called recover()
                 if (!_session.isInRecovery())
                 {
-                    _session.acknowledgeMessage(msg.getDeliveryTag(), false);
+                    _session.acknowledgeConsumedMessage(msg.getDeliveryTag());
                 }
 
                 break;
@@ -21,7 +21,9 @@
 package org.wso2.andes.client;
 
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
+import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Topic;
@@ -32,7 +34,9 @@ import org.wso2.andes.AMQException;
 import org.wso2.andes.client.message.AbstractJMSMessage;
 import org.wso2.andes.client.message.AMQMessageDelegate_0_8;
 import org.wso2.andes.client.protocol.AMQProtocolHandler;
+import org.wso2.andes.framing.AMQDataBlock;
 import org.wso2.andes.framing.AMQFrame;
+import org.wso2.andes.framing.AMQShortString;
 import org.wso2.andes.framing.BasicContentHeaderProperties;
 import org.wso2.andes.framing.BasicPublishBody;
 import org.wso2.andes.framing.CompositeAMQDataBlock;
@@ -42,12 +46,38 @@ import org.wso2.andes.framing.ExchangeDeclareBody;
 
 public class BasicMessageProducer_0_8 extends BasicMessageProducer
 {
+    /**
+     * Time to wait for the broker to confirm a message published synchronously in confirm mode
+     */
+    private static final long CONFIRM_TIMEOUT = Long.getLong("amqj.default_syncwrite_timeout", 1000 * 120);
+
+    /**
+     * Indicates whether the frames of messages are encoded through {@link PublishFrameEncoder}
+     */
+    private final boolean _directEncoding;
+
+    /**
+     * basic.publish frame of the last message sent, reused while messages are sent with the same arguments
+     */
+    private AMQFrame _publishFrame;
+
+    private AMQDestination _publishFrameDestination;
+
+    private boolean _publishFrameMandatory;
+
+    private boolean _publishFrameImmediate;
+
+    /**
+     * AMQP class id of the basic class, -1 until resolved
+     */
+    private int _basicClassId = -1;
 
     BasicMessageProducer_0_8(AMQConnection connection, AMQDestination destination, boolean transacted, int channelId,
             AMQSession session, AMQProtocolHandler protocolHandler, long producerId, boolean immediate, boolean mandatory,
             boolean waitUntilSent) throws AMQException
     {
         super(connection, destination,transacted,channelId,session, protocolHandler, producerId, immediate, mandatory,waitUntilSent);
+        _directEncoding = connection.isDirectEncoding();
     }
 
     void declareDestination(AMQDestination destination)
@@ -74,13 +104,7 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
                      UUID messageId, int deliveryMode,int priority, long timeToLive, boolean mandatory,
                      boolean immediate, boolean wait) throws JMSException
     {
-        BasicPublishBody body = getSession().getMethodRegistry().createBasicPublishBody(_session.getTicket(),
-                                                                                        destination.getExchangeName(),
-                                                                                        destination.getRoutingKey(),
-                                                                                        mandatory,
-                                                                                        immediate);
-
-        AMQFrame publishFrame = body.generateFrame(_channelId);
+        AMQFrame publishFrame = getPublishFrame(destination, mandatory, immediate);
 
         message.prepareForSending();
         ByteBuffer payload = message.getData();
@@ -104,8 +128,14 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
             type = AMQDestination.UNKNOWN_TYPE;
         }
 
-        //Set JMS_QPID_DESTTYPE
-        delegate.getContentHeaderProperties().getHeaders().setInteger(CustomJMSXProperty.JMS_QPID_DESTTYPE.getShortStringName(), type);
+        //Set JMS_QPID_DESTTYPE. With direct encoding the header is written along with the other headers without
+        //adding it to the headers of the message, unless the message already carries it
+        AMQShortString destTypeHeader = CustomJMSXProperty.JMS_QPID_DESTTYPE.getShortStringName();
+        boolean appendDestType = _directEncoding && contentHeaderProperties.canAppendHeader(destTypeHeader);
+        if (!appendDestType)
+        {
+            delegate.getContentHeaderProperties().getHeaders().setInteger(destTypeHeader, type);
+        }
         //Set JMS_ANDES_ROUTING_KEY
         if (null != System.getProperty("AndesSetRoutingKey")) {
             delegate.getContentHeaderProperties().getHeaders().setString(
@@ -130,6 +160,81 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
         contentHeaderProperties.setDeliveryMode((byte) deliveryMode);
         contentHeaderProperties.setPriority((byte) priority);
 
+        AMQDataBlock compositeFrame = null;
+        java.nio.ByteBuffer encodedFrames = null;
+        if (_directEncoding)
+        {
+            final long framePayloadMax = _session.getAMQConnection().getMaximumFrameSize() - 1;
+            encodedFrames = PublishFrameEncoder.encode(_channelId, publishFrame, getBasicClassId(),
+                                                       contentHeaderProperties, appendDestType ? destTypeHeader : null,
+                                                       type, payload, framePayloadMax);
+        }
+        else
+        {
+            compositeFrame = createFrames(destination, publishFrame, contentHeaderProperties, payload);
+        }
+
+        try
+        {
+            _session.checkFlowControl();
+        }
+        catch (InterruptedException e)
+        {
+            JMSException jmse = new JMSException("Interrupted while waiting for flow control to be removed");
+            jmse.setLinkedException(e);
+            jmse.initCause(e);
+            throw jmse;
+        }
+
+        PublisherConfirmTracker confirmTracker = ((AMQSession_0_8) getSession()).getPublisherConfirmTracker();
+        if (null == confirmTracker)
+        {
+            writeFrames(compositeFrame, encodedFrames, wait);
+        }
+        else
+        {
+            writeFrameWithConfirm(confirmTracker, compositeFrame, encodedFrames, deliveryMode, wait);
+        }
+    }
+
+    /**
+     * Get the basic.publish frame for the given arguments. The frame of the last message is reused if the arguments
+     * are the same, which is the case for most producers.
+     */
+    private AMQFrame getPublishFrame(AMQDestination destination, boolean mandatory, boolean immediate)
+    {
+        if ((null == _publishFrame) || (destination != _publishFrameDestination)
+            || (mandatory != _publishFrameMandatory) || (immediate != _publishFrameImmediate))
+        {
+            BasicPublishBody body = getSession().getMethodRegistry().createBasicPublishBody(_session.getTicket(),
+                                                                                            destination.getExchangeName(),
+                                                                                            destination.getRoutingKey(),
+                                                                                            mandatory,
+                                                                                            immediate);
+            _publishFrame = body.generateFrame(_channelId);
+            _publishFrameDestination = destination;
+            _publishFrameMandatory = mandatory;
+            _publishFrameImmediate = immediate;
+        }
+        return _publishFrame;
+    }
+
+    private int getBasicClassId()
+    {
+        if (_basicClassId < 0)
+        {
+            // TODO: This is a hacky way of getting the AMQP class-id for the Basic class
+            _basicClassId = getSession().getMethodRegistry().createBasicQosOkBody().getClazz();
+        }
+        return _basicClassId;
+    }
+
+    /**
+     * Create the content header and content body frames of a message and combine them with the publish frame
+     */
+    private CompositeAMQDataBlock createFrames(AMQDestination destination, AMQFrame publishFrame,
+                                               BasicContentHeaderProperties contentHeaderProperties, ByteBuffer payload)
+    {
         final int size = (payload != null) ? payload.limit() : 0;
         final int contentBodyFrameCount = calculateContentBodyFrameCount(payload);
         final AMQFrame[] frames = new AMQFrame[2 + contentBodyFrameCount];
@@ -144,13 +249,9 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
             _logger.debug("Sending content body frames to " + destination);
         }
 
-
-        // TODO: This is a hacky way of getting the AMQP class-id for the Basic class
-        int classIfForBasic = getSession().getMethodRegistry().createBasicQosOkBody().getClazz();
-
         AMQFrame contentHeaderFrame =
             ContentHeaderBody.createAMQFrame(_channelId,
-                                             classIfForBasic, 0, contentHeaderProperties, size);
+                                             getBasicClassId(), 0, contentHeaderProperties, size);
         if (_logger.isDebugEnabled())
         {
             _logger.debug("Sending content header frame to " + destination);
@@ -158,21 +259,102 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
 
         frames[0] = publishFrame;
         frames[1] = contentHeaderFrame;
-        CompositeAMQDataBlock compositeFrame = new CompositeAMQDataBlock(frames);
+        return new CompositeAMQDataBlock(frames);
+    }
 
+    /**
+     * Write the frames of a message, given either as frame objects or already encoded
+     */
+    private void writeFrames(AMQDataBlock compositeFrame, java.nio.ByteBuffer encodedFrames, boolean wait)
+    {
+        if (null != encodedFrames)
+        {
+            _protocolHandler.writeEncodedFrames(encodedFrames, wait);
+        }
+        else
+        {
+            _protocolHandler.writeFrame(compositeFrame, wait);
+        }
+    }
+
+    /**
+     * Write a message on a channel in confirm mode. Blocks while the window of unconfirmed messages is full and,
+     * if the publish mode requires it, until the broker confirms the message.
+     */
+    private void writeFrameWithConfirm(PublisherConfirmTracker confirmTracker, AMQDataBlock compositeFrame,
+                                       java.nio.ByteBuffer encodedFrames, int deliveryMode, boolean wait)
+            throws JMSException
+    {
         try
         {
-            _session.checkFlowControl();
+            confirmTracker.acquire();
         }
         catch (InterruptedException e)
         {
-            JMSException jmse = new JMSException("Interrupted while waiting for flow control to be removed");
+            Thread.currentThread().interrupt();
+            JMSException jmse = new JMSException("Interrupted while waiting for published messages to be confirmed");
             jmse.setLinkedException(e);
             jmse.initCause(e);
             throw jmse;
         }
 
-        _protocolHandler.writeFrame(compositeFrame, wait);
+        // Sequence numbers must be taken in the order the messages reach the broker
+        synchronized (confirmTracker.getPublishLock())
+        {
+            confirmTracker.nextPublishSequenceNumber();
+            writeFrames(compositeFrame, encodedFrames, wait);
+        }
+
+        boolean sync = (publishMode == PublishMode.SYNC_PUBLISH_ALL)
+                       || (publishMode == PublishMode.SYNC_PUBLISH_PERSISTENT
+                           && deliveryMode == DeliveryMode.PERSISTENT);
+        if (sync)
+        {
+            waitForConfirms(CONFIRM_TIMEOUT);
+        }
+    }
+
+    /**
+     * Wait until the broker confirms all messages published on the session of this producer. Only applicable if
+     * publisher confirms are enabled for the connection.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @throws JMSException if any of the messages published since the last call could not be persisted by the
+     *                      broker, or the messages are not confirmed within the timeout
+     */
+    public void waitForConfirms(long timeout) throws JMSException
+    {
+        PublisherConfirmTracker confirmTracker = ((AMQSession_0_8) getSession()).getPublisherConfirmTracker();
+        if (null == confirmTracker)
+        {
+            throw new IllegalStateException("Publisher confirms are not enabled for the session");
+        }
+
+        boolean allAcknowledged;
+        try
+        {
+            allAcknowledged = confirmTracker.waitForConfirms(timeout);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            JMSException jmse = new JMSException("Interrupted while waiting for published messages to be confirmed");
+            jmse.setLinkedException(e);
+            jmse.initCause(e);
+            throw jmse;
+        }
+        catch (TimeoutException e)
+        {
+            JMSException jmse = new JMSException(e.getMessage());
+            jmse.setLinkedException(e);
+            jmse.initCause(e);
+            throw jmse;
+        }
+
+        if (!allAcknowledged)
+        {
+            throw new JMSException("Broker could not persist one or more of the published messages");
+        }
     }
 
     /**
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+import org.wso2.andes.framing.AMQFrame;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentBody;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.EncodingUtils;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+/**
+ * Encodes the frames of a published message straight into a buffer kept per thread, without creating the content
+ * header and content body frame objects or a buffer per message. The publish frame, the content header frame and the
+ * content body frames are written one after the other, the content being split into body frames according to the
+ * negotiated maximum frame size.
+ * <p>
+ * The returned buffer is owned by the calling thread and overwritten by its next call. It must therefore be handed
+ * to the sender, which copies its content, before the thread encodes another message. Buffers larger than
+ * {@link #MAX_RETAINED_BUFFER_SIZE} are not kept, so that a single large message does not pin memory per thread.
+ */
+public class PublishFrameEncoder {
+
+    /**
+     * Maximum size of an encode buffer kept for reuse by a thread
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Initial size of an encode buffer
+     */
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Weight of the content header frame, which is always 0 for the basic class
+     */
+    private static final int CONTENT_HEADER_WEIGHT = 0;
+
+    /**
+     * Encode buffers of the publishing threads
+     */
+    private static final ThreadLocal<EncodeBuffer> ENCODE_BUFFER = new ThreadLocal<EncodeBuffer>() {
+        @Override
+        protected EncodeBuffer initialValue() {
+            return new EncodeBuffer(INITIAL_BUFFER_SIZE);
+        }
+    };
+
+    private PublishFrameEncoder() {
+    }
+
+    /**
+     * Encode the frames of a message
+     *
+     * @param channelId       channel the message is published on
+     * @param publishFrame    basic.publish frame of the message
+     * @param classId         AMQP class id of the basic class
+     * @param properties      content header properties of the message
+     * @param headerName      name of an integer header appended to the headers while encoding, without adding it to
+     *                        the headers table. Null if no header is appended. See
+     *                        {@link BasicContentHeaderProperties#canAppendHeader(AMQShortString)}
+     * @param headerValue     value of the appended header
+     * @param payload         content of the message, may be null. Its position and limit are left unchanged
+     * @param framePayloadMax maximum number of content bytes in a content body frame
+     * @return buffer holding the encoded frames, ready to be read
+     */
+    public static java.nio.ByteBuffer encode(int channelId, AMQFrame publishFrame, int classId,
+                                             BasicContentHeaderProperties properties, AMQShortString headerName,
+                                             int headerValue, ByteBuffer payload, long framePayloadMax) {
+
+        int contentSize = (null == payload) ? 0 : payload.remaining();
+        int bodyFrameCount = (int) ((contentSize + framePayloadMax - 1) / framePayloadMax);
+
+        int propertyListSize;
+        int propertyFlags;
+        if (null == headerName) {
+            propertyListSize = properties.getPropertyListSize();
+            propertyFlags = properties.getPropertyFlags();
+        } else {
+            propertyListSize = properties.getPropertyListSize(headerName);
+            propertyFlags = properties.getPropertyFlagsWithHeaders();
+        }
+        int headerBodySize = 2 + 2 + 8 + 2 + propertyListSize;
+
+        long encodedSize = publishFrame.getSize()
+                           + AMQFrame.getFrameOverhead() + headerBodySize
+                           + ((long) AMQFrame.getFrameOverhead() * bodyFrameCount) + contentSize;
+
+        EncodeBuffer encodeBuffer = getEncodeBuffer((int) encodedSize);
+        ByteBuffer buffer = encodeBuffer.buffer;
+
+        publishFrame.writePayload(buffer);
+
+        buffer.put(ContentHeaderBody.TYPE);
+        EncodingUtils.writeUnsignedShort(buffer, channelId);
+        EncodingUtils.writeUnsignedInteger(buffer, headerBodySize);
+        EncodingUtils.writeUnsignedShort(buffer, classId);
+        EncodingUtils.writeUnsignedShort(buffer, CONTENT_HEADER_WEIGHT);
+        buffer.putLong(contentSize);
+        EncodingUtils.writeUnsignedShort(buffer, propertyFlags);
+        if (null == headerName) {
+            properties.writePropertyListPayload(buffer);
+        } else {
+            properties.writePropertyListPayload(buffer, headerName, headerValue);
+        }
+        buffer.put(AMQFrame.FRAME_END_BYTE);
+
+        if (bodyFrameCount > 0) {
+            int position = payload.position();
+            int limit = payload.limit();
+            try {
+                int remaining = contentSize;
+                while (remaining > 0) {
+                    int length = (int) Math.min(remaining, framePayloadMax);
+                    buffer.put(ContentBody.TYPE);
+                    EncodingUtils.writeUnsignedShort(buffer, channelId);
+                    EncodingUtils.writeUnsignedInteger(buffer, length);
+                    payload.limit(payload.position() + length);
+                    buffer.put(payload);
+                    buffer.put(AMQFrame.FRAME_END_BYTE);
+                    remaining -= length;
+                }
+            } finally {
+                payload.limit(limit);
+                payload.position(position);
+            }
+        }
+
+        java.nio.ByteBuffer encoded = encodeBuffer.nioBuffer;
+        encoded.flip();
+        return encoded;
+    }
+
+    /**
+     * Get a cleared encode buffer of at least the given capacity for the calling thread
+     */
+    private static EncodeBuffer getEncodeBuffer(int capacity) {
+        EncodeBuffer encodeBuffer = ENCODE_BUFFER.get();
+        if (encodeBuffer.nioBuffer.capacity() < capacity) {
+            if (capacity > MAX_RETAINED_BUFFER_SIZE) {
+                return new EncodeBuffer(capacity);
+            }
+            encodeBuffer = new EncodeBuffer(Math.min(MAX_RETAINED_BUFFER_SIZE,
+                                                     Integer.highestOneBit(capacity - 1) << 1));
+            ENCODE_BUFFER.set(encodeBuffer);
+        }
+        encodeBuffer.nioBuffer.clear();
+        return encodeBuffer;
+    }
+
+    /**
+     * A heap buffer together with the wrapper the frames are written through. The wrapper shares the position and
+     * limit of the heap buffer.
+     */
+    private static class EncodeBuffer {
+
+        private final java.nio.ByteBuffer nioBuffer;
+
+        private final ByteBuffer buffer;
+
+        EncodeBuffer(int capacity) {
+            nioBuffer = java.nio.ByteBuffer.allocate(capacity);
+            buffer = ByteBuffer.wrap(nioBuffer);
+        }
+    }
+}
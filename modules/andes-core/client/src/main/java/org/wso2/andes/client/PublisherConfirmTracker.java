@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps track of the messages published on a session in confirm mode which are not yet confirmed by the broker.
+ * The number of unconfirmed messages is bounded by the window size. A publisher blocks when the window is full
+ * until the broker confirms earlier messages.
+ * <p>
+ * Publish sequence numbers are given out in the order the messages are written to the broker, starting from 1. The
+ * caller must therefore hold the {@link #getPublishLock()} while taking a sequence number and writing the message.
+ */
+public class PublisherConfirmTracker {
+
+    private static final Logger _logger = LoggerFactory.getLogger(PublisherConfirmTracker.class);
+
+    /**
+     * Permits for the messages which can be published without being confirmed
+     */
+    private final Semaphore window;
+
+    /**
+     * Held while a sequence number is taken and the message is written so that the broker sees messages in the
+     * same order as the sequence numbers
+     */
+    private final Object publishLock = new Object();
+
+    /**
+     * Sequence numbers of the messages published but not yet confirmed. Guarded by this
+     */
+    private final NavigableSet<Long> unconfirmed = new TreeSet<>();
+
+    /**
+     * Last publish sequence number given out. Guarded by this
+     */
+    private long lastPublishSequenceNumber;
+
+    /**
+     * Number of messages negatively acknowledged since the last {@link #waitForConfirms(long)}. Guarded by this
+     */
+    private int nackCount;
+
+    /**
+     * @param windowSize maximum number of messages which can be published without being confirmed
+     */
+    public PublisherConfirmTracker(int windowSize) {
+        window = new Semaphore(windowSize);
+        lastPublishSequenceNumber = 0;
+        nackCount = 0;
+    }
+
+    /**
+     * Lock to hold while taking a sequence number through {@link #nextPublishSequenceNumber()} and writing the message
+     */
+    public Object getPublishLock() {
+        return publishLock;
+    }
+
+    /**
+     * Wait for a free slot in the window
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        window.acquire();
+    }
+
+    /**
+     * Give back a slot taken through {@link #acquire()} for a message which was not published
+     */
+    public void release() {
+        window.release();
+    }
+
+    /**
+     * Take the publish sequence number of the next message. A slot in the window must have been acquired beforehand.
+     *
+     * @return publish sequence number
+     */
+    public synchronized long nextPublishSequenceNumber() {
+        lastPublishSequenceNumber++;
+        unconfirmed.add(lastPublishSequenceNumber);
+        return lastPublishSequenceNumber;
+    }
+
+    /**
+     * Handle a basic.ack or basic.nack received from the broker
+     *
+     * @param publishSequenceNumber publish sequence number the confirm is for
+     * @param multiple              true if all messages up to and including the sequence number are confirmed
+     * @param ack                   true for a basic.ack, false for a basic.nack
+     */
+    public synchronized void confirm(long publishSequenceNumber, boolean multiple, boolean ack) {
+        int confirmed = 0;
+        if (multiple) {
+            Iterator<Long> iterator = unconfirmed.headSet(publishSequenceNumber, true).iterator();
+            while (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                confirmed++;
+            }
+        } else if (unconfirmed.remove(publishSequenceNumber)) {
+            confirmed = 1;
+        }
+
+        if (confirmed == 0) {
+            if (_logger.isDebugEnabled()) {
+                _logger.debug("Ignoring confirm for unknown publish sequence number " + publishSequenceNumber);
+            }
+            return;
+        }
+
+        if (!ack) {
+            nackCount = nackCount + confirmed;
+        }
+        window.release(confirmed);
+        notifyAll();
+    }
+
+    /**
+     * Wait until all messages published so far are confirmed by the broker
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return true if all the messages were acknowledged, false if the broker negatively acknowledged any of the
+     * messages published since the last call
+     * @throws InterruptedException if interrupted while waiting
+     * @throws TimeoutException if the messages are not confirmed within the timeout
+     */
+    public synchronized boolean waitForConfirms(long timeout)
+            throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!unconfirmed.isEmpty()) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new TimeoutException(unconfirmed.size() + " messages are not confirmed "
+                        + "within " + timeout + " milliseconds");
+            }
+            wait(remaining);
+        }
+
+        boolean allAcknowledged = nackCount == 0;
+        nackCount = 0;
+        return allAcknowledged;
+    }
+
+    /**
+     * Treat all unconfirmed messages as negatively acknowledged and restart the sequence. Used when the channel is
+     * reopened after failover since the broker does not confirm messages published on the old channel.
+     */
+    public synchronized void reset() {
+        int outstanding = unconfirmed.size();
+        if (outstanding > 0) {
+            _logger.warn(outstanding + " published messages are not confirmed before the channel was reopened. "
+                    + "They are treated as negatively acknowledged");
+            nackCount = nackCount + outstanding;
+            unconfirmed.clear();
+            window.release(outstanding);
+        }
+        lastPublishSequenceNumber = 0;
+        notifyAll();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client.handler;
+
+import org.wso2.andes.AMQException;
+import org.wso2.andes.client.protocol.AMQProtocolSession;
+import org.wso2.andes.client.state.StateAwareMethodListener;
+import org.wso2.andes.framing.BasicAckBody;
+
+/**
+ * Handles basic.ack sent by the broker to confirm messages published on a channel in confirm mode
+ */
+public class BasicAckMethodHandler implements StateAwareMethodListener<BasicAckBody> {
+
+    private static final BasicAckMethodHandler _instance = new BasicAckMethodHandler();
+
+    public static BasicAckMethodHandler getInstance() {
+        return _instance;
+    }
+
+    private BasicAckMethodHandler() {
+    }
+
+    @Override
+    public void methodReceived(AMQProtocolSession session, BasicAckBody body, int channelId) throws AMQException {
+        session.confirmPublish(channelId, body.getDeliveryTag(), body.getMultiple(), true);
+    }
+}
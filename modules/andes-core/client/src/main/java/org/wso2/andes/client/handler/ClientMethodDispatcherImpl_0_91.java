@@ -26,6 +26,8 @@ import org.wso2.andes.AMQException;
 import org.wso2.andes.client.protocol.AMQProtocolHandler;
 import org.wso2.andes.client.protocol.AMQProtocolSession;
 import org.wso2.andes.client.state.AMQMethodNotImplementedException;
+import org.wso2.andes.framing.BasicAckBody;
+import org.wso2.andes.framing.BasicNackBody;
 import org.wso2.andes.framing.BasicRecoverOkBody;
 import org.wso2.andes.framing.BasicRecoverSyncBody;
 import org.wso2.andes.framing.BasicRecoverSyncOkBody;
@@ -33,6 +35,8 @@ import org.wso2.andes.framing.ChannelOkBody;
 import org.wso2.andes.framing.ChannelPingBody;
 import org.wso2.andes.framing.ChannelPongBody;
 import org.wso2.andes.framing.ChannelResumeBody;
+import org.wso2.andes.framing.ConfirmSelectBody;
+import org.wso2.andes.framing.ConfirmSelectOkBody;
 import org.wso2.andes.framing.DtxCommitBody;
 import org.wso2.andes.framing.DtxCommitOkBody;
 import org.wso2.andes.framing.DtxEndBody;
@@ -75,11 +79,40 @@ public class ClientMethodDispatcherImpl_0_91 extends ClientMethodDispatcherImpl
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(AMQProtocolHandler.class);
 
+    private static final BasicAckMethodHandler _basicAckMethodHandler = BasicAckMethodHandler.getInstance();
+    private static final BasicNackMethodHandler _basicNackMethodHandler = BasicNackMethodHandler.getInstance();
+
     public ClientMethodDispatcherImpl_0_91(AMQProtocolSession session)
     {
         super(session);
     }
 
+    @Override
+    public boolean dispatchBasicAck(BasicAckBody body, int channelId) throws AMQException
+    {
+        _basicAckMethodHandler.methodReceived(_session, body, channelId);
+        return true;
+    }
+
+    @Override
+    public boolean dispatchBasicNack(BasicNackBody body, int channelId) throws AMQException
+    {
+        _basicNackMethodHandler.methodReceived(_session, body, channelId);
+        return true;
+    }
+
+    @Override
+    public boolean dispatchConfirmSelect(ConfirmSelectBody body, int channelId) throws AMQException
+    {
+        throw new AMQMethodNotImplementedException(body);
+    }
+
+    @Override
+    public boolean dispatchConfirmSelectOk(ConfirmSelectOkBody body, int channelId) throws AMQException
+    {
+        return false;
+    }
+
     public boolean dispatchBasicRecoverSyncOk(BasicRecoverSyncOkBody body, int channelId) throws AMQException
     {
         return false;
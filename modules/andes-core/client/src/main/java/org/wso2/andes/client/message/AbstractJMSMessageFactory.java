@@ -57,7 +57,7 @@ public abstract class AbstractJMSMessageFactory implements MessageFactory
                 _logger.debug("Non-fragmented message body (bodySize=" + contentHeader.bodySize + ")");
             }
 
-            data = ((ContentBody) bodies.get(0)).payload;
+            data = ((ContentBody) bodies.get(0)).getPayload();
         }
         else if (bodies != null)
         {
@@ -72,7 +72,7 @@ public abstract class AbstractJMSMessageFactory implements MessageFactory
             while (it.hasNext())
             {
                 ContentBody cb = (ContentBody) it.next();
-                final ByteBuffer payload = cb.payload;
+                final ByteBuffer payload = cb.getPayload();
                 if(payload.isDirect() || payload.isReadOnly())
                 {
                     data.put(payload);
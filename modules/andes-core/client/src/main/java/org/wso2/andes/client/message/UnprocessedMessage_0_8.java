@@ -87,9 +87,9 @@ public class UnprocessedMessage_0_8 extends UnprocessedMessage
     public void receiveBody(ContentBody body)
     {
 
-        if (body.payload != null)
+        if (body.getPayload() != null)
         {
-            final long payloadSize = body.payload.remaining();
+            final long payloadSize = body.getPayload().remaining();
 
             if (_bodies == null)
             {
@@ -38,6 +38,7 @@ import org.wso2.andes.client.state.AMQStateManager;
 import org.wso2.andes.client.state.StateWaiter;
 import org.wso2.andes.client.state.listener.SpecificMethodFrameListener;
 import org.wso2.andes.codec.AMQCodecFactory;
+import org.wso2.andes.codec.AMQDataBlockListener;
 import org.wso2.andes.framing.AMQBody;
 import org.wso2.andes.framing.AMQDataBlock;
 import org.wso2.andes.framing.AMQFrame;
@@ -64,7 +65,6 @@ import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -447,80 +447,91 @@ public class AMQProtocolHandler implements ProtocolEngine
     private static int _messageReceivedCount;
 
 
-    public void received(ByteBuffer msg)
+    /**
+     * Processes the data blocks as the decoder decodes them, notifying the frame listeners of any error in processing
+     * one.
+     */
+    private final AMQDataBlockListener _dataBlockListener = new AMQDataBlockListener()
     {
-        try
+        public void dataBlockDecoded(AMQDataBlock message)
         {
-            _readBytes += msg.remaining();
-            final ArrayList<AMQDataBlock> dataBlocks = _codecFactory.getDecoder().decodeBuffer(msg);
-            Job.fireAsynchEvent(_poolReference.getPool(), _readJob, new Runnable() {
+            try
+            {
+                if (PROTOCOL_DEBUG)
+                {
+                    _protocolLogger.info(String.format("RECV: [%s] %s", this, message));
+                }
 
-                public void run() {
-                    // Decode buffer
+                if(message instanceof AMQFrame)
+                {
+                    final boolean debug = _logger.isDebugEnabled();
+                    final long msgNumber = ++_messageReceivedCount;
 
-                    for (AMQDataBlock message : dataBlocks)
+                    if (debug && ((msgNumber % 1000) == 0))
                     {
-
-                        try
-                        {
-                            if (PROTOCOL_DEBUG)
-                            {
-                                _protocolLogger.info(String.format("RECV: [%s] %s", this, message));
-                            }
-
-                            if(message instanceof AMQFrame)
-                            {
-                                final boolean debug = _logger.isDebugEnabled();
-                                final long msgNumber = ++_messageReceivedCount;
-
-                                if (debug && ((msgNumber % 1000) == 0))
-                                {
-                                    _logger.debug("Received " + _messageReceivedCount + " protocol messages");
-                                }
-
-                                AMQFrame frame = (AMQFrame) message;
-
-                                final AMQBody bodyFrame = frame.getBodyFrame();
-
-                                HeartbeatDiagnostics.received(bodyFrame instanceof HeartbeatBody);
-
-                                bodyFrame.handle(frame.getChannel(), _protocolSession);
-
-                                _connection.bytesReceived(_readBytes);
-                            }
-                            else if (message instanceof ProtocolInitiation)
-                            {
-                                // We get here if the server sends a response to our initial protocol header
-                                // suggesting an alternate ProtocolVersion; the server will then close the
-                                // connection.
-                                ProtocolInitiation protocolInit = (ProtocolInitiation) message;
-                                _suggestedProtocolVersion = protocolInit.checkVersion();
-                                _logger.info("Broker suggested using protocol version:" + _suggestedProtocolVersion);
-                                
-                                // get round a bug in old versions of qpid whereby the connection is not closed
-                                _stateManager.changeState(AMQState.CONNECTION_CLOSED);
-                            }
-                        }
-                        catch (Exception e)
-                        {
-                            _logger.error("Exception processing frame", e);
-                            // When error handling we assume this is a network driver error and do the necessary cleanup
-                            // on client side. If the underlying network connection is not closed, we forcefully
-                            // disconnect from the server first on hard errors.
-                            closeNetworkConnection(e);
-                            propagateExceptionToFrameListeners(e);
-                            exception(e);
-                        }
+                        _logger.debug("Received " + _messageReceivedCount + " protocol messages");
                     }
+
+                    AMQFrame frame = (AMQFrame) message;
+
+                    final AMQBody bodyFrame = frame.getBodyFrame();
+
+                    HeartbeatDiagnostics.received(bodyFrame instanceof HeartbeatBody);
+
+                    bodyFrame.handle(frame.getChannel(), _protocolSession);
+
+                    _connection.bytesReceived(_readBytes);
                 }
-            });
-        }
-        catch (Exception e)
-        {
-            closeNetworkConnection(e);
-            propagateExceptionToFrameListeners(e);
-            exception(e);
+                else if (message instanceof ProtocolInitiation)
+                {
+                    // We get here if the server sends a response to our initial protocol header
+                    // suggesting an alternate ProtocolVersion; the server will then close the
+                    // connection.
+                    ProtocolInitiation protocolInit = (ProtocolInitiation) message;
+                    _suggestedProtocolVersion = protocolInit.checkVersion();
+                    _logger.info("Broker suggested using protocol version:" + _suggestedProtocolVersion);
+                    
+                    // get round a bug in old versions of qpid whereby the connection is not closed
+                    _stateManager.changeState(AMQState.CONNECTION_CLOSED);
+                }
+            }
+            catch (Exception e)
+            {
+                _logger.error("Exception processing frame", e);
+                // When error handling we assume this is a network driver error and do the necessary cleanup
+                // on client side. If the underlying network connection is not closed, we forcefully
+                // disconnect from the server first on hard errors.
+                closeNetworkConnection(e);
+                propagateExceptionToFrameListeners(e);
+                exception(e);
+            }
         }
+    };
+
+    /**
+     * Hands the read to the read job, which decodes it and processes each data block as soon as it is decoded. The
+     * read job runs one read at a time in the order they were received.
+     *
+     * @param msg data read from the network
+     */
+    public void received(final ByteBuffer msg)
+    {
+        _readBytes += msg.remaining();
+        Job.fireAsynchEvent(_poolReference.getPool(), _readJob, new Runnable() {
+
+            public void run() {
+                try
+                {
+                    _codecFactory.getDecoder().decodeBuffer(msg, _dataBlockListener);
+                }
+                catch (Exception e)
+                {
+                    closeNetworkConnection(e);
+                    propagateExceptionToFrameListeners(e);
+                    exception(e);
+                }
+            }
+        });
     }
 
     /**
@@ -601,15 +612,26 @@ public class AMQProtocolHandler implements ProtocolEngine
 
     public void writeFrame(AMQDataBlock frame, boolean wait)
     {
-        final ByteBuffer buf = frame.toNioByteBuffer();
-        _writtenBytes += buf.remaining();
-
-        _sender.send(buf);
+        writeEncodedFrames(frame.toNioByteBuffer(), wait);
 
         if (PROTOCOL_DEBUG)
         {
             _protocolLogger.info(String.format("SEND: [%s] %s", this, frame));
         }
+    }
+
+    /**
+     * Write frames which are already encoded. The content of the buffer is copied by the sender, hence the buffer can
+     * be reused once this returns.
+     *
+     * @param buf  encoded frames
+     * @param wait true to wait until the frames are written to the network
+     */
+    public void writeEncodedFrames(ByteBuffer buf, boolean wait)
+    {
+        _writtenBytes += buf.remaining();
+
+        _sender.send(buf);
 
         final long sentMessages = _messagesOut++;
 
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.wso2.andes.AMQException;
 import org.wso2.andes.client.AMQConnection;
 import org.wso2.andes.client.AMQSession;
+import org.wso2.andes.client.AMQSession_0_8;
 import org.wso2.andes.client.ConnectionTuneParameters;
 import org.wso2.andes.client.handler.ClientMethodDispatcherImpl;
 import org.wso2.andes.client.message.UnprocessedMessage;
@@ -462,6 +463,28 @@ public class AMQProtocolSession implements AMQVersionAwareProtocolSession
         session.setFlowControl(active);
     }
 
+    /**
+     * Pass a publisher confirm received from the broker to the session of the channel
+     *
+     * @param channelId   channel the confirm is received on
+     * @param deliveryTag publish sequence number of the confirmed message
+     * @param multiple    true if all messages up to and including the given one are confirmed
+     * @param ack         true for a basic.ack, false for a basic.nack
+     */
+    public void confirmPublish(final int channelId, final long deliveryTag, final boolean multiple,
+                               final boolean ack)
+    {
+        final AMQSession session = getSession(channelId);
+
+        // session can be null if a confirm is received to a already closed session
+        if (!(session instanceof AMQSession_0_8)) {
+            _logger.warn("Unable to find the session (channelID : " + channelId + " ) to confirm published "
+                         + "messages.");
+            return;
+        }
+        ((AMQSession_0_8) session).confirmPublish(deliveryTag, multiple, ack);
+    }
+
     public void methodFrameReceived(final int channel, final AMQMethodBody amqMethodBody) throws AMQException
     {
         _protocolHandler.methodBodyReceived(channel, amqMethodBody);
@@ -23,6 +23,8 @@ package org.wso2.andes.client.util;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,8 +32,11 @@ import org.slf4j.LoggerFactory;
 /**
  * A blocking queue that emits events above a user specified threshold allowing the caller to take action (e.g. flow
  * control) to try to prevent the queue growing (much) further. The underlying queue itself is not bounded therefore the
- * caller is not obliged to react to the events. <p/> This implementation is <b>only</b> safe where we have a single
- * thread adding items and a single (different) thread removing items.
+ * caller is not obliged to react to the events. <p/> Adding and taking items does not take any lock. Any number of
+ * threads may add items, but only a single thread at a time may take items, since only one taking thread is parked
+ * and woken up when the queue is empty. Threshold events are the only place a lock is taken, so that an
+ * {@link ThresholdListener#aboveThreshold(int)} and the following {@link ThresholdListener#underThreshold(int)} are
+ * never delivered out of order.
  *
  * @todo Make this implement java.util.Queue and hide the implementation. Then different queue types can be substituted.
  */
@@ -48,7 +53,13 @@ public class FlowControllingBlockingQueue
     private final ThresholdListener _listener;
 
     /** We require a separate count so we can track whether we have reached the threshold */
-    private int _count;
+    private final AtomicInteger _count = new AtomicInteger();
+
+    /** True from the time the count reached the high threshold until it went below the low threshold */
+    private volatile boolean _aboveThreshold;
+
+    /** Thread parked in {@link #take()} waiting for an item, if any */
+    private volatile Thread _waiter;
     
     private boolean disableFlowControl; 
 
@@ -85,24 +96,32 @@ public class FlowControllingBlockingQueue
         Object o = _queue.poll();
         if(o == null)
         {
-            synchronized(this)
+            _waiter = Thread.currentThread();
+            try
             {
+                // The queue is polled again after registering as the waiter, so an item added before the
+                // registration is not missed and an item added after it unparks this thread
                 while((o = _queue.poll())==null)
                 {
-                    wait();
+                    if (Thread.interrupted())
+                    {
+                        throw new InterruptedException();
+                    }
+                    LockSupport.park(this);
                 }
             }
+            finally
+            {
+                _waiter = null;
+            }
         }
         if (!disableFlowControl && _listener != null)
         {
-            synchronized (_listener)
+            int count = _count.decrementAndGet();
+            if (count < _flowControlLowThreshold && _aboveThreshold)
             {
-                if (_count-- == _flowControlLowThreshold)
-                {
-                    _listener.underThreshold(_count);
-                }
+                signalUnderThreshold();
             }
-            
         }
 
         return o;
@@ -110,20 +129,20 @@ public class FlowControllingBlockingQueue
 
     public void add(Object o)
     {
-        synchronized(this)
-        {
-            _queue.add(o);
+        _queue.add(o);
 
-            notifyAll();
+        Thread waiter = _waiter;
+        if (waiter != null)
+        {
+            LockSupport.unpark(waiter);
         }
+
         if (!disableFlowControl && _listener != null)
         {
-            synchronized (_listener)
+            int count = _count.incrementAndGet();
+            if (count >= _flowControlHighThreshold && !_aboveThreshold)
             {
-                if (++_count == _flowControlHighThreshold)
-                {
-                    _listener.aboveThreshold(_count);
-                }
+                signalAboveThreshold();
             }
         }
     }
@@ -132,4 +151,53 @@ public class FlowControllingBlockingQueue
     {
         return _queue.iterator();
     }
+
+    /**
+     * Notify the listener that the count reached the high threshold. The state is changed before the count is
+     * checked again, so a taking thread which drains the queue concurrently either sees the new state and signals
+     * under threshold afterwards, or drained the queue before the check and no event is sent.
+     */
+    private void signalAboveThreshold()
+    {
+        synchronized (_listener)
+        {
+            if (!_aboveThreshold)
+            {
+                _aboveThreshold = true;
+                int count = _count.get();
+                if (count >= _flowControlHighThreshold)
+                {
+                    _listener.aboveThreshold(count);
+                }
+                else
+                {
+                    _aboveThreshold = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Notify the listener that the count went below the low threshold. The state is changed before the count is
+     * checked again, for the same reason as in {@link #signalAboveThreshold()}.
+     */
+    private void signalUnderThreshold()
+    {
+        synchronized (_listener)
+        {
+            if (_aboveThreshold)
+            {
+                _aboveThreshold = false;
+                int count = _count.get();
+                if (count < _flowControlLowThreshold)
+                {
+                    _listener.underThreshold(count);
+                }
+                else
+                {
+                    _aboveThreshold = true;
+                }
+            }
+        }
+    }
 }
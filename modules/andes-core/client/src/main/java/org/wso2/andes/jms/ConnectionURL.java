@@ -37,6 +37,10 @@ public interface ConnectionURL
     public static final String OPTIONS_MAXPREFETCH = "maxprefetch";
     public static final String OPTIONS_SYNC_ACK = "sync_ack";    
     public static final String OPTIONS_SYNC_PUBLISH = "sync_publish";
+    public static final String OPTIONS_PUBLISHER_CONFIRMS = "publisher_confirms";
+    public static final String OPTIONS_ACK_BATCH_SIZE = "ack_batch_size";
+    public static final String OPTIONS_ACK_BATCH_TIMEOUT = "ack_batch_timeout";
+    public static final String OPTIONS_DIRECT_ENCODING = "direct_encoding";
     public static final String OPTIONS_USE_LEGACY_MAP_MESSAGE_FORMAT = "use_legacy_map_msg_format";
     public static final String OPTIONS_BROKERLIST = "brokerlist";
     public static final String OPTIONS_FAILOVER = "failover";
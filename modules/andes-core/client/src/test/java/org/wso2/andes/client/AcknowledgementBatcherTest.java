@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+import junit.framework.TestCase;
+
+/**
+ * Test class for {@link AcknowledgementBatcher}
+ */
+public class AcknowledgementBatcherTest extends TestCase {
+
+    public void testBatchIsDueAtBatchSize() {
+        AcknowledgementBatcher batcher = new AcknowledgementBatcher(3, 1000);
+
+        assertFalse(batcher.add(1));
+        assertFalse(batcher.add(2));
+        assertTrue(batcher.add(3));
+        assertEquals(3, batcher.getPendingCount());
+
+        assertEquals(3, batcher.drain());
+        assertEquals(0, batcher.getPendingCount());
+    }
+
+    public void testDrainOfEmptyBatch() {
+        AcknowledgementBatcher batcher = new AcknowledgementBatcher(3, 1000);
+
+        assertEquals(AcknowledgementBatcher.NO_PENDING_ACKNOWLEDGEMENT, batcher.drain());
+        batcher.add(5);
+        assertEquals(5, batcher.drain());
+        assertEquals(AcknowledgementBatcher.NO_PENDING_ACKNOWLEDGEMENT, batcher.drain());
+    }
+
+    public void testHighestDeliveryTagIsAcknowledged() {
+        AcknowledgementBatcher batcher = new AcknowledgementBatcher(10, 1000);
+        batcher.add(4);
+        batcher.add(7);
+        batcher.add(6);
+
+        assertEquals(7, batcher.drain());
+    }
+
+    public void testBatchTimesOutFromFirstAcknowledgement() {
+        AcknowledgementBatcher batcher = new AcknowledgementBatcher(10, 50);
+        long now = System.currentTimeMillis();
+        assertFalse(batcher.isTimedOut(now + 100));
+
+        batcher.add(1);
+        assertFalse(batcher.isTimedOut(now - 1));
+        assertTrue(batcher.isTimedOut(System.currentTimeMillis() + 50));
+
+        batcher.drain();
+        assertFalse(batcher.isTimedOut(System.currentTimeMillis() + 100));
+    }
+
+    public void testClearDropsAcknowledgements() {
+        AcknowledgementBatcher batcher = new AcknowledgementBatcher(10, 1000);
+        batcher.add(1);
+        batcher.add(2);
+        batcher.clear();
+
+        assertEquals(0, batcher.getPendingCount());
+        assertEquals(AcknowledgementBatcher.NO_PENDING_ACKNOWLEDGEMENT, batcher.drain());
+    }
+}
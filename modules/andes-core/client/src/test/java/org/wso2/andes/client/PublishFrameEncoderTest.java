@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+import junit.framework.TestCase;
+import org.wso2.andes.framing.AMQDataBlock;
+import org.wso2.andes.framing.AMQFrame;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.CompositeAMQDataBlock;
+import org.wso2.andes.framing.ContentBody;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.MethodRegistry;
+import org.wso2.andes.framing.ProtocolVersion;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for {@link PublishFrameEncoder}
+ */
+public class PublishFrameEncoderTest extends TestCase {
+
+    private static final int CHANNEL_ID = 3;
+
+    private static final int BASIC_CLASS_ID = 60;
+
+    private static final AMQShortString DEST_TYPE = CustomJMSXProperty.JMS_QPID_DESTTYPE.getShortStringName();
+
+    private final AMQFrame publishFrame = MethodRegistry.getMethodRegistry(ProtocolVersion.v0_91)
+            .createBasicPublishBody(0, new AMQShortString("amq.direct"), new AMQShortString("queue"), false, false)
+            .generateFrame(CHANNEL_ID);
+
+    public void testEncodingMatchesFrameObjects() {
+        assertEncodingMatchesFrameObjects(256, 1000);
+    }
+
+    public void testContentIsSplitIntoBodyFrames() {
+        assertEncodingMatchesFrameObjects(4096, 1000);
+        assertEncodingMatchesFrameObjects(3000, 1000);
+    }
+
+    public void testMessageWithoutContent() {
+        assertEncodingMatchesFrameObjects(0, 1000);
+    }
+
+    public void testMessageLargerThanRetainedBuffer() {
+        assertEncodingMatchesFrameObjects(PublishFrameEncoder.MAX_RETAINED_BUFFER_SIZE + 1, 128 * 1024);
+        assertEncodingMatchesFrameObjects(256, 1000);
+    }
+
+    public void testPayloadPositionIsKept() {
+        ByteBuffer payload = createPayload(4096);
+        PublishFrameEncoder.encode(CHANNEL_ID, publishFrame, BASIC_CLASS_ID, createProperties(), DEST_TYPE, 1,
+                                   payload, 1000);
+
+        assertEquals(0, payload.position());
+        assertEquals(4096, payload.limit());
+    }
+
+    private void assertEncodingMatchesFrameObjects(int contentSize, long framePayloadMax) {
+        ByteBuffer payload = (contentSize > 0) ? createPayload(contentSize) : null;
+
+        BasicContentHeaderProperties properties = createProperties();
+        byte[] encoded = toBytes(PublishFrameEncoder.encode(CHANNEL_ID, publishFrame, BASIC_CLASS_ID, properties,
+                                                            DEST_TYPE, 1, payload, framePayloadMax));
+
+        BasicContentHeaderProperties expectedProperties = createProperties();
+        expectedProperties.getHeaders().setInteger(DEST_TYPE, 1);
+        List<AMQDataBlock> frames = new ArrayList<>();
+        frames.add(publishFrame);
+        frames.add(ContentHeaderBody.createAMQFrame(CHANNEL_ID, BASIC_CLASS_ID, 0, expectedProperties, contentSize));
+        for (int offset = 0; offset < contentSize; offset += framePayloadMax) {
+            int length = (int) Math.min(framePayloadMax, contentSize - offset);
+            ByteBuffer content = ByteBuffer.allocate(length);
+            for (int i = 0; i < length; i++) {
+                content.put((byte) (offset + i));
+            }
+            content.flip();
+            frames.add(ContentBody.createAMQFrame(CHANNEL_ID, new ContentBody(content)));
+        }
+        byte[] expected = toBytes(new CompositeAMQDataBlock(frames.toArray(new AMQDataBlock[frames.size()]))
+                                          .toNioByteBuffer());
+
+        assertTrue(Arrays.equals(expected, encoded));
+    }
+
+    private static BasicContentHeaderProperties createProperties() {
+        BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+        properties.setDeliveryMode((byte) 2);
+        properties.setPriority((byte) 4);
+        properties.setTimestamp(1476000000000L);
+        properties.setExpiration(1476000060000L);
+        properties.setMessageId("ID:test");
+        properties.getHeaders().setString("property", "value");
+        return properties;
+    }
+
+    private static ByteBuffer createPayload(int size) {
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        for (int i = 0; i < size; i++) {
+            payload.put((byte) i);
+        }
+        payload.flip();
+        return payload;
+    }
+
+    private static byte[] toBytes(java.nio.ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
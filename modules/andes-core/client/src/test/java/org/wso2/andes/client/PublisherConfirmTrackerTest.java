@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Test class for {@link PublisherConfirmTracker}
+ */
+public class PublisherConfirmTrackerTest extends TestCase {
+
+    public void testSequenceNumbersStartFromOne() throws Exception {
+        PublisherConfirmTracker tracker = new PublisherConfirmTracker(10);
+        tracker.acquire();
+        assertEquals(1, tracker.nextPublishSequenceNumber());
+        tracker.acquire();
+        assertEquals(2, tracker.nextPublishSequenceNumber());
+    }
+
+    public void testMultipleAckConfirmsEarlierMessages() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(3), 3);
+
+        tracker.confirm(2, true, true);
+        tracker.confirm(3, false, true);
+
+        assertTrue(tracker.waitForConfirms(100));
+    }
+
+    public void testNackReported() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(2), 2);
+
+        tracker.confirm(1, false, true);
+        tracker.confirm(2, false, false);
+
+        assertFalse(tracker.waitForConfirms(100));
+        // Nacks are reported once
+        assertTrue(tracker.waitForConfirms(100));
+    }
+
+    public void testWaitTimesOutOnUnconfirmedMessages() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(2), 2);
+        tracker.confirm(1, false, true);
+
+        try {
+            tracker.waitForConfirms(10);
+            fail("Wait should time out since message 2 is not confirmed");
+        } catch (TimeoutException e) {
+            // expected
+        }
+    }
+
+    public void testConfirmReleasesWindow() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(1), 1);
+
+        final PublisherConfirmTracker confirmingTracker = tracker;
+        Thread confirmer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                confirmingTracker.confirm(1, false, true);
+            }
+        });
+        confirmer.start();
+
+        // Blocks until message 1 is confirmed
+        tracker.acquire();
+        confirmer.join();
+        assertEquals(2, tracker.nextPublishSequenceNumber());
+    }
+
+    public void testResetTreatsUnconfirmedAsNacked() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(2), 2);
+
+        tracker.reset();
+
+        assertFalse(tracker.waitForConfirms(100));
+        tracker.acquire();
+        tracker.acquire();
+        assertEquals(1, tracker.nextPublishSequenceNumber());
+    }
+
+    public void testUnknownConfirmIgnored() throws Exception {
+        PublisherConfirmTracker tracker = publish(new PublisherConfirmTracker(1), 1);
+
+        tracker.confirm(5, false, false);
+        tracker.confirm(1, false, true);
+
+        assertTrue(tracker.waitForConfirms(100));
+    }
+
+    private PublisherConfirmTracker publish(PublisherConfirmTracker tracker, int messageCount)
+            throws InterruptedException {
+        for (int i = 0; i < messageCount; i++) {
+            tracker.acquire();
+            tracker.nextPublishSequenceNumber();
+        }
+        return tracker;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.client.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for {@link FlowControllingBlockingQueue}
+ */
+public class FlowControllingBlockingQueueTest extends TestCase {
+
+    public void testItemsAreTakenInOrder() throws Exception {
+        FlowControllingBlockingQueue queue = new FlowControllingBlockingQueue(0, null);
+        queue.add("1");
+        queue.add("2");
+
+        assertEquals("1", queue.take());
+        assertEquals("2", queue.take());
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testThresholdEventsAtWatermarks() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        FlowControllingBlockingQueue queue = new FlowControllingBlockingQueue(3, 1, listener);
+
+        queue.add("1");
+        queue.add("2");
+        assertTrue(listener.events.isEmpty());
+        queue.add("3");
+        queue.add("4");
+        assertEquals(1, listener.events.size());
+        assertEquals("above 3", listener.events.get(0));
+
+        queue.take();
+        queue.take();
+        queue.take();
+        assertEquals(1, listener.events.size());
+        queue.take();
+        assertEquals(2, listener.events.size());
+        assertEquals("under 0", listener.events.get(1));
+    }
+
+    public void testTakeWaitsForItem() throws Exception {
+        final FlowControllingBlockingQueue queue = new FlowControllingBlockingQueue(0, null);
+        final List<Object> taken = new ArrayList<>();
+
+        Thread taker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    taken.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        taker.start();
+        Thread.sleep(50);
+        assertTrue(taker.isAlive());
+
+        queue.add("1");
+        taker.join(5000);
+        assertFalse(taker.isAlive());
+        assertEquals("1", taken.get(0));
+    }
+
+    public void testInterruptedTake() throws Exception {
+        final FlowControllingBlockingQueue queue = new FlowControllingBlockingQueue(0, null);
+        final AtomicInteger interruptedCount = new AtomicInteger();
+
+        Thread taker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.take();
+                } catch (InterruptedException e) {
+                    interruptedCount.incrementAndGet();
+                }
+            }
+        });
+        taker.start();
+        Thread.sleep(50);
+        taker.interrupt();
+        taker.join(5000);
+
+        assertFalse(taker.isAlive());
+        assertEquals(1, interruptedCount.get());
+    }
+
+    public void testConcurrentProducersAndConsumerEndBelowThreshold() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final FlowControllingBlockingQueue queue = new FlowControllingBlockingQueue(50, 10, listener);
+        final int producerCount = 4;
+        final int itemsPerProducer = 20000;
+
+        List<Thread> producers = new ArrayList<>(producerCount);
+        for (int i = 0; i < producerCount; i++) {
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < itemsPerProducer; j++) {
+                        queue.add(j);
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        for (int i = 0; i < producerCount * itemsPerProducer; i++) {
+            queue.take();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // Events alternate and a drained queue is never left above the threshold
+        synchronized (listener) {
+            for (int i = 0; i < listener.events.size(); i++) {
+                assertEquals(i % 2 == 0, listener.events.get(i).startsWith("above"));
+            }
+            assertEquals(0, listener.events.size() % 2);
+        }
+    }
+
+    private static class RecordingListener implements FlowControllingBlockingQueue.ThresholdListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void aboveThreshold(int currentValue) {
+            events.add("above " + currentValue);
+        }
+
+        @Override
+        public void underThreshold(int currentValue) {
+            events.add("under " + currentValue);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.codec;
+
+import org.wso2.andes.framing.AMQDataBlock;
+
+/**
+ * Receives the data blocks decoded by {@link AMQDecoder#decodeBuffer(java.nio.ByteBuffer, AMQDataBlockListener)},
+ * as soon as each one is decoded.
+ */
+public interface AMQDataBlockListener {
+
+    /**
+     * Handle a decoded data block. Decoding continues with the next data block once this returns, hence errors in
+     * handling the data block should be dealt with here.
+     *
+     * @param dataBlock decoded protocol initiation or frame
+     */
+    void dataBlockDecoded(AMQDataBlock dataBlock);
+}
@@ -53,6 +53,21 @@ public class AMQDecoder extends CumulativeProtocolDecoder
 
     private static final String BUFFER = AMQDecoder.class.getName() + ".Buffer";
 
+    /** Size of a protocol initiation. */
+    private static final int PROTOCOL_INITIATION_SIZE = 8;
+
+    /** Size of the type, channel, body size and end marker of a frame. */
+    private static final int FRAME_OVERHEAD = 1 + 2 + 4 + 1;
+
+    /** Index of the channel in a frame. */
+    private static final int FRAME_CHANNEL_INDEX = 1;
+
+    /** Index of the body size in a frame. */
+    private static final int FRAME_BODY_SIZE_INDEX = 1 + 2;
+
+    /** Index of the body in a frame. */
+    private static final int FRAME_BODY_INDEX = 1 + 2 + 4;
+
     /** Holds the 'normal' AMQP data decoder. */
     private AMQDataBlockDecoder _dataBlockDecoder = new AMQDataBlockDecoder();
 
@@ -65,8 +80,9 @@ public class AMQDecoder extends CumulativeProtocolDecoder
 
     private AMQMethodBodyFactory _bodyFactory;
 
-    private ByteBuffer _remainingBuf;
-    
+    /** Holds the data read from the network that is not yet decoded. */
+    private final CompositeByteBufferView _pendingData = new CompositeByteBufferView();
+
     /**
      * Creates a new AMQP decoder.
      *
@@ -275,60 +291,136 @@ public class AMQDecoder extends CumulativeProtocolDecoder
         session.setAttribute( BUFFER, remainingBuf );
     }
 
+    /**
+     * Decodes the data blocks in the data read from the network. Data left after the last complete data block is
+     * kept, without copying it, and decoded along with the data of the next call.
+     *
+     * @param buf data read from the network
+     * @return data blocks decoded
+     * @throws AMQFrameDecodingException if a frame cannot be decoded
+     * @throws AMQProtocolVersionException if a method frame is not of the protocol version in use
+     * @see #decodeBuffer(java.nio.ByteBuffer, AMQDataBlockListener)
+     */
     public ArrayList<AMQDataBlock> decodeBuffer(java.nio.ByteBuffer buf) throws AMQFrameDecodingException, AMQProtocolVersionException
     {
-
-        // get prior remaining data from accumulator
-        ArrayList<AMQDataBlock> dataBlocks = new ArrayList<AMQDataBlock>();
-        ByteBuffer msg;
-        // if we have a session buffer, append data to that otherwise
-        // use the buffer read from the network directly
-        if( _remainingBuf != null )
-        {
-            _remainingBuf.put(buf);
-            _remainingBuf.flip();
-            msg = _remainingBuf;
-        }
-        else
-        {
-            msg = ByteBuffer.wrap(buf);
-        }
-        
-        if (_expectProtocolInitiation  
-            || (firstDecode
-                && (msg.remaining() > 0)
-                && (msg.get(msg.position()) == (byte)'A')))
+        final ArrayList<AMQDataBlock> dataBlocks = new ArrayList<AMQDataBlock>();
+        decodeBuffer(buf, new AMQDataBlockListener()
         {
-            if (_piDecoder.decodable(msg.buf()))
+            public void dataBlockDecoded(AMQDataBlock dataBlock)
             {
-                dataBlocks.add(new ProtocolInitiation(msg.buf()));
+                dataBlocks.add(dataBlock);
             }
-        }
-        else
+        });
+        return dataBlocks;
+    }
+
+    /**
+     * Decodes the data blocks in the data read from the network and hands each one to the listener as soon as it is
+     * decoded. Data left after the last complete data block is referenced, not copied, and decoded along with the
+     * data of the next call. The buffer must not be modified after this call.
+     * <p/>
+     * A frame within a single network read is decoded in place, so a content body refers to a slice of the network
+     * buffer. A content body spanning reads refers to a slice of each read it spans. Only other frames spanning
+     * reads, which are small, are copied into a buffer of their own to be decoded.
+     *
+     * @param buf      data read from the network
+     * @param listener listener to hand the decoded data blocks to
+     * @throws AMQFrameDecodingException if a frame cannot be decoded
+     * @throws AMQProtocolVersionException if a method frame is not of the protocol version in use
+     */
+    public void decodeBuffer(java.nio.ByteBuffer buf, AMQDataBlockListener listener) throws AMQFrameDecodingException, AMQProtocolVersionException
+    {
+        _pendingData.add(buf);
+
+        while (true)
         {
-            boolean enoughData = true;
-            while (enoughData)
+            AMQDataBlock dataBlock;
+            if (_expectProtocolInitiation
+                || (firstDecode
+                    && (_pendingData.remaining() > 0)
+                    && (_pendingData.get(0) == (byte)'A')))
             {
-                int pos = msg.position();
-
-                enoughData = _dataBlockDecoder.decodable(msg);
-                msg.position(pos);
-                if (enoughData)
+                if (_pendingData.remaining() < PROTOCOL_INITIATION_SIZE)
                 {
-                    dataBlocks.add(_dataBlockDecoder.createAndPopulateFrame(_bodyFactory, msg));
+                    break;
                 }
-                else
+                dataBlock = new ProtocolInitiation(readContiguous(PROTOCOL_INITIATION_SIZE).buf());
+            }
+            else
+            {
+                if (_pendingData.remaining() < FRAME_OVERHEAD)
                 {
-                    _remainingBuf = SIMPLE_BYTE_BUFFER_ALLOCATOR.allocate(msg.remaining(), false);
-                    _remainingBuf.setAutoExpand(true);
-                    _remainingBuf.put(msg);
+                    break;
                 }
+                final long bodySize = _pendingData.getUnsignedInt(FRAME_BODY_SIZE_INDEX);
+                if (_pendingData.remaining() - FRAME_OVERHEAD < bodySize)
+                {
+                    break;
+                }
+                dataBlock = decodeFrame((int) bodySize);
             }
+
+            firstDecode = false;
+            listener.dataBlockDecoded(dataBlock);
         }
-        if(firstDecode && dataBlocks.size() > 0)
+    }
+
+    /**
+     * Decodes the frame at the position of the pending data. The whole frame should be pending.
+     */
+    private AMQFrame decodeFrame(int bodySize) throws AMQFrameDecodingException, AMQProtocolVersionException
+    {
+        final int frameSize = FRAME_OVERHEAD + bodySize;
+        if (_pendingData.isContiguous(frameSize))
         {
-            firstDecode = false;
+            return _dataBlockDecoder.createAndPopulateFrame(_bodyFactory, _pendingData.head());
         }
-        return dataBlocks;
+
+        final byte type = _pendingData.get(0);
+        if ((type != ContentBody.TYPE) || (bodySize == 0))
+        {
+            return _dataBlockDecoder.createAndPopulateFrame(_bodyFactory, readContiguous(frameSize));
+        }
+
+        // Content bodies are the frames that span reads the most. Refer to the reads instead of copying them.
+        final int channel = _pendingData.getUnsignedShort(FRAME_CHANNEL_INDEX);
+        _pendingData.skip(FRAME_BODY_INDEX);
+        final ContentBody body = new ContentBody(_pendingData.readSlices(bodySize));
+
+        final byte marker = _pendingData.get(0);
+        _pendingData.skip(1);
+        if ((marker & 0xFF) != 0xCE)
+        {
+            throw new AMQFrameDecodingException(null, "End of frame marker not found. Read " + marker + " length=" + bodySize
+                + " type=" + type, null);
+        }
+        return new AMQFrame(channel, body);
+    }
+
+    /**
+     * Reads the given number of pending bytes from a single buffer, which is copied only if the bytes span reads
+     */
+    private ByteBuffer readContiguous(int length)
+    {
+        if (_pendingData.isContiguous(length))
+        {
+            ByteBuffer head = _pendingData.head();
+            ByteBuffer data = head.slice();
+            data.limit(length);
+            head.skip(length);
+            return data;
+        }
+        return _pendingData.readCopy(length);
+    }
+
+    /**
+     * Gets the number of bytes copied by {@link #decodeBuffer(java.nio.ByteBuffer, AMQDataBlockListener)} to decode
+     * data blocks that spanned network reads.
+     *
+     * @return number of bytes copied since the decoder was created
+     */
+    public long getBytesCopied()
+    {
+        return _pendingData.getBytesCopied();
     }
 }
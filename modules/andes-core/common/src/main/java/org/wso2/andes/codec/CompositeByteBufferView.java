@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.codec;
+
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A read only view over the buffers read from the network that are not yet decoded, in the order they were read.
+ * Buffers are referenced, not copied, when they are added. The bytes of the view are read through the buffer at the
+ * head of the view while they are contiguous, or taken as slices of the buffers they span. Bytes are copied only
+ * when a contiguous buffer is asked for data spanning buffers.
+ * <p>
+ * Reading from the head buffer moves its position, which is reflected in the view. A buffer is dropped from the view
+ * once all of it is read. The view is not thread safe.
+ */
+class CompositeByteBufferView {
+
+    /**
+     * Buffers not yet fully read. The first one is the head of the view
+     */
+    private final ArrayDeque<java.nio.ByteBuffer> buffers = new ArrayDeque<>();
+
+    /**
+     * Wrapper of the head buffer, created the first time the head is read in place
+     */
+    private ByteBuffer head;
+
+    /**
+     * Number of bytes remaining in the buffers after the head
+     */
+    private int tailRemaining;
+
+    /**
+     * Number of bytes copied to make data spanning buffers contiguous
+     */
+    private long bytesCopied;
+
+    /**
+     * Append a buffer to the view. The buffer is referenced from its position to its limit and must not be modified
+     * afterwards.
+     *
+     * @param buffer buffer read from the network
+     */
+    void add(java.nio.ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+        dropReadBuffers();
+        if (!buffers.isEmpty()) {
+            tailRemaining = tailRemaining + buffer.remaining();
+        }
+        buffers.add(buffer);
+    }
+
+    /**
+     * @return number of bytes not yet read
+     */
+    int remaining() {
+        dropReadBuffers();
+        java.nio.ByteBuffer first = buffers.peekFirst();
+        return (null == first) ? 0 : first.remaining() + tailRemaining;
+    }
+
+    /**
+     * Get a byte at an index relative to the current position of the view, without moving the position
+     *
+     * @param index index relative to the current position. Should be less than {@link #remaining()}
+     * @return the byte at the index
+     */
+    byte get(int index) {
+        dropReadBuffers();
+        int offset = index;
+        for (java.nio.ByteBuffer buffer : buffers) {
+            if (offset < buffer.remaining()) {
+                return buffer.get(buffer.position() + offset);
+            }
+            offset = offset - buffer.remaining();
+        }
+        throw new IndexOutOfBoundsException("Index " + index + " is beyond the " + remaining() + " bytes remaining");
+    }
+
+    /**
+     * Get the unsigned 16 bit integer at an index relative to the current position, without moving the position
+     */
+    int getUnsignedShort(int index) {
+        return ((get(index) & 0xff) << 8) | (get(index + 1) & 0xff);
+    }
+
+    /**
+     * Get the unsigned 32 bit integer at an index relative to the current position, without moving the position
+     */
+    long getUnsignedInt(int index) {
+        return ((long) getUnsignedShort(index) << 16) | getUnsignedShort(index + 2);
+    }
+
+    /**
+     * Check whether the given number of bytes can be read from the head buffer alone
+     *
+     * @param length number of bytes
+     * @return true if the head buffer holds at least the given number of bytes
+     */
+    boolean isContiguous(int length) {
+        dropReadBuffers();
+        java.nio.ByteBuffer first = buffers.peekFirst();
+        return (null != first) && (first.remaining() >= length);
+    }
+
+    /**
+     * Get the head buffer to read contiguous bytes from in place. Bytes read through it are removed from the view.
+     *
+     * @return the head buffer, positioned at the current position of the view
+     * @see #isContiguous(int)
+     */
+    ByteBuffer head() {
+        dropReadBuffers();
+        if (null == head) {
+            head = ByteBuffer.wrap(buffers.getFirst());
+        }
+        return head;
+    }
+
+    /**
+     * Move the position of the view past the given number of bytes
+     *
+     * @param length number of bytes to skip. Should not exceed {@link #remaining()}
+     */
+    void skip(int length) {
+        int toSkip = length;
+        while (toSkip > 0) {
+            dropReadBuffers();
+            java.nio.ByteBuffer first = buffers.getFirst();
+            int skipped = Math.min(toSkip, first.remaining());
+            first.position(first.position() + skipped);
+            toSkip = toSkip - skipped;
+        }
+    }
+
+    /**
+     * Read the given number of bytes as slices of the buffers they span. The slices share the content of the
+     * buffers read from the network.
+     *
+     * @param length number of bytes to read. Should not exceed {@link #remaining()}
+     * @return slices holding the bytes, in order
+     */
+    ByteBuffer[] readSlices(int length) {
+        dropReadBuffers();
+        int sliceCount = 0;
+        int covered = 0;
+        Iterator<java.nio.ByteBuffer> iterator = buffers.iterator();
+        while (covered < length) {
+            covered = covered + iterator.next().remaining();
+            sliceCount++;
+        }
+
+        ByteBuffer[] slices = new ByteBuffer[sliceCount];
+        int toRead = length;
+        for (int i = 0; i < sliceCount; i++) {
+            dropReadBuffers();
+            java.nio.ByteBuffer first = buffers.getFirst();
+            int sliceLength = Math.min(toRead, first.remaining());
+            java.nio.ByteBuffer slice = first.slice();
+            slice.limit(sliceLength);
+            slices[i] = ByteBuffer.wrap(slice);
+            first.position(first.position() + sliceLength);
+            toRead = toRead - sliceLength;
+        }
+        return slices;
+    }
+
+    /**
+     * Read the given number of bytes into a new contiguous buffer. Used for data spanning buffers that has to be
+     * decoded from a single buffer.
+     *
+     * @param length number of bytes to read. Should not exceed {@link #remaining()}
+     * @return a buffer holding a copy of the bytes, positioned at zero
+     */
+    ByteBuffer readCopy(int length) {
+        java.nio.ByteBuffer copy = java.nio.ByteBuffer.allocate(length);
+        while (copy.hasRemaining()) {
+            dropReadBuffers();
+            java.nio.ByteBuffer first = buffers.getFirst();
+            if (first.remaining() <= copy.remaining()) {
+                copy.put(first);
+            } else {
+                java.nio.ByteBuffer part = first.duplicate();
+                part.limit(part.position() + copy.remaining());
+                copy.put(part);
+                first.position(part.position());
+            }
+        }
+        copy.flip();
+        bytesCopied = bytesCopied + length;
+        return ByteBuffer.wrap(copy);
+    }
+
+    /**
+     * @return number of bytes copied by {@link #readCopy(int)} since the view was created
+     */
+    long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    /**
+     * Drop all buffers from the view
+     */
+    void clear() {
+        buffers.clear();
+        head = null;
+        tailRemaining = 0;
+    }
+
+    /**
+     * Drop the fully read buffers at the head of the view
+     */
+    private void dropReadBuffers() {
+        java.nio.ByteBuffer first = buffers.peekFirst();
+        while ((null != first) && !first.hasRemaining()) {
+            buffers.removeFirst();
+            head = null;
+            first = buffers.peekFirst();
+            if (null != first) {
+                tailRemaining = tailRemaining - first.remaining();
+            }
+        }
+    }
+}
@@ -61,6 +61,36 @@ public class ClientProperties
      */
     public static final String SYNC_PUBLISH_PROP_NAME = "sync_publish";
 
+    /**
+     * publisher_confirms property - maximum number of published messages not yet confirmed by the broker
+     * If set to a value greater than 0, channels of non transacted sessions are put into confirm mode and a
+     * publisher blocks once that many messages are waiting to be confirmed. Disabled by default.
+     * type: int
+     */
+    public static final String PUBLISHER_CONFIRMS_PROP_NAME = "publisher_confirms";
+
+    /**
+     * ack_batch_size property - maximum number of acknowledgements coalesced into a single ack
+     * If set to a value greater than 1, messages consumed on AUTO_ACKNOWLEDGE and DUPS_OK_ACKNOWLEDGE sessions are
+     * acknowledged with one ack covering all messages up to the last one consumed, once that many messages are
+     * consumed or the ack_batch_timeout elapses. Disabled by default.
+     * type: int
+     */
+    public static final String ACK_BATCH_SIZE_PROP_NAME = "ack_batch_size";
+
+    /**
+     * ack_batch_timeout property - maximum time in milliseconds an acknowledgement is held back for coalescing
+     * type: long
+     */
+    public static final String ACK_BATCH_TIMEOUT_PROP_NAME = "ack_batch_timeout";
+
+    /**
+     * direct_encoding property - when true the frames of published messages are encoded straight into a buffer
+     * reused by the publishing thread, instead of creating frame objects and a buffer per message.
+     * type: boolean
+     */
+    public static final String DIRECT_ENCODING_PROP_NAME = "direct_encoding";
+
     /**
      * This value will be used in the following settings
      * To calculate the SO_TIMEOUT option of the socket (2*idle_timeout)
@@ -110,9 +110,13 @@ public abstract class AMQMethodBodyImpl implements AMQMethodBody
         return buffer.get();
     }
 
+    /**
+     * Short strings of methods are exchange names, queue names, routing keys and consumer tags, which repeat across
+     * frames. They are interned from the buffer, so a name already known does not create a short string per frame.
+     */
     protected AMQShortString readAMQShortString(ByteBuffer buffer)
     {
-        return EncodingUtils.readAMQShortString(buffer);
+        return AMQShortString.readInternedFromBuffer(buffer);
     }
 
     protected int getSizeOf(AMQShortString string)
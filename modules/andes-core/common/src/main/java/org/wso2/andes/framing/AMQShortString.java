@@ -27,7 +27,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.lang.ref.WeakReference;
 
 /**
  * A short string is a representation of an AMQ Short String
@@ -96,17 +95,8 @@ public final class AMQShortString implements CharSequence, Comparable<AMQShortSt
     }
 
 
-    private static final ThreadLocal<Map<AMQShortString, WeakReference<AMQShortString>>> _localInternMap =
-            new ThreadLocal<Map<AMQShortString, WeakReference<AMQShortString>>>()
-            {
-                protected Map<AMQShortString, WeakReference<AMQShortString>> initialValue()
-                {
-                    return new WeakHashMap<AMQShortString, WeakReference<AMQShortString>>();
-                };
-            };
-
-    private static final Map<AMQShortString, WeakReference<AMQShortString>> _globalInternMap =
-            new WeakHashMap<AMQShortString, WeakReference<AMQShortString>>();
+    private static final AMQShortStringInternTable _internTable =
+            new AMQShortStringInternTable(AMQShortStringInternTable.DEFAULT_SEGMENT_COUNT);
 
     private static final Logger _logger = LoggerFactory.getLogger(AMQShortString.class);
 
@@ -224,7 +214,7 @@ public final class AMQShortString implements CharSequence, Comparable<AMQShortSt
 
     }
 
-    private AMQShortString(final byte[] data, final int from, final int to)
+    AMQShortString(final byte[] data, final int from, final int to)
     {
         if (data == null)
         {
@@ -289,6 +279,26 @@ public final class AMQShortString implements CharSequence, Comparable<AMQShortSt
         }
     }
 
+    /**
+     * Read a short string from the buffer and intern it. The interned instance is looked up from the buffer content
+     * directly, so no short string is created for content already interned.
+     *
+     * @param buffer buffer positioned at the length octet of the short string
+     * @return interned short string, null for an empty short string as for {@link #readFromBuffer(ByteBuffer)}
+     */
+    public static AMQShortString readInternedFromBuffer(ByteBuffer buffer)
+    {
+        final short length = buffer.getUnsigned();
+        if (length == 0)
+        {
+            return null;
+        }
+        else
+        {
+            return _internTable.intern(buffer, length);
+        }
+    }
+
     public byte[] getBytes()
     {
         if(_offset == 0 && _length == _data.length)
@@ -567,6 +577,38 @@ public final class AMQShortString implements CharSequence, Comparable<AMQShortSt
         return hash;
     }
 
+    /**
+     * Compute the hash code a short string with the given content would have
+     */
+    static int computeHash(final byte[] data, final int offset, final int length)
+    {
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+        {
+            hash = (31 * hash) + data[i + offset];
+        }
+        return hash;
+    }
+
+    /**
+     * Check whether the content of this short string equals the given bytes
+     */
+    boolean contentEquals(final byte[] data, final int offset, final int length)
+    {
+        if (length != _length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (_data[i + _offset] != data[i + offset])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void setDirty()
     {
         _hashCode = 0;
@@ -619,40 +661,7 @@ public final class AMQShortString implements CharSequence, Comparable<AMQShortSt
 
     public AMQShortString intern()
     {
-
-        hashCode();
-
-        Map<AMQShortString, WeakReference<AMQShortString>> localMap =
-                _localInternMap.get();
-
-        WeakReference<AMQShortString> ref = localMap.get(this);
-        AMQShortString internString;
-
-        if(ref != null)
-        {
-            internString = ref.get();
-            if(internString != null)
-            {
-                return internString;
-            }
-        }
-
-
-        synchronized(_globalInternMap)
-        {
-
-            ref = _globalInternMap.get(this);
-            if((ref == null) || ((internString = ref.get()) == null))
-            {
-                internString = shrink();
-                ref = new WeakReference(internString);
-                _globalInternMap.put(internString, ref);
-            }
-
-        }
-        localMap.put(internString, ref);
-        return internString;
-
+        return _internTable.intern(this);
     }
 
     private int occurences(final byte delim)
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.framing;
+
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent table of interned short strings, looked up by their byte content. The table is split into segments
+ * selected by the hash of the content. Each segment is an open addressing table with linear probing.
+ * <p>
+ * Lookups do not lock. Only a miss locks the segment of the string to add it. Entries are weakly referenced, so an
+ * interned string no longer used elsewhere is collected. The slots of collected strings are reused by later
+ * additions and dropped when the segment is rehashed.
+ * <p>
+ * Strings can be interned straight from a decode buffer. A hit then returns the interned string without creating
+ * an {@link AMQShortString} for the buffer content.
+ */
+final class AMQShortStringInternTable {
+
+    /**
+     * Number of segments used by default. Must be a power of two
+     */
+    static final int DEFAULT_SEGMENT_COUNT = 64;
+
+    /**
+     * Initial number of slots of a segment. Must be a power of two
+     */
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    /**
+     * Scratch space the content of direct buffers is copied into for a lookup
+     */
+    private static final ThreadLocal<byte[]> LOOKUP_BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[AMQShortString.MAX_LENGTH];
+        }
+    };
+
+    private final Segment[] segments;
+
+    /**
+     * Shift applied to the hash to select a segment from its high bits. Slots are selected from the low bits.
+     */
+    private final int segmentShift;
+
+    /**
+     * @param segmentCount number of segments, rounded up to a power of two
+     */
+    AMQShortStringInternTable(int segmentCount) {
+        int count = Integer.highestOneBit(Math.max(1, segmentCount - 1) << 1);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * Get the interned instance of a short string, adding a compact copy of it if there is none
+     *
+     * @param string short string to intern
+     * @return interned short string equal to the given one
+     */
+    AMQShortString intern(AMQShortString string) {
+        int hash = string.hashCode();
+        Segment segment = segmentFor(hash);
+        AMQShortString interned = segment.get(string, hash);
+        if (null == interned) {
+            interned = segment.add(string, hash);
+        }
+        return interned;
+    }
+
+    /**
+     * Get the interned short string of the given number of bytes at the position of a buffer. The position of the
+     * buffer is moved past the bytes. A short string is created only if there is no interned one yet.
+     *
+     * @param buffer buffer holding the content of the short string
+     * @param length number of bytes of the short string
+     * @return interned short string
+     */
+    AMQShortString intern(ByteBuffer buffer, int length) {
+        if (length > AMQShortString.MAX_LENGTH) {
+            throw new IllegalArgumentException("Cannot create AMQShortString with number of octets over 255!");
+        }
+
+        byte[] data;
+        int offset;
+        if (buffer.isDirect() || buffer.isReadOnly()) {
+            data = LOOKUP_BUFFER.get();
+            offset = 0;
+            buffer.get(data, 0, length);
+        } else {
+            data = buffer.array();
+            offset = buffer.arrayOffset() + buffer.position();
+            buffer.skip(length);
+        }
+
+        int hash = AMQShortString.computeHash(data, offset, length);
+        Segment segment = segmentFor(hash);
+        AMQShortString interned = segment.get(data, offset, length, hash);
+        if (null == interned) {
+            // Always copied, as shrinking keeps a string spanning its whole array, which may be the lookup buffer of
+            // the thread or the array of a decode buffer holding nothing else
+            interned = segment.add(new AMQShortString(Arrays.copyOfRange(data, offset, offset + length), 0, length),
+                    hash);
+        }
+        return interned;
+    }
+
+    /**
+     * @return number of interned short strings not yet collected
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size = size + segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(int hash) {
+        // Segment count is a power of two, hence shifting by 32 is avoided unless there is a single segment
+        return segments.length == 1 ? segments[0] : segments[spread(hash) >>> segmentShift];
+    }
+
+    /**
+     * Spread the bits of a short string hash, which are mostly in its low bits for short content
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An open addressing table of weakly referenced short strings. Reads go through the volatile table reference
+     * without locking. Slots are only ever set from null or from a collected entry to a new entry, under the
+     * segment lock, so a probe sequence is never broken for a concurrent reader.
+     */
+    private static final class Segment {
+
+        private volatile AtomicReferenceArray<WeakReference<AMQShortString>> table =
+                new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+
+        /**
+         * Number of slots in use, including slots of collected entries. Guarded by this
+         */
+        private int usedSlots;
+
+        AMQShortString get(AMQShortString string, int hash) {
+            AtomicReferenceArray<WeakReference<AMQShortString>> currentTable = table;
+            int mask = currentTable.length() - 1;
+            for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+                WeakReference<AMQShortString> reference = currentTable.get(index);
+                if (null == reference) {
+                    return null;
+                }
+                AMQShortString candidate = reference.get();
+                if ((null != candidate) && (candidate.hashCode() == hash) && candidate.equals(string)) {
+                    return candidate;
+                }
+            }
+        }
+
+        AMQShortString get(byte[] data, int offset, int length, int hash) {
+            AtomicReferenceArray<WeakReference<AMQShortString>> currentTable = table;
+            int mask = currentTable.length() - 1;
+            for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+                WeakReference<AMQShortString> reference = currentTable.get(index);
+                if (null == reference) {
+                    return null;
+                }
+                AMQShortString candidate = reference.get();
+                if ((null != candidate) && (candidate.hashCode() == hash)
+                        && candidate.contentEquals(data, offset, length)) {
+                    return candidate;
+                }
+            }
+        }
+
+        /**
+         * Add a compact copy of the given string unless an equal string was added concurrently
+         */
+        synchronized AMQShortString add(AMQShortString string, int hash) {
+            AMQShortString existing = get(string, hash);
+            if (null != existing) {
+                return existing;
+            }
+
+            AtomicReferenceArray<WeakReference<AMQShortString>> currentTable = table;
+            if ((usedSlots + 1) * 4 > currentTable.length() * 3) {
+                currentTable = rehash(currentTable);
+            }
+
+            AMQShortString interned = string.shrink();
+            int mask = currentTable.length() - 1;
+            for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+                WeakReference<AMQShortString> reference = currentTable.get(index);
+                if (null == reference) {
+                    usedSlots++;
+                    currentTable.set(index, new WeakReference<>(interned));
+                    return interned;
+                } else if (null == reference.get()) {
+                    currentTable.set(index, new WeakReference<>(interned));
+                    return interned;
+                }
+            }
+        }
+
+        /**
+         * Copy the entries not yet collected into a new table sized for them. Guarded by this
+         */
+        private AtomicReferenceArray<WeakReference<AMQShortString>> rehash(
+                AtomicReferenceArray<WeakReference<AMQShortString>> currentTable) {
+
+            int liveCount = 0;
+            for (int i = 0; i < currentTable.length(); i++) {
+                WeakReference<AMQShortString> reference = currentTable.get(i);
+                if ((null != reference) && (null != reference.get())) {
+                    liveCount++;
+                }
+            }
+
+            // Keep the table at most 3/8 full after a rehash, so that it is not rehashed again too soon
+            int capacity = INITIAL_SEGMENT_CAPACITY;
+            while ((liveCount + 1) * 8 > capacity * 3) {
+                capacity = capacity << 1;
+            }
+
+            AtomicReferenceArray<WeakReference<AMQShortString>> newTable = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            int newUsedSlots = 0;
+            for (int i = 0; i < currentTable.length(); i++) {
+                WeakReference<AMQShortString> reference = currentTable.get(i);
+                AMQShortString string = (null == reference) ? null : reference.get();
+                if (null != string) {
+                    int index = spread(string.hashCode()) & mask;
+                    while (null != newTable.get(index)) {
+                        index = (index + 1) & mask;
+                    }
+                    newTable.set(index, reference);
+                    newUsedSlots++;
+                }
+            }
+
+            usedSlots = newUsedSlots;
+            table = newTable;
+            return newTable;
+        }
+
+        int size() {
+            AtomicReferenceArray<WeakReference<AMQShortString>> currentTable = table;
+            int size = 0;
+            for (int i = 0; i < currentTable.length(); i++) {
+                WeakReference<AMQShortString> reference = currentTable.get(i);
+                if ((null != reference) && (null != reference.get())) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+}
@@ -234,6 +234,57 @@ public class BasicContentHeaderProperties implements CommonContentHeaderProperti
         return _propertyFlags;
     }
 
+    /**
+     * Check whether an integer header can be written along with the properties through
+     * {@link #writePropertyListPayload(ByteBuffer, AMQShortString, int)} without adding it to the headers table.
+     * This is not possible if the properties are held in encoded form or the header is already present.
+     *
+     * @param headerName name of the header
+     * @return true if the header can be appended while writing
+     */
+    public boolean canAppendHeader(AMQShortString headerName)
+    {
+        return (_encodedForm == null) && ((_headers == null) || !_headers.propertyExists(headerName));
+    }
+
+    /**
+     * Size of the property list written through {@link #writePropertyListPayload(ByteBuffer, AMQShortString, int)}
+     *
+     * @param headerName name of the appended integer header
+     * @return size in bytes
+     */
+    public int getPropertyListSize(AMQShortString headerName)
+    {
+        int size = getPropertyListSize() + FieldTable.encodedIntegerFieldLength(headerName);
+        if ((_propertyFlags & HEADERS_MASK) == 0)
+        {
+            size += EncodingUtils.encodedFieldTableLength(null);
+        }
+        return size;
+    }
+
+    /**
+     * Property flags of the property list written through
+     * {@link #writePropertyListPayload(ByteBuffer, AMQShortString, int)}
+     */
+    public int getPropertyFlagsWithHeaders()
+    {
+        return _propertyFlags | HEADERS_MASK;
+    }
+
+    /**
+     * Write the property list with an integer header appended to the headers, without adding the header to the
+     * headers table. Only applicable if {@link #canAppendHeader(AMQShortString)} is true for the header.
+     *
+     * @param buffer      buffer to write to
+     * @param headerName  name of the appended header
+     * @param headerValue value of the appended header
+     */
+    public void writePropertyListPayload(ByteBuffer buffer, AMQShortString headerName, int headerValue)
+    {
+        writePropertyList(buffer, getPropertyFlagsWithHeaders(), headerName, headerValue);
+    }
+
     public void writePropertyListPayload(ByteBuffer buffer)
     {
         if (_encodedForm != null)
@@ -242,82 +293,99 @@ public class BasicContentHeaderProperties implements CommonContentHeaderProperti
         }
         else
         {
-            if ((_propertyFlags & (CONTENT_TYPE_MASK)) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _contentType);
-            }
+            writePropertyList(buffer, _propertyFlags, null, 0);
+        }
+    }
 
-            if ((_propertyFlags & ENCONDING_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _encoding);
-            }
+    private void writePropertyList(ByteBuffer buffer, int propertyFlags, AMQShortString headerName, int headerValue)
+    {
+        if ((propertyFlags & (CONTENT_TYPE_MASK)) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _contentType);
+        }
 
-            if ((_propertyFlags & HEADERS_MASK) != 0)
+        if ((propertyFlags & ENCONDING_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _encoding);
+        }
+
+        if ((propertyFlags & HEADERS_MASK) != 0)
+        {
+            if (null == headerName)
             {
                 EncodingUtils.writeFieldTableBytes(buffer, _headers);
             }
-
-            if ((_propertyFlags & DELIVERY_MODE_MASK) != 0)
+            else if (null == _headers)
             {
-                buffer.put(_deliveryMode);
+                EncodingUtils.writeUnsignedInteger(buffer, FieldTable.encodedIntegerFieldLength(headerName));
+                FieldTable.writeIntegerField(buffer, headerName, headerValue);
             }
-
-            if ((_propertyFlags & PROPRITY_MASK) != 0)
+            else
             {
-                buffer.put(_priority);
+                _headers.writeToBuffer(buffer, headerName, headerValue);
             }
+        }
 
-            if ((_propertyFlags & CORRELATION_ID_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _correlationId);
-            }
+        if ((propertyFlags & DELIVERY_MODE_MASK) != 0)
+        {
+            buffer.put(_deliveryMode);
+        }
 
-            if ((_propertyFlags & REPLY_TO_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _replyTo);
-            }
+        if ((propertyFlags & PROPRITY_MASK) != 0)
+        {
+            buffer.put(_priority);
+        }
 
-            if ((_propertyFlags & EXPIRATION_MASK) != 0)
-            {
-                if (_expiration == 0L)
-                {
-                    EncodingUtils.writeShortStringBytes(buffer, ZERO_STRING);
-                }
-                else
-                {
-                    EncodingUtils.writeShortStringBytes(buffer, String.valueOf(_expiration));
-                }
-            }
+        if ((propertyFlags & CORRELATION_ID_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _correlationId);
+        }
 
-            if ((_propertyFlags & MESSAGE_ID_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _messageId);
-            }
+        if ((propertyFlags & REPLY_TO_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _replyTo);
+        }
 
-            if ((_propertyFlags & TIMESTAMP_MASK) != 0)
+        if ((propertyFlags & EXPIRATION_MASK) != 0)
+        {
+            if (_expiration == 0L)
             {
-                EncodingUtils.writeTimestamp(buffer, _timestamp);
+                EncodingUtils.writeShortStringBytes(buffer, ZERO_STRING);
             }
-
-            if ((_propertyFlags & TYPE_MASK) != 0)
+            else
             {
-                EncodingUtils.writeShortStringBytes(buffer, _type);
+                EncodingUtils.writeShortStringBytes(buffer, _expiration);
             }
+        }
 
-            if ((_propertyFlags & USER_ID_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _userId);
-            }
+        if ((propertyFlags & MESSAGE_ID_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _messageId);
+        }
 
-            if ((_propertyFlags & APPLICATION_ID_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _appId);
-            }
+        if ((propertyFlags & TIMESTAMP_MASK) != 0)
+        {
+            EncodingUtils.writeTimestamp(buffer, _timestamp);
+        }
 
-            if ((_propertyFlags & CLUSTER_ID_MASK) != 0)
-            {
-                EncodingUtils.writeShortStringBytes(buffer, _clusterId);
-            }
+        if ((propertyFlags & TYPE_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _type);
+        }
+
+        if ((propertyFlags & USER_ID_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _userId);
+        }
+
+        if ((propertyFlags & APPLICATION_ID_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _appId);
+        }
+
+        if ((propertyFlags & CLUSTER_ID_MASK) != 0)
+        {
+            EncodingUtils.writeShortStringBytes(buffer, _clusterId);
         }
     }
 
@@ -30,6 +30,11 @@ public class ContentBody implements AMQBody
 
     public ByteBuffer payload;
 
+    /**
+     * Slices of the network reads a received body spans, in order. Null once they are assembled into the payload.
+     */
+    private ByteBuffer[] _payloadFragments;
+
     public ContentBody()
     {
     }
@@ -51,6 +56,62 @@ public class ContentBody implements AMQBody
         this.payload = payload;
     }
 
+    /**
+     * Creates a body referring to the slices of the network reads it spans, without copying them. The payload is
+     * assembled from the slices only if it is asked for.
+     *
+     * @param payloadFragments slices holding the payload, in order
+     */
+    public ContentBody(ByteBuffer[] payloadFragments)
+    {
+        _payloadFragments = payloadFragments;
+    }
+
+    /**
+     * Gets the payload of the body, assembling it into a single buffer if the body spans network reads.
+     *
+     * @return the payload, or null if the body is empty
+     */
+    public ByteBuffer getPayload()
+    {
+        if (_payloadFragments != null)
+        {
+            ByteBuffer assembled = ByteBuffer.allocate(getSize());
+            for (ByteBuffer fragment : _payloadFragments)
+            {
+                assembled.put(fragment.duplicate());
+            }
+            assembled.flip();
+            payload = assembled;
+            _payloadFragments = null;
+        }
+        return payload;
+    }
+
+    /**
+     * Copies the payload into an array without assembling it first.
+     *
+     * @param destination array to copy the payload into
+     * @param offset      index of the array to copy the payload to
+     */
+    public void copyPayload(byte[] destination, int offset)
+    {
+        if (_payloadFragments != null)
+        {
+            int position = offset;
+            for (ByteBuffer fragment : _payloadFragments)
+            {
+                int length = fragment.limit();
+                fragment.duplicate().rewind().get(destination, position, length);
+                position += length;
+            }
+        }
+        else if (payload != null)
+        {
+            payload.duplicate().rewind().get(destination, offset, payload.limit());
+        }
+    }
+
     public byte getFrameType()
     {
         return TYPE;
@@ -58,12 +119,28 @@ public class ContentBody implements AMQBody
 
     public int getSize()
     {
+        if (_payloadFragments != null)
+        {
+            int size = 0;
+            for (ByteBuffer fragment : _payloadFragments)
+            {
+                size += fragment.limit();
+            }
+            return size;
+        }
         return (payload == null ? 0 : payload.limit());
     }
 
     public void writePayload(ByteBuffer buffer)
     {
-        if (payload != null)
+        if (_payloadFragments != null)
+        {
+            for (ByteBuffer fragment : _payloadFragments)
+            {
+                buffer.put(fragment.duplicate().rewind());
+            }
+        }
+        else if (payload != null)
         {
             if(payload.isDirect() || payload.isReadOnly())
             {            
@@ -96,6 +173,7 @@ public class ContentBody implements AMQBody
 
     public void reduceBufferToFit()
     {
+        getPayload();
         if (payload != null && (payload.remaining() < payload.capacity() / 2))
         {
             int size = payload.limit();
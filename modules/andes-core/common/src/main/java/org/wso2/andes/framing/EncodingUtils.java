@@ -242,6 +242,42 @@ public class EncodingUtils
         }
     }
 
+    /**
+     * Writes the decimal representation of a long as a short string without creating an intermediate string
+     */
+    public static void writeShortStringBytes(ByteBuffer buffer, long l)
+    {
+        if (l == Long.MIN_VALUE)
+        {
+            writeShortStringBytes(buffer, String.valueOf(l));
+            return;
+        }
+
+        int length = 1;
+        long divisor = 1;
+        long value = (l < 0) ? -l : l;
+        while (value / divisor >= 10)
+        {
+            divisor *= 10;
+            length++;
+        }
+
+        if (l < 0)
+        {
+            writeUnsignedByte(buffer, (short) (length + 1));
+            buffer.put((byte) '-');
+        }
+        else
+        {
+            writeUnsignedByte(buffer, (short) length);
+        }
+
+        for (; divisor > 0; divisor /= 10)
+        {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
     public static void writeShortStringBytes(ByteBuffer buffer, AMQShortString s)
     {
         if (s != null)
@@ -784,6 +784,47 @@ public class FieldTable
         putDataInBuffer(buffer);
     }
 
+    /**
+     * Writes the field table with an integer field appended, without adding the field to the table. The field must
+     * not already be present in the table.
+     *
+     * @param buffer buffer to write to
+     * @param name   name of the appended field
+     * @param value  value of the appended field
+     */
+    public void writeToBuffer(ByteBuffer buffer, AMQShortString name, int value)
+    {
+        EncodingUtils.writeUnsignedInteger(buffer, getEncodedSize() + encodedIntegerFieldLength(name));
+        putDataInBuffer(buffer);
+        writeIntegerField(buffer, name, value);
+    }
+
+    /**
+     * Encoded length of an integer field of a field table
+     *
+     * @param name name of the field
+     * @return encoded length in bytes
+     */
+    public static int encodedIntegerFieldLength(AMQShortString name)
+    {
+        return EncodingUtils.encodedShortStringLength(name) + 1 + EncodingUtils.encodedIntegerLength();
+    }
+
+    /**
+     * Writes an integer field of a field table in the same form as a field set through
+     * {@link #setInteger(AMQShortString, Integer)}
+     *
+     * @param buffer buffer to write to
+     * @param name   name of the field
+     * @param value  value of the field
+     */
+    public static void writeIntegerField(ByteBuffer buffer, AMQShortString name, int value)
+    {
+        EncodingUtils.writeShortStringBytes(buffer, name);
+        buffer.put(AMQType.INT.identifier());
+        buffer.putInt(value);
+    }
+
     public byte[] getDataAsBytes()
     {
         final int encodedSize = (int) getEncodedSize();
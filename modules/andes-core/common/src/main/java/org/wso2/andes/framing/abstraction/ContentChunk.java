@@ -28,5 +28,13 @@ public interface ContentChunk
     int getSize();
     ByteBuffer getData();
 
+    /**
+     * Copies the data of the chunk into an array, without assembling it into a single buffer first.
+     *
+     * @param destination array to copy the data into
+     * @param offset      index of the array to copy the data to
+     */
+    void copyData(byte[] destination, int offset);
+
     void reduceToFit();
 }
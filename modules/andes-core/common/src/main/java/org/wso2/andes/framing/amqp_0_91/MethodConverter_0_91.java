@@ -116,7 +116,12 @@ public class MethodConverter_0_91 extends AbstractMethodConverter implements Pro
 
         public ByteBuffer getData()
         {
-            return _contentBodyChunk.payload;
+            return _contentBodyChunk.getPayload();
+        }
+
+        public void copyData(byte[] destination, int offset)
+        {
+            _contentBodyChunk.copyPayload(destination, offset);
         }
 
         public void reduceToFit()
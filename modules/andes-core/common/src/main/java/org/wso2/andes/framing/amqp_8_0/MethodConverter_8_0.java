@@ -61,7 +61,12 @@ public class MethodConverter_8_0 extends AbstractMethodConverter implements Prot
 
             public ByteBuffer getData()
             {
-                return contentBodyChunk.payload;
+                return contentBodyChunk.getPayload();
+            }
+
+            public void copyData(byte[] destination, int offset)
+            {
+                contentBodyChunk.copyPayload(destination, offset);
             }
 
             public void reduceToFit()
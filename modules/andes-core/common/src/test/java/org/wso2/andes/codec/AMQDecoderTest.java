@@ -26,6 +26,8 @@ import org.wso2.andes.framing.*;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class AMQDecoderTest extends TestCase
 {
@@ -142,5 +144,98 @@ public class AMQDecoderTest extends TestCase
             }
         }
     }
-    
+
+    public void testDecodeToListener() throws AMQProtocolVersionException, AMQFrameDecodingException
+    {
+        ByteBuffer msgA = HeartbeatBody.FRAME.toNioByteBuffer();
+        ByteBuffer msgB = HeartbeatBody.FRAME.toNioByteBuffer();
+        ByteBuffer msg = ByteBuffer.allocate(msgA.remaining() + msgB.remaining());
+        msg.put(msgA);
+        msg.put(msgB);
+        msg.flip();
+        final List<AMQDataBlock> frames = new ArrayList<AMQDataBlock>();
+        _decoder.decodeBuffer(msg, new AMQDataBlockListener()
+        {
+            public void dataBlockDecoded(AMQDataBlock dataBlock)
+            {
+                frames.add(dataBlock);
+            }
+        });
+        assertEquals(2, frames.size());
+        assertEquals(0, _decoder.getBytesCopied());
+    }
+
+    public void testFrameSpanningManyReads() throws AMQProtocolVersionException, AMQFrameDecodingException
+    {
+        ByteBuffer msg = HeartbeatBody.FRAME.toNioByteBuffer();
+        int frameSize = msg.remaining();
+        for (int i = 0; i < frameSize - 1; i++)
+        {
+            ByteBuffer read = msg.slice();
+            read.limit(1);
+            msg.position(msg.position() + 1);
+            assertEquals(0, _decoder.decodeBuffer(read).size());
+        }
+        ArrayList<AMQDataBlock> frames = _decoder.decodeBuffer(msg);
+        assertEquals(1, frames.size());
+        assertEquals(HeartbeatBody.TYPE, ((AMQFrame) frames.get(0)).getBodyFrame().getFrameType());
+        assertEquals(frameSize, _decoder.getBytesCopied());
+    }
+
+    public void testContentBodySpanningReadsIsNotCopied() throws AMQProtocolVersionException, AMQFrameDecodingException
+    {
+        byte[] content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        ContentBody body = new ContentBody(org.wso2.org.apache.mina.common.ByteBuffer.wrap(content));
+        ByteBuffer msg = ContentBody.createAMQFrame(1, body).toNioByteBuffer();
+
+        List<AMQDataBlock> frames = new ArrayList<AMQDataBlock>();
+        int readSize = 10000;
+        while (msg.hasRemaining())
+        {
+            ByteBuffer read = msg.slice();
+            read.limit(Math.min(readSize, msg.remaining()));
+            msg.position(msg.position() + read.limit());
+            frames.addAll(_decoder.decodeBuffer(read));
+        }
+
+        assertEquals(1, frames.size());
+        assertEquals(0, _decoder.getBytesCopied());
+        AMQFrame frame = (AMQFrame) frames.get(0);
+        assertEquals(1, frame.getChannel());
+        ContentBody decodedBody = (ContentBody) frame.getBodyFrame();
+        assertEquals(content.length, decodedBody.getSize());
+
+        byte[] copied = new byte[content.length];
+        decodedBody.copyPayload(copied, 0);
+        assertTrue(Arrays.equals(content, copied));
+
+        byte[] assembled = new byte[content.length];
+        decodedBody.getPayload().get(assembled);
+        assertTrue(Arrays.equals(content, assembled));
+    }
+
+    public void testFramesAfterContentBodySpanningReads() throws AMQProtocolVersionException, AMQFrameDecodingException
+    {
+        ContentBody body = new ContentBody(org.wso2.org.apache.mina.common.ByteBuffer.wrap(new byte[100]));
+        ByteBuffer bodyFrame = ContentBody.createAMQFrame(1, body).toNioByteBuffer();
+        ByteBuffer heartbeat = HeartbeatBody.FRAME.toNioByteBuffer();
+
+        ByteBuffer msg = ByteBuffer.allocate(bodyFrame.remaining() + heartbeat.remaining());
+        msg.put(bodyFrame);
+        msg.put(heartbeat);
+        msg.flip();
+        ByteBuffer readA = msg.slice();
+        readA.limit(50);
+        msg.position(50);
+
+        assertEquals(0, _decoder.decodeBuffer(readA).size());
+        ArrayList<AMQDataBlock> frames = _decoder.decodeBuffer(msg);
+        assertEquals(2, frames.size());
+        assertEquals(100, ((ContentBody) ((AMQFrame) frames.get(0)).getBodyFrame()).getSize());
+        assertEquals(HeartbeatBody.TYPE, ((AMQFrame) frames.get(1)).getBodyFrame().getFrameType());
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.andes.framing;
+
+import junit.framework.TestCase;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test class for {@link AMQShortStringInternTable}
+ */
+public class AMQShortStringInternTableTest extends TestCase {
+
+    private static final int STRING_COUNT = 10000;
+
+    public void testSegmentIsRehashedAsItGrows() {
+        AMQShortStringInternTable table = new AMQShortStringInternTable(1);
+        List<AMQShortString> interned = new ArrayList<>();
+        for (int i = 0; i < STRING_COUNT; i++) {
+            interned.add(table.intern(new AMQShortString("queue-" + i)));
+        }
+
+        assertEquals(STRING_COUNT, table.size());
+        for (int i = 0; i < STRING_COUNT; i++) {
+            assertSame(interned.get(i), table.intern(new AMQShortString("queue-" + i)));
+        }
+    }
+
+    public void testCollectedStringsAreDropped() throws InterruptedException {
+        AMQShortStringInternTable table = new AMQShortStringInternTable(4);
+        for (int i = 0; i < STRING_COUNT; i++) {
+            table.intern(new AMQShortString("consumer-tag-" + i));
+        }
+
+        for (int i = 0; (i < 10) && (table.size() == STRING_COUNT); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(table.size() < STRING_COUNT);
+
+        AMQShortString interned = table.intern(new AMQShortString("consumer-tag-1"));
+        assertSame(interned, table.intern(new AMQShortString("consumer-tag-1")));
+    }
+
+    public void testMaximumLengthStringFromDirectBufferIsCopied() {
+        AMQShortStringInternTable table = new AMQShortStringInternTable(1);
+        AMQShortString longName = new AMQShortString(createString('a', AMQShortString.MAX_LENGTH));
+        AMQShortString otherName = new AMQShortString(createString('b', AMQShortString.MAX_LENGTH));
+
+        AMQShortString interned = table.intern(createDirectBuffer(longName), AMQShortString.MAX_LENGTH);
+        // The second lookup reuses the scratch space the first string was read into
+        AMQShortString otherInterned = table.intern(createDirectBuffer(otherName), AMQShortString.MAX_LENGTH);
+
+        assertEquals(longName, interned);
+        assertEquals(otherName, otherInterned);
+        assertSame(interned, table.intern(new AMQShortString(createString('a', AMQShortString.MAX_LENGTH))));
+    }
+
+    public void testConcurrentInterningReturnsSameInstances() throws Exception {
+        final AMQShortStringInternTable table = new AMQShortStringInternTable(8);
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<AMQShortString[]>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executorService.submit(new Callable<AMQShortString[]>() {
+                    @Override
+                    public AMQShortString[] call() {
+                        AMQShortString[] interned = new AMQShortString[STRING_COUNT];
+                        for (int i = 0; i < STRING_COUNT; i++) {
+                            interned[i] = table.intern(new AMQShortString("exchange-" + i));
+                        }
+                        return interned;
+                    }
+                }));
+            }
+
+            AMQShortString[] expected = results.get(0).get();
+            for (Future<AMQShortString[]> result : results) {
+                AMQShortString[] interned = result.get();
+                for (int i = 0; i < STRING_COUNT; i++) {
+                    assertSame(expected[i], interned[i]);
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static ByteBuffer createDirectBuffer(AMQShortString string) {
+        ByteBuffer buffer = ByteBuffer.allocate(string.length(), true);
+        buffer.put(string.getBytes());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String createString(char character, int length) {
+        char[] characters = new char[length];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+}
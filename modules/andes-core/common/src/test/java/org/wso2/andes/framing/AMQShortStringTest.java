@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.TestCase;
+import org.wso2.org.apache.mina.common.ByteBuffer;
+
 public class AMQShortStringTest extends TestCase
 {
 
@@ -300,6 +302,59 @@ public class AMQShortStringTest extends TestCase
         assertEquals("join result differs from expected", expected.toString(), result.asString());
     }
 
+    /**
+     * Tests that equal short strings are interned to the same compact instance.
+     */
+    public void testIntern()
+    {
+        AMQShortString interned = new AMQShortString("amq.direct").intern();
+        assertSame(interned, new AMQShortString("amq.direct").intern());
+        assertSame(interned, interned.intern());
+
+        AMQShortString substring = new AMQShortString("queue.name").tokenize((byte) '.').nextToken();
+        AMQShortString internedSubstring = substring.intern();
+        assertEquals(new AMQShortString("queue"), internedSubstring);
+        assertEquals(5, internedSubstring.getBytes().length);
+    }
+
+    /**
+     * Tests interning short strings straight from heap and direct decode buffers.
+     */
+    public void testReadInternedFromBuffer()
+    {
+        AMQShortString routingKey = new AMQShortString("interned.routing.key").intern();
+
+        for (boolean direct : new boolean[] { false, true })
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(64, direct);
+            routingKey.writeToBuffer(buffer);
+            buffer.put((byte) 0);
+            buffer.put((byte) 7);
+            buffer.flip();
+
+            assertSame(routingKey, AMQShortString.readInternedFromBuffer(buffer));
+            assertNull(AMQShortString.readInternedFromBuffer(buffer));
+            assertEquals(7, buffer.get());
+        }
+    }
+
+    /**
+     * Tests that a short string interned from a buffer does not change when the buffer is reused.
+     */
+    public void testReadInternedFromBufferCopiesContent()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(64, false);
+        new AMQShortString("not.yet.interned").writeToBuffer(buffer);
+        buffer.flip();
+
+        AMQShortString interned = AMQShortString.readInternedFromBuffer(buffer);
+        buffer.clear();
+        new AMQShortString("overwritten.name").writeToBuffer(buffer);
+
+        assertEquals(new AMQShortString("not.yet.interned"), interned);
+        assertSame(interned, new AMQShortString("not.yet.interned").intern());
+    }
+
     /**
      * A helper method to generate a string with given length containing given
      * character
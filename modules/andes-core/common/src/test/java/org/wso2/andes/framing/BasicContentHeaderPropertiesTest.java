@@ -82,6 +82,79 @@ public class BasicContentHeaderPropertiesTest extends TestCase
         _testProperties.writePropertyListPayload(buf);
     }
 
+    public void testWritePropertyListPayloadWithAppendedHeader()
+    {
+        AMQShortString headerName = new AMQShortString("JMS_QPID_DESTTYPE");
+        _testProperties.setExpiration(1476000000000L);
+        _testProperties.setPriority((byte) 4);
+        assertTrue(_testProperties.canAppendHeader(headerName));
+
+        BasicContentHeaderProperties expected = new BasicContentHeaderProperties();
+        FieldTable expectedTable = new FieldTable();
+        expectedTable.setString("TestString", _testString);
+        expectedTable.setInteger("Testint", _testint);
+        expectedTable.setInteger(headerName, 1);
+        expected.setHeaders(expectedTable);
+        expected.setExpiration(1476000000000L);
+        expected.setPriority((byte) 4);
+
+        assertEquals(expected.getPropertyFlags(), _testProperties.getPropertyFlagsWithHeaders());
+        assertEquals(expected.getPropertyListSize(), _testProperties.getPropertyListSize(headerName));
+        assertEquals(toBytes(expected, null, 0), toBytes(_testProperties, headerName, 1));
+        assertFalse(_testProperties.getHeaders().propertyExists(headerName));
+
+        assertFalse(expected.canAppendHeader(headerName));
+    }
+
+    public void testWritePropertyListPayloadWithHeaderAppendedToNoHeaders()
+    {
+        AMQShortString headerName = new AMQShortString("JMS_QPID_DESTTYPE");
+        BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+        properties.setDeliveryMode((byte) 2);
+
+        BasicContentHeaderProperties expected = new BasicContentHeaderProperties();
+        expected.getHeaders().setInteger(headerName, 2);
+        expected.setDeliveryMode((byte) 2);
+
+        assertEquals(expected.getPropertyFlags(), properties.getPropertyFlagsWithHeaders());
+        assertEquals(expected.getPropertyListSize(), properties.getPropertyListSize(headerName));
+        assertEquals(toBytes(expected, null, 0), toBytes(properties, headerName, 2));
+    }
+
+    public void testExpirationIsReadBack() throws Exception
+    {
+        long[] expirations = {7L, 1476000000000L, Long.MAX_VALUE};
+        for (long expiration : expirations)
+        {
+            BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+            properties.setExpiration(expiration);
+            ByteBuffer buf = ByteBuffer.allocate(300);
+            properties.writePropertyListPayload(buf);
+            assertEquals(properties.getPropertyListSize(), buf.position());
+            buf.flip();
+
+            BasicContentHeaderProperties readProperties = new BasicContentHeaderProperties();
+            readProperties.populatePropertiesFromBuffer(buf, properties.getPropertyFlags(), buf.limit());
+            assertEquals(expiration, readProperties.getExpiration());
+        }
+    }
+
+    private static String toBytes(BasicContentHeaderProperties properties, AMQShortString headerName,
+                                  int headerValue)
+    {
+        ByteBuffer buf = ByteBuffer.allocate(300);
+        if (headerName == null)
+        {
+            properties.writePropertyListPayload(buf);
+        }
+        else
+        {
+            properties.writePropertyListPayload(buf, headerName, headerValue);
+        }
+        buf.flip();
+        return buf.getHexDump();
+    }
+
     public void testPopulatePropertiesFromBuffer() throws Exception
     {
         ByteBuffer buf = ByteBuffer.allocate(300);
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.andes.management.common.mbeans;
+
+import org.wso2.andes.management.common.mbeans.annotations.MBeanAttribute;
+import org.wso2.andes.management.common.mbeans.annotations.MBeanOperation;
+
+import javax.management.MBeanOperationInfo;
+
+/**
+ * This is the interface for exposing the message latency recorded for sampled messages.
+ */
+public interface LatencyTracingInformation {
+
+    static final String TYPE = "LatencyTracingInformation";
+
+    /**
+     * Get the latency statistics of each stage of the message life cycle
+     *
+     * @return one entry per stage with the count, mean, percentiles and maximum in microseconds
+     */
+    @MBeanAttribute(name = "StageLatencies", description = "Latency of each message life cycle stage in microseconds")
+    String[] getStageLatencies();
+
+    /**
+     * Get the slowest traced messages with the latency of each stage
+     *
+     * @return one entry per trace, slowest first
+     */
+    @MBeanOperation(name = "dumpSlowestTraces", description = "Dump the slowest traced messages",
+                    impact = MBeanOperationInfo.INFO)
+    String[] dumpSlowestTraces();
+
+    /**
+     * Clear the recorded latency statistics and slowest traces
+     */
+    @MBeanOperation(name = "resetLatencyStatistics", description = "Clear recorded latency statistics",
+                    impact = MBeanOperationInfo.ACTION)
+    void resetLatencyStatistics();
+}